@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.connectionpool.impl;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.Lists;
+import com.netflix.astyanax.connectionpool.Host;
+import com.netflix.astyanax.connectionpool.HostConnectionPool;
+import com.netflix.astyanax.connectionpool.LatencyScoreStrategy;
+import com.netflix.astyanax.shallows.EmptyLatencyScoreStrategyImpl;
+import com.netflix.astyanax.test.TestClient;
+import com.netflix.astyanax.test.TestHostConnectionPool;
+
+/**
+ * Cost of {@link HostConnectionPoolPartition#refresh()}, which sorts and filters the 
+ * partition's pools by latency score, for replica sets of 3 up to 96 hosts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HostConnectionPoolPartitionBenchmark {
+    @Param({"EMPTY", "SMA"})
+    public String strategy;
+
+    @Param({"3", "12", "96"})
+    public int poolCount;
+
+    private HostConnectionPoolPartition<TestClient> partition;
+
+    @Setup
+    public void setup() {
+        LatencyScoreStrategy strategy = this.strategy.equals("SMA") 
+                ? new SmaLatencyScoreStrategyImpl(10000, 60000, 100, 2.0)
+                : new EmptyLatencyScoreStrategyImpl();
+
+        Random random = new Random(1);
+        List<HostConnectionPool<TestClient>> pools = Lists.newArrayList();
+        for (int i = 0; i < poolCount; i++) {
+            final double score = random.nextDouble();
+            pools.add(new TestHostConnectionPool(new Host("127.0." + (i / 256) + "." + (i % 256), 0)) {
+                @Override
+                public double getScore() {
+                    return score;
+                }
+            });
+        }
+
+        partition = new HostConnectionPoolPartition<TestClient>(strategy);
+        partition.setPools(pools);
+    }
+
+    @Benchmark
+    public List<HostConnectionPool<TestClient>> refresh() {
+        partition.refresh();
+        return partition.getPools();
+    }
+}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.connectionpool.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netflix.astyanax.connectionpool.Connection;
+import com.netflix.astyanax.connectionpool.Host;
+import com.netflix.astyanax.connectionpool.HostConnectionPool;
+import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
+import com.netflix.astyanax.shallows.EmptyConnectionPoolMonitor;
+import com.netflix.astyanax.shallows.EmptyPartitioner;
+import com.netflix.astyanax.test.TestClient;
+import com.netflix.astyanax.test.TestConnectionFactory;
+import com.netflix.astyanax.test.TestHostType;
+
+/**
+ * Borrow/return throughput of a single {@link SimpleHostConnectionPool} for each 
+ * {@link ConnectionBorrowStrategy} under 8, 32 and 128 threads.  Connections come 
+ * from the fake {@link TestConnectionFactory} so no server is needed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimpleHostConnectionPoolBenchmark {
+    private static final int BORROW_TIMEOUT = 10000;
+
+    @Param({"QUEUE", "THREAD_AFFINITY"})
+    public String strategy;
+
+    @Param({"32"})
+    public int maxConnsPerHost;
+
+    private ConnectionPoolConfigurationImpl config;
+    private SimpleHostConnectionPool<TestClient> pool;
+
+    @Setup
+    public void setup() throws Exception {
+        config = new ConnectionPoolConfigurationImpl("benchmark")
+            .setConnectionBorrowStrategy(ConnectionBorrowStrategy.valueOf(strategy))
+            .setMaxConnsPerHost(maxConnsPerHost)
+            .setMaxBlockedThreadsPerHost(Integer.MAX_VALUE)
+            .setPartitioner(new EmptyPartitioner());
+        config.initialize();
+
+        EmptyConnectionPoolMonitor monitor = EmptyConnectionPoolMonitor.getInstance();
+        pool = new SimpleHostConnectionPool<TestClient>(
+                new Host("127.0.0.1", TestHostType.GOOD_IMMEDIATE.ordinal()),
+                new TestConnectionFactory(config, monitor), monitor, config,
+                new SimpleHostConnectionPool.Listener<TestClient>() {
+                    @Override
+                    public void onHostDown(HostConnectionPool<TestClient> pool) {
+                    }
+
+                    @Override
+                    public void onHostUp(HostConnectionPool<TestClient> pool) {
+                    }
+                });
+        pool.primeConnections(maxConnsPerHost);
+    }
+
+    @TearDown
+    public void teardown() {
+        pool.shutdown();
+        config.shutdown();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Connection<TestClient> borrowAndReturn8() throws ConnectionException {
+        return borrowAndReturn();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Connection<TestClient> borrowAndReturn32() throws ConnectionException {
+        return borrowAndReturn();
+    }
+
+    @Benchmark
+    @Threads(128)
+    public Connection<TestClient> borrowAndReturn128() throws ConnectionException {
+        return borrowAndReturn();
+    }
+
+    private Connection<TestClient> borrowAndReturn() throws ConnectionException {
+        Connection<TestClient> connection = pool.borrowConnection(BORROW_TIMEOUT);
+        pool.returnConnection(connection);
+        return connection;
+    }
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.connectionpool.impl;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.Lists;
+import com.netflix.astyanax.connectionpool.Host;
+import com.netflix.astyanax.connectionpool.HostConnectionPool;
+import com.netflix.astyanax.partitioner.BigInteger127Partitioner;
+import com.netflix.astyanax.partitioner.Murmur3Partitioner;
+import com.netflix.astyanax.partitioner.Partitioner;
+import com.netflix.astyanax.shallows.EmptyLatencyScoreStrategyImpl;
+import com.netflix.astyanax.test.TestClient;
+import com.netflix.astyanax.test.TestHostConnectionPool;
+import com.netflix.astyanax.test.TestTokenRange;
+
+/**
+ * Row key to partition lookup in {@link TokenPartitionedTopology} for the Murmur3 and 
+ * random partitioners over rings of 6, 48 and 384 hosts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenPartitionedTopologyBenchmark {
+    private static final int KEY_COUNT = 1024;
+
+    @Param({"Murmur3", "BigInteger127"})
+    public String partitioner;
+
+    @Param({"6", "48", "384"})
+    public int hostCount;
+
+    private TokenPartitionedTopology<TestClient> topology;
+    private List<ByteBuffer> keys;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Partitioner partitioner;
+        BigInteger minToken;
+        BigInteger maxToken;
+        if (this.partitioner.equals("Murmur3")) {
+            partitioner = Murmur3Partitioner.get();
+            minToken    = Murmur3Partitioner.MINIMUM;
+            maxToken    = Murmur3Partitioner.MAXIMUM;
+        }
+        else {
+            partitioner = BigInteger127Partitioner.get();
+            minToken    = BigInteger127Partitioner.MINIMUM;
+            maxToken    = BigInteger127Partitioner.MAXIMUM;
+        }
+
+        topology = new TokenPartitionedTopology<TestClient>(partitioner, new EmptyLatencyScoreStrategyImpl());
+        List<HostConnectionPool<TestClient>> pools = Lists.newArrayList();
+        for (Host host : TestTokenRange.makeRing(hostCount, 3, 1, minToken, maxToken)) {
+            pools.add(new TestHostConnectionPool(host));
+        }
+        topology.setPools(pools);
+
+        Random random = new Random(1);
+        keys = Lists.newArrayListWithCapacity(KEY_COUNT);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            byte[] key = new byte[16];
+            random.nextBytes(key);
+            keys.add(ByteBuffer.wrap(key));
+        }
+    }
+
+    @Benchmark
+    public TokenHostConnectionPoolPartition<TestClient> getPartition() {
+        next = (next + 1) & (KEY_COUNT - 1);
+        return topology.getPartition(keys.get(next).duplicate());
+    }
+
+    /**
+     * Grouping of a 1024 key multiget as done for token aware key slices
+     */
+    @Benchmark
+    public Map<TokenHostConnectionPoolPartition<TestClient>, List<ByteBuffer>> groupByPartition() {
+        return topology.groupByPartition(keys);
+    }
+}
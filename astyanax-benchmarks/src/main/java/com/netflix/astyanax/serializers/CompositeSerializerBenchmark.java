@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.serializers;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netflix.astyanax.model.Composite;
+import com.netflix.astyanax.test.TestCompositeType;
+
+/**
+ * Encode and decode cost of a five component composite through the reflection based
+ * {@link AnnotatedCompositeSerializer} and the untyped {@link CompositeSerializer}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompositeSerializerBenchmark {
+    private AnnotatedCompositeSerializer<TestCompositeType> annotatedSerializer;
+    private TestCompositeType annotatedValue;
+    private ByteBuffer annotatedBytes;
+
+    private CompositeSerializer compositeSerializer;
+    private ByteBuffer compositeBytes;
+
+    @Setup
+    public void setup() {
+        annotatedSerializer = new AnnotatedCompositeSerializer<TestCompositeType>(TestCompositeType.class);
+        annotatedValue      = new TestCompositeType("stringPart", 123, 456, true, "utf8StringPart");
+        annotatedBytes      = annotatedSerializer.toByteBuffer(annotatedValue);
+
+        compositeSerializer = CompositeSerializer.get();
+        compositeBytes      = compositeSerializer.toByteBuffer(newComposite());
+    }
+
+    @Benchmark
+    public ByteBuffer annotatedToByteBuffer() {
+        return annotatedSerializer.toByteBuffer(annotatedValue);
+    }
+
+    @Benchmark
+    public TestCompositeType annotatedFromByteBuffer() {
+        return annotatedSerializer.fromByteBuffer(annotatedBytes.duplicate());
+    }
+
+    /**
+     * A Composite caches its serialized form so a new one is built for each call
+     */
+    @Benchmark
+    public ByteBuffer compositeToByteBuffer() {
+        return compositeSerializer.toByteBuffer(newComposite());
+    }
+
+    private static Composite newComposite() {
+        return new Composite("stringPart", 123L, 456L, true, "utf8StringPart");
+    }
+
+    @Benchmark
+    public Composite compositeFromByteBuffer() {
+        return compositeSerializer.fromByteBuffer(compositeBytes.duplicate());
+    }
+}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.serializers;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netflix.astyanax.Serializer;
+import com.netflix.astyanax.util.TimeUUIDUtils;
+
+/**
+ * Encode and decode cost of the primitive serializers for a single representative value.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+    @Param({"String", "Ascii", "Long", "Integer", "Short", "Double", "Float", "Boolean", 
+            "UUID", "TimeUUID", "Date", "BytesArray", "ByteBuffer"})
+    public String type;
+
+    private Serializer<Object> serializer;
+    private Object value;
+    private ByteBuffer bytes;
+
+    @Setup
+    public void setup() {
+        if (type.equals("String")) {
+            use(StringSerializer.get(), "benchmark-column-name-é");
+        }
+        else if (type.equals("Ascii")) {
+            use(AsciiSerializer.get(), "benchmark-column-name");
+        }
+        else if (type.equals("Long")) {
+            use(LongSerializer.get(), 1234567890123L);
+        }
+        else if (type.equals("Integer")) {
+            use(IntegerSerializer.get(), 1234567);
+        }
+        else if (type.equals("Short")) {
+            use(ShortSerializer.get(), (short)1234);
+        }
+        else if (type.equals("Double")) {
+            use(DoubleSerializer.get(), 1234.5678);
+        }
+        else if (type.equals("Float")) {
+            use(FloatSerializer.get(), 1234.5678f);
+        }
+        else if (type.equals("Boolean")) {
+            use(BooleanSerializer.get(), true);
+        }
+        else if (type.equals("UUID")) {
+            use(UUIDSerializer.get(), UUID.randomUUID());
+        }
+        else if (type.equals("TimeUUID")) {
+            use(TimeUUIDSerializer.get(), TimeUUIDUtils.getUniqueTimeUUIDinMicros());
+        }
+        else if (type.equals("Date")) {
+            use(DateSerializer.get(), new Date());
+        }
+        else if (type.equals("BytesArray")) {
+            use(BytesArraySerializer.get(), new byte[64]);
+        }
+        else if (type.equals("ByteBuffer")) {
+            use(ByteBufferSerializer.get(), ByteBuffer.allocate(64));
+        }
+        else {
+            throw new IllegalArgumentException("Unknown serializer " + type);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void use(Serializer<T> serializer, T value) {
+        this.serializer = (Serializer<Object>) serializer;
+        this.value      = value;
+        this.bytes      = serializer.toByteBuffer(value);
+    }
+
+    @Benchmark
+    public ByteBuffer toByteBuffer() {
+        return serializer.toByteBuffer(value);
+    }
+
+    @Benchmark
+    public Object fromByteBuffer() {
+        return serializer.fromByteBuffer(bytes.duplicate());
+    }
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.thrift;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netflix.astyanax.ColumnListMutation;
+import com.netflix.astyanax.MutationBatch;
+import com.netflix.astyanax.impl.AstyanaxConfigurationImpl;
+import com.netflix.astyanax.model.ColumnFamily;
+import com.netflix.astyanax.serializers.LongSerializer;
+import com.netflix.astyanax.serializers.StringSerializer;
+import com.netflix.astyanax.shallows.EmptyKeyspaceTracerFactory;
+
+/**
+ * Building a Thrift mutation batch and serializing it to the batch_mutate wire format.
+ * Batches are never executed so the keyspace doesn't need a connection pool.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MutationBatchBenchmark {
+    private static final ColumnFamily<Long, String> CF = ColumnFamily.newColumnFamily(
+            "Benchmark", LongSerializer.get(), StringSerializer.get());
+
+    @Param({"1", "100"})
+    public int rowCount;
+
+    @Param({"10"})
+    public int columnCount;
+
+    private ThriftKeyspaceImpl keyspace;
+    private String[] columnNames;
+    private MutationBatch batch;
+
+    @Setup
+    public void setup() throws Exception {
+        keyspace = new ThriftKeyspaceImpl("benchmark", null, new AstyanaxConfigurationImpl(), 
+                EmptyKeyspaceTracerFactory.getInstance());
+        columnNames = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columnNames[i] = "column-" + i;
+        }
+        batch = build();
+    }
+
+    private MutationBatch build() {
+        MutationBatch batch = keyspace.prepareMutationBatch();
+        for (long row = 0; row < rowCount; row++) {
+            ColumnListMutation<String> mutation = batch.withRow(CF, row);
+            for (String column : columnNames) {
+                mutation.putColumn(column, "value-" + column);
+            }
+        }
+        return batch;
+    }
+
+    @Benchmark
+    public MutationBatch buildBatch() {
+        return build();
+    }
+
+    @Benchmark
+    public ByteBuffer serialize() throws Exception {
+        return batch.serialize();
+    }
+}
@@ -0,0 +1,13 @@
+package com.netflix.astyanax;
+
+/**
+ * Implemented by operations that know which {@link CassandraOperationType} they 
+ * perform so the connection pool can apply per type behavior, such as speculative
+ * execution.
+ */
+public interface CassandraOperation {
+    /**
+     * @return Type of the operation or null if unknown
+     */
+    CassandraOperationType getOperationType();
+}
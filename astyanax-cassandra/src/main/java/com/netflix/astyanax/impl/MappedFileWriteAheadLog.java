@@ -0,0 +1,588 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.impl;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.netflix.astyanax.MutationBatch;
+import com.netflix.astyanax.WriteAheadEntry;
+import com.netflix.astyanax.WriteAheadLog;
+import com.netflix.astyanax.connectionpool.exceptions.WalException;
+
+/**
+ * Write ahead log kept in a directory of fixed size, memory mapped segment files.
+ * 
+ * Entries hold the mutation as serialized by {@link MutationBatch#serialize()} and
+ * are appended to the active segment.  writeMutation() returns once the entry has
+ * been forced to disk.  Writers that arrive while another writer is forcing the
+ * segment wait for it and share the next force (group commit), and an optional
+ * group commit window delays each force to let more writers join.
+ * 
+ * Removing an entry appends a remove record, which is not forced on its own.  After
+ * a crash an entry whose remove record was lost is replayed again, which is safe since
+ * the serialized mutation keeps its timestamps.  Once every entry in the oldest segment
+ * has been removed the segment is recycled as the file for a later segment.
+ * 
+ * On start up all segments are scanned and entries that were not removed are returned
+ * by readNextEntry().  Each record carries a CRC of its segment id and content so a
+ * scan stops at a torn write or at data left over from the file's previous use.
+ */
+public class MappedFileWriteAheadLog implements WriteAheadLog {
+    private static final Logger LOG = LoggerFactory.getLogger(MappedFileWriteAheadLog.class);
+
+    public static final int  DEFAULT_SEGMENT_SIZE      = 32 * 1024 * 1024;
+    public static final int  DEFAULT_MAX_FREE_SEGMENTS = 2;
+
+    private static final int    SEGMENT_MAGIC       = 0x57414c31;
+    private static final int    SEGMENT_HEADER_SIZE = 12;   // magic + segment id
+    private static final int    RECORD_HEADER_SIZE  = 17;   // length + type + entry id + crc
+    private static final byte   RECORD_ENTRY        = 1;
+    private static final byte   RECORD_REMOVE       = 2;
+    private static final String SEGMENT_PREFIX      = "wal-";
+    private static final String SEGMENT_SUFFIX      = ".log";
+
+    public static class Builder {
+        private File directory;
+        private int  segmentSize       = DEFAULT_SEGMENT_SIZE;
+        private int  maxFreeSegments   = DEFAULT_MAX_FREE_SEGMENTS;
+        private long groupCommitWindow = 0;
+
+        /**
+         * Directory holding the segment files.  Created if it does not exist.
+         */
+        public Builder withDirectory(File directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * Size of each segment file.  A single mutation must fit in one segment.
+         */
+        public Builder withSegmentSize(int segmentSize) {
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * Number of fully removed segments kept to be reused instead of deleted
+         */
+        public Builder withMaxFreeSegments(int maxFreeSegments) {
+            this.maxFreeSegments = maxFreeSegments;
+            return this;
+        }
+
+        /**
+         * Time to wait before forcing a segment so that more concurrent writers are
+         * covered by the same force.  Adds up to this much latency to each write.
+         */
+        public Builder withGroupCommitWindow(long window, TimeUnit units) {
+            this.groupCommitWindow = TimeUnit.NANOSECONDS.convert(window, units);
+            return this;
+        }
+
+        public MappedFileWriteAheadLog build() throws WalException {
+            Preconditions.checkNotNull(directory, "Must specify directory");
+            Preconditions.checkArgument(segmentSize > SEGMENT_HEADER_SIZE + RECORD_HEADER_SIZE, "segmentSize is too small");
+            Preconditions.checkArgument(maxFreeSegments >= 0, "maxFreeSegments must be >= 0");
+            return new MappedFileWriteAheadLog(this);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static class Segment {
+        private final long             id;
+        private final File             file;
+        private final MappedByteBuffer buffer;
+        private volatile int           writePosition = SEGMENT_HEADER_SIZE;
+        private int                    syncedPosition = SEGMENT_HEADER_SIZE;  // guarded by the segment
+        private boolean                syncing = false;                       // guarded by the segment
+        private int                    liveCount = 0;                         // guarded by the log
+
+        Segment(long id, File file, MappedByteBuffer buffer) {
+            this.id     = id;
+            this.file   = file;
+            this.buffer = buffer;
+        }
+    }
+
+    private class MappedEntry implements WriteAheadEntry {
+        private final long id;
+        private Segment    segment;     // guarded by the log
+        private int        offset;
+        private int        length;
+        private boolean    removed = false;
+
+        MappedEntry(long id) {
+            this.id = id;
+        }
+
+        @Override
+        public void readMutation(MutationBatch mutation) throws WalException {
+            Segment segment;
+            synchronized (MappedFileWriteAheadLog.this) {
+                segment = this.segment;
+            }
+            if (segment == null)
+                throw new WalException("No mutation was written to entry " + id);
+
+            // Copy into a heap buffer since deserialize() expects a backing array
+            byte[] data = new byte[length];
+            ByteBuffer source = segment.buffer.duplicate();
+            source.position(offset);
+            source.get(data);
+            try {
+                mutation.deserialize(ByteBuffer.wrap(data));
+            }
+            catch (Exception e) {
+                throw new WalException("Failed to deserialize entry " + id, e);
+            }
+        }
+
+        @Override
+        public void writeMutation(MutationBatch mutation) throws WalException {
+            append(this, mutation);
+        }
+    }
+
+    private final File    directory;
+    private final int     segmentSize;
+    private final int     maxFreeSegments;
+    private final long    groupCommitWindow;
+
+    private final LinkedList<Segment>               segments     = Lists.newLinkedList();
+    private final LinkedList<Segment>               freeSegments = Lists.newLinkedList();
+    private final ConcurrentLinkedQueue<MappedEntry> pending     = new ConcurrentLinkedQueue<MappedEntry>();
+    private Segment active;
+    private long    nextSegmentId = 0;
+    private long    nextEntryId   = 0;
+    private boolean closed        = false;
+
+    private MappedFileWriteAheadLog(Builder builder) throws WalException {
+        this.directory         = builder.directory;
+        this.segmentSize       = builder.segmentSize;
+        this.maxFreeSegments   = builder.maxFreeSegments;
+        this.groupCommitWindow = builder.groupCommitWindow;
+
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new WalException("Unable to create WAL directory " + directory);
+
+        synchronized (this) {
+            recover();
+            active = newSegment();
+            segments.add(active);
+            recycleSegments();
+        }
+    }
+
+    @Override
+    public WriteAheadEntry createEntry() throws WalException {
+        synchronized (this) {
+            if (closed)
+                throw new WalException("WAL is closed");
+            return new MappedEntry(++nextEntryId);
+        }
+    }
+
+    @Override
+    public void removeEntry(WriteAheadEntry walEntry) {
+        MappedEntry entry = (MappedEntry) walEntry;
+        synchronized (this) {
+            if (entry.segment == null || entry.removed)
+                return;
+            entry.removed = true;
+
+            if (!closed) {
+                try {
+                    Segment segment = reserve(RECORD_HEADER_SIZE);
+                    writeRecord(segment, RECORD_REMOVE, entry.id, null);
+                }
+                catch (WalException e) {
+                    LOG.warn("Failed to write remove record for entry " + entry.id + ". Entry will be replayed on restart", e);
+                }
+            }
+
+            entry.segment.liveCount--;
+            recycleSegments();
+        }
+    }
+
+    @Override
+    public WriteAheadEntry readNextEntry() {
+        return pending.poll();
+    }
+
+    @Override
+    public void retryEntry(WriteAheadEntry entry) {
+        pending.add((MappedEntry) entry);
+    }
+
+    /**
+     * Force the active segment to disk.  Entries may no longer be written but entries
+     * that were already written may still be read and removed.
+     */
+    public void close() {
+        Segment segment;
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+            segment = active;
+        }
+        segment.buffer.force();
+    }
+
+    /**
+     * @return Number of segments holding entries, including the active segment
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * @return Number of segments kept for reuse
+     */
+    public synchronized int getFreeSegmentCount() {
+        return freeSegments.size();
+    }
+
+    private void append(MappedEntry entry, MutationBatch mutation) throws WalException {
+        ByteBuffer data;
+        try {
+            data = mutation.serialize();
+        }
+        catch (Exception e) {
+            throw new WalException("Failed to serialize mutation", e);
+        }
+
+        int size = RECORD_HEADER_SIZE + data.remaining();
+        if (size > segmentSize - SEGMENT_HEADER_SIZE)
+            throw new WalException("Mutation of " + data.remaining() + " bytes does not fit in a segment of " + segmentSize + " bytes");
+
+        Segment segment;
+        int end;
+        synchronized (this) {
+            if (closed)
+                throw new WalException("WAL is closed");
+            if (entry.segment != null)
+                throw new WalException("Mutation already written to entry " + entry.id);
+
+            segment = reserve(size);
+            entry.offset  = segment.writePosition + RECORD_HEADER_SIZE;
+            entry.length  = data.remaining();
+            writeRecord(segment, RECORD_ENTRY, entry.id, data);
+            entry.segment = segment;
+            segment.liveCount++;
+            end = segment.writePosition;
+        }
+
+        sync(segment, end);
+    }
+
+    /**
+     * Force the segment up to at least the position.  Only one thread forces a segment
+     * at a time and covers everything written before it started, so writers waiting
+     * behind it are usually done once it finishes.
+     */
+    private void sync(Segment segment, int position) throws WalException {
+        synchronized (segment) {
+            while (segment.syncing && segment.syncedPosition < position) {
+                try {
+                    segment.wait();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new WalException("Interrupted waiting for WAL sync", e);
+                }
+            }
+            if (segment.syncedPosition >= position)
+                return;
+            segment.syncing = true;
+        }
+
+        try {
+            if (groupCommitWindow > 0)
+                LockSupport.parkNanos(groupCommitWindow);
+            int target = segment.writePosition;
+            segment.buffer.force();
+            synchronized (segment) {
+                segment.syncedPosition = Math.max(segment.syncedPosition, target);
+            }
+        }
+        finally {
+            synchronized (segment) {
+                segment.syncing = false;
+                segment.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * @return The active segment, after moving to a new one if the record doesn't fit
+     */
+    private Segment reserve(int size) throws WalException {
+        if (active.writePosition + size > active.buffer.capacity()) {
+            Segment previous = active;
+            previous.buffer.force();
+            synchronized (previous) {
+                previous.syncedPosition = previous.writePosition;
+                previous.notifyAll();
+            }
+            active = newSegment();
+            segments.add(active);
+            recycleSegments();
+        }
+        return active;
+    }
+
+    private void writeRecord(Segment segment, byte type, long entryId, ByteBuffer data) {
+        int length = (data == null) ? 0 : data.remaining();
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        header.putInt(length).put(type).putLong(entryId);
+        int crc = crc(segment.id, header, data);
+        header.putInt(crc);
+        header.flip();
+
+        ByteBuffer target = segment.buffer.duplicate();
+        target.position(segment.writePosition);
+        target.put(header);
+        if (data != null)
+            target.put(data.duplicate());
+        segment.writePosition = target.position();
+    }
+
+    /**
+     * CRC of the segment id, the first 13 bytes of the record header and the data
+     */
+    private static int crc(long segmentId, ByteBuffer header, ByteBuffer data) {
+        CRC32 crc = new CRC32();
+        ByteBuffer id = ByteBuffer.allocate(8);
+        id.putLong(segmentId);
+        crc.update(id.array());
+        crc.update(header.array(), header.arrayOffset(), RECORD_HEADER_SIZE - 4);
+        if (data != null && data.remaining() > 0) {
+            if (data.hasArray()) {
+                crc.update(data.array(), data.arrayOffset() + data.position(), data.remaining());
+            }
+            else {
+                byte[] bytes = new byte[data.remaining()];
+                data.duplicate().get(bytes);
+                crc.update(bytes);
+            }
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Return fully removed segments from the head of the log to the free list.  Segments
+     * are only recycled in order so a segment's entries are always gone before the remove
+     * records for them, which are in later segments.
+     */
+    private void recycleSegments() {
+        while (segments.size() > 1 && segments.getFirst().liveCount == 0) {
+            Segment segment = segments.removeFirst();
+
+            // Invalidate the header so a scan after a crash skips the old entries
+            segment.buffer.putInt(0, 0);
+
+            if (freeSegments.size() < maxFreeSegments && segment.buffer.capacity() == segmentSize) {
+                freeSegments.add(segment);
+            }
+            else if (!segment.file.delete()) {
+                LOG.warn("Failed to delete WAL segment " + segment.file);
+            }
+        }
+    }
+
+    private Segment newSegment() throws WalException {
+        long id = nextSegmentId++;
+        File file = new File(directory, SEGMENT_PREFIX + id + SEGMENT_SUFFIX);
+
+        MappedByteBuffer buffer;
+        Segment free = freeSegments.poll();
+        if (free != null) {
+            // The mapping follows the file across the rename
+            if (!free.file.renameTo(file))
+                throw new WalException("Failed to rename WAL segment " + free.file + " to " + file);
+            buffer = free.buffer;
+        }
+        else {
+            buffer = map(file, segmentSize);
+        }
+
+        buffer.putInt(0, SEGMENT_MAGIC);
+        buffer.putLong(4, id);
+        buffer.force();
+        return new Segment(id, file, buffer);
+    }
+
+    private static MappedByteBuffer map(File file, int size) throws WalException {
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "rw");
+            if (size > 0)
+                raf.setLength(size);
+            return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, raf.length());
+        }
+        catch (IOException e) {
+            throw new WalException("Failed to map WAL segment " + file, e);
+        }
+        finally {
+            if (raf != null) {
+                try {
+                    raf.close();
+                }
+                catch (IOException e) {
+                    LOG.warn("Failed to close WAL segment " + file, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Scan existing segments in order and queue the entries that were not removed
+     */
+    private void recover() throws WalException {
+        File[] files = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return parseSegmentId(name) >= 0;
+            }
+        });
+        if (files == null)
+            throw new WalException("Unable to list WAL directory " + directory);
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File o1, File o2) {
+                long diff = parseSegmentId(o1.getName()) - parseSegmentId(o2.getName());
+                return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+            }
+        });
+
+        Map<Long, MappedEntry> live = Maps.newLinkedHashMap();
+        for (File file : files) {
+            long id = parseSegmentId(file.getName());
+            nextSegmentId = Math.max(nextSegmentId, id + 1);
+
+            MappedByteBuffer buffer = map(file, 0);
+            if (buffer.capacity() < SEGMENT_HEADER_SIZE || buffer.getInt(0) != SEGMENT_MAGIC || buffer.getLong(4) != id) {
+                // Recycled or never initialized
+                if (buffer.capacity() == segmentSize && freeSegments.size() < maxFreeSegments) {
+                    freeSegments.add(new Segment(id, file, buffer));
+                }
+                else if (!file.delete()) {
+                    LOG.warn("Failed to delete WAL segment " + file);
+                }
+                continue;
+            }
+
+            Segment segment = new Segment(id, file, buffer);
+            int position = SEGMENT_HEADER_SIZE;
+            while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+                ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+                ByteBuffer source = buffer.duplicate();
+                source.position(position);
+                source.limit(position + RECORD_HEADER_SIZE);
+                header.put(source);
+
+                int  length  = header.getInt(0);
+                byte type    = header.get(4);
+                long entryId = header.getLong(5);
+                if (length < 0 || length > buffer.capacity() - position - RECORD_HEADER_SIZE
+                        || (type != RECORD_ENTRY && type != RECORD_REMOVE))
+                    break;
+
+                ByteBuffer data = buffer.duplicate();
+                data.position(position + RECORD_HEADER_SIZE);
+                data.limit(position + RECORD_HEADER_SIZE + length);
+                if (crc(id, header, data) != header.getInt(13))
+                    break;
+
+                if (type == RECORD_ENTRY) {
+                    MappedEntry entry = new MappedEntry(entryId);
+                    entry.segment = segment;
+                    entry.offset  = position + RECORD_HEADER_SIZE;
+                    entry.length  = length;
+                    live.put(entryId, entry);
+                    segment.liveCount++;
+                }
+                else {
+                    MappedEntry entry = live.remove(entryId);
+                    if (entry != null) {
+                        entry.removed = true;
+                        entry.segment.liveCount--;
+                    }
+                }
+                nextEntryId = Math.max(nextEntryId, entryId);
+                position += RECORD_HEADER_SIZE + length;
+            }
+
+            segment.writePosition  = position;
+            segment.syncedPosition = position;
+            segments.add(segment);
+        }
+
+        if (!live.isEmpty())
+            LOG.info("Recovered " + live.size() + " entries from WAL " + directory);
+        pending.addAll(live.values());
+    }
+
+    private static long parseSegmentId(String name) {
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX))
+            return -1;
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        }
+        catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder()
+            .append("MappedFileWriteAheadLog[")
+            .append("directory=").append(directory)
+            .append(",segmentSize=").append(segmentSize)
+            .append(",segments=").append(getSegmentCount())
+            .append(",pending=").append(pending.size())
+            .append("]")
+            .toString();
+    }
+}
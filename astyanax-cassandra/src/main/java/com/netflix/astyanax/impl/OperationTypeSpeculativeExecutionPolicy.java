@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.impl;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.google.common.base.Preconditions;
+import com.netflix.astyanax.CassandraOperation;
+import com.netflix.astyanax.CassandraOperationCategory;
+import com.netflix.astyanax.CassandraOperationType;
+import com.netflix.astyanax.connectionpool.Operation;
+import com.netflix.astyanax.connectionpool.impl.PercentileSpeculativeExecutionPolicy;
+
+/**
+ * Speculative execution for the listed {@link CassandraOperationType}s.  Only read
+ * operations may be listed since a write sent to two hosts would be applied twice.
+ * 
+ * <pre>
+ * new ConnectionPoolConfigurationImpl("MyConnectionPool")
+ *     .setLatencyScoreStrategy(new SmaLatencyScoreStrategyImpl(...))
+ *     .setSpeculativeExecutionPolicy(new OperationTypeSpeculativeExecutionPolicy(0.99, 5, 100,
+ *          CassandraOperationType.GET_ROW, CassandraOperationType.GET_COLUMN));
+ * </pre>
+ */
+public class OperationTypeSpeculativeExecutionPolicy extends PercentileSpeculativeExecutionPolicy {
+    private final Set<CassandraOperationType> types;
+
+    /**
+     * @param percentile    Latency percentile between 0 and 1, e.g. 0.99
+     * @param minDelay      Lower bound for the delay, in milliseconds
+     * @param maxDelay      Upper bound for the delay, in milliseconds
+     * @param types         Operation types to execute speculatively
+     */
+    public OperationTypeSpeculativeExecutionPolicy(double percentile, long minDelay, long maxDelay, CassandraOperationType... types) {
+        super(percentile, minDelay, maxDelay);
+        Preconditions.checkArgument(types.length > 0, "No operation types given");
+        for (CassandraOperationType type : types) {
+            Preconditions.checkArgument(type.getCategory() == CassandraOperationCategory.READ, 
+                    "Operation type %s is not a read", type);
+        }
+        this.types = EnumSet.copyOf(Arrays.asList(types));
+    }
+
+    @Override
+    public boolean isSpeculative(Operation<?, ?> operation) {
+        if (operation instanceof CassandraOperation) {
+            CassandraOperationType type = ((CassandraOperation) operation).getOperationType();
+            return type != null && types.contains(type);
+        }
+        return false;
+    }
+
+    public Set<CassandraOperationType> getOperationTypes() {
+        return types;
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + types;
+    }
+}
@@ -22,6 +22,7 @@ import com.netflix.astyanax.serializers.AsciiSerializer;
 import com.netflix.astyanax.serializers.BigIntegerSerializer;
 import com.netflix.astyanax.serializers.BooleanSerializer;
 import com.netflix.astyanax.serializers.ByteBufferOutputStream;
+import com.netflix.astyanax.serializers.ByteBufferPool;
 import com.netflix.astyanax.serializers.ByteBufferSerializer;
 import com.netflix.astyanax.serializers.ComparatorType;
 import com.netflix.astyanax.serializers.IntegerSerializer;
@@ -629,7 +630,7 @@ public abstract class AbstractComposite extends AbstractList<Object> implements
             return serialized.duplicate();
         }
 
-        ByteBufferOutputStream out = new ByteBufferOutputStream();
+        ByteBufferOutputStream out = new ByteBufferOutputStream(ByteBufferPool.getDefault());
 
         int i = 0;
         for (Component c : components) {
@@ -56,6 +56,12 @@ public class BOP20Partitioner implements Partitioner {
         return new String(Hex.encodeHexString(key.duplicate().array()));
     }
 
+    @Override
+    public boolean getTokenForKey(ByteBuffer key, long[] token) {
+        // 160 bit tokens
+        return false;
+    }
+
     @Override
     public String getTokenMinusOne(String token) {
         if (token.equals("0") || token.equals(MINIMUM))
@@ -2,11 +2,14 @@ package com.netflix.astyanax.partitioner;
 
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
 import org.apache.cassandra.dht.RandomPartitioner;
+import org.apache.cassandra.utils.FBUtilities;
 
 import com.google.common.collect.Lists;
 import com.netflix.astyanax.Serializer;
@@ -22,6 +25,13 @@ public class BigInteger127Partitioner implements Partitioner {
     private static final RandomPartitioner partitioner = new RandomPartitioner();
     private static final BigInteger127Partitioner instance = new BigInteger127Partitioner();
     
+    private static final ThreadLocal<byte[]> digestBuffer = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[16];
+        }
+    };
+    
     public static Partitioner get() {
         return instance;
     }
@@ -69,6 +79,50 @@ public class BigInteger127Partitioner implements Partitioner {
         return partitioner.getToken(key).toString();
     }
     
+    @Override
+    public boolean getTokenForKey(ByteBuffer key, long[] token) {
+        if (key.remaining() == 0) {
+            // Same as RandomPartitioner.MINIMUM
+            token[0] = -1;
+            token[1] = -1;
+            return true;
+        }
+        
+        // Same as FBUtilities.hashToBigInteger(key) but without the BigInteger
+        byte[] digest = digestBuffer.get();
+        MessageDigest md = FBUtilities.threadLocalMD5Digest();
+        if (key.hasArray()) {
+            md.update(key.array(), key.arrayOffset() + key.position(), key.remaining());
+        }
+        else {
+            md.update(key.duplicate());
+        }
+        try {
+            md.digest(digest, 0, digest.length);
+        } catch (DigestException e) {
+            return false;
+        }
+        
+        long high = 0;
+        long low  = 0;
+        for (int i = 0; i < 8; i++) {
+            high = (high << 8) | (digest[i]     & 0xFF);
+            low  = (low  << 8) | (digest[i + 8] & 0xFF);
+        }
+        
+        // abs() of the two's complement value
+        if (high < 0) {
+            low  = -low;
+            high = ~high + (low == 0 ? 1 : 0);
+            // abs(-2^127) doesn't fit in a signed 128 bit value
+            if (high < 0)
+                return false;
+        }
+        token[0] = high;
+        token[1] = low;
+        return true;
+    }
+    
     public <T> String getTokenForKey(T key, Serializer<T> serializer) {
         return partitioner.getToken(serializer.toByteBuffer(key)).toString();
     }
@@ -22,4 +22,12 @@ public class LongBOPPartitioner extends BigInteger127Partitioner {
     public String getTokenForKey(ByteBuffer key) {
         return Long.toString(key.duplicate().asLongBuffer().get());
     }
+
+    @Override
+    public boolean getTokenForKey(ByteBuffer key, long[] token) {
+        long value = key.getLong(key.position());
+        token[0] = value >> 63;
+        token[1] = value;
+        return true;
+    }
 }
\ No newline at end of file
@@ -6,6 +6,8 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import org.apache.cassandra.utils.MurmurHash;
+
 import com.google.common.collect.Lists;
 import com.netflix.astyanax.Serializer;
 import com.netflix.astyanax.connectionpool.TokenRange;
@@ -66,6 +68,22 @@ public class Murmur3Partitioner implements Partitioner {
         return partitioner.getToken(key).toString();
     }
     
+    @Override
+    public boolean getTokenForKey(ByteBuffer key, long[] token) {
+        long value;
+        if (key.remaining() == 0) {
+            value = Long.MIN_VALUE;
+        }
+        else {
+            // Same hash and normalization as org.apache.cassandra.dht.Murmur3Partitioner
+            MurmurHash.hash3_x64_128(key, key.position(), key.remaining(), 0, token);
+            value = token[0] == Long.MIN_VALUE ? Long.MAX_VALUE : token[0];
+        }
+        token[0] = value >> 63;
+        token[1] = value;
+        return true;
+    }
+    
     public <T> String getTokenForKey(T key, Serializer<T> serializer) {
         return partitioner.getToken(serializer.toByteBuffer(key)).toString();
     }
@@ -1,5 +1,6 @@
 package com.netflix.astyanax.partitioner;
 
+import java.math.BigInteger;
 import java.nio.ByteBuffer;
 
 import com.netflix.astyanax.serializers.BigIntegerSerializer;
@@ -19,4 +20,14 @@ public class OrderedBigIntegerPartitioner extends BigInteger127Partitioner {
     public String getTokenForKey(ByteBuffer key) {
         return BigIntegerSerializer.get().fromByteBuffer(key).toString();
     }
+
+    @Override
+    public boolean getTokenForKey(ByteBuffer key, long[] token) {
+        BigInteger value = BigIntegerSerializer.get().fromByteBuffer(key);
+        if (value.bitLength() > 127)
+            return false;
+        token[0] = value.shiftRight(64).longValue();
+        token[1] = value.longValue();
+        return true;
+    }
 }
\ No newline at end of file
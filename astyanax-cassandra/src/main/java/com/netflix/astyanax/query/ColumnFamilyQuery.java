@@ -52,6 +52,25 @@ public interface ColumnFamilyQuery<K, C> {
      */
     ColumnFamilyQuery<K, C> pinToHost(Host host);
 
+    /**
+     * Return rows and columns that are reused while iterating the results instead of
+     * one object per row and column.  Cuts allocation when scanning wide rows, but a 
+     * row or column is only valid until the next call to the iterator or lookup that
+     * returned it.  Implementations that don't support this ignore it.
+     */
+    ColumnFamilyQuery<K, C> withFlyweightResults();
+
+    /**
+     * Split key slice queries by the token range that owns each key and run one query
+     * per group in parallel, each routed to a replica of its keys, instead of sending
+     * all keys to a single coordinator.  Groups larger than maxKeysPerQuery are split
+     * further.  The results are merged into a single set of rows.  Implementations that 
+     * don't support this ignore it.
+     * 
+     * @param maxKeysPerQuery
+     */
+    ColumnFamilyQuery<K, C> withTokenAwareKeySlice(int maxKeysPerQuery);
+
     /**
      * Query a single key
      * 
@@ -115,6 +115,15 @@ public interface RowQuery<K, C> extends Execution<ColumnList<C>> {
      */
     RowQuery<K, C> autoPaginate(boolean enabled);
 
+    /**
+     * Read the columns of the row fetchSize at a time while the returned column list
+     * is iterated, so that a wide row does not have to fit in memory.  Implementations
+     * that can't stream a row ignore this and read the entire row.
+     * 
+     * @param fetchSize
+     */
+    RowQuery<K, C> withFetchSize(int fetchSize);
+
     /**
      * Copy the results of the query to another column family
      * 
@@ -1,7 +1,9 @@
 package com.netflix.astyanax.serializers;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -39,12 +41,14 @@ public class AnnotatedCompositeSerializer<T> extends AbstractSerializer<T> {
         private Field field;
         private Serializer<P> serializer;
         private int ordinal;
+        private FieldCodec codec;
 
         public ComponentSerializer(Field field, Serializer<P> serializer, int ordinal) {
             this.field = field;
             this.field.setAccessible(true);
             this.serializer = serializer;
             this.ordinal = ordinal;
+            this.codec = FieldCodec.forComponent(field.getType(), serializer);
         }
 
         public Field getField() {
@@ -90,11 +94,352 @@ public class AnnotatedCompositeSerializer<T> extends AbstractSerializer<T> {
         public Serializer<P> getSerializer() {
         	return this.serializer;
         }
+
+        /**
+         * @return The field value, or for types without a codec the value already 
+         *         serialized, to be passed to encodedSize() and encode()
+         */
+        Object prepare(Object obj) throws IllegalAccessException {
+            Object value = field.get(obj);
+            if (value != null && codec == FieldCodec.GENERIC) {
+                return serializer.toByteBuffer((P) value);
+            }
+            return value;
+        }
+
+        int encodedSize(Object value) {
+            if (value == null)
+                return 0;
+            if (codec == FieldCodec.GENERIC)
+                return ((ByteBuffer) value).remaining();
+            return codec.size(value);
+        }
+
+        /**
+         * Write the component as <length><data><0>
+         */
+        void encode(Object value, int size, ByteBuffer out) {
+            out.putShort((short) size);
+            if (value != null) {
+                if (codec == FieldCodec.GENERIC) 
+                    out.put(((ByteBuffer) value).duplicate());
+                else
+                    codec.write(value, out);
+            }
+            out.put(END_OF_COMPONENT);
+        }
+
+        /**
+         * Set the field from the length bytes of in starting at position 
+         */
+        void decode(Object obj, ByteBuffer in, int position, int length) throws IllegalAccessException {
+            if (!codec.read(field, obj, in, position, length)) {
+                ByteBuffer data = in.duplicate();
+                data.limit(position + length);
+                data.position(position);
+                field.set(obj, serializer.fromByteBuffer(data));
+            }
+        }
+    }
+
+    /**
+     * Encoding of the common component types directly into the composite's buffer,
+     * avoiding an intermediate buffer per component.  Output is identical to that of 
+     * the serializer inferred for the type.  Only used when the component's serializer
+     * is the one the codec replaces.
+     */
+    static enum FieldCodec {
+        STRING {
+            @Override
+            int size(Object value) {
+                return utf8Length((String) value);
+            }
+
+            @Override
+            void write(Object value, ByteBuffer out) {
+                writeUtf8((String) value, out);
+            }
+
+            @Override
+            boolean read(Field field, Object obj, ByteBuffer in, int position, int length) throws IllegalAccessException {
+                if (!in.hasArray())
+                    return false;
+                field.set(obj, new String(in.array(), in.arrayOffset() + position, length, UTF_8));
+                return true;
+            }
+        },
+        LONG {
+            @Override
+            int size(Object value) {
+                return 8;
+            }
+
+            @Override
+            void write(Object value, ByteBuffer out) {
+                out.putLong((Long) value);
+            }
+
+            @Override
+            boolean read(Field field, Object obj, ByteBuffer in, int position, int length) throws IllegalAccessException {
+                if (length != 8)
+                    return false;
+                if (field.getType().isPrimitive())
+                    field.setLong(obj, in.getLong(position));
+                else
+                    field.set(obj, in.getLong(position));
+                return true;
+            }
+        },
+        INTEGER {
+            @Override
+            int size(Object value) {
+                return 4;
+            }
+
+            @Override
+            void write(Object value, ByteBuffer out) {
+                out.putInt((Integer) value);
+            }
+
+            @Override
+            boolean read(Field field, Object obj, ByteBuffer in, int position, int length) throws IllegalAccessException {
+                if (length != 4)
+                    return false;
+                if (field.getType().isPrimitive())
+                    field.setInt(obj, in.getInt(position));
+                else
+                    field.set(obj, in.getInt(position));
+                return true;
+            }
+        },
+        SHORT {
+            @Override
+            int size(Object value) {
+                return 2;
+            }
+
+            @Override
+            void write(Object value, ByteBuffer out) {
+                out.putShort((Short) value);
+            }
+
+            @Override
+            boolean read(Field field, Object obj, ByteBuffer in, int position, int length) throws IllegalAccessException {
+                if (length != 2)
+                    return false;
+                if (field.getType().isPrimitive())
+                    field.setShort(obj, in.getShort(position));
+                else
+                    field.set(obj, in.getShort(position));
+                return true;
+            }
+        },
+        BOOLEAN {
+            @Override
+            int size(Object value) {
+                return 1;
+            }
+
+            @Override
+            void write(Object value, ByteBuffer out) {
+                out.put((Boolean) value ? (byte) 1 : (byte) 0);
+            }
+
+            @Override
+            boolean read(Field field, Object obj, ByteBuffer in, int position, int length) throws IllegalAccessException {
+                if (length != 1)
+                    return false;
+                boolean value = in.get(position) == (byte) 1;
+                if (field.getType().isPrimitive())
+                    field.setBoolean(obj, value);
+                else
+                    field.set(obj, value);
+                return true;
+            }
+        },
+        DOUBLE {
+            @Override
+            int size(Object value) {
+                return 8;
+            }
+
+            @Override
+            void write(Object value, ByteBuffer out) {
+                out.putLong(Double.doubleToRawLongBits((Double) value));
+            }
+
+            @Override
+            boolean read(Field field, Object obj, ByteBuffer in, int position, int length) throws IllegalAccessException {
+                if (length != 8)
+                    return false;
+                double value = Double.longBitsToDouble(in.getLong(position));
+                if (field.getType().isPrimitive())
+                    field.setDouble(obj, value);
+                else
+                    field.set(obj, value);
+                return true;
+            }
+        },
+        UUID {
+            @Override
+            int size(Object value) {
+                return 16;
+            }
+
+            @Override
+            void write(Object value, ByteBuffer out) {
+                java.util.UUID uuid = (java.util.UUID) value;
+                out.putLong(uuid.getMostSignificantBits());
+                out.putLong(uuid.getLeastSignificantBits());
+            }
+
+            @Override
+            boolean read(Field field, Object obj, ByteBuffer in, int position, int length) throws IllegalAccessException {
+                if (length != 16)
+                    return false;
+                field.set(obj, new java.util.UUID(in.getLong(position), in.getLong(position + 8)));
+                return true;
+            }
+        },
+        BYTES {
+            @Override
+            int size(Object value) {
+                return ((byte[]) value).length;
+            }
+
+            @Override
+            void write(Object value, ByteBuffer out) {
+                out.put((byte[]) value);
+            }
+
+            @Override
+            boolean read(Field field, Object obj, ByteBuffer in, int position, int length) throws IllegalAccessException {
+                byte[] value = new byte[length];
+                if (in.hasArray()) {
+                    System.arraycopy(in.array(), in.arrayOffset() + position, value, 0, length);
+                }
+                else {
+                    for (int i = 0; i < length; i++) {
+                        value[i] = in.get(position + i);
+                    }
+                }
+                field.set(obj, value);
+                return true;
+            }
+        },
+        /**
+         * Any other type goes through the component's serializer
+         */
+        GENERIC {
+            @Override
+            int size(Object value) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            void write(Object value, ByteBuffer out) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            boolean read(Field field, Object obj, ByteBuffer in, int position, int length) {
+                return false;
+            }
+        };
+
+        private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+        /**
+         * @return Encoded size of a non null value
+         */
+        abstract int size(Object value);
+
+        abstract void write(Object value, ByteBuffer out);
+
+        /**
+         * @return False if the value must be decoded by the serializer instead
+         */
+        abstract boolean read(Field field, Object obj, ByteBuffer in, int position, int length) throws IllegalAccessException;
+
+        static FieldCodec forComponent(Class<?> type, Serializer<?> serializer) {
+            Class<?> serializerClass = serializer.getClass();
+            if (serializerClass == StringSerializer.class && type == String.class)
+                return STRING;
+            if (serializerClass == LongSerializer.class && (type == Long.class || type == long.class))
+                return LONG;
+            if (serializerClass == IntegerSerializer.class && (type == Integer.class || type == int.class))
+                return INTEGER;
+            if (serializerClass == ShortSerializer.class && (type == Short.class || type == short.class))
+                return SHORT;
+            if (serializerClass == BooleanSerializer.class && (type == Boolean.class || type == boolean.class))
+                return BOOLEAN;
+            if (serializerClass == DoubleSerializer.class && (type == Double.class || type == double.class))
+                return DOUBLE;
+            if (serializerClass == UUIDSerializer.class && type == java.util.UUID.class)
+                return UUID;
+            if (serializerClass == BytesArraySerializer.class && type == byte[].class)
+                return BYTES;
+            return GENERIC;
+        }
+
+        /**
+         * Same length as String.getBytes("UTF-8"), which replaces unpaired surrogates with '?'
+         */
+        static int utf8Length(String value) {
+            int length = value.length();
+            int size = length;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) 
+                    continue;
+                if (c < 0x800) {
+                    size += 1;
+                }
+                else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    size += 2;
+                    i++;
+                }
+                else if (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE) {
+                    size += 2;
+                }
+            }
+            return size;
+        }
+
+        static void writeUtf8(String value, ByteBuffer out) {
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    out.put((byte) c);
+                }
+                else if (c < 0x800) {
+                    out.put((byte) (0xC0 | (c >> 6)));
+                    out.put((byte) (0x80 | (c & 0x3F)));
+                }
+                else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    out.put((byte) (0xF0 | (codePoint >> 18)));
+                    out.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    out.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    out.put((byte) (0x80 | (codePoint & 0x3F)));
+                }
+                else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                    out.put((byte) '?');
+                }
+                else {
+                    out.put((byte) (0xE0 | (c >> 12)));
+                    out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                    out.put((byte) (0x80 | (c & 0x3F)));
+                }
+            }
+        }
     }
 
     private final List<ComponentSerializer<?>> components;
     private final Class<T> clazz;
     private final int bufferSize;
+    private volatile Constructor<T> constructor;
     
     public AnnotatedCompositeSerializer<T> clone() {
     	AnnotatedCompositeSerializer<T> clone = new AnnotatedCompositeSerializer<T>(this.clazz, this.bufferSize, false);
@@ -142,57 +487,53 @@ public class AnnotatedCompositeSerializer<T> extends AbstractSerializer<T> {
 
     @Override
     public ByteBuffer toByteBuffer(T obj) {
-        ByteBuffer bb = ByteBuffer.allocate(bufferSize);
-        
-        for (ComponentSerializer<?> serializer : components) {
-            try {
-                // First, serialize the ByteBuffer for this component
-                ByteBuffer cb = serializer.serialize(obj);
-                if (cb == null) {
-                    cb = ByteBuffer.allocate(0);
-                }
-
-                if (cb.limit() + COMPONENT_OVERHEAD > bb.remaining()) {
-                    int exponent = (int) Math.ceil(Math.log((double) (cb.limit() + COMPONENT_OVERHEAD + bb.limit())) / Math.log(2));
-                    int newBufferSize = (int) Math.pow(2, exponent);
-                    ByteBuffer temp = ByteBuffer.allocate(newBufferSize);
-                    bb.flip();
-                    temp.put(bb);
-                    bb = temp;
-                }
-                // Write the data: <length><data><0>
-                bb.putShort((short) cb.remaining());
-                bb.put(cb.slice());
-                bb.put(END_OF_COMPONENT);
-            }
-            catch (Exception e) {
-				e.printStackTrace();
-                throw new RuntimeException(e);
+        int count = components.size();
+        Object[] values = new Object[count];
+        int[] sizes = new int[count];
+        int size = 0;
+        try {
+            // Size the buffer exactly so the components can be written without copying
+            for (int i = 0; i < count; i++) {
+                ComponentSerializer<?> serializer = components.get(i);
+                values[i] = serializer.prepare(obj);
+                sizes[i] = serializer.encodedSize(values[i]);
+                size += sizes[i] + COMPONENT_OVERHEAD;
             }
         }
+        catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+
+        ByteBuffer bb = ByteBuffer.allocate(size);
+        for (int i = 0; i < count; i++) {
+            components.get(i).encode(values[i], sizes[i], bb);
+        }
         bb.flip();
         return bb;
     }
 
     @Override
     public T fromByteBuffer(ByteBuffer byteBuffer) {
-        byteBuffer = byteBuffer.duplicate();
         try {
             T obj = createContents(clazz);
+            int position = byteBuffer.position();
+            int limit = byteBuffer.limit();
             for (ComponentSerializer<?> serializer : components) {
-                ByteBuffer data = getWithShortLength(byteBuffer);
-                if (data != null) {
-                    if (data.remaining() > 0) {
-                        serializer.deserialize(obj, data);
-                    }
-                    byte end_of_component = byteBuffer.get();
-                    if (end_of_component != END_OF_COMPONENT) {
-                        throw new RuntimeException("Invalid composite column.  Expected END_OF_COMPONENT.");
-                    }
+                if (position + 2 > limit) {
+                    throw new RuntimeException("Missing component data in composite type");
                 }
-                else {
+                int length = ((byteBuffer.get(position) & 0xFF) << 8) | (byteBuffer.get(position + 1) & 0xFF);
+                position += 2;
+                if (position + length >= limit) {
                     throw new RuntimeException("Missing component data in composite type");
                 }
+                if (length > 0) {
+                    serializer.decode(obj, byteBuffer, position, length);
+                }
+                position += length;
+                if (byteBuffer.get(position++) != END_OF_COMPONENT) {
+                    throw new RuntimeException("Invalid composite column.  Expected END_OF_COMPONENT.");
+                }
             }
             return obj;
         }
@@ -206,29 +547,18 @@ public class AnnotatedCompositeSerializer<T> extends AbstractSerializer<T> {
         return ComparatorType.COMPOSITETYPE;
     }
 
-    private static int getShortLength(ByteBuffer bb) {
-        int length = (bb.get() & 0xFF) << 8;
-        return length | (bb.get() & 0xFF);
-    }
-
-    private static ByteBuffer getWithShortLength(ByteBuffer bb) {
-        int length = getShortLength(bb);
-        return getBytes(bb, length);
-    }
-
-    private static ByteBuffer getBytes(ByteBuffer bb, int length) {
-        ByteBuffer copy = bb.duplicate();
-        copy.limit(copy.position() + length);
-        bb.position(bb.position() + length);
-        return copy;
-    }
-
     private static <P> ComponentSerializer<P> makeComponent(Field field, Serializer<P> serializer, int ordinal) {
         return new ComponentSerializer<P>(field, serializer, ordinal);
     }
 
-    private T createContents(Class<T> clazz) throws InstantiationException, IllegalAccessException {
-        return clazz.newInstance();
+    private T createContents(Class<T> clazz) throws Exception {
+        Constructor<T> constructor = this.constructor;
+        if (constructor == null) {
+            constructor = clazz.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            this.constructor = constructor;
+        }
+        return constructor.newInstance();
     }
 
     public CompositeRangeBuilder buildRange() {
@@ -20,6 +20,7 @@ package com.netflix.astyanax.serializers;
 
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -29,22 +30,37 @@ import java.util.List;
  * 
  * Originally from org.apache.avro.util.ByteBufferOutputStream, moved into
  * Hector and added getByteBuffer to return single ByteBuffer from contents.
+ * 
+ * When created with a {@link ByteBufferPool} the internal buffers come from the
+ * pool and go back to it once getByteBuffer() has copied them, or on reset() 
+ * and close().  Buffers handed out by getBufferList() are not returned.
  */
 public class ByteBufferOutputStream extends OutputStream {
     public static final int INIT_BUFFER_SIZE = 64;
     public static final int MAX_BUFFER_SIZE = 8192;
     
+    private final ByteBufferPool pool;
     private List<ByteBuffer> buffers;
+    private List<ByteBuffer> pooled;
     private int bufferSize = INIT_BUFFER_SIZE;
     
     public ByteBufferOutputStream() {
-        reset();
+        this(null);
+    }
+
+    /**
+     * @param pool Pool for the internal buffers or null to allocate them
+     */
+    public ByteBufferOutputStream(ByteBufferPool pool) {
+        this.pool = pool;
+        init();
     }
 
     /** Returns all data written and resets the stream to be empty. */
     public List<ByteBuffer> getBufferList() {
         List<ByteBuffer> result = buffers;
-        reset();
+        // The buffers now belong to the caller
+        init();
         for (ByteBuffer buffer : result) {
             buffer.flip();
         }
@@ -52,6 +68,21 @@ public class ByteBufferOutputStream extends OutputStream {
     }
 
     public ByteBuffer getByteBuffer() {
+        if (pool != null) {
+            // Copy out so the internal buffers can go back to the pool
+            int size = 0;
+            for (ByteBuffer buffer : buffers) {
+                size += buffer.position();
+            }
+            ByteBuffer result = ByteBuffer.allocate(size);
+            for (ByteBuffer buffer : buffers) {
+                buffer.flip();
+                result.put(buffer);
+            }
+            reset();
+            return (ByteBuffer) result.rewind();
+        }
+        
         List<ByteBuffer> list = getBufferList();
         // if there's just one bytebuffer in list, return it
         if (list.size() == 1) {
@@ -85,15 +116,50 @@ public class ByteBufferOutputStream extends OutputStream {
     }
 
     public void reset() {
+        if (pool != null) {
+            for (ByteBuffer buffer : pooled) {
+                pool.release(buffer);
+            }
+        }
+        init();
+    }
+
+    /**
+     * Return the internal buffers to the pool, if any
+     */
+    @Override
+    public void close() {
+        reset();
+    }
+
+    private void init() {
         buffers = new LinkedList<ByteBuffer>();
+        pooled = pool == null ? null : new ArrayList<ByteBuffer>();
         bufferSize = INIT_BUFFER_SIZE;
-        buffers.add(ByteBuffer.allocate(bufferSize));
+        // A pooled stream takes its first buffer on the first write so that an
+        // idle stream doesn't hold on to one
+        if (pool == null)
+            buffers.add(allocate(bufferSize));
+    }
+
+    private ByteBuffer lastBuffer() {
+        if (buffers.isEmpty())
+            buffers.add(allocate(bufferSize));
+        return buffers.get(buffers.size() - 1);
+    }
+
+    private ByteBuffer allocate(int size) {
+        if (pool == null) 
+            return ByteBuffer.allocate(size);
+        ByteBuffer buffer = pool.acquire(size);
+        pooled.add(buffer);
+        return buffer;
     }
 
     private ByteBuffer getBufferWithCapacity(int capacity) {
-        ByteBuffer buffer = buffers.get(buffers.size() - 1);
+        ByteBuffer buffer = lastBuffer();
         if (buffer.remaining() < capacity) {
-            buffer = ByteBuffer.allocate(bufferSize);
+            buffer = allocate(bufferSize);
             buffers.add(buffer);
         }
         return buffer;
@@ -137,7 +203,7 @@ public class ByteBufferOutputStream extends OutputStream {
 
     @Override
     public void write(byte[] b, int off, int len) {
-        ByteBuffer buffer = buffers.get(buffers.size() - 1);
+        ByteBuffer buffer = lastBuffer();
         int remaining = buffer.remaining();
         while (len > remaining) {
             buffer.put(b, off, remaining);
@@ -148,7 +214,7 @@ public class ByteBufferOutputStream extends OutputStream {
             if (bufferSize > MAX_BUFFER_SIZE)
                 bufferSize = MAX_BUFFER_SIZE;
             
-            buffer = ByteBuffer.allocate(bufferSize);
+            buffer = allocate(bufferSize);
             buffers.add(buffer);
             remaining = buffer.remaining();
         }
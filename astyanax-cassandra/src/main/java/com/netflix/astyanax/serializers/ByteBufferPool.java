@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.serializers;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Pool of scratch buffers in power of two size classes, from minSize to maxSize.
+ * Each thread keeps up to buffersPerClass free buffers of each size so acquiring
+ * and releasing a buffer doesn't contend with other threads.  A buffer released
+ * on a different thread than it was acquired on simply moves to that thread's slab.
+ *
+ * Only buffers that don't escape to the caller should come from the pool.  A buffer
+ * must not be used after it has been released.  Requests larger than maxSize are
+ * allocated on each call and are dropped on release.
+ *
+ * The pool used by {@link ByteBufferOutputStream} instances created internally,
+ * such as for composite and mutation batch serialization, is set with
+ * {@link #setDefault(ByteBufferPool)}.  There is no default pool.
+ */
+public class ByteBufferPool {
+    public static final int DEFAULT_MIN_SIZE          = 64;
+    public static final int DEFAULT_MAX_SIZE          = 64 * 1024;
+    public static final int DEFAULT_BUFFERS_PER_CLASS = 16;
+
+    private static volatile ByteBufferPool defaultPool;
+
+    /**
+     * @return Pool used by default for internal serialization or null if none was set
+     */
+    public static ByteBufferPool getDefault() {
+        return defaultPool;
+    }
+
+    /**
+     * Set the pool used by default for internal serialization.  Set to null to
+     * stop pooling.
+     * @param pool
+     */
+    public static void setDefault(ByteBufferPool pool) {
+        defaultPool = pool;
+    }
+
+    private final int     minShift;
+    private final int     maxShift;
+    private final int     buffersPerClass;
+    private final boolean direct;
+
+    private final ThreadLocal<ArrayDeque<ByteBuffer>[]> slabs = new ThreadLocal<ArrayDeque<ByteBuffer>[]>() {
+        @SuppressWarnings("unchecked")
+        @Override
+        protected ArrayDeque<ByteBuffer>[] initialValue() {
+            ArrayDeque<ByteBuffer>[] slabs = new ArrayDeque[maxShift - minShift + 1];
+            for (int i = 0; i < slabs.length; i++) {
+                slabs[i] = new ArrayDeque<ByteBuffer>(buffersPerClass);
+            }
+            return slabs;
+        }
+    };
+
+    private final AtomicLong hitCount     = new AtomicLong();
+    private final AtomicLong missCount    = new AtomicLong();
+    private final AtomicLong releaseCount = new AtomicLong();
+    private final AtomicLong discardCount = new AtomicLong();
+
+    public ByteBufferPool() {
+        this(DEFAULT_MIN_SIZE, DEFAULT_MAX_SIZE, DEFAULT_BUFFERS_PER_CLASS, false);
+    }
+
+    /**
+     * @param minSize           Smallest size class.  Rounded up to a power of two
+     * @param maxSize           Largest size class.  Rounded up to a power of two
+     * @param buffersPerClass   Free buffers kept per size class per thread
+     * @param direct            Allocate buffers off heap
+     */
+    public ByteBufferPool(int minSize, int maxSize, int buffersPerClass, boolean direct) {
+        Preconditions.checkArgument(minSize > 0 && minSize <= maxSize, "Expecting 0 < minSize <= maxSize");
+        Preconditions.checkArgument(maxSize <= (1 << 30), "maxSize too large");
+        Preconditions.checkArgument(buffersPerClass >= 0, "buffersPerClass must be >= 0");
+        this.minShift        = shiftFor(minSize);
+        this.maxShift        = shiftFor(maxSize);
+        this.buffersPerClass = buffersPerClass;
+        this.direct          = direct;
+    }
+
+    /**
+     * @return Smallest power of two shift that fits size
+     */
+    private static int shiftFor(int size) {
+        return 32 - Integer.numberOfLeadingZeros(size - 1);
+    }
+
+    /**
+     * Get a cleared buffer with a capacity of at least size bytes
+     * @param size
+     */
+    public ByteBuffer acquire(int size) {
+        int shift = Math.max(minShift, shiftFor(Math.max(1, size)));
+        if (shift > maxShift) {
+            missCount.incrementAndGet();
+            return allocate(size);
+        }
+
+        ByteBuffer buffer = slabs.get()[shift - minShift].pollLast();
+        if (buffer != null) {
+            hitCount.incrementAndGet();
+            buffer.clear();
+            return buffer;
+        }
+        missCount.incrementAndGet();
+        return allocate(1 << shift);
+    }
+
+    /**
+     * Return a buffer acquired from this pool.  Buffers that don't match a size class
+     * of this pool or whose size class is full are left to the garbage collector.
+     * @param buffer
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null)
+            return;
+
+        int capacity = buffer.capacity();
+        int shift    = shiftFor(capacity);
+        if (buffer.isDirect() != direct || buffer.isReadOnly() || capacity != (1 << shift)
+         || shift < minShift || shift > maxShift) {
+            discardCount.incrementAndGet();
+            return;
+        }
+
+        ArrayDeque<ByteBuffer> slab = slabs.get()[shift - minShift];
+        if (slab.size() >= buffersPerClass) {
+            discardCount.incrementAndGet();
+            return;
+        }
+        slab.addLast(buffer);
+        releaseCount.incrementAndGet();
+    }
+
+    private ByteBuffer allocate(int size) {
+        return direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * @return Number of acquired buffers that were reused
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return Number of acquired buffers that had to be allocated
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return Number of buffers returned to the pool
+     */
+    public long getReleaseCount() {
+        return releaseCount.get();
+    }
+
+    /**
+     * @return Number of released buffers that were dropped because their size class
+     *         was full or they didn't come from this pool
+     */
+    public long getDiscardCount() {
+        return discardCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder()
+            .append("ByteBufferPool[")
+            .append("minSize=").append(1 << minShift)
+            .append(",maxSize=").append(1 << maxShift)
+            .append(",buffersPerClass=").append(buffersPerClass)
+            .append(",direct=").append(direct)
+            .append(",hit=").append(getHitCount())
+            .append(",miss=").append(getMissCount())
+            .append(",release=").append(getReleaseCount())
+            .append(",discard=").append(getDiscardCount())
+            .append("]")
+            .toString();
+    }
+}
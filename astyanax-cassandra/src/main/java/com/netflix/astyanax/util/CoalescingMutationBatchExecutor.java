@@ -0,0 +1,328 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.util;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.astyanax.Keyspace;
+import com.netflix.astyanax.MutationBatch;
+import com.netflix.astyanax.connectionpool.ConnectionPool;
+import com.netflix.astyanax.connectionpool.OperationResult;
+import com.netflix.astyanax.connectionpool.impl.Topology;
+import com.netflix.astyanax.model.ConsistencyLevel;
+
+/**
+ * Executor that coalesces many small mutation batches into fewer, larger ones.
+ * 
+ * Submitted batches are held for up to maxDelay, or until maxBatchSize batches are
+ * pending, and then merged with {@link MutationBatch#mergeShallow(MutationBatch)}.
+ * Batches are grouped by the hosts that own their rows, using the connection pool's
+ * topology, so that each merged batch only has rows with the same replicas.  A token
+ * aware pool routes such a batch to those replicas.  Batches whose rows have different
+ * replicas are merged with each other and are not routed.
+ * The future returned for each submitted batch completes when the merged batch that
+ * contains it does, and fails with the merged batch's error.
+ * 
+ * Merged batches are created with {@link Keyspace#prepareMutationBatch()} and the
+ * consistency level set on this executor.  Settings made on a submitted batch other
+ * than its mutations, such as its consistency level or retry policy, are not kept.
+ * A submitted batch shares its mutations with the merged batch and must not be
+ * modified or executed again.
+ */
+public class CoalescingMutationBatchExecutor {
+    private static final Logger LOG = LoggerFactory.getLogger(CoalescingMutationBatchExecutor.class);
+
+    public static final int  DEFAULT_MAX_BATCH_SIZE = 100;
+    public static final long DEFAULT_MAX_DELAY      = 10;
+
+    private static class PendingMutation {
+        final MutationBatch                            mutation;
+        final SettableFuture<OperationResult<Void>>    future = SettableFuture.create();
+
+        PendingMutation(MutationBatch mutation) {
+            this.mutation = mutation;
+        }
+    }
+
+    private final Keyspace                 keyspace;
+    private final ScheduledExecutorService executor;
+    private int              maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private long             maxDelay     = DEFAULT_MAX_DELAY;
+    private ConsistencyLevel consistencyLevel;
+
+    private List<PendingMutation> pending = Lists.newArrayList();
+    private ScheduledFuture<?>    scheduledFlush;
+    private final AtomicLong      successCount = new AtomicLong(0);
+    private final AtomicLong      failureCount = new AtomicLong(0);
+    private final AtomicLong      batchCount   = new AtomicLong(0);
+
+    public CoalescingMutationBatchExecutor(Keyspace keyspace) {
+        this(keyspace, Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true)
+                .setNameFormat("CoalescingMutationBatchExecutor-%d").build()));
+    }
+
+    /**
+     * @param keyspace
+     * @param executor  Executor on which pending batches are merged and submitted
+     */
+    public CoalescingMutationBatchExecutor(Keyspace keyspace, ScheduledExecutorService executor) {
+        this.keyspace = keyspace;
+        this.executor = executor;
+    }
+
+    /**
+     * Maximum number of submitted batches merged into one.  Pending batches are
+     * flushed as soon as this many are waiting.
+     */
+    public CoalescingMutationBatchExecutor withMaxBatchSize(int maxBatchSize) {
+        Preconditions.checkArgument(maxBatchSize > 0, "maxBatchSize must be > 0");
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    /**
+     * Maximum time a submitted batch waits for others to be merged with
+     */
+    public CoalescingMutationBatchExecutor withMaxDelay(long maxDelay, TimeUnit units) {
+        this.maxDelay = TimeUnit.MILLISECONDS.convert(maxDelay, units);
+        return this;
+    }
+
+    /**
+     * Consistency level of the merged batches.  Defaults to the keyspace's default
+     * write consistency level.
+     */
+    public CoalescingMutationBatchExecutor withConsistencyLevel(ConsistencyLevel consistencyLevel) {
+        this.consistencyLevel = consistencyLevel;
+        return this;
+    }
+
+    /**
+     * Queue a mutation to be merged with others and executed
+     * 
+     * @param m
+     * @return Future that completes once the merged batch containing m was executed
+     */
+    public ListenableFuture<OperationResult<Void>> execute(MutationBatch m) {
+        PendingMutation mutation = new PendingMutation(m);
+        synchronized (this) {
+            pending.add(mutation);
+            if (pending.size() >= maxBatchSize) {
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+                final List<PendingMutation> batch = pending;
+                pending = Lists.newArrayList();
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        flush(batch);
+                    }
+                });
+            }
+            else if (scheduledFlush == null) {
+                scheduledFlush = executor.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        flush(drain());
+                    }
+                }, maxDelay, TimeUnit.MILLISECONDS);
+            }
+        }
+        return mutation.future;
+    }
+
+    private synchronized List<PendingMutation> drain() {
+        List<PendingMutation> batch = pending;
+        pending = Lists.newArrayList();
+        scheduledFlush = null;
+        return batch;
+    }
+
+    private void flush(List<PendingMutation> batch) {
+        if (batch.isEmpty())
+            return;
+
+        for (List<PendingMutation> group : groupByReplicas(batch)) {
+            for (List<PendingMutation> chunk : Lists.partition(group, maxBatchSize)) {
+                executeMerged(chunk);
+            }
+        }
+    }
+
+    /**
+     * Group the mutations by the hosts that own their rows.  A mutation whose rows
+     * are not all owned by the same hosts, or that has no rows, goes into a group of
+     * its own that is not routed.  All mutations go into that group when the topology
+     * isn't token aware.
+     */
+    private Collection<List<PendingMutation>> groupByReplicas(List<PendingMutation> batch) {
+        Topology<?> topology = null;
+        try {
+            ConnectionPool<?> pool = keyspace.getConnectionPool();
+            if (pool != null)
+                topology = pool.getTopology();
+        }
+        catch (Exception e) {
+            LOG.warn("Unable to get topology, mutations will not be grouped by replicas", e);
+        }
+
+        List<PendingMutation> noKey = Lists.newArrayList();
+        List<List<PendingMutation>> groups = Lists.newArrayList();
+        if (topology == null) {
+            noKey.addAll(batch);
+        }
+        else {
+            // Look up the replicas of all rows at once and note which group each row belongs to
+            List<ByteBuffer> allKeys = Lists.newArrayList();
+            for (PendingMutation mutation : batch) {
+                allKeys.addAll(mutation.mutation.getRowKeys().keySet());
+            }
+            Map<ByteBuffer, Object> groupOfKey = Maps.newHashMap();
+            for (Map.Entry<?, List<ByteBuffer>> entry : topology.groupByPartition(allKeys).entrySet()) {
+                for (ByteBuffer key : entry.getValue()) {
+                    groupOfKey.put(key, entry.getKey());
+                }
+            }
+
+            Map<Object, List<PendingMutation>> byReplicas = Maps.newLinkedHashMap();
+            for (PendingMutation mutation : batch) {
+                Object group = null;
+                for (ByteBuffer key : mutation.mutation.getRowKeys().keySet()) {
+                    Object keyGroup = groupOfKey.get(key);
+                    if (group == null) {
+                        group = keyGroup;
+                    }
+                    else if (group != keyGroup) {
+                        group = null;
+                        break;
+                    }
+                }
+                if (group == null) {
+                    noKey.add(mutation);
+                    continue;
+                }
+                List<PendingMutation> mutations = byReplicas.get(group);
+                if (mutations == null) {
+                    mutations = Lists.newArrayList();
+                    byReplicas.put(group, mutations);
+                }
+                mutations.add(mutation);
+            }
+            groups.addAll(byReplicas.values());
+        }
+        if (!noKey.isEmpty())
+            groups.add(noKey);
+        return groups;
+    }
+
+    private void executeMerged(final List<PendingMutation> chunk) {
+        MutationBatch merged = keyspace.prepareMutationBatch();
+        if (consistencyLevel != null)
+            merged.setConsistencyLevel(consistencyLevel);
+
+        ListenableFuture<OperationResult<Void>> future;
+        try {
+            for (PendingMutation mutation : chunk) {
+                merged.mergeShallow(mutation.mutation);
+            }
+            future = merged.executeAsync();
+        }
+        catch (Exception e) {
+            future = Futures.immediateFailedFuture(e);
+        }
+
+        batchCount.incrementAndGet();
+        Futures.addCallback(future, new FutureCallback<OperationResult<Void>>() {
+            @Override
+            public void onSuccess(OperationResult<Void> result) {
+                successCount.addAndGet(chunk.size());
+                for (PendingMutation mutation : chunk) {
+                    mutation.future.set(result);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                failureCount.addAndGet(chunk.size());
+                for (PendingMutation mutation : chunk) {
+                    mutation.future.setException(t);
+                }
+            }
+        });
+    }
+
+    /**
+     * Execute all pending mutations and stop the executor
+     */
+    public void shutdown() {
+        final List<PendingMutation> batch;
+        synchronized (this) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+            }
+            batch = drain();
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                flush(batch);
+            }
+        });
+        executor.shutdown();
+    }
+
+    /**
+     * @return Number of submitted batches that were executed successfully
+     */
+    public long getSuccessCount() {
+        return successCount.get();
+    }
+
+    /**
+     * @return Number of submitted batches that failed
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * @return Number of merged batches executed
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+}
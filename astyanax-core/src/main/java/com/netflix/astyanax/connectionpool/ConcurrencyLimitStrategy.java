@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.connectionpool;
+
+/**
+ * Strategy for adapting the number of operations allowed in flight on a host.
+ * The limit grows while the host's latency stays flat and shrinks as soon as 
+ * requests start queueing on the host.  Operations over the limit are rejected 
+ * with a {@link com.netflix.astyanax.connectionpool.exceptions.ThrottledException}
+ * so they can fail over to another host in the partition.  maxConnsPerHost 
+ * remains the upper bound.
+ * 
+ * @see ConnectionPoolConfiguration#getConcurrencyLimitStrategy()
+ */
+public interface ConcurrencyLimitStrategy {
+    public interface Instance {
+        /**
+         * Reserve a slot for an operation
+         * 
+         * @return true if the operation may be sent to the host or false if the 
+         *         limit has been reached
+         */
+        boolean tryAcquire();
+
+        /**
+         * Release a slot reserved by {@link #tryAcquire()}
+         */
+        void release();
+
+        /**
+         * Add a latency sample for the host and adjust the limit
+         * 
+         * @param latency   In nanoseconds
+         */
+        void addSample(long latency);
+
+        /**
+         * @return Current number of operations allowed in flight
+         */
+        int getLimit();
+
+        /**
+         * @return Number of slots currently reserved
+         */
+        int getInFlight();
+    }
+
+    /**
+     * Create an instance of the strategy for a single host
+     */
+    Instance createInstance();
+}
@@ -17,7 +17,9 @@ package com.netflix.astyanax.connectionpool;
 
 import java.util.List;
 import java.util.Collection;
+import java.util.concurrent.Executor;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
 import com.netflix.astyanax.connectionpool.exceptions.OperationException;
 import com.netflix.astyanax.connectionpool.impl.Topology;
@@ -98,6 +100,21 @@ public interface ConnectionPool<CL> {
     <R> OperationResult<R> executeWithFailover(Operation<CL, R> op, RetryPolicy retry) throws ConnectionException,
             OperationException;
 
+    /**
+     * Execute an operation with failover without blocking the calling thread.  Each
+     * attempt runs on the executor and the retry policy's backoff between attempts is
+     * scheduled rather than slept, so no thread is held while waiting to retry.
+     * 
+     * @param <R>
+     * @param op
+     * @param retry
+     * @param executor  Executor on which each attempt is run
+     * @return Future that fails with the {@link ConnectionException} or {@link OperationException} 
+     *         that would have been thrown by {@link #executeWithFailover(Operation, RetryPolicy)}
+     */
+    <R> ListenableFuture<OperationResult<R>> executeWithFailoverAsync(Operation<CL, R> op, RetryPolicy retry,
+            Executor executor);
+
     /**
      * Shut down the connection pool and terminate all existing connections
      */
@@ -16,9 +16,11 @@
 package com.netflix.astyanax.connectionpool;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
 import com.netflix.astyanax.AuthenticationCredentials;
+import com.netflix.astyanax.connectionpool.impl.ConnectionBorrowStrategy;
 import com.netflix.astyanax.connectionpool.impl.HostSelectorStrategy;
 import com.netflix.astyanax.partitioner.Partitioner;
 import com.netflix.astyanax.tracing.OperationTracer;
@@ -88,6 +90,13 @@ public interface ConnectionPoolConfiguration {
      */
     HostSelectorStrategy getHostSelectorStrategy();
 
+    /**
+     * @return Return the strategy used by a host's pool to hand out idle connections.
+     *
+     * @see com.netflix.astyanax.connectionpool.impl.ConnectionBorrowStrategy
+     */
+    ConnectionBorrowStrategy getConnectionBorrowStrategy();
+
     /**
      * @return List of comma delimited host:port combinations. If port is not provided
      * then getPort() will be used by default. This list must contain at least
@@ -248,6 +257,25 @@ public interface ConnectionPoolConfiguration {
      */
     ScheduledExecutorService getHostReconnectExecutor();
 
+    /**
+     * @return Return policy for sending slow operations to a second host, or null to 
+     * disable speculative execution
+     */
+    SpeculativeExecutionPolicy getSpeculativeExecutionPolicy();
+
+    /**
+     * @return Return executor service used to run speculative operations.  A speculative
+     * operation occupies a thread for as long as the host takes to respond so this pool
+     * should not be bounded by much
+     */
+    ExecutorService getSpeculativeExecutor();
+
+    /**
+     * @return Return strategy for adapting the number of operations in flight on each host,
+     * or null to only limit by maxConnsPerHost
+     */
+    ConcurrencyLimitStrategy getConcurrencyLimitStrategy();
+
     /**
      * Initialization prior to starting the connection pool 
      */
@@ -43,6 +43,44 @@ public interface ConnectionPoolMonitor {
 
     long getFailoverCount();
 
+    /**
+     * The first host did not respond within the speculative execution delay so
+     * the operation was also sent to another host
+     * 
+     * @param host  Host the speculative attempt was sent to
+     */
+    void incHedgeSent(Host host);
+
+    long getHedgeSentCount();
+
+    /**
+     * A speculative attempt responded before the original attempt
+     * 
+     * @param host  Host the speculative attempt was sent to
+     */
+    void incHedgeWon(Host host);
+
+    long getHedgeWonCount();
+
+    /**
+     * An operation was rejected because the host reached its concurrency limit
+     * 
+     * @param host
+     */
+    void incConcurrencyLimitReached(Host host);
+
+    long getConcurrencyLimitReachedCount();
+
+    /**
+     * The concurrency limit of a host was adjusted
+     * 
+     * @param host
+     * @param limit     New number of operations allowed in flight on the host
+     */
+    void onConcurrencyLimitChanged(Host host, int limit);
+
+    long getConcurrencyLimitChangedCount();
+
     /**
      * Succeeded in executing an operation
      * 
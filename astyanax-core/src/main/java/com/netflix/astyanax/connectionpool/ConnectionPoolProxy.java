@@ -2,11 +2,15 @@ package com.netflix.astyanax.connectionpool;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
 import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
 import com.netflix.astyanax.connectionpool.exceptions.OperationException;
 import com.netflix.astyanax.connectionpool.impl.Topology;
@@ -114,6 +118,13 @@ public class ConnectionPoolProxy<T> implements ConnectionPool<T> {
 		return null;
 	}
 
+	@Override
+	public <R> ListenableFuture<OperationResult<R>> executeWithFailoverAsync(Operation<T, R> op, RetryPolicy retry, Executor executor) {
+		// The proxy only tracks the host list and has no connections to execute the operation on
+		return Futures.immediateFailedFuture(
+				new UnsupportedOperationException("ConnectionPoolProxy does not execute operations"));
+	}
+
 	@Override
 	public void shutdown() {
 		if (this.lastHostList.get() != null) {
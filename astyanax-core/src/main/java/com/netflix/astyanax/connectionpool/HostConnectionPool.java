@@ -152,6 +152,13 @@ public interface HostConnectionPool<CL> {
      */
     double getScore();
 
+    /**
+     * @param percentile    Fraction of samples between 0 and 1, e.g. 0.99
+     * @return Latency, in nanoseconds, below which the given fraction of the recent 
+     *         latency samples for this host fall, or 0 if there are no samples
+     */
+    double getLatencyPercentile(double percentile);
+
     /**
      * Add a single latency sample after an operation on a connection belonging
      * to this pool
@@ -27,6 +27,13 @@ public interface LatencyScoreStrategy {
          */
         double getScore();
 
+        /**
+         * @param percentile    Fraction of samples between 0 and 1, e.g. 0.99
+         * @return Latency below which the given fraction of the recent samples
+         *         fall, or 0 if there are no samples
+         */
+        double getPercentile(double percentile);
+
         /**
          * Reset the score and any internal stats
          */
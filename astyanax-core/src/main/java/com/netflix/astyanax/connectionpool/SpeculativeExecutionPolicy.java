@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.connectionpool;
+
+/**
+ * Policy for speculative (hedged) execution.  When the host an operation was sent
+ * to has not responded within the speculative delay, the connection pool sends
+ * the same operation to the next host in the partition and uses whichever response
+ * arrives first.
+ *
+ * Only operations that are safe to execute more than once, such as reads, should
+ * be speculative.  Regardless of the policy, operations are only sent to a second
+ * host when they implement {@link StatelessOperation} and are stateless.
+ *
+ * @see ConnectionPoolConfiguration#getSpeculativeExecutionPolicy()
+ */
+public interface SpeculativeExecutionPolicy {
+    /**
+     * @param operation
+     * @return True if the operation may be sent to a second host
+     */
+    boolean isSpeculative(Operation<?, ?> operation);
+
+    /**
+     * @param pool  Pool of the host the operation was first sent to
+     * @return Time, in milliseconds, to wait for the host to respond before sending
+     *         the operation to the next host, or -1 to never send it
+     */
+    long getSpeculativeDelay(HostConnectionPool<?> pool);
+}
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.connectionpool;
+
+/**
+ * Implemented by {@link Operation}s that can tell whether executing them changes
+ * their state, such as the start of the next page of a paginated query.  Only
+ * stateless operations may be executed on more than one connection at the same
+ * time, which is what speculative execution does.
+ *
+ * @see SpeculativeExecutionPolicy
+ */
+public interface StatelessOperation {
+    /**
+     * @return True if the operation may be executed concurrently on several connections
+     */
+    boolean isStateless();
+}
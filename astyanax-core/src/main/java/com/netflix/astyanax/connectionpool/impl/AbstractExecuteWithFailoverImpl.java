@@ -15,6 +15,13 @@
  ******************************************************************************/
 package com.netflix.astyanax.connectionpool.impl;
 
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import com.netflix.astyanax.connectionpool.Connection;
 import com.netflix.astyanax.connectionpool.ConnectionPool;
 import com.netflix.astyanax.connectionpool.ConnectionPoolConfiguration;
@@ -24,7 +31,10 @@ import com.netflix.astyanax.connectionpool.Host;
 import com.netflix.astyanax.connectionpool.HostConnectionPool;
 import com.netflix.astyanax.connectionpool.Operation;
 import com.netflix.astyanax.connectionpool.OperationResult;
+import com.netflix.astyanax.connectionpool.SpeculativeExecutionPolicy;
+import com.netflix.astyanax.connectionpool.StatelessOperation;
 import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
+import com.netflix.astyanax.connectionpool.exceptions.InterruptedOperationException;
 import com.netflix.astyanax.connectionpool.exceptions.IsRetryableException;
 import com.netflix.astyanax.connectionpool.exceptions.UnknownException;
 
@@ -38,7 +48,14 @@ import com.netflix.astyanax.connectionpool.exceptions.UnknownException;
  * 
  * Note that extending classes need to implement functionality to {@link AbstractExecuteWithFailoverImpl#borrowConnection(Operation)} that must be used
  * to execute the operation. They also need to implement {@link AbstractExecuteWithFailoverImpl#canRetry()} to tell this class 
- * when to stop borrowing connections on failed attempts. 
+ * when to stop borrowing connections on failed attempts. <br/> <br/>
+ * 
+ * When a {@link SpeculativeExecutionPolicy} is configured and allows it for a {@link StatelessOperation}, the 
+ * operation runs on the speculative executor and, if the host doesn't respond within the speculative delay, a 
+ * connection to another host is borrowed with {@link #borrowHedgeConnection(Operation, Host)} and the operation 
+ * is sent there as well.  The first successful response is returned and each attempt returns its own connection 
+ * once it completes.  Success and failure are attributed to the host of the attempt that produced them, not to 
+ * the host last borrowed from.
  *  
  * @param <CL>
  * @param <R>
@@ -55,8 +72,11 @@ public abstract class AbstractExecuteWithFailoverImpl<CL, R> implements ExecuteW
     private long startTime;
     private long poolStartTime;
     private int attemptCounter = 0;
+    private Host attemptHost = null;
     private final ConnectionPoolMonitor monitor;
     protected final ConnectionPoolConfiguration config;
+    private final SpeculativeExecutionPolicy speculativeExecutionPolicy;
+    private final ExecutorService speculativeExecutor;
     
     /**
      * Public constructor
@@ -68,6 +88,8 @@ public abstract class AbstractExecuteWithFailoverImpl<CL, R> implements ExecuteW
             throws ConnectionException {
     	this.monitor = monitor;
     	this.config = config;
+    	this.speculativeExecutionPolicy = config.getSpeculativeExecutionPolicy();
+    	this.speculativeExecutor = config.getSpeculativeExecutor();
         startTime = poolStartTime = System.currentTimeMillis();
     }
     
@@ -94,6 +116,20 @@ public abstract class AbstractExecuteWithFailoverImpl<CL, R> implements ExecuteW
 	 */
     abstract public Connection<CL> borrowConnection(Operation<CL, R> operation) throws ConnectionException;
 
+    /**
+     * Borrow a connection for a speculative attempt, preferably to a host other than the one of the 
+     * current attempt.  Unlike {@link #borrowConnection(Operation)} this must not change the state used 
+     * to pick the host of the next failover attempt.  The default doesn't hedge.
+     * 
+     * @param operation
+     * @param currentHost Host of the attempt being hedged
+     * @return {@link Connection} or null if there is no other host to send the operation to
+     * @throws ConnectionException
+     */
+    protected Connection<CL> borrowHedgeConnection(Operation<CL, R> operation, Host currentHost) throws ConnectionException {
+        return null;
+    }
+
     /**
      * @return boolean
      */
@@ -109,16 +145,26 @@ public abstract class AbstractExecuteWithFailoverImpl<CL, R> implements ExecuteW
 	@Override
 	public OperationResult<R> tryOperation(Operation<CL, R> operation) throws ConnectionException {
 	    Operation<CL, R> filteredOperation = config.getOperationFilterFactory().attachFilter(operation);
+	    boolean speculative = speculativeExecutionPolicy != null 
+	                       && speculativeExecutor != null 
+	                       && operation.getPinnedHost() == null
+	                       && operation instanceof StatelessOperation
+	                       && ((StatelessOperation) operation).isStateless()
+	                       && speculativeExecutionPolicy.isSpeculative(operation);
 	    
         while (true) {
             attemptCounter++;
             
             try {
+                attemptHost = null;
                 connection = borrowConnection(filteredOperation);
+                attemptHost = connection.getHostConnectionPool().getHost();
                 startTime = System.currentTimeMillis();
-                OperationResult<R> result = connection.execute(filteredOperation);
+                OperationResult<R> result = speculative 
+                        ? executeSpeculatively(filteredOperation) 
+                        : connection.execute(filteredOperation);
                 result.setAttemptsCount(attemptCounter);
-                monitor.incOperationSuccess(getCurrentHost(), result.getLatency());
+                monitor.incOperationSuccess(getAttemptHost(), result.getLatency());
                 return result;
             }
             catch (Exception e) {
@@ -129,7 +175,7 @@ public abstract class AbstractExecuteWithFailoverImpl<CL, R> implements ExecuteW
                     monitor.incFailover(ce.getHost(), ce);
             	}
             	catch (ConnectionException ex) {
-                    monitor.incOperationFailure(getCurrentHost(), ex);
+                    monitor.incOperationFailure(getAttemptHost(), ex);
                     throw ex;
             	}
             }
@@ -141,14 +187,193 @@ public abstract class AbstractExecuteWithFailoverImpl<CL, R> implements ExecuteW
 
 	protected void releaseConnection() {
         if (connection != null) {
-	    	connection.getHostConnectionPool().returnConnection(connection);
+            releaseConnection(connection);
 	        connection = null;
 	    }
 	}
+
+	/**
+	 * Return a connection borrowed by {@link #borrowConnection(Operation)}
+	 * @param connection
+	 */
+	protected void releaseConnection(Connection<CL> connection) {
+	    connection.getHostConnectionPool().returnConnection(connection);
+	}
+
+	/**
+	 * Execute the operation on the current connection and, if its host doesn't respond 
+	 * within the speculative delay, on a connection to the next host as well.  Ownership
+	 * of the connections passes to the attempts so a losing attempt doesn't hold up
+	 * the caller.  If all attempts fail the error from the first one is thrown.  The 
+	 * failures of the other attempts are reported against their own hosts, whether
+	 * they complete before or after this returns.
+	 * 
+	 * @param operation
+	 * @return {@link OperationResult} of the first successful attempt
+	 */
+	private OperationResult<R> executeSpeculatively(Operation<CL, R> operation) throws ConnectionException {
+	    long delay = speculativeExecutionPolicy.getSpeculativeDelay(connection.getHostConnectionPool());
+	    if (delay < 0)
+	        return connection.execute(operation);
+
+	    BlockingQueue<SpeculativeAttempt> completed = new LinkedBlockingQueue<SpeculativeAttempt>();
+	    SpeculativeAttempt primary = new SpeculativeAttempt(connection, operation, completed);
+	    try {
+	        speculativeExecutor.execute(primary);
+	    }
+	    catch (RejectedExecutionException e) {
+	        return connection.execute(operation);
+	    }
+	    connection = null;
+
+	    SpeculativeAttempt hedge = null;
+	    SpeculativeAttempt thrown = null;
+	    try {
+	        int pending = 1;
+	        SpeculativeAttempt done = completed.poll(delay, TimeUnit.MILLISECONDS);
+	        if (done == null) {
+	            hedge = startHedge(operation, primary.getHost(), completed);
+	            if (hedge != null)
+	                pending++;
+	        }
+
+	        while (true) {
+	            if (done == null)
+	                done = completed.take();
+	            pending--;
+	            if (done.error == null) {
+	                if (done == hedge) {
+	                    attemptHost = hedge.getHost();
+	                    monitor.incHedgeWon(hedge.getHost());
+	                }
+	                return done.result;
+	            }
+	            if (pending == 0) {
+	                thrown = primary;
+	                throw primary.error;
+	            }
+	            done = null;
+	        }
+	    }
+	    catch (InterruptedException e) {
+	        Thread.currentThread().interrupt();
+	        throw new InterruptedOperationException("Interrupted waiting for speculative execution", e);
+	    }
+	    finally {
+	        if (primary != thrown)
+	            primary.abandon();
+	        if (hedge != null)
+	            hedge.abandon();
+	    }
+	}
+
+	/**
+	 * Report the failure of a speculative attempt whose error isn't thrown to the caller
+	 */
+	private void informAttemptFailure(SpeculativeAttempt attempt) {
+	    attempt.error
+	        .setHost(attempt.getHost())
+	        .setLatency(attempt.latency)
+	        .setAttempt(attemptCounter)
+	        .setLatencyWithPool(System.currentTimeMillis() - poolStartTime);
+	    monitor.incFailover(attempt.getHost(), attempt.error);
+	}
+
+	/**
+	 * @return Host of the current attempt, or the host last borrowed from if the attempt 
+	 *         failed to borrow a connection
+	 */
+	private Host getAttemptHost() {
+	    return attemptHost != null ? attemptHost : getCurrentHost();
+	}
+
+	/**
+	 * Borrow a connection to another host and send the operation there
+	 * @return The speculative attempt or null if there is no other host available
+	 */
+	private SpeculativeAttempt startHedge(Operation<CL, R> operation, Host primaryHost, BlockingQueue<SpeculativeAttempt> completed) {
+	    Connection<CL> hedgeConnection;
+	    try {
+	        hedgeConnection = borrowHedgeConnection(operation, primaryHost);
+	    }
+	    catch (ConnectionException e) {
+	        return null;
+	    }
+
+	    if (hedgeConnection == null)
+	        return null;
+	    if (hedgeConnection.getHostConnectionPool().getHost().equals(primaryHost)) {
+	        releaseConnection(hedgeConnection);
+	        return null;
+	    }
+
+	    SpeculativeAttempt hedge = new SpeculativeAttempt(hedgeConnection, operation, completed);
+	    try {
+	        speculativeExecutor.execute(hedge);
+	    }
+	    catch (RejectedExecutionException e) {
+	        releaseConnection(hedgeConnection);
+	        return null;
+	    }
+	    monitor.incHedgeSent(hedge.getHost());
+	    return hedge;
+	}
+
+	/**
+	 * Single attempt at executing the operation on a connection.  The connection is 
+	 * returned before the attempt is reported as completed.  Once the attempt has both 
+	 * completed and been abandoned by the caller, a failure is reported by whichever
+	 * of the two happens last.
+	 */
+	private class SpeculativeAttempt implements Runnable {
+	    private final Connection<CL> connection;
+	    private final Operation<CL, R> operation;
+	    private final BlockingQueue<SpeculativeAttempt> completed;
+	    private volatile OperationResult<R> result;
+	    private volatile ConnectionException error;
+	    private volatile long latency;
+	    private final AtomicBoolean finished = new AtomicBoolean();
+
+	    SpeculativeAttempt(Connection<CL> connection, Operation<CL, R> operation, BlockingQueue<SpeculativeAttempt> completed) {
+	        this.connection = connection;
+	        this.operation  = operation;
+	        this.completed  = completed;
+	    }
+
+	    Host getHost() {
+	        return connection.getHostConnectionPool().getHost();
+	    }
+
+	    /**
+	     * Called by the caller once it no longer waits for this attempt
+	     */
+	    void abandon() {
+	        if (!finished.compareAndSet(false, true) && error != null)
+	            informAttemptFailure(this);
+	    }
+
+	    @Override
+	    public void run() {
+	        long startTime = System.currentTimeMillis();
+	        try {
+	            result = connection.execute(operation);
+	        }
+	        catch (Exception e) {
+	            error = (e instanceof ConnectionException) ? (ConnectionException) e : new UnknownException(e);
+	        }
+	        finally {
+	            latency = System.currentTimeMillis() - startTime;
+	            releaseConnection(connection);
+	            if (!finished.compareAndSet(false, true) && error != null)
+	                informAttemptFailure(this);
+	            completed.add(this);
+	        }
+	    }
+	}
     
     private void informException(ConnectionException connectionException) throws ConnectionException {
         connectionException
-            .setHost(getCurrentHost())
+            .setHost(getAttemptHost())
         	.setLatency(System.currentTimeMillis() - startTime)
         	.setAttempt(this.attemptCounter)
         	.setLatencyWithPool(System.currentTimeMillis() - poolStartTime);
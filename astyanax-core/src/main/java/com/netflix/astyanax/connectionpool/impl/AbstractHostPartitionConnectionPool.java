@@ -22,6 +22,9 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.cliffc.high_scale_lib.NonBlockingHashMap;
 import org.slf4j.Logger;
@@ -30,6 +33,8 @@ import org.slf4j.LoggerFactory;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import com.netflix.astyanax.connectionpool.ConnectionFactory;
 import com.netflix.astyanax.connectionpool.ConnectionPool;
 import com.netflix.astyanax.connectionpool.ConnectionPoolConfiguration;
@@ -45,6 +50,7 @@ import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
 import com.netflix.astyanax.connectionpool.exceptions.OperationException;
 import com.netflix.astyanax.partitioner.Partitioner;
 import com.netflix.astyanax.retry.RetryPolicy;
+import com.netflix.astyanax.retry.SleepingRetryPolicy;
 import com.netflix.astyanax.tracing.AstyanaxContext;
 import com.netflix.astyanax.tracing.OperationTracer;
 
@@ -58,11 +64,10 @@ import com.netflix.astyanax.tracing.OperationTracer;
  * The hashmap tracks the basic set of hosts and their corresponding connection pools. The topology is used to track the internal state of the token ring
  * for the cassandra cluster. <br/>
  * The class uses these 2 structures to determine whether there has been a change to the system when a host joins or leaves the ring, 
- * or even if an existing host just receives an update for the token ring partition that it owns. Hence the class can actively rebuild all the partitions
- * associated with each as and when there is a change.  <br/>
+ * or even if an existing host just receives an update for the token ring partition that it owns. The topology only refreshes the partitions
+ * that contain the hosts that changed.  <br/>
  * 
- * See {@link #addHost(Host, boolean)} {@link #removeHost(Host, boolean)} {@link #setHosts(Collection)} for host changes and the corresponding trigger to {@link #rebuildPartitions()}
- * when this happens.  <br/>
+ * See {@link #addHost(Host, boolean)} {@link #removeHost(Host, boolean)} {@link #setHosts(Collection)} for host changes.  <br/>
  * 
  * Note that when the connection pool is started it fetches the list of seed hosts from config (if any) and then inits it's data structures using these seed hosts. <br/>
  * It also employs a listener to the latency score updates so  that it can rebuild partitions as and when it receives updates 
@@ -216,7 +221,6 @@ public abstract class AbstractHostPartitionConnectionPool<CL> implements Connect
                     monitor.onHostAdded(host, pool);
                     if (refresh) {
                         topology.addPool(pool);
-                        rebuildPartitions();
                     }
                     pool.primeConnections(config.getInitConnsPerHost());
                 }
@@ -279,7 +283,6 @@ public abstract class AbstractHostPartitionConnectionPool<CL> implements Connect
         HostConnectionPool<CL> pool = hosts.remove(host);
         if (pool != null) {
             topology.removePool(pool);
-            rebuildPartitions();
             monitor.onHostRemoved(host);
             pool.shutdown();
             return true;
@@ -324,7 +327,6 @@ public abstract class AbstractHostPartitionConnectionPool<CL> implements Connect
 
         if (changed) {
             topology.setPools(hosts.values());
-            rebuildPartitions();
         }
     }
     
@@ -380,6 +382,116 @@ public abstract class AbstractHostPartitionConnectionPool<CL> implements Connect
         throw lastException;
     }
 
+    /**
+     * Executes the operation using failover and retry strategy without blocking the 
+     * calling thread.  Each attempt runs on the executor.  The backoff of a 
+     * {@link SleepingRetryPolicy} is scheduled on the maintenance scheduler instead of
+     * sleeping so no thread is held between attempts.
+     * 
+     * @param op
+     * @param retry
+     * @param executor
+     * @return Future for the {@link OperationResult}
+     */
+    @Override
+    public <R> ListenableFuture<OperationResult<R>> executeWithFailoverAsync(Operation<CL, R> op, RetryPolicy retry,
+            Executor executor) {
+        OperationTracer opsTracer = config.getOperationTracer();
+        AstyanaxContext context = opsTracer.getAstyanaxContext();
+        if (context != null) {
+            opsTracer.onCall(context, op);
+        }
+
+        AsyncFailover<R> failover = new AsyncFailover<R>(op, retry, executor, context);
+        retry.begin();
+        failover.submit();
+        return failover.future;
+    }
+
+    /**
+     * One operation executed by {@link #executeWithFailoverAsync(Operation, RetryPolicy, Executor)}.
+     * Runs a single attempt each time it is executed and either completes the future or 
+     * schedules itself for the next attempt.
+     */
+    private class AsyncFailover<R> implements Runnable {
+        private final SettableFuture<OperationResult<R>> future = SettableFuture.create();
+        private final Operation<CL, R>  op;
+        private final RetryPolicy       retry;
+        private final Executor          executor;
+        private final AstyanaxContext   context;
+
+        AsyncFailover(Operation<CL, R> op, RetryPolicy retry, Executor executor, AstyanaxContext context) {
+            this.op       = op;
+            this.retry    = retry;
+            this.executor = executor;
+            this.context  = context;
+        }
+
+        @Override
+        public void run() {
+            if (future.isCancelled())
+                return;
+
+            try {
+                OperationResult<R> result = newExecuteWithFailover(op).tryOperation(op);
+                retry.success();
+                if (context != null)
+                    config.getOperationTracer().onSuccess(context, op);
+                future.set(result);
+            }
+            catch (OperationException e) {
+                fail(e);
+            }
+            catch (ConnectionException e) {
+                long delay = nextRetryDelay();
+                if (delay < 0) {
+                    fail(e);
+                }
+                else if (delay == 0) {
+                    submit();
+                }
+                else {
+                    try {
+                        config.getMaintainanceScheduler().schedule(new Runnable() {
+                            @Override
+                            public void run() {
+                                submit();
+                            }
+                        }, delay, TimeUnit.MILLISECONDS);
+                    }
+                    catch (RejectedExecutionException ree) {
+                        fail(e);
+                    }
+                }
+            }
+            catch (RuntimeException e) {
+                future.setException(e);
+            }
+        }
+
+        void submit() {
+            try {
+                executor.execute(this);
+            }
+            catch (RejectedExecutionException e) {
+                future.setException(e);
+            }
+        }
+
+        private long nextRetryDelay() {
+            if (retry instanceof SleepingRetryPolicy)
+                return ((SleepingRetryPolicy)retry).nextRetryDelay();
+            return retry.allowRetry() ? 0 : -1;
+        }
+
+        private void fail(ConnectionException e) {
+            if (context != null)
+                config.getOperationTracer().onException(context, op, e);
+            retry.failure(e);
+            future.setException(e);
+        }
+    }
+
     /**
      * Return a new failover context. The context captures the connection pool
      * state and implements the necessary failover logic.
@@ -392,7 +504,8 @@ public abstract class AbstractHostPartitionConnectionPool<CL> implements Connect
             throws ConnectionException;
 
     /**
-     * Called every time a host is added, removed or is marked as down
+     * Called every time the latency scores are updated or reset.  Host changes only
+     * refresh the partitions that contain the host.
      */
     protected void rebuildPartitions() {
         topology.refresh();
@@ -1,5 +1,7 @@
 package com.netflix.astyanax.connectionpool.impl;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
@@ -212,6 +214,33 @@ public abstract class AbstractLatencyScoreStrategyImpl implements LatencyScoreSt
         return pools;
     }
 
+    /**
+     * @return Samples as a sorted array
+     */
+    protected static long[] sortSamples(Collection<Long> samples) {
+        long[] sorted = new long[samples.size()];
+        int i = 0;
+        for (Long sample : samples) {
+            if (i == sorted.length)
+                break;
+            sorted[i++] = sample;
+        }
+        if (i < sorted.length)
+            sorted = Arrays.copyOf(sorted, i);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * @return Sample at the given percentile of the sorted samples or 0 if there are none
+     */
+    protected static double getPercentile(long[] sorted, double percentile) {
+        if (sorted.length == 0)
+            return 0.0;
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
     @Override
     public void update() {
         for (Instance inst : instances) {
@@ -69,6 +69,13 @@ public class AbstractTopology<CL> implements Topology<CL> {
         return getAllPools();
     }
 
+    @Override
+    public Map<TokenHostConnectionPoolPartition<CL>, List<ByteBuffer>> groupByPartition(Collection<ByteBuffer> rowkeys) {
+        Map<TokenHostConnectionPoolPartition<CL>, List<ByteBuffer>> groups = Maps.newLinkedHashMap();
+        groups.put(getAllPools(), Lists.newArrayList(rowkeys));
+        return groups;
+    }
+
     @Override
     public TokenHostConnectionPoolPartition<CL> getAllPools() {
         return allPools;
@@ -15,7 +15,8 @@
  ******************************************************************************/
 package com.netflix.astyanax.connectionpool.impl;
 
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import com.netflix.astyanax.connectionpool.BadHostDetector;
 import com.netflix.astyanax.connectionpool.ConnectionPoolConfiguration;
@@ -29,11 +30,9 @@ import com.netflix.astyanax.connectionpool.ConnectionPoolConfiguration;
  */
 public class BadHostDetectorImpl implements BadHostDetector {
 	
-	private final LinkedBlockingQueue<Long> timeouts;
 	private final ConnectionPoolConfiguration config;
 	
 	public BadHostDetectorImpl(ConnectionPoolConfiguration config) {
-		this.timeouts = new LinkedBlockingQueue<Long>();
 		this.config = config;
 	}
 	
@@ -48,19 +47,26 @@ public class BadHostDetectorImpl implements BadHostDetector {
 	
 	@Override
 	public Instance createInstance() {
+		final int maxTimeoutCount = Math.max(0, config.getMaxTimeoutCount());
+		
 		return new Instance() {
+			// Ring of the last maxTimeoutCount+1 timeout timestamps for this host
+			private final AtomicLongArray timeouts = new AtomicLongArray(maxTimeoutCount + 1);
+			private final AtomicLong      count    = new AtomicLong();
+			
 			@Override
 			public boolean addTimeoutSample() {
 				long currentTimeMillis = System.currentTimeMillis();
 				
-				timeouts.add(currentTimeMillis);
+				long index = count.getAndIncrement();
+				timeouts.set((int) (index % timeouts.length()), currentTimeMillis);
 				
 				// Determine if the host exceeded timeoutCounter exceptions in
 				// the timeoutWindow, in which case this is determined to be a
 				// failure
-				if (timeouts.size() > config.getMaxTimeoutCount()) {
-					Long last = timeouts.remove();
-					if ((currentTimeMillis - last.longValue()) < config.getTimeoutWindow()) {
+				if (index >= maxTimeoutCount) {
+					long last = timeouts.get((int) ((index - maxTimeoutCount) % timeouts.length()));
+					if ((currentTimeMillis - last) < config.getTimeoutWindow()) {
 						return true;
 					}
 				}
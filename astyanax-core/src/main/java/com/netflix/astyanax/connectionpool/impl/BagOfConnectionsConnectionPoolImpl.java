@@ -11,6 +11,7 @@ import com.netflix.astyanax.connectionpool.ConnectionFactory;
 import com.netflix.astyanax.connectionpool.ConnectionPoolConfiguration;
 import com.netflix.astyanax.connectionpool.ConnectionPoolMonitor;
 import com.netflix.astyanax.connectionpool.ExecuteWithFailover;
+import com.netflix.astyanax.connectionpool.Host;
 import com.netflix.astyanax.connectionpool.HostConnectionPool;
 import com.netflix.astyanax.connectionpool.Operation;
 import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
@@ -172,15 +173,20 @@ public class BagOfConnectionsConnectionPoolImpl<CL> extends AbstractHostPartitio
             return connection;
         }
 
+        @Override
+        protected Connection<CL> borrowHedgeConnection(Operation<CL, R> operation, Host currentHost) throws ConnectionException {
+            // The bag doesn't pick hosts.  A connection to the current host is returned to the bag unused
+            return BagOfConnectionsConnectionPoolImpl.this.borrowConnection(operation);
+        }
+
         @Override
         public boolean canRetry() {
             return --retryCountdown >= 0;
         }
 
         @Override
-        public void releaseConnection() {
+        protected void releaseConnection(Connection<CL> connection) {
             BagOfConnectionsConnectionPoolImpl.this.returnConnection(connection);
-            connection = null;
         }
     }
 
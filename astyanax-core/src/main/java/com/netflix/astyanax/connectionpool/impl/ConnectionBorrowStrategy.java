@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.connectionpool.impl;
+
+/**
+ * Strategy used by {@link SimpleHostConnectionPool} to hand out idle connections.
+ * 
+ * <ul>
+ * <li>QUEUE - All idle connections live in a single shared queue.  Every borrow and return 
+ *     goes through the head of that queue.</li>
+ * <li>THREAD_AFFINITY - Idle connections are first parked in a small array of slots striped by 
+ *     thread id so that a thread usually gets back the connection it last returned without touching
+ *     the shared queue.  The shared queue is only used when the thread's slot is empty or when 
+ *     other threads are blocked waiting for a connection.</li>
+ * </ul>
+ */
+public enum ConnectionBorrowStrategy {
+    QUEUE, THREAD_AFFINITY
+}
@@ -17,6 +17,7 @@ package com.netflix.astyanax.connectionpool.impl;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
@@ -26,12 +27,14 @@ import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.astyanax.AuthenticationCredentials;
 import com.netflix.astyanax.connectionpool.BadHostDetector;
+import com.netflix.astyanax.connectionpool.ConcurrencyLimitStrategy;
 import com.netflix.astyanax.connectionpool.ConnectionPoolConfiguration;
 import com.netflix.astyanax.connectionpool.Host;
 import com.netflix.astyanax.connectionpool.LatencyScoreStrategy;
 import com.netflix.astyanax.connectionpool.OperationFilterFactory;
 import com.netflix.astyanax.connectionpool.RetryBackoffStrategy;
 import com.netflix.astyanax.connectionpool.SSLConnectionContext;
+import com.netflix.astyanax.connectionpool.SpeculativeExecutionPolicy;
 import com.netflix.astyanax.partitioner.Partitioner;
 import com.netflix.astyanax.shallows.EmptyBadHostDetectorImpl;
 import com.netflix.astyanax.shallows.EmptyLatencyScoreStrategyImpl;
@@ -112,6 +115,7 @@ public class ConnectionPoolConfigurationImpl implements ConnectionPoolConfigurat
     private String seeds = null;
     private RetryBackoffStrategy hostRetryBackoffStrategy = null;
     private HostSelectorStrategy hostSelectorStrategy     = HostSelectorStrategy.ROUND_ROBIN;
+    private ConnectionBorrowStrategy borrowStrategy       = ConnectionBorrowStrategy.QUEUE;
     private LatencyScoreStrategy latencyScoreStrategy     = new EmptyLatencyScoreStrategyImpl();
     private BadHostDetector badHostDetector               = DEFAULT_BAD_HOST_DETECTOR;
     private AuthenticationCredentials credentials         = null;
@@ -119,12 +123,16 @@ public class ConnectionPoolConfigurationImpl implements ConnectionPoolConfigurat
     private OperationTracer opTracer                      = new EmptyOperationTracer();
     private Partitioner partitioner                       = null;
     private SSLConnectionContext sslCtx;
+    private SpeculativeExecutionPolicy speculativeExecutionPolicy = null;
+    private ConcurrencyLimitStrategy concurrencyLimitStrategy = null;
 
     private ScheduledExecutorService maintainanceExecutor;
     private ScheduledExecutorService reconnectExecutor;
+    private ExecutorService          speculativeExecutor;
     
     private boolean bOwnMaintainanceExecutor              = false;
     private boolean bOwnReconnectExecutor                 = false;
+    private boolean bOwnSpeculativeExecutor               = false;
             
     private String localDatacenter = null;
 
@@ -152,6 +160,10 @@ public class ConnectionPoolConfigurationImpl implements ConnectionPoolConfigurat
             reconnectExecutor = Executors.newScheduledThreadPool(DEFAULT_RECONNECT_THREAD_COUNT, new ThreadFactoryBuilder().setDaemon(true).build());
             bOwnReconnectExecutor = true;
         }
+        if (speculativeExecutor == null && speculativeExecutionPolicy != null) {
+            speculativeExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setDaemon(true).build());
+            bOwnSpeculativeExecutor = true;
+        }
     }
     
     @Override
@@ -163,6 +175,10 @@ public class ConnectionPoolConfigurationImpl implements ConnectionPoolConfigurat
         if (bOwnReconnectExecutor) {
             reconnectExecutor.shutdownNow();
         }
+
+        if (bOwnSpeculativeExecutor) {
+            speculativeExecutor.shutdownNow();
+        }
     }
     
     /*
@@ -328,6 +344,16 @@ public class ConnectionPoolConfigurationImpl implements ConnectionPoolConfigurat
         return this;
     }
 
+    @Override
+    public ConnectionBorrowStrategy getConnectionBorrowStrategy() {
+        return this.borrowStrategy;
+    }
+
+    public ConnectionPoolConfigurationImpl setConnectionBorrowStrategy(ConnectionBorrowStrategy borrowStrategy) {
+        this.borrowStrategy = borrowStrategy;
+        return this;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -622,6 +648,37 @@ public class ConnectionPoolConfigurationImpl implements ConnectionPoolConfigurat
         return this;
     }
 
+    @Override
+    public SpeculativeExecutionPolicy getSpeculativeExecutionPolicy() {
+        return this.speculativeExecutionPolicy;
+    }
+
+    public ConnectionPoolConfigurationImpl setSpeculativeExecutionPolicy(SpeculativeExecutionPolicy policy) {
+        this.speculativeExecutionPolicy = policy;
+        return this;
+    }
+
+    @Override
+    public ExecutorService getSpeculativeExecutor() {
+        return this.speculativeExecutor;
+    }
+
+    public ConnectionPoolConfigurationImpl setSpeculativeExecutor(ExecutorService executor) {
+        speculativeExecutor = executor;
+        bOwnSpeculativeExecutor = false;
+        return this;
+    }
+
+    @Override
+    public ConcurrencyLimitStrategy getConcurrencyLimitStrategy() {
+        return this.concurrencyLimitStrategy;
+    }
+
+    public ConnectionPoolConfigurationImpl setConcurrencyLimitStrategy(ConcurrencyLimitStrategy strategy) {
+        this.concurrencyLimitStrategy = strategy;
+        return this;
+    }
+
 	@Override
 	public OperationTracer getOperationTracer() {
 		return opTracer;
@@ -1,6 +1,9 @@
 package com.netflix.astyanax.connectionpool.impl;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
@@ -17,6 +20,7 @@ import com.netflix.astyanax.connectionpool.exceptions.NoAvailableHostsException;
 import com.netflix.astyanax.connectionpool.exceptions.OperationTimeoutException;
 import com.netflix.astyanax.connectionpool.exceptions.NotFoundException;
 import com.netflix.astyanax.connectionpool.exceptions.HostDownException;
+import com.netflix.astyanax.connectionpool.exceptions.ThrottledException;
 import com.netflix.astyanax.connectionpool.exceptions.TransportException;
 import com.netflix.astyanax.connectionpool.exceptions.InterruptedOperationException;
 
@@ -45,6 +49,11 @@ public class CountingConnectionPoolMonitor implements ConnectionPoolMonitor {
     private AtomicLong connectionReturnCount  = new AtomicLong();
     
     private AtomicLong operationFailoverCount = new AtomicLong();
+    private AtomicLong hedgeSentCount         = new AtomicLong();
+    private AtomicLong hedgeWonCount          = new AtomicLong();
+    private AtomicLong limitReachedCount      = new AtomicLong();
+    private AtomicLong limitChangedCount      = new AtomicLong();
+    private ConcurrentMap<Host, Integer> concurrencyLimits = new ConcurrentHashMap<Host, Integer>();
     
     private AtomicLong hostAddedCount         = new AtomicLong();
     private AtomicLong hostRemovedCount       = new AtomicLong();
@@ -90,6 +99,9 @@ public class CountingConnectionPoolMonitor implements ConnectionPoolMonitor {
         else if (reason instanceof TransportException) {
             this.transportErrorCount.incrementAndGet();
         }
+        else if (reason instanceof ThrottledException) {
+            // Counted by incConcurrencyLimitReached
+        }
         else {
             LOG.error(reason.toString(), reason);
             this.unknownErrorCount.incrementAndGet();
@@ -189,6 +201,54 @@ public class CountingConnectionPoolMonitor implements ConnectionPoolMonitor {
         return this.operationFailoverCount.get();
     }
 
+    @Override
+    public void incHedgeSent(Host host) {
+        this.hedgeSentCount.incrementAndGet();
+    }
+
+    @Override
+    public long getHedgeSentCount() {
+        return this.hedgeSentCount.get();
+    }
+
+    @Override
+    public void incHedgeWon(Host host) {
+        this.hedgeWonCount.incrementAndGet();
+    }
+
+    @Override
+    public long getHedgeWonCount() {
+        return this.hedgeWonCount.get();
+    }
+
+    @Override
+    public void incConcurrencyLimitReached(Host host) {
+        this.limitReachedCount.incrementAndGet();
+    }
+
+    @Override
+    public long getConcurrencyLimitReachedCount() {
+        return this.limitReachedCount.get();
+    }
+
+    @Override
+    public void onConcurrencyLimitChanged(Host host, int limit) {
+        this.limitChangedCount.incrementAndGet();
+        this.concurrencyLimits.put(host, limit);
+    }
+
+    @Override
+    public long getConcurrencyLimitChangedCount() {
+        return this.limitChangedCount.get();
+    }
+
+    /**
+     * @return Most recent concurrency limit of each host whose limit was adjusted
+     */
+    public Map<Host, Integer> getConcurrencyLimits() {
+        return Collections.unmodifiableMap(concurrencyLimits);
+    }
+
     @Override
     public void onHostAdded(Host host, HostConnectionPool<?> pool) {
         LOG.info("AddHost: " + host.getHostName());
@@ -204,6 +264,7 @@ public class CountingConnectionPoolMonitor implements ConnectionPoolMonitor {
     public void onHostRemoved(Host host) {
         LOG.info("RemoveHost: " + host.getHostName());
         this.hostRemovedCount.incrementAndGet();
+        this.concurrencyLimits.remove(host);
     }
 
     @Override
@@ -297,6 +358,9 @@ public class CountingConnectionPoolMonitor implements ConnectionPoolMonitor {
                     .append(",optimeout="  ).append(operationTimeoutCount.get())
                     .append(",timeout="    ).append(socketTimeoutCount.get())
                     .append(",failover="   ).append(operationFailoverCount.get())
+                    .append(",hedged="     ).append(hedgeSentCount.get())
+                    .append(",hedgewon="   ).append(hedgeWonCount.get())
+                    .append(",limited="    ).append(limitReachedCount.get())
                     .append(",nohosts="    ).append(noHostsCount.get())
                     .append(",unknown="    ).append(unknownErrorCount.get())
                     .append(",interrupted=").append(interruptedCount.get())
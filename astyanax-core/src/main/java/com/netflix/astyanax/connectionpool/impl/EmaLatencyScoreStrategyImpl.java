@@ -47,6 +47,7 @@ public class EmaLatencyScoreStrategyImpl extends AbstractLatencyScoreStrategyImp
         return new Instance() {
             private final LinkedBlockingQueue<Long> latencies = new LinkedBlockingQueue<Long>(N);
             private volatile double cachedScore = 0.0d;
+            private volatile long[] sortedSamples = new long[0];
     
             @Override
             public void addSample(long sample) {
@@ -64,10 +65,20 @@ public class EmaLatencyScoreStrategyImpl extends AbstractLatencyScoreStrategyImp
             public double getScore() {
                 return cachedScore;
             }
+
+            /**
+             * Samples are drained on every update so the percentile is taken from
+             * the samples seen during the last update interval that had any
+             */
+            @Override
+            public double getPercentile(double percentile) {
+                return AbstractLatencyScoreStrategyImpl.getPercentile(sortedSamples, percentile);
+            }
     
             @Override
             public void reset() {
                 cachedScore = 0.0;
+                sortedSamples = new long[0];
                 latencies.clear();
             }
     
@@ -81,6 +92,9 @@ public class EmaLatencyScoreStrategyImpl extends AbstractLatencyScoreStrategyImp
                 latencies.drainTo(samples);
                 if (samples.size() == 0) {
                     samples.add(0L);
+                }
+                else {
+                    sortedSamples = sortSamples(samples);
                 }                    
                 
                 if (ema == 0.0) {
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.connectionpool.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Preconditions;
+import com.netflix.astyanax.connectionpool.ConcurrencyLimitStrategy;
+
+/**
+ * Concurrency limit driven by the gradient between a host's long term and 
+ * recent latency.  Both are exponential moving averages of the latency samples,
+ * one over a long window and one over a short window.  
+ * 
+ * While the recent latency stays within tolerance of the long term latency the 
+ * limit grows by the square root of the current limit on every sample.  When 
+ * requests start queueing on the host the recent latency rises and the limit is 
+ * scaled down by the ratio of the two, but by no more than half per sample.  Both
+ * adjustments are smoothed. 
+ * Timeouts are sampled as the socket timeout and so shrink the limit quickly.
+ * 
+ * The limit is not grown while less than half of it is in use, so a lightly loaded
+ * host doesn't build up a limit it has never been tested against.
+ */
+public class GradientConcurrencyLimitStrategyImpl implements ConcurrencyLimitStrategy {
+    public static final int    DEFAULT_INITIAL_LIMIT = 20;
+    public static final int    DEFAULT_MIN_LIMIT     = 1;
+    public static final int    DEFAULT_MAX_LIMIT     = 200;
+    public static final double DEFAULT_TOLERANCE     = 1.5;
+    public static final double DEFAULT_SMOOTHING     = 0.2;
+    public static final int    DEFAULT_SHORT_WINDOW  = 10;
+    public static final int    DEFAULT_LONG_WINDOW   = 600;
+
+    private final int    initialLimit;
+    private final int    minLimit;
+    private final int    maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double shortAlpha;
+    private final double longAlpha;
+
+    /**
+     * @param initialLimit  Limit of a new host
+     * @param minLimit      
+     * @param maxLimit      
+     * @param tolerance     Ratio of recent to long term latency that is still considered flat, e.g. 1.5
+     * @param smoothing     Fraction of each new limit estimate applied to the current limit, between 0 and 1
+     * @param shortWindow   Number of samples averaged for the recent latency
+     * @param longWindow    Number of samples averaged for the long term latency
+     */
+    public GradientConcurrencyLimitStrategyImpl(int initialLimit, int minLimit, int maxLimit, double tolerance, 
+            double smoothing, int shortWindow, int longWindow) {
+        Preconditions.checkArgument(minLimit > 0 && minLimit <= initialLimit && initialLimit <= maxLimit, 
+                "Expecting 0 < minLimit <= initialLimit <= maxLimit");
+        Preconditions.checkArgument(tolerance >= 1.0, "tolerance must be >= 1");
+        Preconditions.checkArgument(smoothing > 0 && smoothing <= 1, "smoothing must be in (0, 1]");
+        Preconditions.checkArgument(shortWindow > 0 && shortWindow < longWindow, "Expecting 0 < shortWindow < longWindow");
+        this.initialLimit = initialLimit;
+        this.minLimit     = minLimit;
+        this.maxLimit     = maxLimit;
+        this.tolerance    = tolerance;
+        this.smoothing    = smoothing;
+        this.shortAlpha   = 2.0 / (shortWindow + 1);
+        this.longAlpha    = 2.0 / (longWindow + 1);
+    }
+
+    public GradientConcurrencyLimitStrategyImpl(int initialLimit, int maxLimit) {
+        this(initialLimit, DEFAULT_MIN_LIMIT, maxLimit, DEFAULT_TOLERANCE, DEFAULT_SMOOTHING, DEFAULT_SHORT_WINDOW, DEFAULT_LONG_WINDOW);
+    }
+
+    public GradientConcurrencyLimitStrategyImpl() {
+        this(DEFAULT_INITIAL_LIMIT, DEFAULT_MAX_LIMIT);
+    }
+
+    @Override
+    public Instance createInstance() {
+        return new Instance() {
+            private final AtomicInteger inFlight = new AtomicInteger();
+            private volatile int        limit    = initialLimit;
+            private double              estimatedLimit = initialLimit;
+            private double              shortRtt = 0.0;
+            private double              longRtt  = 0.0;
+
+            @Override
+            public boolean tryAcquire() {
+                while (true) {
+                    int current = inFlight.get();
+                    if (current >= limit)
+                        return false;
+                    if (inFlight.compareAndSet(current, current + 1))
+                        return true;
+                }
+            }
+
+            @Override
+            public void release() {
+                inFlight.decrementAndGet();
+            }
+
+            @Override
+            public synchronized void addSample(long latency) {
+                if (latency <= 0)
+                    return;
+
+                if (longRtt == 0.0) {
+                    shortRtt = latency;
+                    longRtt  = latency;
+                    return;
+                }
+                shortRtt += (latency - shortRtt) * shortAlpha;
+                longRtt  += (latency - longRtt)  * longAlpha;
+
+                // The host got faster than its long term average, e.g. after recovering
+                // from a slow period.  Let the long term average catch up quickly.
+                if (longRtt > shortRtt * 2)
+                    longRtt *= 0.95;
+
+                double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+                double newLimit;
+                if (gradient < 1.0) {
+                    newLimit = estimatedLimit * gradient;
+                }
+                else if (inFlight.get() < estimatedLimit / 2) {
+                    return;
+                }
+                else {
+                    newLimit = estimatedLimit + Math.sqrt(estimatedLimit);
+                }
+                newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+                estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+                limit = (int) estimatedLimit;
+            }
+
+            @Override
+            public int getLimit() {
+                return limit;
+            }
+
+            @Override
+            public int getInFlight() {
+                return inFlight.get();
+            }
+
+            @Override
+            public String toString() {
+                return new StringBuilder()
+                    .append("GradientConcurrencyLimit[")
+                    .append("limit=").append(limit)
+                    .append(",inFlight=").append(inFlight.get())
+                    .append("]")
+                    .toString();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder()
+            .append("GradientConcurrencyLimitStrategyImpl[")
+            .append("initialLimit=").append(initialLimit)
+            .append(",minLimit=").append(minLimit)
+            .append(",maxLimit=").append(maxLimit)
+            .append(",tolerance=").append(tolerance)
+            .append(",smoothing=").append(smoothing)
+            .append("]")
+            .toString();
+    }
+}
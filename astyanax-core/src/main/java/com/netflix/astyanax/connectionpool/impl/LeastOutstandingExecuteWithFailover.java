@@ -7,6 +7,7 @@ import com.google.common.collect.Lists;
 import com.netflix.astyanax.connectionpool.Connection;
 import com.netflix.astyanax.connectionpool.ConnectionPoolConfiguration;
 import com.netflix.astyanax.connectionpool.ConnectionPoolMonitor;
+import com.netflix.astyanax.connectionpool.Host;
 import com.netflix.astyanax.connectionpool.HostConnectionPool;
 import com.netflix.astyanax.connectionpool.Operation;
 import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
@@ -64,13 +65,32 @@ public class LeastOutstandingExecuteWithFailover<CL, R> extends AbstractExecuteW
     public Connection<CL> borrowConnection(Operation<CL, R> operation) throws ConnectionException {
         // find the pool with the least outstanding (i.e most idle) active connections
         Iterator<HostConnectionPool<CL>> iterator = this.pools.iterator();
-        HostConnectionPool eligible = iterator.next();
+        HostConnectionPool<CL> eligible = iterator.next();
         while (iterator.hasNext()) {
             HostConnectionPool<CL> candidate = iterator.next();
             if (candidate.getIdleConnectionCount() > eligible.getIdleConnectionCount()) {
                 eligible = candidate;
             }
         }
+        pool = eligible;
+        return eligible.borrowConnection(waitDelta * waitMultiplier);
+    }
+
+    /**
+     * Borrow from the host with the most idle connections other than the current one
+     */
+    @Override
+    protected Connection<CL> borrowHedgeConnection(Operation<CL, R> operation, Host currentHost) throws ConnectionException {
+        HostConnectionPool<CL> eligible = null;
+        for (HostConnectionPool<CL> candidate : pools) {
+            if (candidate.getHost().equals(currentHost))
+                continue;
+            if (eligible == null || candidate.getIdleConnectionCount() > eligible.getIdleConnectionCount()) {
+                eligible = candidate;
+            }
+        }
+        if (eligible == null)
+            return null;
         return eligible.borrowConnection(waitDelta * waitMultiplier);
     }
 
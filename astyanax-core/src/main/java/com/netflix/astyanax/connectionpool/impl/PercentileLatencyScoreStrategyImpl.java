@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.connectionpool.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Score hosts by a latency percentile, such as p99, over a window of the most
+ * recent samples.  Unlike a mean, a high percentile shows hosts with tail latency
+ * outliers.
+ *
+ * Samples are recorded into a fixed size ring of primitive longs so recording
+ * a sample doesn't allocate or take a lock.  The ring is copied and sorted once
+ * per update interval, and the sorted copy also answers
+ * {@link Instance#getPercentile(double)} between updates.
+ */
+public class PercentileLatencyScoreStrategyImpl extends AbstractLatencyScoreStrategyImpl {
+    private static final String NAME = "PERCENTILE";
+
+    public static final int    DEFAULT_WINDOW_SIZE = 128;
+    public static final double DEFAULT_PERCENTILE  = 0.99;
+
+    private final int    windowSize;
+    private final double percentile;
+
+    /**
+     * @param updateInterval    In milliseconds
+     * @param resetInterval     In milliseconds
+     * @param windowSize        Number of recent samples kept per host.  Rounded up to a power of two
+     * @param blockedThreshold
+     * @param keepRatio
+     * @param scoreThreshold
+     * @param percentile        Percentile used as the score, between 0 and 1, e.g. 0.99
+     */
+    public PercentileLatencyScoreStrategyImpl(int updateInterval, int resetInterval, int windowSize, int blockedThreshold, double keepRatio, double scoreThreshold, double percentile) {
+        super(NAME, updateInterval, resetInterval, blockedThreshold, keepRatio, scoreThreshold);
+        Preconditions.checkArgument(windowSize > 0 && windowSize <= (1 << 20), "windowSize must be in [1, 2^20]");
+        Preconditions.checkArgument(percentile > 0 && percentile <= 1, "percentile must be in (0, 1]");
+        int size = 1;
+        while (size < windowSize)
+            size <<= 1;
+        this.windowSize = size;
+        this.percentile = percentile;
+    }
+
+    public PercentileLatencyScoreStrategyImpl(int updateInterval, int resetInterval, int windowSize, double percentile) {
+        this(updateInterval, resetInterval, windowSize, DEFAULT_BLOCKED_THREAD_THRESHOLD, DEFAULT_KEEP_RATIO, DEFAULT_SCORE_THRESHOLD, percentile);
+    }
+
+    public PercentileLatencyScoreStrategyImpl() {
+        this(DEFAULT_UPDATE_INTERVAL, DEFAULT_RESET_INTERVAL, DEFAULT_WINDOW_SIZE, DEFAULT_PERCENTILE);
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    @Override
+    public final Instance newInstance() {
+        return new Instance() {
+            private final AtomicLongArray samples = new AtomicLongArray(windowSize);
+            private final AtomicLong      count   = new AtomicLong();
+            private final int             mask    = windowSize - 1;
+            private volatile long[]       sorted  = new long[0];
+            private volatile double       cachedScore = 0.0d;
+
+            @Override
+            public void addSample(long sample) {
+                samples.lazySet((int) (count.getAndIncrement() & mask), sample);
+            }
+
+            @Override
+            public double getScore() {
+                return cachedScore;
+            }
+
+            @Override
+            public double getPercentile(double percentile) {
+                return AbstractLatencyScoreStrategyImpl.getPercentile(sorted, percentile);
+            }
+
+            @Override
+            public void reset() {
+                count.set(0);
+                sorted = new long[0];
+                cachedScore = 0.0;
+            }
+
+            @Override
+            public void update() {
+                int size = (int) Math.min(count.get(), windowSize);
+                long[] snapshot = new long[size];
+                for (int i = 0; i < size; i++) {
+                    snapshot[i] = samples.get(i);
+                }
+                Arrays.sort(snapshot);
+                sorted = snapshot;
+                cachedScore = AbstractLatencyScoreStrategyImpl.getPercentile(snapshot, percentile);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder()
+            .append("PercentileLatencyScoreStrategyImpl[")
+            .append("windowSize=").append(windowSize)
+            .append(",percentile=").append(percentile)
+            .append(",update=").append(getUpdateInterval())
+            .append(",reset=").append(getResetInterval())
+            .append("]")
+            .toString();
+    }
+}
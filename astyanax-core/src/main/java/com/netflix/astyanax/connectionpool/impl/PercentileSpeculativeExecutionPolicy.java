@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.connectionpool.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Preconditions;
+import com.netflix.astyanax.connectionpool.HostConnectionPool;
+import com.netflix.astyanax.connectionpool.LatencyScoreStrategy;
+import com.netflix.astyanax.connectionpool.SpeculativeExecutionPolicy;
+
+/**
+ * Speculative execution policy that waits for a host's latency percentile, such as
+ * its p99, before sending the operation to the next host.  The percentile is taken
+ * from the latency samples kept by the {@link LatencyScoreStrategy} for that host,
+ * so a {@link LatencyScoreStrategy} that tracks samples must be configured.  Until a
+ * host has samples the max delay is used.
+ *
+ * Extending classes decide which operations are speculative.
+ */
+public abstract class PercentileSpeculativeExecutionPolicy implements SpeculativeExecutionPolicy {
+    private final double percentile;
+    private final long   minDelay;
+    private final long   maxDelay;
+
+    /**
+     * @param percentile    Latency percentile between 0 and 1, e.g. 0.99
+     * @param minDelay      Lower bound for the delay, in milliseconds
+     * @param maxDelay      Upper bound for the delay, in milliseconds
+     */
+    public PercentileSpeculativeExecutionPolicy(double percentile, long minDelay, long maxDelay) {
+        Preconditions.checkArgument(percentile > 0 && percentile <= 1, "percentile must be in (0, 1]");
+        Preconditions.checkArgument(minDelay >= 0 && minDelay <= maxDelay, "Expecting 0 <= minDelay <= maxDelay");
+        this.percentile = percentile;
+        this.minDelay   = minDelay;
+        this.maxDelay   = maxDelay;
+    }
+
+    @Override
+    public long getSpeculativeDelay(HostConnectionPool<?> pool) {
+        double latency = pool.getLatencyPercentile(percentile);
+        if (latency <= 0)
+            return maxDelay;
+        long delay = TimeUnit.MILLISECONDS.convert((long) latency, TimeUnit.NANOSECONDS);
+        return Math.max(minDelay, Math.min(maxDelay, delay));
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public long getMinDelay() {
+        return minDelay;
+    }
+
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder()
+            .append(getClass().getSimpleName()).append("[")
+            .append("percentile=").append(percentile)
+            .append(",minDelay=").append(minDelay)
+            .append(",maxDelay=").append(maxDelay)
+            .append("]")
+            .toString();
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import com.netflix.astyanax.connectionpool.Connection;
 import com.netflix.astyanax.connectionpool.ConnectionPoolConfiguration;
 import com.netflix.astyanax.connectionpool.ConnectionPoolMonitor;
+import com.netflix.astyanax.connectionpool.Host;
 import com.netflix.astyanax.connectionpool.HostConnectionPool;
 import com.netflix.astyanax.connectionpool.Operation;
 import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
@@ -84,4 +85,21 @@ public class RoundRobinExecuteWithFailover<CL, R> extends AbstractExecuteWithFai
         return pool.borrowConnection(waitDelta * waitMultiplier);
     }
 
+    /**
+     * Borrow from the first host in round robin order other than the current one without 
+     * moving the index, so the next failover attempt goes to the same host it would have 
+     * without the hedge.
+     */
+    @Override
+    protected Connection<CL> borrowHedgeConnection(Operation<CL, R> operation, Host currentHost) throws ConnectionException {
+        int next = index % size;
+        for (int i = 0; i < size; i++) {
+            HostConnectionPool<CL> candidate = pools.get((next + i) % size);
+            if (!candidate.getHost().equals(currentHost)) {
+                return candidate.borrowConnection(waitDelta * waitMultiplier);
+            }
+        }
+        return null;
+    }
+
 }
@@ -23,6 +23,9 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.cliffc.high_scale_lib.Counter;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +33,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.netflix.astyanax.connectionpool.BadHostDetector;
+import com.netflix.astyanax.connectionpool.ConcurrencyLimitStrategy;
 import com.netflix.astyanax.connectionpool.Connection;
 import com.netflix.astyanax.connectionpool.ConnectionFactory;
 import com.netflix.astyanax.connectionpool.ConnectionPoolConfiguration;
@@ -61,6 +65,10 @@ import com.netflix.astyanax.connectionpool.exceptions.UnknownException;
  *      to create a new connection before waiting, but don't necessarily wait for the same connection to be opened, since they could be unblocked by 
  *      another client returning a previously used {@link Connection}
  *      
+ *      When configured with {@link ConnectionBorrowStrategy#THREAD_AFFINITY} idle connections are first parked in a 
+ *      small array of slots striped by thread id, and the shared queue is only used when a thread's slot is empty or
+ *      other threads are blocked waiting for a connection.  This keeps the borrow/return hot path off the queue head. <br/>
+ *      
  *      The class also provides a {@link SimpleHostConnectionPool#markAsDown(ConnectionException)} method which helps purge all connections and then
  *      attempts to init a new set of connections to the host. 
  *      
@@ -99,13 +107,20 @@ public class SimpleHostConnectionPool<CL> implements HostConnectionPool<CL> {
     private final AtomicInteger                 openConnections      = new AtomicInteger(0);
     private final AtomicInteger                 failedOpenConnections= new AtomicInteger(0);
     private final AtomicInteger                 closedConnections    = new AtomicInteger(0);
-    private final AtomicLong                    borrowedCount        = new AtomicLong(0);
-    private final AtomicLong                    returnedCount        = new AtomicLong(0);
+    private final Counter                       borrowedCount        = new Counter();
+    private final Counter                       returnedCount        = new Counter();
     private final AtomicInteger                 connectAttempt       = new AtomicInteger(0);
     private final AtomicInteger                 markedDownCount      = new AtomicInteger(0);
     
     private final AtomicInteger                 errorsSinceLastSuccess = new AtomicInteger(0);
 
+    /**
+     * Idle connection slots striped by thread id.  Only used with {@link ConnectionBorrowStrategy#THREAD_AFFINITY}, 
+     * null otherwise.
+     */
+    private final AtomicReferenceArray<Connection<CL>> affinitySlots;
+    private final int                           affinityMask;
+
     private final ConnectionFactory<CL>         factory;
     private final Host                          host;
     private final AtomicBoolean                 isShutdown           = new AtomicBoolean(false);
@@ -114,6 +129,8 @@ public class SimpleHostConnectionPool<CL> implements HostConnectionPool<CL> {
     private final RetryBackoffStrategy.Instance retryContext;
     private final BadHostDetector.Instance      badHostDetector;
     private final LatencyScoreStrategy.Instance latencyStrategy;
+    private final ConcurrencyLimitStrategy.Instance concurrencyLimit;
+    private volatile int                        publishedLimit;
     private final Listener<CL>                  listener;
     private final ConnectionPoolMonitor         monitor;
 
@@ -129,10 +146,24 @@ public class SimpleHostConnectionPool<CL> implements HostConnectionPool<CL> {
         this.retryContext    = config.getRetryBackoffStrategy().createInstance();
         this.latencyStrategy = config.getLatencyScoreStrategy().createInstance();
         this.badHostDetector = config.getBadHostDetector().createInstance();
+        this.concurrencyLimit = config.getConcurrencyLimitStrategy() == null 
+                              ? null 
+                              : config.getConcurrencyLimitStrategy().createInstance();
+        this.publishedLimit  = concurrencyLimit == null ? 0 : concurrencyLimit.getLimit();
         this.monitor         = monitor;
         this.availableConnections = new LinkedBlockingQueue<Connection<CL>>();
         this.executor        = config.getHostReconnectExecutor();
         
+        if (config.getConnectionBorrowStrategy() == ConnectionBorrowStrategy.THREAD_AFFINITY) {
+            int slots = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+            this.affinitySlots = new AtomicReferenceArray<Connection<CL>>(slots);
+            this.affinityMask  = slots - 1;
+        }
+        else {
+            this.affinitySlots = null;
+            this.affinityMask  = 0;
+        }
+        
         Preconditions.checkNotNull(config.getHostReconnectExecutor(), "HostReconnectExecutor cannot be null");
     }
 
@@ -179,14 +210,22 @@ public class SimpleHostConnectionPool<CL> implements HostConnectionPool<CL> {
      *             if timeout specified and no new connection is available
      *             MaxConnsPerHostReachedException if max connections created
      *             and no timeout was specified
+     * @throws ThrottledException
+     *             if the host's concurrency limit was reached
      */
     @Override
     public Connection<CL> borrowConnection(int timeout) throws ConnectionException {
+        if (concurrencyLimit != null && !concurrencyLimit.tryAcquire()) {
+            monitor.incConcurrencyLimitReached(host);
+            throw new ThrottledException("Concurrency limit of " + concurrencyLimit.getLimit() + " reached")
+                    .setHost(getHost());
+        }
+
         Connection<CL> connection = null;
         long startTime = System.currentTimeMillis();
         try {
             // Try to get a free connection without blocking.
-            connection = availableConnections.poll();
+            connection = pollIdleConnection();
             if (connection != null) {
                 return connection;
             }
@@ -205,9 +244,12 @@ public class SimpleHostConnectionPool<CL> implements HostConnectionPool<CL> {
         }
         finally {
             if (connection != null) {
-                borrowedCount.incrementAndGet();
+                borrowedCount.increment();
                 monitor.incConnectionBorrowed(host, System.currentTimeMillis() - startTime);
             }
+            else if (concurrencyLimit != null) {
+                concurrencyLimit.release();
+            }
         }
     }
 
@@ -224,6 +266,15 @@ public class SimpleHostConnectionPool<CL> implements HostConnectionPool<CL> {
         long startTime = System.currentTimeMillis();
         try {
             blockedThreads.incrementAndGet();
+            
+            // A connection may have been parked in an affinity slot before the returning
+            // thread could see that we are blocked.  See offerIdleConnection()
+            if (affinitySlots != null) {
+                connection = takeFromAnySlot(0);
+                if (connection != null)
+                    return connection;
+            }
+            
             connection = availableConnections.poll(timeout, TimeUnit.MILLISECONDS);
             if (connection != null)
                 return connection;
@@ -250,8 +301,11 @@ public class SimpleHostConnectionPool<CL> implements HostConnectionPool<CL> {
      */
     @Override
     public boolean returnConnection(Connection<CL> connection) {
-        returnedCount.incrementAndGet();
+        returnedCount.increment();
         monitor.incConnectionReturned(host);
+        if (concurrencyLimit != null) {
+            concurrencyLimit.release();
+        }
 
         ConnectionException ce = connection.getLastException();
         if (ce != null) {
@@ -261,11 +315,13 @@ public class SimpleHostConnectionPool<CL> implements HostConnectionPool<CL> {
                 return true;
             }
         }
-        errorsSinceLastSuccess.set(0);
+        // Avoid dirtying a shared cache line on every return
+        if (errorsSinceLastSuccess.get() != 0)
+            errorsSinceLastSuccess.set(0);
 
         // Still within the number of max active connection
         if (activeCount.get() <= config.getMaxConnsPerHost()) {
-            availableConnections.add(connection);
+            offerIdleConnection(connection);
 
             if (isShutdown()) {
                 discardIdleConnections();
@@ -284,12 +340,87 @@ public class SimpleHostConnectionPool<CL> implements HostConnectionPool<CL> {
 
     @Override
     public boolean closeConnection(Connection<CL> connection) {
-        returnedCount.incrementAndGet();
+        returnedCount.increment();
         monitor.incConnectionReturned(host);
+        if (concurrencyLimit != null) {
+            concurrencyLimit.release();
+        }
         internalCloseConnection(connection);
         return true;
     }
 
+    /**
+     * Get an idle connection without blocking.  With thread affinity enabled the calling thread's
+     * slot is tried first, then the shared queue and finally all other slots.
+     * 
+     * @return An idle connection or null if none is available
+     */
+    private Connection<CL> pollIdleConnection() {
+        if (affinitySlots == null)
+            return availableConnections.poll();
+        
+        int index = affinityIndex();
+        Connection<CL> connection = takeFromSlot(index);
+        if (connection != null)
+            return connection;
+        
+        connection = availableConnections.poll();
+        if (connection != null)
+            return connection;
+        
+        return takeFromAnySlot(index + 1);
+    }
+    
+    /**
+     * Make a connection available for borrowing.  With thread affinity enabled the connection is parked
+     * in the calling thread's slot unless the slot is occupied or threads are blocked on the shared queue.
+     * 
+     * @param connection
+     */
+    private void offerIdleConnection(Connection<CL> connection) {
+        if (affinitySlots != null) {
+            int index = affinityIndex();
+            if (affinitySlots.get(index) == null && affinitySlots.compareAndSet(index, null, connection)) {
+                // A waiting thread increments blockedThreads before scanning the slots so either it
+                // saw the connection or we see it here and hand the connection over through the queue.
+                if (blockedThreads.get() == 0 || !affinitySlots.compareAndSet(index, connection, null))
+                    return;
+            }
+        }
+        availableConnections.add(connection);
+    }
+    
+    private int affinityIndex() {
+        return (int)Thread.currentThread().getId() & affinityMask;
+    }
+    
+    private Connection<CL> takeFromSlot(int index) {
+        Connection<CL> connection = affinitySlots.get(index);
+        if (connection != null && affinitySlots.compareAndSet(index, connection, null))
+            return connection;
+        return null;
+    }
+    
+    private Connection<CL> takeFromAnySlot(int start) {
+        for (int i = 0; i <= affinityMask; i++) {
+            Connection<CL> connection = takeFromSlot((start + i) & affinityMask);
+            if (connection != null)
+                return connection;
+        }
+        return null;
+    }
+    
+    private int getAffinitySlotCount() {
+        int count = 0;
+        if (affinitySlots != null) {
+            for (int i = 0; i <= affinityMask; i++) {
+                if (affinitySlots.get(i) != null)
+                    count++;
+            }
+        }
+        return count;
+    }
+
     private void internalCloseConnection(Connection<CL> connection) {
         try {
             closedConnections.incrementAndGet();
@@ -494,7 +625,7 @@ public class SimpleHostConnectionPool<CL> implements HostConnectionPool<CL> {
 
     @Override
     public int getIdleConnectionCount() {
-        return availableConnections.size();
+        return availableConnections.size() + getAffinitySlotCount();
     }
 
     @Override
@@ -538,9 +669,22 @@ public class SimpleHostConnectionPool<CL> implements HostConnectionPool<CL> {
         return latencyStrategy.getScore();
     }
 
+    @Override
+    public double getLatencyPercentile(double percentile) {
+        return latencyStrategy.getPercentile(percentile);
+    }
+
     @Override
     public void addLatencySample(long latency, long now) {
         latencyStrategy.addSample(latency);
+        if (concurrencyLimit != null) {
+            concurrencyLimit.addSample(latency);
+            int limit = concurrencyLimit.getLimit();
+            if (limit != publishedLimit) {
+                publishedLimit = limit;
+                monitor.onConcurrencyLimitChanged(host, limit);
+            }
+        }
     }
     
     @Override
@@ -555,6 +699,13 @@ public class SimpleHostConnectionPool<CL> implements HostConnectionPool<CL> {
     private void discardIdleConnections() {
         List<Connection<CL>> connections = Lists.newArrayList();
         availableConnections.drainTo(connections);
+        if (affinitySlots != null) {
+            for (int i = 0; i <= affinityMask; i++) {
+                Connection<CL> connection = affinitySlots.getAndSet(i, null);
+                if (connection != null)
+                    connections.add(connection);
+            }
+        }
         activeCount.addAndGet(-connections.size());
 
         for (Connection<CL> connection : connections) {
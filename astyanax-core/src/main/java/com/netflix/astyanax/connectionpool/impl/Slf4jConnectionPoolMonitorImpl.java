@@ -8,6 +8,7 @@ import com.netflix.astyanax.connectionpool.HostConnectionPool;
 import com.netflix.astyanax.connectionpool.exceptions.HostDownException;
 import com.netflix.astyanax.connectionpool.exceptions.NotFoundException;
 import com.netflix.astyanax.connectionpool.exceptions.PoolTimeoutException;
+import com.netflix.astyanax.connectionpool.exceptions.ThrottledException;
 
 /**
  * 
@@ -51,7 +52,8 @@ public class Slf4jConnectionPoolMonitorImpl extends CountingConnectionPoolMonito
     @Override
     public void incFailover(Host host, Exception reason) {
         if (reason != null) {
-            if (reason instanceof HostDownException || reason instanceof PoolTimeoutException) {
+            if (reason instanceof HostDownException || reason instanceof PoolTimeoutException 
+                    || reason instanceof ThrottledException) {
                 // we don't need to log these
             }
             else {
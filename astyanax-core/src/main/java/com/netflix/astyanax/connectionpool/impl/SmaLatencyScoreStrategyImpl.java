@@ -26,6 +26,7 @@ public class SmaLatencyScoreStrategyImpl extends AbstractLatencyScoreStrategyImp
         return new Instance() {
             private final LinkedBlockingQueue<Long> latencies = new LinkedBlockingQueue<Long>(windowSize);
             private volatile Double cachedScore = 0.0d;
+            private volatile long[] sortedSamples = new long[0];
     
             @Override
             public void addSample(long sample) {
@@ -43,15 +44,25 @@ public class SmaLatencyScoreStrategyImpl extends AbstractLatencyScoreStrategyImp
             public double getScore() {
                 return cachedScore;
             }
+
+            /**
+             * Percentile of the samples as of the last update
+             */
+            @Override
+            public double getPercentile(double percentile) {
+                return AbstractLatencyScoreStrategyImpl.getPercentile(sortedSamples, percentile);
+            }
     
             @Override
             public void reset() {
+                sortedSamples = new long[0];
                 latencies.clear();
             }
     
             @Override
             public void update() {
                 cachedScore = getMean();
+                sortedSamples = sortSamples(latencies);
             }
     
             private double getMean() {
@@ -49,7 +49,10 @@ import com.netflix.astyanax.partitioner.Partitioner;
  * See the {@link #getPartition(ByteBuffer)} method for details on how the various data structures are consulted for retrieving the comprehensive list of 
  * host connection pools for a row key. <br/> 
  * Note that if the token range token is provided directly, then we can directly consult the tokenPartitionMap. But if we receive a row key, then that is converted 
- * to an integer which is then used to do a bin search over the list of all sorted tokens in the token ring. 
+ * to an integer which is then used to do a bin search over the list of all sorted tokens in the token ring. <br/>
+ * When the partitioner supports {@link Partitioner#getTokenForKey(ByteBuffer, long[])} the search is done over a primitive 
+ * snapshot of the ring tokens (a single long[] when all tokens fit in 64 bits, such as with Murmur3, otherwise a pair of long[]) 
+ * which is rebuilt whenever the ring changes, so routing a row key doesn't allocate.
  * </p>
  * 
  * 
@@ -64,8 +67,18 @@ public class TokenPartitionedTopology<CL> implements Topology<CL> {
      * Sorted list of partitions.  A binary search is performed on this list to determine
      * the list of hosts that own the token range.
      */
-    private AtomicReference<List<TokenHostConnectionPoolPartition<CL>>> sortedRing
-    	= new AtomicReference<List<TokenHostConnectionPoolPartition<CL>>>(new ArrayList<TokenHostConnectionPoolPartition<CL>>());
+    private AtomicReference<TokenRing<CL>> sortedRing
+    	= new AtomicReference<TokenRing<CL>>(new TokenRing<CL>(new ArrayList<TokenHostConnectionPoolPartition<CL>>()));
+
+    /**
+     * Per thread scratch space for {@link Partitioner#getTokenForKey(ByteBuffer, long[])}
+     */
+    private static final ThreadLocal<long[]> tokenBuffer = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[2];
+        }
+    };
 
     /**
      * Lookup of end token to partition 
@@ -73,6 +86,13 @@ public class TokenPartitionedTopology<CL> implements Topology<CL> {
     private NonBlockingHashMap<BigInteger, TokenHostConnectionPoolPartition<CL>> tokenToPartitionMap
     	= new NonBlockingHashMap<BigInteger, TokenHostConnectionPoolPartition<CL>>();
 
+    /**
+     * Lookup of pool to the partitions that contain it, so that a host going up or down only
+     * refreshes its own partitions.  Lists are replaced rather than modified.
+     */
+    private NonBlockingHashMap<HostConnectionPool<CL>, List<TokenHostConnectionPoolPartition<CL>>> poolToPartitionMap
+        = new NonBlockingHashMap<HostConnectionPool<CL>, List<TokenHostConnectionPoolPartition<CL>>>();
+
     /**
      * Partition which contains all hosts.  This is the fallback partition when no tokens are provided.
      */
@@ -130,7 +150,7 @@ public class TokenPartitionedTopology<CL> implements Topology<CL> {
     @Override
     /**
      * Update the list of pools using the provided mapping of start token to collection of hosts
-     * that own the token
+     * that own the token.  Only partitions whose hosts changed are refreshed.
      */
     public synchronized boolean setPools(Collection<HostConnectionPool<CL>> ring) {
         boolean didChange = false;
@@ -156,9 +176,10 @@ public class TokenPartitionedTopology<CL> implements Topology<CL> {
         }
 
         // Temporary list of token that will be removed if not found in the new ring
-        Set<BigInteger> tokensToRemove = Sets.newHashSet(tokenHostMap.keySet());
+        Set<BigInteger> tokensToRemove = Sets.newHashSet(tokenToPartitionMap.keySet());
 
-        // Iterate all tokens
+        // Iterate all tokens.  A partition refreshes itself only if its pools changed
+        Map<HostConnectionPool<CL>, List<TokenHostConnectionPoolPartition<CL>>> poolToPartitions = Maps.newHashMap();
         for (Entry<BigInteger, List<HostConnectionPool<CL>>> entry : tokenHostMap.entrySet()) {
             BigInteger token = entry.getKey();
             tokensToRemove.remove(token);
@@ -172,11 +193,20 @@ public class TokenPartitionedTopology<CL> implements Topology<CL> {
             }
             if (partition.setPools(entry.getValue()))
                 didChange = true;
+            
+            for (HostConnectionPool<CL> pool : entry.getValue()) {
+                List<TokenHostConnectionPoolPartition<CL>> partitions = poolToPartitions.get(pool);
+                if (partitions == null) {
+                    partitions = Lists.newArrayList();
+                    poolToPartitions.put(pool, partitions);
+                }
+                partitions.add(partition);
+            }
         }
 
         // Remove the tokens that are no longer in the ring
         for (BigInteger token : tokensToRemove) {
-            tokenHostMap.remove(token);
+            tokenToPartitionMap.remove(token);
             didChange = true;
         }
 
@@ -185,8 +215,15 @@ public class TokenPartitionedTopology<CL> implements Topology<CL> {
             List<TokenHostConnectionPoolPartition<CL>> partitions = Lists.newArrayList(tokenToPartitionMap.values());
             Collections.sort(partitions, partitionComparator);
             this.allPools.setPools(allPools);
-            refresh();
-            this.sortedRing.set(Collections.unmodifiableList(partitions));
+            this.sortedRing.set(new TokenRing<CL>(Collections.unmodifiableList(partitions)));
+            
+            for (Entry<HostConnectionPool<CL>, List<TokenHostConnectionPoolPartition<CL>>> entry : poolToPartitions.entrySet()) {
+                poolToPartitionMap.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+            }
+            for (HostConnectionPool<CL> pool : Lists.newArrayList(poolToPartitionMap.keySet())) {
+                if (!poolToPartitions.containsKey(pool))
+                    poolToPartitionMap.remove(pool);
+            }
         }
 
         return didChange;
@@ -194,12 +231,26 @@ public class TokenPartitionedTopology<CL> implements Topology<CL> {
 
     @Override
     public synchronized void resumePool(HostConnectionPool<CL> pool) {
-        refresh();
+        refreshPool(pool);
     }
 
     @Override
     public synchronized void suspendPool(HostConnectionPool<CL> pool) {
-        refresh();
+        refreshPool(pool);
+    }
+
+    /**
+     * Refresh only the partitions that contain the pool
+     * @param pool
+     */
+    private void refreshPool(HostConnectionPool<CL> pool) {
+        allPools.refresh();
+        List<TokenHostConnectionPoolPartition<CL>> partitions = poolToPartitionMap.get(pool);
+        if (partitions != null) {
+            for (TokenHostConnectionPoolPartition<CL> partition : partitions) {
+                partition.refresh();
+            }
+        }
     }
 
     @Override
@@ -221,15 +272,63 @@ public class TokenPartitionedTopology<CL> implements Topology<CL> {
         if (rowkey == null)
             return getAllPools();
         
-        BigInteger token = new BigInteger(partitioner.getTokenForKey(rowkey));
-        
         // First, get a copy of the partitions.
-    	List<TokenHostConnectionPoolPartition<CL>> partitions = this.sortedRing.get();
+        return getPartition(this.sortedRing.get(), rowkey);
+    }
+    
+    @Override
+    public Map<TokenHostConnectionPoolPartition<CL>, List<ByteBuffer>> groupByPartition(Collection<ByteBuffer> rowkeys) {
+        // Use the same snapshot of the ring for all keys
+        TokenRing<CL> ring = this.sortedRing.get();
+        
+        // With vnodes many token ranges are owned by the same hosts.  Keys are grouped by the hosts
+        // of their partition, using the first partition seen for a set of hosts as the group's key.
+        Map<TokenHostConnectionPoolPartition<CL>, TokenHostConnectionPoolPartition<CL>> canonical = Maps.newIdentityHashMap();
+        Map<Set<HostConnectionPool<CL>>, TokenHostConnectionPoolPartition<CL>> byPools = Maps.newHashMap();
+        
+        Map<TokenHostConnectionPoolPartition<CL>, List<ByteBuffer>> groups = Maps.newLinkedHashMap();
+        for (ByteBuffer rowkey : rowkeys) {
+            TokenHostConnectionPoolPartition<CL> partition = rowkey == null ? getAllPools() : getPartition(ring, rowkey);
+            TokenHostConnectionPoolPartition<CL> groupKey = canonical.get(partition);
+            if (groupKey == null) {
+                Set<HostConnectionPool<CL>> pools = Sets.newHashSet(partition.getPools());
+                groupKey = byPools.get(pools);
+                if (groupKey == null) {
+                    groupKey = partition;
+                    byPools.put(pools, partition);
+                }
+                canonical.put(partition, groupKey);
+            }
+            partition = groupKey;
+            
+            List<ByteBuffer> group = groups.get(partition);
+            if (group == null) {
+                group = Lists.newArrayList();
+                groups.put(partition, group);
+            }
+            group.add(rowkey);
+        }
+        return groups;
+    }
+    
+    private TokenHostConnectionPoolPartition<CL> getPartition(TokenRing<CL> ring, ByteBuffer rowkey) {
+        List<TokenHostConnectionPoolPartition<CL>> partitions = ring.partitions;
+        if (partitions.isEmpty()) {
+            return getAllPools();
+        }
+        
+        long[] primitiveToken = tokenBuffer.get();
+        if (ring.low != null && partitioner.getTokenForKey(rowkey, primitiveToken)) {
+            return partitions.get(ring.search(primitiveToken[0], primitiveToken[1]) % partitions.size());
+        }
+        
+        String tokenString = partitioner.getTokenForKey(rowkey);
         // Must have a token otherwise we default to the base class
         // implementation
-        if (token == null || partitions == null || partitions.isEmpty()) {
+        if (tokenString == null) {
             return getAllPools();
         }
+        BigInteger token = new BigInteger(tokenString);
 
         // Do a binary search to find the token partition which owns the
         // token. We can get two responses here.
@@ -260,8 +359,11 @@ public class TokenPartitionedTopology<CL> implements Topology<CL> {
     @Override
     public synchronized void removePool(HostConnectionPool<CL> pool) {
         allPools.removePool(pool);
-        for (TokenHostConnectionPoolPartition<CL> partition : tokenToPartitionMap.values()) {
-            partition.removePool(pool);
+        List<TokenHostConnectionPoolPartition<CL>> partitions = poolToPartitionMap.remove(pool);
+        if (partitions != null) {
+            for (TokenHostConnectionPoolPartition<CL> partition : partitions) {
+                partition.removePool(pool);
+            }
         }
     }
 
@@ -290,10 +392,96 @@ public class TokenPartitionedTopology<CL> implements Topology<CL> {
     }
 
 
+    /**
+     * Immutable snapshot of the sorted partitions along with their end tokens as primitives.  Tokens
+     * are signed 128 bit integers split into high and low 64 bits.  When every token fits in a long 
+     * only the low bits are kept.  
+     * 
+     * @param <CL>
+     */
+    private static class TokenRing<CL> {
+        final List<TokenHostConnectionPoolPartition<CL>> partitions;
+        
+        /**
+         * High 64 bits of each token or null if all tokens fit in a long
+         */
+        final long[] high;
+        
+        /**
+         * Low 64 bits of each token or null if the tokens can't be represented in 128 bits
+         */
+        final long[] low;
+        
+        TokenRing(List<TokenHostConnectionPoolPartition<CL>> partitions) {
+            this.partitions = partitions;
+            
+            boolean fitsInLong       = true;
+            boolean fitsInPrimitives = true;
+            for (TokenHostConnectionPoolPartition<CL> partition : partitions) {
+                int bitLength = partition.id().bitLength();
+                if (bitLength > 63)
+                    fitsInLong = false;
+                if (bitLength > 127)
+                    fitsInPrimitives = false;
+            }
+            
+            if (!fitsInPrimitives) {
+                this.high = null;
+                this.low  = null;
+                return;
+            }
+            
+            this.low  = new long[partitions.size()];
+            this.high = fitsInLong ? null : new long[partitions.size()];
+            for (int i = 0; i < partitions.size(); i++) {
+                BigInteger token = partitions.get(i).id();
+                low[i] = token.longValue();
+                if (high != null)
+                    high[i] = token.shiftRight(64).longValue();
+            }
+        }
+        
+        /**
+         * @return Index of the first partition with an end token greater than or equal to the token.  This
+         *  is the number of partitions if the token is past the last partition.
+         */
+        int search(long tokenHigh, long tokenLow) {
+            if (high == null) {
+                // Token outside of the 64 bit range of the ring 
+                if (tokenHigh != (tokenLow >> 63))
+                    return tokenHigh < 0 ? 0 : low.length;
+                
+                int lo = 0;
+                int hi = low.length;
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (low[mid] < tokenLow)
+                        lo = mid + 1;
+                    else
+                        hi = mid;
+                }
+                return lo;
+            }
+            
+            // Compare signed high bits then unsigned low bits
+            long unsignedTokenLow = tokenLow ^ Long.MIN_VALUE;
+            int lo = 0;
+            int hi = low.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (high[mid] < tokenHigh || (high[mid] == tokenHigh && (low[mid] ^ Long.MIN_VALUE) < unsignedTokenLow))
+                    lo = mid + 1;
+                else
+                    hi = mid;
+            }
+            return lo;
+        }
+    }
+
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("TokenPartitionTopology[");
-        sb.append(StringUtils.join(Lists.transform(this.sortedRing.get(), new Function<TokenHostConnectionPoolPartition<CL>, String>() {
+        sb.append(StringUtils.join(Lists.transform(this.sortedRing.get().partitions, new Function<TokenHostConnectionPoolPartition<CL>, String>() {
             @Override
             public String apply(TokenHostConnectionPoolPartition<CL> input) {
                 return input.id().toString() + "\n";
@@ -58,13 +58,13 @@ public interface Topology<CL> {
     TokenHostConnectionPoolPartition<CL> getPartition(ByteBuffer rowkey);
     
     /**
-     * TODO 
+     * Group a set of row keys by the hosts that own them.  Keys of partitions that have
+     * the same set of hosts, e.g. vnode token ranges with the same replicas, are in one
+     * group keyed by one of those partitions.  Keys keep their relative order within each group.
      * 
-     * Get the partition best suited for handling a set of row keys
-     * @param tokens
-     * @return
+     * @param rowkeys
      */
-    // HostConnectionPoolPartition<CL> getPartition(Collection<ByteBuffer> tokens);
+    Map<TokenHostConnectionPoolPartition<CL>, List<ByteBuffer>> groupByPartition(Collection<ByteBuffer> rowkeys);
 
     /**
      * Return a partition that represents all hosts in the ring
@@ -49,4 +49,16 @@ public interface Partitioner {
      */
     String getTokenForKey(ByteBuffer key);
     
+    /**
+     * Return the token for the specified key as a signed 128 bit integer without going through
+     * the String and BigInteger representation of {@link #getTokenForKey(ByteBuffer)}.  The high
+     * 64 bits are written to token[0] and the low 64 bits to token[1].
+     * 
+     * @param key
+     * @param token Two element array that receives the token
+     * @return False if the token can't be represented in 128 bits, in which case the contents of 
+     *         token are undefined and {@link #getTokenForKey(ByteBuffer)} must be used instead
+     */
+    boolean getTokenForKey(ByteBuffer key, long[] token);
+    
 }
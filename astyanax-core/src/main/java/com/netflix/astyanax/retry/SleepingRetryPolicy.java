@@ -48,6 +48,22 @@ public abstract class SleepingRetryPolicy implements RetryPolicy {
         return false;
     }
 
+    /**
+     * Same as {@link #allowRetry()} but returns the time to wait before the retry
+     * instead of sleeping, so that the caller can schedule the retry rather than
+     * block a thread for the duration of the backoff.
+     * 
+     * @return Time to wait in milliseconds, or -1 if no more retries are allowed
+     */
+    public long nextRetryDelay() {
+        if (maxAttempts == -1 || attempts < maxAttempts) {
+            long delay = getSleepTimeMs();
+            attempts++;
+            return delay;
+        }
+        return -1;
+    }
+
     public abstract long getSleepTimeMs();
 
     @Override
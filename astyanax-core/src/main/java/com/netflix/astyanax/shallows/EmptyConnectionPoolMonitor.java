@@ -78,6 +78,22 @@ public class EmptyConnectionPoolMonitor implements ConnectionPoolMonitor {
     public void incFailover(Host host, Exception e) {
     }
 
+    @Override
+    public void incHedgeSent(Host host) {
+    }
+
+    @Override
+    public void incHedgeWon(Host host) {
+    }
+
+    @Override
+    public void incConcurrencyLimitReached(Host host) {
+    }
+
+    @Override
+    public void onConcurrencyLimitChanged(Host host, int limit) {
+    }
+
     @Override
     public void incConnectionCreated(Host host) {
     }
@@ -149,6 +165,26 @@ public class EmptyConnectionPoolMonitor implements ConnectionPoolMonitor {
         return 0;
     }
 
+    @Override
+    public long getHedgeSentCount() {
+        return 0;
+    }
+
+    @Override
+    public long getHedgeWonCount() {
+        return 0;
+    }
+
+    @Override
+    public long getConcurrencyLimitReachedCount() {
+        return 0;
+    }
+
+    @Override
+    public long getConcurrencyLimitChangedCount() {
+        return 0;
+    }
+
     @Override
     public long getNoHostCount() {
         return 0;
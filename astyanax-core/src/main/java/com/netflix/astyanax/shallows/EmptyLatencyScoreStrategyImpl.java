@@ -42,6 +42,11 @@ public class EmptyLatencyScoreStrategyImpl implements LatencyScoreStrategy {
                 return 0;
             }
 
+            @Override
+            public double getPercentile(double percentile) {
+                return 0;
+            }
+
             @Override
             public void reset() {
             }
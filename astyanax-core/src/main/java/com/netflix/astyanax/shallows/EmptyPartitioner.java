@@ -44,4 +44,9 @@ public class EmptyPartitioner implements Partitioner {
         return null;
     }
 
+    @Override
+    public boolean getTokenForKey(ByteBuffer key, long[] token) {
+        return false;
+    }
+
 }
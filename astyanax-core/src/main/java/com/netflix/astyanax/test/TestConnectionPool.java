@@ -17,6 +17,10 @@ package com.netflix.astyanax.test;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Executor;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import com.netflix.astyanax.connectionpool.ConnectionPool;
 import com.netflix.astyanax.connectionpool.Host;
@@ -59,6 +63,17 @@ public class TestConnectionPool implements ConnectionPool<TestClient> {
         return null;
     }
 
+    @Override
+    public <R> ListenableFuture<OperationResult<R>> executeWithFailoverAsync(
+            Operation<TestClient, R> op, RetryPolicy retry, Executor executor) {
+        try {
+            return Futures.immediateFuture(executeWithFailover(op, retry));
+        }
+        catch (ConnectionException e) {
+            return Futures.immediateFailedFuture(e);
+        }
+    }
+
     @Override
     public void shutdown() {
     }
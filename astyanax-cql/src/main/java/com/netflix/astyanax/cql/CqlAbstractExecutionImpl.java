@@ -1,5 +1,11 @@
 package com.netflix.astyanax.cql;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -7,7 +13,12 @@ import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.Statement;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.astyanax.AstyanaxConfiguration;
 import com.netflix.astyanax.CassandraOperationCategory;
 import com.netflix.astyanax.CassandraOperationTracer;
 import com.netflix.astyanax.CassandraOperationType;
@@ -20,11 +31,11 @@ import com.netflix.astyanax.connectionpool.exceptions.NotFoundException;
 import com.netflix.astyanax.connectionpool.exceptions.OperationException;
 import com.netflix.astyanax.cql.CqlKeyspaceImpl.KeyspaceContext;
 import com.netflix.astyanax.cql.retrypolicies.JavaDriverBasedRetryPolicy;
-import com.netflix.astyanax.cql.util.AsyncOperationResult;
 import com.netflix.astyanax.cql.util.CFQueryContext;
 import com.netflix.astyanax.model.ColumnFamily;
 import com.netflix.astyanax.model.ConsistencyLevel;
 import com.netflix.astyanax.retry.RetryPolicy;
+import com.netflix.astyanax.retry.SleepingRetryPolicy;
 
 /**
  * Abstract class that encapsulates the functionality for executing an operations using the native protocol based java driver
@@ -52,6 +63,8 @@ public abstract class CqlAbstractExecutionImpl<R> implements Execution<R> {
 	protected final RetryPolicy retry;
 	// ConsistencyLevel
 	protected final com.datastax.driver.core.ConsistencyLevel clLevel; 
+	// Executor for async retries and for parsing async results off the java driver threads
+	private final Executor asyncExecutor;
 	
 	public CqlAbstractExecutionImpl(KeyspaceContext ksContext, CFQueryContext<?,?> cfContext) {
 		
@@ -65,6 +78,7 @@ public abstract class CqlAbstractExecutionImpl<R> implements Execution<R> {
 		retry = (retryPolicy != null) ? retryPolicy : getRetryPolicy(cfContext.getRetryPolicy()); 
 		
 		clLevel = resolveConsistencyLevel(ksContext, cfContext);
+		asyncExecutor = ksContext.getConfig().getAsyncExecutor();
 	}
 
 	public CqlAbstractExecutionImpl(KeyspaceContext ksContext, RetryPolicy retryPolicy) {
@@ -77,69 +91,210 @@ public abstract class CqlAbstractExecutionImpl<R> implements Execution<R> {
 		// process the override retry policy first
 		retry = (retryPolicy != null) ? retryPolicy : getRetryPolicy(ksContext.getConfig().getRetryPolicy());
 		clLevel = resolveConsistencyLevel(ksContext, null);
+		asyncExecutor = ksContext.getConfig().getAsyncExecutor();
 	}
 
+	/**
+	 * Execute the operation on the calling thread. Runtime exceptions, e.g from the java driver, and 
+	 * {@link IsRetryableException}s are retried as per the {@link RetryPolicy}.
+	 */
 	@Override
 	public OperationResult<R> execute() throws ConnectionException {
 		
-        ConnectionException lastException = null;
-        
-        retry.begin();
-
-        do {
-        	try {
-                return executeOp();
-            } catch (RuntimeException ex) {
-            	lastException = new OperationException(ex);
-            } catch (ConnectionException ex) {
-                if (ex instanceof IsRetryableException)
-                    lastException = ex;
-                else
-                    throw ex;
-            }
-        } while (retry.allowRetry());
-
-        throw lastException;
+		ConnectionException lastException = null;
+		
+		retry.begin();
+
+		do {
+			CassandraOperationTracer tracer = newTracer();
+			tracer.start();
+			try {
+				ResultSet resultSet = session.execute(prepareQuery());
+				R result = parseResultSet(resultSet);
+				OperationResult<R> opResult = new CqlOperationResultImpl<R>(resultSet, result);
+				opResult.setAttemptsCount(retry.getAttemptCount());
+				tracer.success();
+				retry.success();
+				return opResult;
+			} catch (RuntimeException ex) {
+				lastException = new OperationException(ex);
+				tracer.failure(lastException);
+			} catch (ConnectionException ex) {
+				tracer.failure(ex);
+				if (!(ex instanceof IsRetryableException)) {
+					retry.failure(ex);
+					throw ex;
+				}
+				lastException = ex;
+			}
+		} while (retry.allowRetry());
+
+		retry.failure(lastException);
+		throw lastException;
 	}
 
-	
-	private OperationResult<R> executeOp() throws ConnectionException {
-		CassandraOperationTracer tracer = null;
+	/**
+	 * Execute the operation without blocking the calling thread. Each attempt is chained on the java driver 
+	 * {@link ResultSetFuture} and is traced, and failed attempts are retried as per the {@link RetryPolicy}. 
+	 * The backoff of a {@link SleepingRetryPolicy} is scheduled instead of sleeping so no thread is held 
+	 * between attempts. 
+	 * 
+	 * Note that retries and the parsing of result sets are run on the async executor from the 
+	 * {@link AstyanaxConfiguration}, since they may block or take a while for large results and hence must 
+	 * not run on a java driver I/O thread.
+	 */
+	@Override
+	public ListenableFuture<OperationResult<R>> executeAsync() throws ConnectionException {
 		
+		AsyncExecution execution = new AsyncExecution();
+		retry.begin();
+		execution.attempt();
+		return execution.future;
+	}
+
+	/**
+	 * State for one call to {@link CqlAbstractExecutionImpl#executeAsync()}. Runs a single attempt each time 
+	 * {@link #attempt()} is called and either completes the future or schedules the next attempt.
+	 */
+	private class AsyncExecution implements Runnable {
+		
+		private final SettableFuture<OperationResult<R>> future = SettableFuture.create();
+
+		@Override
+		public void run() {
+			attempt();
+		}
+
+		private void attempt() {
+			if (future.isCancelled()) {
+				return;
+			}
+
+			final CassandraOperationTracer tracer = newTracer();
+			tracer.start();
+
+			ResultSetFuture rsFuture;
+			try {
+				rsFuture = session.executeAsync(prepareQuery());
+			} catch (RuntimeException e) {
+				onFailure(tracer, e);
+				return;
+			}
+
+			Futures.addCallback(rsFuture, new FutureCallback<ResultSet>() {
+				@Override
+				public void onSuccess(final ResultSet resultSet) {
+					try {
+						asyncExecutor.execute(new Runnable() {
+							@Override
+							public void run() {
+								complete(tracer, resultSet);
+							}
+						});
+					} catch (RejectedExecutionException e) {
+						fail(tracer, new OperationException(e));
+					}
+				}
+
+				@Override
+				public void onFailure(Throwable t) {
+					AsyncExecution.this.onFailure(tracer, t);
+				}
+			});
+		}
+
+		private void complete(CassandraOperationTracer tracer, ResultSet resultSet) {
+			try {
+				R result = parseResultSet(resultSet);
+				OperationResult<R> opResult = new CqlOperationResultImpl<R>(resultSet, result);
+				opResult.setAttemptsCount(retry.getAttemptCount());
+				tracer.success();
+				retry.success();
+				future.set(opResult);
+			} catch (Throwable t) {
+				onFailure(tracer, t);
+			}
+		}
+
+		/**
+		 * Runtime exceptions, e.g from the java driver, are retried as are {@link IsRetryableException}s
+		 */
+		private void onFailure(CassandraOperationTracer tracer, Throwable t) {
+			
+			ConnectionException ce;
+			if (t instanceof ConnectionException) {
+				ce = (ConnectionException) t;
+				if (!(ce instanceof IsRetryableException)) {
+					fail(tracer, ce);
+					return;
+				}
+			} else if (t instanceof Exception) {
+				ce = new OperationException(t);
+			} else {
+				tracer.failure(new OperationException(t));
+				future.setException(t);
+				return;
+			}
+			tracer.failure(ce);
+
+			long delay = nextRetryDelay();
+			try {
+				if (delay < 0) {
+					retry.failure(ce);
+					future.setException(ce);
+				} else if (delay == 0) {
+					asyncExecutor.execute(this);
+				} else {
+					RetryScheduler.INSTANCE.schedule(new Runnable() {
+						@Override
+						public void run() {
+							try {
+								asyncExecutor.execute(AsyncExecution.this);
+							} catch (RejectedExecutionException e) {
+								future.setException(e);
+							}
+						}
+					}, delay, TimeUnit.MILLISECONDS);
+				}
+			} catch (RejectedExecutionException e) {
+				retry.failure(ce);
+				future.setException(ce);
+			}
+		}
+
+		private void fail(CassandraOperationTracer tracer, ConnectionException e) {
+			tracer.failure(e);
+			retry.failure(e);
+			future.setException(e);
+		}
+
+		private long nextRetryDelay() {
+			if (retry instanceof SleepingRetryPolicy) {
+				return ((SleepingRetryPolicy) retry).nextRetryDelay();
+			}
+			return retry.allowRetry() ? 0 : -1;
+		}
+	}
+
+	/**
+	 * Scheduler for the backoff between attempts. Only created if an operation is retried with a backoff.
+	 */
+	private static class RetryScheduler {
+		private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactoryBuilder().setDaemon(true)
+					.setNameFormat("AstyanaxCqlRetry-%d")
+					.build());
+	}
+
+	private CassandraOperationTracer newTracer() {
 		if (cf != null) {
-			tracer = tracerFactory.newTracer(getOperationType(), cf);
+			return tracerFactory.newTracer(getOperationType(), cf);
 		} else {
-			tracer = tracerFactory.newTracer(getOperationType());
+			return tracerFactory.newTracer(getOperationType());
 		}
-		
-		tracer.start();
-		Statement query = getQuery();
-		
-		if (LOG.isDebugEnabled()) {
-			LOG.debug("Query: " + query);
-		}
-		
-        // Set the consistency level on the query
-        query.setConsistencyLevel(clLevel);
-
-        // Set the retry policy on the query
-        if (retry instanceof JavaDriverBasedRetryPolicy) {
-        	JavaDriverBasedRetryPolicy jdRetryPolicy = (JavaDriverBasedRetryPolicy) retry;
-        	query.setRetryPolicy(jdRetryPolicy.getJDRetryPolicy());
-        }
-
-        ResultSet resultSet = session.execute(query);
-        R result = parseResultSet(resultSet);
-		OperationResult<R> opResult = new CqlOperationResultImpl<R>(resultSet, result);
-		opResult.setAttemptsCount(retry.getAttemptCount());
-		tracer.success();
-		return opResult;
 	}
-	
-	@Override
-	public ListenableFuture<OperationResult<R>> executeAsync() throws ConnectionException {
-		final CassandraOperationTracer tracer = tracerFactory.newTracer(getOperationType());
-		tracer.start();
+
+	private Statement prepareQuery() {
 		
 		Statement query = getQuery();
 		
@@ -147,22 +302,15 @@ public abstract class CqlAbstractExecutionImpl<R> implements Execution<R> {
 			LOG.debug("Query: " + query);
 		}
 		
-		ResultSetFuture rsFuture = session.executeAsync(query);
-		return new AsyncOperationResult<R>(rsFuture) {
-			@Override
-			public OperationResult<R> getOperationResult(ResultSet resultSet) {
-				R result = null;
-				try {
-					result = parseResultSet(resultSet);
-				} catch (NotFoundException e) {
-					e.printStackTrace();
-				}
-				tracer.success();
-				OperationResult<R> opResult = new CqlOperationResultImpl<R>(resultSet, result);
-				opResult.setAttemptsCount(retry.getAttemptCount());
-				return opResult;
-			}
-		};
+		// Set the consistency level on the query
+		query.setConsistencyLevel(clLevel);
+
+		// Set the retry policy on the query
+		if (retry instanceof JavaDriverBasedRetryPolicy) {
+			JavaDriverBasedRetryPolicy jdRetryPolicy = (JavaDriverBasedRetryPolicy) retry;
+			query.setRetryPolicy(jdRetryPolicy.getJDRetryPolicy());
+		}
+		return query;
 	}
 	
 	private RetryPolicy getRetryPolicy(RetryPolicy policy) {
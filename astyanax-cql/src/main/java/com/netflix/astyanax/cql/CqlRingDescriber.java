@@ -8,6 +8,8 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.Metadata;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
@@ -108,6 +110,36 @@ public class CqlRingDescriber {
 		return ranges;
 	}
 	
+	/**
+	 * Get one token range per token in the ring, i.e. per vnode, along with the replicas of the range for the given keyspace. 
+	 * Unlike {@link #getTokenRanges(Session, String, String)} this reads the ring from the java driver's cluster metadata and hence 
+	 * doesn't query the system tables. A range that wraps around the ring is split into two ranges. 
+	 * 
+	 * @param session
+	 * @param keyspace
+	 * @return List<TokenRange>
+	 */
+	public List<TokenRange> getVnodeTokenRanges(Session session, String keyspace) {
+		
+		Metadata metadata = session.getCluster().getMetadata();
+		List<TokenRange> ranges = new ArrayList<TokenRange>();
+		
+		for (com.datastax.driver.core.TokenRange vnodeRange : metadata.getTokenRanges()) {
+			
+			List<String> endpoints = new ArrayList<String>();
+			for (Host host : metadata.getReplicas(keyspace, vnodeRange)) {
+				endpoints.add(host.getAddress().getHostAddress());
+			}
+			
+			for (com.datastax.driver.core.TokenRange range : vnodeRange.unwrap()) {
+				String startToken = range.getStart().getValue().toString();
+				String endToken = range.getEnd().getValue().toString();
+				ranges.add(new TokenRangeImpl(startToken, endToken, endpoints));
+			}
+		}
+		return ranges;
+	}
+	
 	private boolean matchNode(String dc, String rack, HostInfo host) {
 		
 		if (dc == null && rack == null) {
@@ -42,7 +42,9 @@ public class JavaDriverConfigBridge {
 	}
 
 	private Policies getPolicies() {
-		return Policies.builder().build();
+		return Policies.builder()
+				.withLoadBalancingPolicy(new ReplicaRoutingPolicy(Policies.defaultLoadBalancingPolicy()))
+				.build();
 	}
 	
 	private LoadBalancingPolicy getLB() {
@@ -57,7 +57,7 @@ public class JavaDriverConfigBuilder {
 		Policies policies = Policies.builder()
 				.withReconnectionPolicy(reconnectionPolicy)
 				.withRetryPolicy(retryPolicy)
-				.withLoadBalancingPolicy(loadBalancingPolicy)
+				.withLoadBalancingPolicy(new ReplicaRoutingPolicy(loadBalancingPolicy))
 				.build();
 		
 		ProtocolOptions protocolOptions = (nativeProtocolPort == -1) ? new ProtocolOptions() : new ProtocolOptions(nativeProtocolPort);
@@ -1,18 +1,22 @@
 package com.netflix.astyanax.cql;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
 import com.datastax.driver.core.Configuration;
 import com.netflix.astyanax.AstyanaxContext;
 import com.netflix.astyanax.AuthenticationCredentials;
 import com.netflix.astyanax.connectionpool.BadHostDetector;
+import com.netflix.astyanax.connectionpool.ConcurrencyLimitStrategy;
 import com.netflix.astyanax.connectionpool.ConnectionPoolConfiguration;
 import com.netflix.astyanax.connectionpool.Host;
 import com.netflix.astyanax.connectionpool.LatencyScoreStrategy;
 import com.netflix.astyanax.connectionpool.OperationFilterFactory;
 import com.netflix.astyanax.connectionpool.RetryBackoffStrategy;
 import com.netflix.astyanax.connectionpool.SSLConnectionContext;
+import com.netflix.astyanax.connectionpool.SpeculativeExecutionPolicy;
+import com.netflix.astyanax.connectionpool.impl.ConnectionBorrowStrategy;
 import com.netflix.astyanax.connectionpool.impl.HostSelectorStrategy;
 import com.netflix.astyanax.partitioner.Partitioner;
 import com.netflix.astyanax.shallows.EmptyOperationTracer;
@@ -97,6 +101,11 @@ public class JavaDriverConnectionPoolConfigurationImpl implements ConnectionPool
 		return null;
 	}
 
+	@Override
+	public ConnectionBorrowStrategy getConnectionBorrowStrategy() {
+		return null;
+	}
+
 	@Override
 	public String getSeeds() {
 		return null;
@@ -237,6 +246,21 @@ public class JavaDriverConnectionPoolConfigurationImpl implements ConnectionPool
 		return null;
 	}
 
+	@Override
+	public SpeculativeExecutionPolicy getSpeculativeExecutionPolicy() {
+		return null;
+	}
+
+	@Override
+	public ExecutorService getSpeculativeExecutor() {
+		return null;
+	}
+
+	@Override
+	public ConcurrencyLimitStrategy getConcurrencyLimitStrategy() {
+		return null;
+	}
+
 	@Override
 	public void initialize() {
 	}
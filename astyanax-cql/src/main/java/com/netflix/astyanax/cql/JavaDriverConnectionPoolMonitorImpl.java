@@ -235,6 +235,42 @@ public class JavaDriverConnectionPoolMonitorImpl implements ConnectionPoolMonito
 		return 0;
 	}
 
+	@Override
+	public void incHedgeSent(Host host) {
+	}
+
+	@Override
+	public long getHedgeSentCount() {
+		return 0;
+	}
+
+	@Override
+	public void incHedgeWon(Host host) {
+	}
+
+	@Override
+	public long getHedgeWonCount() {
+		return 0;
+	}
+
+	@Override
+	public void incConcurrencyLimitReached(Host host) {
+	}
+
+	@Override
+	public long getConcurrencyLimitReachedCount() {
+		return 0;
+	}
+
+	@Override
+	public void onConcurrencyLimitChanged(Host host, int limit) {
+	}
+
+	@Override
+	public long getConcurrencyLimitChangedCount() {
+		return 0;
+	}
+
 	@Override
 	public void incOperationSuccess(Host host, long latency) {
 		// TODO Auto-generated method stub
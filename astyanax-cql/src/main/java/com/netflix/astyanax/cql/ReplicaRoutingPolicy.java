@@ -0,0 +1,116 @@
+package com.netflix.astyanax.cql;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.HostDistance;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.StatementWrapper;
+import com.datastax.driver.core.policies.ChainableLoadBalancingPolicy;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+
+/**
+ * Load balancing policy that sends statements wrapped with {@link #routeTo(Statement, Collection)} to the given
+ * replicas first, e.g. a token range query to the replicas of the range.  The java driver can only route by
+ * partition key, and a token range query has no partition key to route by.
+ *
+ * Replicas that the child policy considers LOCAL are tried first, in the order of the child's query plan,
+ * followed by the rest of the child's query plan.  All other statements use the child's query plan as is.
+ */
+public class ReplicaRoutingPolicy implements ChainableLoadBalancingPolicy {
+
+	private final LoadBalancingPolicy childPolicy;
+
+	public ReplicaRoutingPolicy(LoadBalancingPolicy childPolicy) {
+		this.childPolicy = childPolicy;
+	}
+
+	/**
+	 * Wrap the statement so that it's sent to one of the endpoints when executed by a session using this policy
+	 * @param statement
+	 * @param endpoints - host addresses of the replicas
+	 * @return Statement
+	 */
+	public static Statement routeTo(Statement statement, Collection<String> endpoints) {
+		return new RoutedStatement(statement, endpoints);
+	}
+
+	@Override
+	public LoadBalancingPolicy getChildPolicy() {
+		return childPolicy;
+	}
+
+	@Override
+	public void init(Cluster cluster, Collection<Host> hosts) {
+		childPolicy.init(cluster, hosts);
+	}
+
+	@Override
+	public HostDistance distance(Host host) {
+		return childPolicy.distance(host);
+	}
+
+	@Override
+	public Iterator<Host> newQueryPlan(String loggedKeyspace, Statement statement) {
+
+		Iterator<Host> childPlan = childPolicy.newQueryPlan(loggedKeyspace, statement);
+		if (!(statement instanceof RoutedStatement) || ((RoutedStatement) statement).endpoints.isEmpty()) {
+			return childPlan;
+		}
+
+		Set<String> endpoints = ((RoutedStatement) statement).endpoints;
+		List<Host> replicas = new ArrayList<Host>();
+		List<Host> others = new ArrayList<Host>();
+		while (childPlan.hasNext()) {
+			Host host = childPlan.next();
+			if (childPolicy.distance(host) == HostDistance.LOCAL && endpoints.contains(host.getAddress().getHostAddress())) {
+				replicas.add(host);
+			} else {
+				others.add(host);
+			}
+		}
+		replicas.addAll(others);
+		return replicas.iterator();
+	}
+
+	@Override
+	public void onAdd(Host host) {
+		childPolicy.onAdd(host);
+	}
+
+	@Override
+	public void onUp(Host host) {
+		childPolicy.onUp(host);
+	}
+
+	@Override
+	public void onDown(Host host) {
+		childPolicy.onDown(host);
+	}
+
+	@Override
+	public void onRemove(Host host) {
+		childPolicy.onRemove(host);
+	}
+
+	@Override
+	public void close() {
+		childPolicy.close();
+	}
+
+	private static class RoutedStatement extends StatementWrapper {
+
+		private final Set<String> endpoints;
+
+		private RoutedStatement(Statement statement, Collection<String> endpoints) {
+			super(statement);
+			this.endpoints = new HashSet<String>(endpoints);
+		}
+	}
+}
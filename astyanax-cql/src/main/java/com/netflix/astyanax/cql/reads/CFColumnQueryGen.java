@@ -75,6 +75,11 @@ public class CFColumnQueryGen {
 			};
 		}
 
+		@Override
+		public Object getShape(CqlColumnQueryImpl<?> columnQuery) {
+			return FIXED_SHAPE;
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlColumnQueryImpl<?> columnQuery) {
 			return pStatement.bind(columnQuery.getRowKey(), columnQuery.getColumnName());		
@@ -116,6 +121,12 @@ public class CFColumnQueryGen {
 			};
 		}
 
+		@Override
+		public Object getShape(CqlColumnQueryImpl<?> columnQuery) {
+			AnnotatedCompositeSerializer<?> compSerializer = (AnnotatedCompositeSerializer<?>) columnQuery.getCF().getColumnSerializer();
+			return compSerializer.getComponents().size();
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlColumnQueryImpl<?> columnQuery) {
 		
@@ -159,6 +170,11 @@ public class CFColumnQueryGen {
 			};
 		}
 
+		@Override
+		public Object getShape(CqlColumnQueryImpl<?> columnQuery) {
+			return columnQuery.getColumnName();
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlColumnQueryImpl<?> columnQuery) {
 			return pStatement.bind(columnQuery.getRowKey());
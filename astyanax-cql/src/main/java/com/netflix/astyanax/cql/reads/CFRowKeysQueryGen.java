@@ -3,6 +3,7 @@ package com.netflix.astyanax.cql.reads;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.in;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -94,6 +95,11 @@ public class CFRowKeysQueryGen extends CFRowSliceQueryGen {
 			};
 		}
 
+		@Override
+		public Object getShape(CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
+			return rowSliceQuery.getRowSlice().getKeys().size();
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
 			return pStatement.bind(rowSliceQuery.getRowSlice().getKeys().toArray());
@@ -136,6 +142,11 @@ public class CFRowKeysQueryGen extends CFRowSliceQueryGen {
 			};
 		}
 
+		@Override
+		public Object getShape(CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
+			return Arrays.asList(rowSliceQuery.getRowSlice().getKeys().size(), rowSliceQuery.getColumnSlice().getColumns().size());
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
 
@@ -181,6 +192,11 @@ public class CFRowKeysQueryGen extends CFRowSliceQueryGen {
 			};
 		}
 
+		@Override
+		public Object getShape(CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
+			return Arrays.asList(rowSliceQuery.getRowSlice().getKeys().size(), columnRangeShape(rowSliceQuery.getColumnSlice()));
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
 
@@ -222,6 +238,11 @@ public class CFRowKeysQueryGen extends CFRowSliceQueryGen {
 			};
 		}
 
+		@Override
+		public Object getShape(CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
+			return Arrays.asList(rowSliceQuery.getRowSlice().getKeys().size(), compositeRangeShape(rowSliceQuery.getCompositeRange()));
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
 
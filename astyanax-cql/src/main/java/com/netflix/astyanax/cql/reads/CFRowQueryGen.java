@@ -1,5 +1,6 @@
 package com.netflix.astyanax.cql.reads;
 
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.desc;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.gt;
@@ -9,6 +10,7 @@ import static com.datastax.driver.core.querybuilder.QueryBuilder.lt;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.lte;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicReference;
@@ -97,6 +99,11 @@ public class CFRowQueryGen {
 		}
 
 
+		@Override
+		public Object getShape(CqlRowQueryImpl<?, ?> rowQuery) {
+			return FIXED_SHAPE;
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlRowQueryImpl<?, ?> rowQuery) {
 			return pStatement.bind(rowQuery.getRowKey());
@@ -145,6 +152,11 @@ public class CFRowQueryGen {
 			};
 		}
 
+		@Override
+		public Object getShape(CqlRowQueryImpl<?, ?> rowQuery) {
+			return rowQuery.getColumnSlice().getColumns().size();
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlRowQueryImpl<?, ?> rowQuery) {
 
@@ -202,7 +214,7 @@ public class CFRowQueryGen {
 					if (!rowQuery.isPaginating()) {
 						// Column limits are applicable only when we are not paginating
 						if (columnSlice.getLimit() != -1) {
-							where.limit(columnSlice.getLimit());
+							where.limit(bindMarker());
 						}
 					}
 
@@ -211,6 +223,14 @@ public class CFRowQueryGen {
 			};
 		}
 
+		@Override
+		public Object getShape(CqlRowQueryImpl<?, ?> rowQuery) {
+			CqlColumnSlice<?> columnSlice = rowQuery.getColumnSlice();
+			// The limit is part of the query only when not paginating
+			return Arrays.asList(columnSlice.getStartColumn() != null, columnSlice.getEndColumn() != null, columnSlice.getReversed(), 
+					!rowQuery.isPaginating() && columnSlice.getLimit() != -1);
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlRowQueryImpl<?, ?> rowQuery) {
 			if (clusteringKeyCols.size() != 1) {
@@ -230,6 +250,10 @@ public class CFRowQueryGen {
 				values.add(columnSlice.getEndColumn());
 			}
 
+			if (!rowQuery.isPaginating() && columnSlice.getLimit() != -1) {
+				values.add(columnSlice.getLimit());
+			}
+
 			return pStatement.bind(values.toArray(new Object[values.size()]));
 		}
 	};
@@ -295,6 +319,11 @@ public class CFRowQueryGen {
 			};
 		}
 
+		@Override
+		public Object getShape(CqlRowQueryImpl<?, ?> rowQuery) {
+			return CFRowSliceQueryGen.compositeRangeShape(rowQuery.getCompositeRange());
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlRowQueryImpl<?, ?> rowQuery) {
 
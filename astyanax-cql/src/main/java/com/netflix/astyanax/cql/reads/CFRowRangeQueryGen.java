@@ -6,6 +6,7 @@ import static com.datastax.driver.core.querybuilder.QueryBuilder.lte;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -148,6 +149,14 @@ public class CFRowRangeQueryGen extends CFRowSliceQueryGen {
 		return where; 
 	}
 
+	/**
+	 * Shape of the where clause from {@link #addWhereClauseForRowRange(String, Select, RowRange)}
+	 */
+	private Object rowRangeShape(RowRange<?> rowRange) {
+		return Arrays.asList(rowRange.getStartKey() != null, rowRange.getEndKey() != null, 
+				rowRange.getStartToken() != null, rowRange.getEndToken() != null);
+	}
+
 	/**
 	 * Private helper for constructing the bind values for the given row range. Note that the assumption here is that 
 	 * we have a previously constructed prepared statement that we can bind these values with. 
@@ -227,6 +236,11 @@ public class CFRowRangeQueryGen extends CFRowSliceQueryGen {
 			};
 		}
 
+		@Override
+		public Object getShape(CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
+			return rowRangeShape(rowSliceQuery.getRowSlice().getRange());
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
 
@@ -256,13 +270,18 @@ public class CFRowRangeQueryGen extends CFRowSliceQueryGen {
 						select.allowFiltering();
 					}
 					Where where = addWhereClauseForRowRange(partitionKeyCol, select, range);
-					where.and(in(clusteringKeyCols.get(0).getName(), columns));
+					where.and(in(clusteringKeyCols.get(0).getName(), bindMarkerArray(columns.length)));
 
 					return where;
 				}
 			};
 		}
 
+		@Override
+		public Object getShape(CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
+			return Arrays.asList(rowRangeShape(rowSliceQuery.getRowSlice().getRange()), rowSliceQuery.getColumnSlice().getColumns().size());
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
 			
@@ -307,6 +326,11 @@ public class CFRowRangeQueryGen extends CFRowSliceQueryGen {
 			};
 		}
 
+		@Override
+		public Object getShape(CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
+			return Arrays.asList(rowRangeShape(rowSliceQuery.getRowSlice().getRange()), columnRangeShape(rowSliceQuery.getColumnSlice()));
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
 
@@ -348,6 +372,11 @@ public class CFRowRangeQueryGen extends CFRowSliceQueryGen {
 			};
 		}
 
+		@Override
+		public Object getShape(CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
+			return Arrays.asList(rowRangeShape(rowSliceQuery.getRowSlice().getRange()), compositeRangeShape(rowSliceQuery.getCompositeRange()));
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
 
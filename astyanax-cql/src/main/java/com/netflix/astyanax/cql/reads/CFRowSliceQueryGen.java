@@ -1,5 +1,6 @@
 package com.netflix.astyanax.cql.reads;
 
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.desc;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.gt;
@@ -7,6 +8,8 @@ import static com.datastax.driver.core.querybuilder.QueryBuilder.gte;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.lt;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.lte;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -95,10 +98,10 @@ public class CFRowSliceQueryGen {
 			return where;
 		}
 		if (columnSlice.getStartColumn() != null) {
-			where.and(gte(clusteringKeyCol, columnSlice.getStartColumn()));
+			where.and(gte(clusteringKeyCol, bindMarker()));
 		}
 		if (columnSlice.getEndColumn() != null) {
-			where.and(lte(clusteringKeyCol, columnSlice.getEndColumn()));
+			where.and(lte(clusteringKeyCol, bindMarker()));
 		}
 
 		if (columnSlice.getReversed()) {
@@ -106,12 +109,24 @@ public class CFRowSliceQueryGen {
 		}
 
 		if (columnSlice.getLimit() != -1) {
-			where.limit(columnSlice.getLimit());
+			where.limit(bindMarker());
 		}
 
 		return where;
 	}
 	
+	/**
+	 * Shape of the where clause from {@link #addWhereClauseForColumnRange(Where, CqlColumnSlice)}, i.e. which of the 
+	 * bounds and limit are bound and the order. The values themselves are bound by {@link #bindWhereClauseForColumnRange(List, CqlColumnSlice)}.
+	 */
+	static Object columnRangeShape(CqlColumnSlice<?> columnSlice) {
+		if (columnSlice == null || !columnSlice.isRangeQuery()) {
+			return null;
+		}
+		return Arrays.asList(columnSlice.getStartColumn() != null, columnSlice.getEndColumn() != null, columnSlice.getReversed(), 
+				columnSlice.getLimit() != -1);
+	}
+
 	protected void bindWhereClauseForColumnRange(List<Object> values, CqlColumnSlice<?> columnSlice) {
 
 		if (!columnSlice.isRangeQuery()) {
@@ -169,6 +184,23 @@ public class CFRowSliceQueryGen {
 		return stmt;
 	}
 
+	/**
+	 * Shape of the where clause from {@link #addWhereClauseForCompositeColumnRange(Where, CompositeByteBufferRange)}, 
+	 * i.e. the operators of the range in order
+	 */
+	static Object compositeRangeShape(CompositeByteBufferRange compositeRange) {
+		if (compositeRange == null) {
+			return null;
+		}
+		List<Object> operators = new ArrayList<Object>();
+		for (RangeQueryRecord record : compositeRange.getRecords()) {
+			for (RangeQueryOp op : record.getOps()) {
+				operators.add(op.getOperator());
+			}
+		}
+		return operators;
+	}
+
 	protected void bindWhereClauseForCompositeColumnRange(List<Object> values, CompositeByteBufferRange compositeRange) {
 
 		List<RangeQueryRecord> records = compositeRange.getRecords();
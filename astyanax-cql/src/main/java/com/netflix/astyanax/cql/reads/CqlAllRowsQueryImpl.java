@@ -7,18 +7,28 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.Callable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Statement;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.astyanax.ExceptionCallback;
 import com.netflix.astyanax.Keyspace;
@@ -27,7 +37,13 @@ import com.netflix.astyanax.Serializer;
 import com.netflix.astyanax.connectionpool.OperationResult;
 import com.netflix.astyanax.connectionpool.TokenRange;
 import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
+import com.netflix.astyanax.connectionpool.exceptions.OperationException;
+import com.netflix.astyanax.connectionpool.impl.TokenRangeImpl;
+import com.netflix.astyanax.cql.ConsistencyLevelMapping;
+import com.netflix.astyanax.cql.CqlKeyspaceImpl.KeyspaceContext;
 import com.netflix.astyanax.cql.CqlOperationResultImpl;
+import com.netflix.astyanax.cql.CqlRingDescriber;
+import com.netflix.astyanax.cql.ReplicaRoutingPolicy;
 import com.netflix.astyanax.cql.reads.model.CqlColumnSlice;
 import com.netflix.astyanax.cql.reads.model.CqlRangeBuilder;
 import com.netflix.astyanax.cql.reads.model.CqlRangeImpl;
@@ -44,7 +60,7 @@ import com.netflix.astyanax.partitioner.Partitioner;
 import com.netflix.astyanax.query.AllRowsQuery;
 import com.netflix.astyanax.query.CheckpointManager;
 import com.netflix.astyanax.query.ColumnFamilyQuery;
-import com.netflix.astyanax.query.RowSliceQuery;
+import com.netflix.astyanax.retry.BoundedExponentialBackoff;
 import com.netflix.astyanax.shallows.EmptyCheckpointManager;
 
 /**
@@ -52,6 +68,12 @@ import com.netflix.astyanax.shallows.EmptyCheckpointManager;
  * Note that it is easier and more intuitive to just use the AllRowsReader recipe instead. 
  * See https://github.com/Netflix/astyanax/wiki/AllRowsReader-All-rows-query for details on how to use the recipe. 
  * 
+ * The ring is read one vnode token range at a time, with each range query routed to a replica of the range.  The rows 
+ * are paged through with the java driver's paging state, where at most {@link #setMaxInFlightPages(int)} pages are being 
+ * fetched or processed at any time.  Pages are processed on a thread pool of that size that is created for each scan, 
+ * unless an executor is provided with {@link #setExecutor(ExecutorService)}.  Note that all rows of a partition are 
+ * handed to the {@link RowCallback} together and must hence fit in memory. 
+ * 
  * @author poberai
  *
  * @param <K>
@@ -63,13 +85,17 @@ public class CqlAllRowsQueryImpl<K,C> implements AllRowsQuery<K,C> {
     
     private static final Partitioner DEFAULT_PARTITIONER = Murmur3Partitioner.get();
     private final static int DEFAULT_PAGE_SIZE = 100;
+    private final static int DEFAULT_MAX_IN_FLIGHT_PAGES = 8;
+    private final static long RETRY_BASE_SLEEP_MS = 100;
+    private final static long RETRY_MAX_SLEEP_MS = 10000;
     
+    private final KeyspaceContext ksContext;
     private final Keyspace      keyspace;
     private final ColumnFamily<K, C> columnFamily;
     
     private    Integer                 rowLimit = DEFAULT_PAGE_SIZE;
     private    Integer             concurrencyLevel;   // Default to null will force ring describe
-    private    ExecutorService     executor;
+    private    Integer             maxInFlightPages;   // Default to null will use the concurrency level
     private    CheckpointManager   checkpointManager = new EmptyCheckpointManager();
     private    RowCallback<K, C>   rowCallback;
     private    boolean             repeatLastToken;
@@ -77,15 +103,16 @@ public class CqlAllRowsQueryImpl<K,C> implements AllRowsQuery<K,C> {
     private    String              startToken;
     private    String              endToken;
     private    Boolean             includeEmptyRows;  // Default to null will discard tombstones
-    private    List<Future<Boolean>> futures = Lists.newArrayList();
     private    AtomicBoolean       cancelling = new AtomicBoolean(false);
     private    Partitioner         partitioner = DEFAULT_PARTITIONER;
     private    ConsistencyLevel	consistencyLevel;
     private    ExceptionCallback   exceptionCallback;
+    private    ExecutorService     executor;           // Default to null will use a thread pool per scan
     private AtomicReference<Exception>  error = new AtomicReference<Exception>();
 
-    public CqlAllRowsQueryImpl(Keyspace ks, ColumnFamily<K,C> cf) {
-    	this.keyspace = ks;
+    public CqlAllRowsQueryImpl(KeyspaceContext ksCtx, ColumnFamily<K,C> cf) {
+    	this.ksContext = ksCtx;
+    	this.keyspace = ksCtx.getKeyspaceContext();
     	this.columnFamily = cf;
     	
     }
@@ -189,6 +216,38 @@ public class CqlAllRowsQueryImpl<K,C> implements AllRowsQuery<K,C> {
 		return this;
 	}
 
+	/**
+	 * Set the max number of pages being fetched or processed at a time, which is also the max number of token ranges 
+	 * being read in parallel.  Defaults to the concurrency level if set, or 8 otherwise. 
+	 * @param maxInFlightPages
+	 * @return this
+	 */
+	public AllRowsQuery<K, C> setMaxInFlightPages(int maxInFlightPages) {
+		Preconditions.checkArgument(maxInFlightPages > 0, "maxInFlightPages must be > 0");
+		this.maxInFlightPages = maxInFlightPages;
+		return this;
+	}
+
+	public int getMaxInFlightPages() {
+		if (maxInFlightPages != null) {
+			return maxInFlightPages;
+		}
+		return concurrencyLevel != null ? concurrencyLevel : DEFAULT_MAX_IN_FLIGHT_PAGES;
+	}
+
+	/**
+	 * Set the executor on which pages are processed and failed pages are retried, instead of a thread pool that is 
+	 * created for each scan.  The executor should have at least {@link #getMaxInFlightPages()} threads since a range 
+	 * being retried sleeps for the backoff on its thread. 
+	 * @param executor
+	 * @return this
+	 */
+	public AllRowsQuery<K, C> setExecutor(ExecutorService executor) {
+		Preconditions.checkArgument(executor != null, "Supplied executor must not be null");
+		this.executor = executor;
+		return this;
+	}
+
 	@Override
 	public void executeWithCallback(RowCallback<K, C> callback) throws ConnectionException {
 		this.rowCallback = callback;
@@ -248,206 +307,326 @@ public class CqlAllRowsQueryImpl<K,C> implements AllRowsQuery<K,C> {
 	}
 
 
-	private Boolean executeTasks() throws ConnectionException {
+    /**
+     * Read all token ranges with at most {@link #getMaxInFlightPages()} pages being fetched or processed at a time. 
+     * Each scanner reads one range at a time and only requests the next page of the range, using the paging state of 
+     * the previous page, once the row callback has processed that page.  Hence a slow callback slows down the scan 
+     * instead of pages piling up in memory. 
+     */
+    private void executeTasks() throws ConnectionException {
         error.set(null);
         
-        List<Callable<Boolean>> subtasks = Lists.newArrayList();
+        Queue<TokenRange> ranges = new ConcurrentLinkedQueue<TokenRange>(getTokenRanges());
+        int scannerCount = Math.min(getMaxInFlightPages(), ranges.size());
+        if (scannerCount == 0) {
+            return;
+        }
+        
+        // Unless one was provided, read on a thread pool of our own that is shut down with the scan
+        ExecutorService localExecutor = null;
+        Executor scanExecutor = executor;
+        if (scanExecutor == null) {
+            localExecutor = Executors.newFixedThreadPool(scannerCount, 
+                    new ThreadFactoryBuilder().setDaemon(true)
+                        .setNameFormat("AstyanaxAllRowsQuery-%d")
+                        .build());
+            scanExecutor = localExecutor;
+        }
+        
+        try {
+            CountDownLatch done = new CountDownLatch(scannerCount);
+            for (int i = 0; i < scannerCount; i++) {
+                new RangeScanner(ranges, done, scanExecutor).nextRange();
+            }
+            
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while reading all rows", e);
+            }
+        }
+        finally {
+            if (localExecutor != null) {
+                localExecutor.shutdownNow();
+            }
+        }
+        
+        Exception e = error.get();
+        if (e != null) {
+            LOG.warn("AllRowsReader terminated. " + e.getMessage(), e);
+            if (e instanceof ConnectionException) {
+                throw (ConnectionException) e;
+            }
+            throw new RuntimeException(e);
+        }
+    }
+    
+    /**
+     * @return the token ranges to read, where each range is (start, end] and doesn't wrap around the ring
+     */
+    private List<TokenRange> getTokenRanges() {
         
-        // We are iterating the entire ring using an arbitrary number of threads
+        List<TokenRange> ranges;
+        // We are iterating the entire ring using an arbitrary number of ranges
         if (this.concurrencyLevel != null || startToken != null || endToken != null) {
-
-    		List<TokenRange> tokens = partitioner.splitTokenRange(
+            ranges = partitioner.splitTokenRange(
                     startToken == null ? partitioner.getMinToken() : startToken, 
                     endToken == null   ? partitioner.getMinToken() : endToken, 
                     this.concurrencyLevel == null ? 1 : this.concurrencyLevel);
-            
-            for (TokenRange range : tokens) {
-                subtasks.add(makeTokenRangeTask(range.getStartToken(), range.getEndToken()));
-            }
         }
-        // We are iterating through each token range
+        // We are iterating through each vnode's token range
         else {
-            List<TokenRange> ranges = keyspace.describeRing(null, null);
-            for (TokenRange range : ranges) {
-                if (range.getStartToken().equals(range.getEndToken())) {
-                    subtasks.add(makeTokenRangeTask(range.getStartToken(), range.getEndToken()));
-                } else {
-                    subtasks.add(makeTokenRangeTask(partitioner.getTokenMinusOne(range.getStartToken()), range.getEndToken()));
-                }
+            ranges = CqlRingDescriber.getInstance().getVnodeTokenRanges(ksContext.getSession(), ksContext.getKeyspace());
+            if (ranges.isEmpty()) {
+                // Token metadata is not available from the driver
+                ranges = partitioner.splitTokenRange(partitioner.getMinToken(), partitioner.getMinToken(), 1);
             }
         }
         
-        try {
-            // Use a local executor
-            if (executor == null) {
-                ExecutorService localExecutor = Executors
-                        .newFixedThreadPool(subtasks.size(),
-                            new ThreadFactoryBuilder().setDaemon(true)
-                                .setNameFormat("AstyanaxAllRowsQuery-%d")
-                                .build());
-                
-                try {
-                	futures.addAll(startTasks(localExecutor, subtasks));
-                    return waitForTasksToFinish();
-                }
-                finally {
-                    localExecutor.shutdownNow();
-                }
+        // Note that the range query binds tokens as longs, i.e. only the Murmur3Partitioner is supported
+        return splitWrappingRanges(ranges, Long.parseLong(partitioner.getMinToken()), Long.parseLong(partitioner.getMaxToken()));
+    }
+    
+    /**
+     * @param ranges - token ranges (start, end], where start == end is the whole ring
+     * @param minToken
+     * @param maxToken
+     * @return the ranges, with ranges that wrap around the ring split in two
+     */
+    static List<TokenRange> splitWrappingRanges(List<TokenRange> ranges, long minToken, long maxToken) {
+        List<TokenRange> result = Lists.newArrayListWithCapacity(ranges.size());
+        for (TokenRange range : ranges) {
+            long start = Long.parseLong(range.getStartToken());
+            long end = Long.parseLong(range.getEndToken());
+            
+            if (start == end) {
+                // The whole ring
+                start = minToken;
+                end = maxToken;
+            } else if (end == minToken) {
+                // Up to the end of the ring
+                end = maxToken;
             }
-            // Use an externally provided executor
-            else {
-                futures.addAll(startTasks(executor, subtasks));
-                return waitForTasksToFinish();
+            
+            if (start < end) {
+                result.add(new TokenRangeImpl(Long.toString(start), Long.toString(end), range.getEndpoints()));
+            } else {
+                // Wraps around the ring
+                result.add(new TokenRangeImpl(Long.toString(start), Long.toString(maxToken), range.getEndpoints()));
+                result.add(new TokenRangeImpl(Long.toString(minToken), Long.toString(end), range.getEndpoints()));
             }
         }
-        catch (Exception e) {
-            error.compareAndSet(null, e);
-            LOG.warn("AllRowsReader terminated. " + e.getMessage(), e);
-            cancel();
-            
-            throw new RuntimeException(error.get());
+        return result;
+    }
+    
+    /**
+     * @param page - rows of a page, in token order
+     * @return index of the first row of the last partition of the page
+     */
+    static int lastPartitionStart(List<com.datastax.driver.core.Row> page) {
+        int index = page.size() - 1;
+        if (index < 0) {
+            return 0;
         }
+        ByteBuffer lastKey = page.get(index).getBytesUnsafe(0);
+        while (index > 0 && lastKey.equals(page.get(index - 1).getBytesUnsafe(0))) {
+            index--;
+        }
+        return index;
     }
-
-
-    private Callable<Boolean> makeTokenRangeTask(final String startToken, final String endToken) {
-        return new Callable<Boolean>() {
-            @Override
-            public Boolean call() {
-                try {
-                    String currentToken;
-                    try {
-                        currentToken = checkpointManager.getCheckpoint(startToken);
-                        if (currentToken == null) {
-                            currentToken = startToken;
-                        }
-                        else if (currentToken.equals(endToken)) {
-                            return true;
-                        }
-                    } catch (Exception e) {
-                        error.compareAndSet(null, e);
-                        LOG.error("Failed to get checkpoint for startToken " + startToken, e);
-                        cancel();
-                        throw new RuntimeException("Failed to get checkpoint for startToken " + startToken, e);
-                    }
-                    
-                    int localPageSize = rowLimit;
-                    int rowsToSkip = 0;
-                    while (!cancelling.get()) {
-                        RowSliceQuery<K, C> query = prepareQuery().getKeyRange(null, null, currentToken, endToken, -1);
-                        
-                        if (columnSlice != null)
-                            query.withColumnSlice(columnSlice);
-                        
-                        Rows<K, C> rows = query.execute().getResult();
-                        if (!rows.isEmpty()) {
-                           try {
-                                if (rowCallback != null) {
-                                    try { 
-                                    	rowCallback.success(rows);
-                                    } catch (Exception e) {
-                                    	LOG.error("Failed to process rows", e);
-                                        cancel();
-                                        return false;
-                                    }
-                                } else {
-                                	LOG.error("Row function is empty");
-                                }
-                            } catch (Exception e) {
-                                error.compareAndSet(null, e);
-                                LOG.warn(e.getMessage(), e);
-                                cancel();
-                                throw new RuntimeException("Error processing row", e);
-                            }
-                                
-                            // Get the next block
-                            if (rows.size() == rowLimit) {
-                                Row<K, C> lastRow = rows.getRowByIndex(rows.size() - 1);
-                                String lastToken = partitioner.getTokenForKey(lastRow.getRawKey());
-                                checkpointManager.trackCheckpoint(startToken, currentToken);
-                                if (repeatLastToken) {
-                                    // Start token is non-inclusive
-                                    currentToken = partitioner.getTokenMinusOne(lastToken);
-                                    
-                                 // Determine the number of rows to skip in the response.  Since we are repeating the
-                                 // last token it's possible (although unlikely) that there is more than one key mapping to the
-                                 // token.  We therefore count backwards the number of keys that have the same token and skip 
-                                 // that number in the next iteration of the loop.  If, for example, 3 keys matched but only 2 were
-                                    // returned in this iteration then the first 2 keys will be skipped from the next response.
-                                    rowsToSkip = 1;
-                                    for (int i = rows.size() - 2; i >= 0; i--, rowsToSkip++) {
-                                        if (!lastToken.equals(partitioner.getTokenForKey(rows.getRowByIndex(i).getRawKey()))) {
-                                            break;
-                                        }
-                                    }
-
-                                    if (rowsToSkip == localPageSize) {
-                                        localPageSize++;
-                                    }
-                                } else {
-                                    currentToken = lastToken;
-                                }
-                                
-                                continue;
-                            }
-                        }
-                        
-                        // We're done!
-                        checkpointManager.trackCheckpoint(startToken, endToken);
-                        return true;
-                    }
-                    cancel();
-                    return false;
-                } catch (Exception e) {
-                    error.compareAndSet(null, e);
-                    LOG.error("Error process token/key range", e);
-                    cancel();
-                    throw new RuntimeException("Error process token/key range", e);
-                }
-            }
-        };
+    
+    /**
+     * @param partitioner
+     * @param lastKey - key of the last partition handed to the row callback
+     * @param repeatLastToken - true to read the last partition again when resuming from the checkpoint
+     * @return the checkpoint of the range, i.e. the token after which reading resumes 
+     */
+    static String checkpointToken(Partitioner partitioner, ByteBuffer lastKey, boolean repeatLastToken) {
+        String lastToken = partitioner.getTokenForKey(lastKey);
+        return repeatLastToken ? partitioner.getTokenMinusOne(lastToken) : lastToken;
     }
-
-
+    
     /**
-     * Submit all the callables to the executor by synchronize their execution so they all start
-     * AFTER the have all been submitted.
-     * @param executor
-     * @param callables
-     * @return
+     * @param startToken - first token of the range, inclusive
+     * @param endToken - last token of the range, inclusive
+     * @return Statement for the token range, without any routing
      */
-    private List<Future<Boolean>> startTasks(ExecutorService executor, List<Callable<Boolean>> callables) {
-        List<Future<Boolean>> tasks = Lists.newArrayList();
-        for (Callable<Boolean> callable : callables) {
-            tasks.add(executor.submit(callable));
-        }
-        return tasks;
+    private Statement prepareRangeStatement(String startToken, String endToken) {
+        CqlRowSliceQueryImpl<K, C> query = (CqlRowSliceQueryImpl<K, C>) prepareQuery().getKeyRange(null, null, startToken, endToken, -1);
+        if (columnSlice != null)
+            query.withColumnSlice(columnSlice);
+        
+        Statement statement = query.getQueryStatement();
+        statement.setConsistencyLevel(ConsistencyLevelMapping.getCL(consistencyLevel != null ? consistencyLevel : ksContext.getConfig().getDefaultReadConsistencyLevel()));
+        statement.setFetchSize(rowLimit);
+        return statement;
     }
     
     /**
-     * Wait for all tasks to finish.
-     * 
-     * @param futures
-     * @return true if all tasks returned true or false otherwise.  
+     * Reads token ranges from the queue, one range and one page at a time.  Each page is handed to the row callback 
+     * on the executor of the scan.  Since all rows of a partition must be in one {@link Row}, the 
+     * rows of the last partition of a page are held back until the next page shows whether the partition continues. 
      */
-    private boolean waitForTasksToFinish() throws Exception {
-        for (Future<Boolean> future : futures) {
+    private class RangeScanner implements FutureCallback<ResultSet> {
+        
+        private final Queue<TokenRange> ranges;
+        private final CountDownLatch done;
+        private final Executor executor;
+        // Backoff between retries of a failed page, reset after each page that was read
+        private final BoundedExponentialBackoff backoff = new BoundedExponentialBackoff(RETRY_BASE_SLEEP_MS, RETRY_MAX_SLEEP_MS, -1);
+        
+        private TokenRange range;
+        private Statement statement;
+        private Statement routedStatement;
+        private List<com.datastax.driver.core.Row> partialRows = Lists.newArrayList();
+        
+        private RangeScanner(Queue<TokenRange> ranges, CountDownLatch done, Executor executor) {
+            this.ranges = ranges;
+            this.done = done;
+            this.executor = executor;
+        }
+        
+        private void nextRange() {
             try {
-                if (!future.get()) {
-                    cancel();
-                    return false;
+                while (!cancelling.get() && (range = ranges.poll()) != null) {
+                    String currentToken = checkpointManager.getCheckpoint(range.getStartToken());
+                    if (currentToken == null) {
+                        currentToken = range.getStartToken();
+                    }
+                    
+                    long start = Long.parseLong(currentToken);
+                    if (start < Long.parseLong(range.getEndToken())) {
+                        // Start token is non-inclusive
+                        statement = prepareRangeStatement(Long.toString(start + 1), range.getEndToken());
+                        routedStatement = ReplicaRoutingPolicy.routeTo(statement, range.getEndpoints());
+                        partialRows.clear();
+                        backoff.begin();
+                        fetchPage();
+                        return;
+                    }
                 }
             } catch (Exception e) {
                 error.compareAndSet(null, e);
+                LOG.error("Error starting token range " + range, e);
                 cancel();
-                throw e;
             }
+            done.countDown();
+        }
+        
+        private void fetchPage() {
+            Futures.addCallback(ksContext.getSession().executeAsync(routedStatement), this, MoreExecutors.directExecutor());
+        }
+        
+        @Override
+        public void onSuccess(final ResultSet rs) {
+            // Don't process rows on the driver's I/O thread
+            runAsync(new Runnable() {
+                @Override
+                public void run() {
+                    processPage(rs);
+                }
+            });
+        }
+        
+        @Override
+        public void onFailure(final Throwable t) {
+            runAsync(new Runnable() {
+                @Override
+                public void run() {
+                    ConnectionException ce = (t instanceof ConnectionException) ? (ConnectionException) t : new OperationException(t);
+                    if (!cancelling.get() && exceptionCallback != null && exceptionCallback.onException(ce)) {
+                        // Retry the same page after a backoff, unless interrupted by the end of the scan
+                        if (backoff.allowRetry() && !cancelling.get()) {
+                            fetchPage();
+                        } else {
+                            fail(ce);
+                        }
+                    } else {
+                        fail(ce);
+                    }
+                }
+            });
+        }
+        
+        private void processPage(ResultSet rs) {
+            try {
+                if (cancelling.get()) {
+                    done.countDown();
+                    return;
+                }
+                
+                backoff.begin();
+                PagingState pagingState = rs.getExecutionInfo().getPagingState();
+                int count = rs.getAvailableWithoutFetching();
+                
+                List<com.datastax.driver.core.Row> page = Lists.newArrayListWithCapacity(partialRows.size() + count);
+                page.addAll(partialRows);
+                for (int i = 0; i < count; i++) {
+                    page.add(rs.one());
+                }
+                partialRows = Lists.newArrayList();
+                
+                if (pagingState != null && !page.isEmpty()) {
+                    // The last partition may continue in the next page
+                    int index = lastPartitionStart(page);
+                    partialRows = Lists.newArrayList(page.subList(index, page.size()));
+                    page = page.subList(0, index);
+                }
+                
+                if (!page.isEmpty() && !processRows(page)) {
+                    cancel();
+                    done.countDown();
+                    return;
+                }
+                
+                if (pagingState != null) {
+                    statement.setPagingState(pagingState);
+                    fetchPage();
+                } else {
+                    // We're done with this range!
+                    checkpointManager.trackCheckpoint(range.getStartToken(), range.getEndToken());
+                    nextRange();
+                }
+            } catch (Exception e) {
+                fail(e);
+            }
+        }
+        
+        private boolean processRows(List<com.datastax.driver.core.Row> page) throws Exception {
+            if (rowCallback != null) {
+                try { 
+                    rowCallback.success(new CqlRowListImpl<K, C>(page, columnFamily));
+                } catch (Exception e) {
+                    LOG.error("Failed to process rows", e);
+                    return false;
+                }
+            } else {
+                LOG.error("Row function is empty");
+            }
+            
+            checkpointManager.trackCheckpoint(range.getStartToken(), 
+                    checkpointToken(partitioner, page.get(page.size() - 1).getBytesUnsafe(0), repeatLastToken));
+            return true;
+        }
+        
+        private void runAsync(Runnable task) {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                fail(e);
+            }
+        }
+        
+        private void fail(Exception e) {
+            error.compareAndSet(null, e);
+            LOG.error("Error process token range " + range, e);
+            cancel();
+            done.countDown();
         }
-        return true;
     }
     
-
-    
     private ColumnFamilyQuery<K, C> prepareQuery() {
     	ColumnFamilyQuery<K, C> query = keyspace.prepareQuery(columnFamily);
     	if (consistencyLevel != null)
@@ -455,7 +634,6 @@ public class CqlAllRowsQueryImpl<K,C> implements AllRowsQuery<K,C> {
     	return query;
     }
     
-    
     /**
      * Cancel all pending range iteration tasks.  This will cause all internal threads to exit and
      * call() to return false.
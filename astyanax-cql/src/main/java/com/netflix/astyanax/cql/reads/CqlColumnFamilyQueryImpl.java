@@ -40,7 +40,7 @@ public class CqlColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C> {
 	private final KeyspaceContext ksContext;
 	private final CFQueryContext<K,C> cfContext;
 	
-	private boolean useCaching = false;
+	private boolean useCaching = true;
 	
 	public CqlColumnFamilyQueryImpl(KeyspaceContext ksCtx, ColumnFamily<K,C> cf) {
 		this.ksContext = ksCtx;
@@ -65,6 +65,18 @@ public class CqlColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C> {
 		throw new UnsupportedOperationException("Operation not supported");
 	}
 
+	@Override
+	public ColumnFamilyQuery<K, C> withFlyweightResults() {
+		// Results are already decoded by the driver
+		return this;
+	}
+
+	@Override
+	public ColumnFamilyQuery<K, C> withTokenAwareKeySlice(int maxKeysPerQuery) {
+		// Key slices are sent as a single statement
+		return this;
+	}
+
 	@Override
 	public RowQuery<K, C> getKey(K rowKey) {
 		return new CqlRowQueryImpl<K, C>(ksContext, cfContext, rowKey, useCaching);
@@ -124,7 +136,7 @@ public class CqlColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C> {
 
 	@Override
 	public AllRowsQuery<K, C> getAllRows() {
-		return new CqlAllRowsQueryImpl<K, C>(ksContext.getKeyspaceContext(), cfContext.getColumnFamily());
+		return new CqlAllRowsQueryImpl<K, C>(ksContext, cfContext.getColumnFamily());
 	}
 
 	@Override
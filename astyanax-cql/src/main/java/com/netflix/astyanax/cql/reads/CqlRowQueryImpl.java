@@ -24,6 +24,7 @@ import com.netflix.astyanax.cql.reads.model.CqlColumnListImpl;
 import com.netflix.astyanax.cql.reads.model.CqlColumnSlice;
 import com.netflix.astyanax.cql.reads.model.CqlRangeBuilder;
 import com.netflix.astyanax.cql.reads.model.CqlRangeImpl;
+import com.netflix.astyanax.cql.reads.model.CqlStreamingColumnListImpl;
 import com.netflix.astyanax.cql.schema.CqlColumnFamilyDefinitionImpl;
 import com.netflix.astyanax.cql.util.CFQueryContext;
 import com.netflix.astyanax.ddl.ColumnDefinition;
@@ -65,6 +66,8 @@ public class CqlRowQueryImpl<K, C> implements RowQuery<K, C> {
 	
 	private RowQueryType queryType = RowQueryType.AllColumns;  // The default
 	private boolean useCaching = false;
+	// Number of columns to fetch per page when streaming the row. Streaming is off when not set.
+	private int fetchSize = -1;
 	
 	public CqlRowQueryImpl(KeyspaceContext ksCtx, CFQueryContext<K,C> cfCtx, K rKey, boolean useCaching) {
 		this.ksContext = ksCtx;
@@ -179,6 +182,23 @@ public class CqlRowQueryImpl<K, C> implements RowQuery<K, C> {
 		return this;
 	}
 
+	/**
+	 * Stream the columns of a wide row instead of reading the entire row into memory. The returned {@link ColumnList} 
+	 * reads fetchSize columns at a time from Cassandra while it is being iterated, and decodes each column as it 
+	 * is reached. Note that the columns can only be iterated once, and that lookups by name or index read the rest 
+	 * of the row into memory, so they should not be mixed with iteration. 
+	 * 
+	 * This only applies to tables with a clustering key and is ignored when using {@link #autoPaginate(boolean)}. 
+	 * 
+	 * @param fetchSize
+	 * @return this
+	 */
+	@Override
+	public RowQuery<K, C> withFetchSize(int fetchSize) {
+		this.fetchSize = fetchSize;
+		return this;
+	}
+
 	@Override
 	public RowCopier<K, C> copyTo(ColumnFamily<K, C> columnFamily, K rowKey) {
 		return new CqlRowCopier<K,C>(columnFamily, rowKey, this, ksContext);
@@ -217,6 +237,8 @@ public class CqlRowQueryImpl<K, C> implements RowQuery<K, C> {
 //				if (columnSlice.getFetchSize() > 0) {
 //					stmt.setFetchSize(columnSlice.getFetchSize() + 1);
 //				}
+			} else if (fetchSize > 0) {
+				stmt.setFetchSize(fetchSize);
 			}
 			return stmt;
 		}
@@ -240,6 +262,10 @@ public class CqlRowQueryImpl<K, C> implements RowQuery<K, C> {
 				paginationContext.init(resultSet, columnSlice.getFetchSize());
 				return paginationContext.getNextColumns();
 				
+			} else if (fetchSize > 0) {
+				
+				return new CqlStreamingColumnListImpl<C>(resultSet, cf);
+				
 			} else {
 				
 				List<Row> rows = resultSet.all(); 
@@ -159,6 +159,14 @@ public class CqlRowSliceQueryImpl<K, C> implements RowSliceQuery<K, C> {
 		return new CqlRowSliceColumnCountQueryImpl<K>(ksContext, cfContext, query);
 	}
 
+	/**
+	 * @return the statement for this query, for callers that execute and page through it themselves.
+	 * Note that the consistency level and fetch size are not set on the statement.
+	 */
+	Statement getQueryStatement() {
+		return new InternalRowQueryExecutionImpl(this).getQuery();
+	}
+
 	@SuppressWarnings("unchecked")
 	private class InternalRowQueryExecutionImpl extends CqlAbstractExecutionImpl<Rows<K, C>> {
 
@@ -2,6 +2,7 @@ package com.netflix.astyanax.cql.reads;
 
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicReference;
@@ -128,6 +129,11 @@ public class FlatTableRowQueryGen {
 			};
 		}
 
+		@Override
+		public Object getShape(CqlRowQueryImpl<?, ?> rowQuery) {
+			return FIXED_SHAPE;
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlRowQueryImpl<?, ?> rowQuery) {
 			return pStatement.bind(rowQuery.getRowKey());
@@ -166,6 +172,11 @@ public class FlatTableRowQueryGen {
 			};
 		}
 
+		@Override
+		public Object getShape(CqlRowQueryImpl<?, ?> rowQuery) {
+			return new ArrayList<Object>(rowQuery.getColumnSlice().getColumns());
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlRowQueryImpl<?, ?> rowQuery) {
 			return pStatement.bind(rowQuery.getRowKey());
@@ -6,6 +6,7 @@ import static com.datastax.driver.core.querybuilder.QueryBuilder.lte;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicReference;
@@ -94,11 +95,16 @@ public class FlatTableRowSliceQueryGen {
 				public RegularStatement call() throws Exception {
 					
 					Select select = selectAllColumnsFromKeyspaceAndCF();
-					return select.where(in(partitionKeyCol, rowSliceQuery.getRowSlice().getKeys().toArray()));
+					return select.where(in(partitionKeyCol, bindMarkerArray(rowSliceQuery.getRowSlice().getKeys().size())));
 				}
 			};
 		}
 
+		@Override
+		public Object getShape(CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
+			return rowSliceQuery.getRowSlice().getKeys().size();
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
 			return pStatement.bind(rowSliceQuery.getRowSlice().getKeys().toArray());
@@ -122,11 +128,16 @@ public class FlatTableRowSliceQueryGen {
 						select.column(columnName).ttl(columnName).writeTime(columnName);
 					}
 
-					return select.from(keyspace, cfDef.getName()).where(in(partitionKeyCol, rowSliceQuery.getRowSlice().getKeys().toArray()));
+					return select.from(keyspace, cfDef.getName()).where(in(partitionKeyCol, bindMarkerArray(rowSliceQuery.getRowSlice().getKeys().size())));
 				}
 			};
 		}
 
+		@Override
+		public Object getShape(CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
+			return Arrays.asList(rowSliceQuery.getRowSlice().getKeys().size(), new ArrayList<Object>(rowSliceQuery.getColumnSlice().getColumns()));
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
 			
@@ -192,6 +203,14 @@ public class FlatTableRowSliceQueryGen {
 		return where; 
 	}
 
+	/**
+	 * Shape of the where clause from {@link #addWhereClauseForRowRange(String, Select, RowRange)}
+	 */
+	private Object rowRangeShape(RowRange<?> rowRange) {
+		return Arrays.asList(rowRange.getStartKey() != null, rowRange.getEndKey() != null, 
+				rowRange.getStartToken() != null, rowRange.getEndToken() != null);
+	}
+
 	private void bindWhereClauseForRowRange(List<Object> values, RowRange<?> rowRange) {
 
 		boolean keyIsPresent = false;
@@ -256,6 +275,11 @@ public class FlatTableRowSliceQueryGen {
 			};
 		}
 
+		@Override
+		public Object getShape(CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
+			return rowRangeShape(rowSliceQuery.getRowSlice().getRange());
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
 
@@ -288,6 +312,11 @@ public class FlatTableRowSliceQueryGen {
 			};
 		}
 
+		@Override
+		public Object getShape(CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
+			return Arrays.asList(rowRangeShape(rowSliceQuery.getRowSlice().getRange()), new ArrayList<Object>(rowSliceQuery.getColumnSlice().getColumns()));
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlRowSliceQueryImpl<?, ?> rowSliceQuery) {
 			
@@ -342,4 +371,13 @@ public class FlatTableRowSliceQueryGen {
 			throw new RuntimeException("RowSliceQuery use case not supported.");
 		}
 	}
+
+	private Object[] bindMarkerArray(int n) {
+		
+		Object[] arr = new Object[n];
+		for (int i=0; i<n; i++) {
+			arr[i] = BIND_MARKER;
+		}
+		return arr;
+	}
 }
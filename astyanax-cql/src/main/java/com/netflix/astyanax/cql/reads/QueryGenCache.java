@@ -1,5 +1,6 @@
 package com.netflix.astyanax.cql.reads;
 
+import java.util.Arrays;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -10,12 +11,15 @@ import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.RegularStatement;
 import com.datastax.driver.core.Session;
+import com.netflix.astyanax.cql.writes.StatementCache;
 
 /**
  * Template for {@link PreparedStatement} caching for a query Q. 
- * The class provides the basic functionality to store a cached reference to the PreparedStatement 
- * that is generated by the extending class. Hence actual logic for constructing the PrepatedStatement
- * and binding values to that statement is not defined here. That must be provided by the extending classes.  
+ * The class provides the basic functionality to look up the PreparedStatement for the query generated
+ * by the extending class in the shared {@link StatementCache}. Statements are keyed on the shape of the 
+ * query (number of row keys, columns, slice bounds etc) as provided by the extending class, so that 
+ * queries of different shapes never share a statement and the query string is only generated on a miss. Actual logic for constructing the PrepatedStatement and binding values to that statement
+ * is not defined here. That must be provided by the extending classes.  
  * 
  * @author poberai
  *
@@ -25,10 +29,13 @@ public abstract class QueryGenCache<Q> {
 	
 	private static final Logger LOG = LoggerFactory.getLogger(QueryGenCache.class);
 
+	// Shape for extending classes that always generate the same query
+	protected static final Object FIXED_SHAPE = "Fixed";
+
 	// reference to the session object. This is required for "preparing" a statement
 	private AtomicReference<Session> sessionRef = new AtomicReference<Session>(null); 
-	// The cached reference to the query constructed by extending classes
-	private final AtomicReference<PreparedStatement> cachedStatement = new AtomicReference<PreparedStatement>(null);
+	// The cache of statements prepared for queries constructed by extending classes
+	private final StatementCache statementCache = StatementCache.getInstance();
 
 	/**
 	 * Constructor
@@ -53,38 +60,41 @@ public abstract class QueryGenCache<Q> {
 	/**
 	 * Get the bound statemnent by either constructing the query or using the cached statement underneath.
 	 * Note that the caller can provide useCaching as a knob to turn caching ON/OFF. 
-	 * If false, then the query is just constructed using the extending class and returned. 
-	 * If true, then the cached reference is consulted. If the cache is empty, then the query is constructed
-	 * and used to seed the cache. 
+	 * If false, then the query is just constructed using the extending class and prepared. 
+	 * If true, then the statement cache is consulted for a query of the same shape. If the cache 
+	 * does not have one, then the query is constructed, prepared and used to seed the cache. 
 	 * 
 	 * @param query
 	 * @param useCaching
 	 * @return PreparedStatement
 	 */
-	public PreparedStatement getPreparedStatement(Q query, boolean useCaching) {
+	public PreparedStatement getPreparedStatement(final Q query, boolean useCaching) {
 
-		PreparedStatement pStatement = null;
+		Callable<PreparedStatement> prepare = new Callable<PreparedStatement>() {
+			@Override
+			public PreparedStatement call() throws Exception {
+				return prepare(getQueryGen(query).call().getQueryString());
+			}
+		};
 
 		if (useCaching) {
-			pStatement = cachedStatement.get();
+			return statementCache.getStatement(Arrays.asList(this, getShape(query)), prepare);
 		}
 
-		if (pStatement == null) {
-			try {
-				RegularStatement stmt = getQueryGen(query).call();
-				if (LOG.isDebugEnabled()) {
-					LOG.debug("Query: " + stmt.getQueryString());
-				}
-				pStatement = sessionRef.get().prepare(stmt.getQueryString());
-			} catch (Exception e) {
-				throw new RuntimeException(e);
-			}
+		try {
+			return prepare.call();
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new RuntimeException(e);
 		}
+	}
 
-		if (useCaching && cachedStatement.get() == null) {
-			cachedStatement.set(pStatement);
+	private PreparedStatement prepare(String queryString) {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Query: " + queryString);
 		}
-		return pStatement;
+		return sessionRef.get().prepare(queryString);
 	}
 	
 	/**
@@ -94,6 +104,16 @@ public abstract class QueryGenCache<Q> {
 	 */
 	public abstract Callable<RegularStatement> getQueryGen(Q query);
 
+	/**
+	 * Extending classes must implement this with the shape of the query generated for the given Astyanax query, i.e. 
+	 * everything that the generated query string depends on (number of row keys and columns, which slice bounds are set etc).
+	 * Queries with the same shape must generate the same query string. The shape is used as the key of the statement cache, 
+	 * so that the query string is only generated when the statement is not cached yet. 
+	 * @param query
+	 * @return Object
+	 */
+	public abstract Object getShape(Q query);
+
 	/**
 	 * Extending classes must implement this with logic for binding the right Astyanax query data with the pre-constructed
 	 * prepared statement in the right order.
@@ -32,6 +32,8 @@ import com.netflix.astyanax.serializers.UUIDSerializer;
  * The index provided within the row indicates where to start parsing the Column data. 
  * Also this class handles reading the TTL and Timestamp on the Column as well. 
  * 
+ * Primitive values are decoded directly from the bytes of the value, see {@link CqlRowDecoder}. 
+ * 
  * @author poberai
  *
  * @param <C>
@@ -44,27 +46,39 @@ public class CqlColumnImpl<C> implements Column<C> {
 	
 	private ComparatorType cType;
 	
+	private DataType.Name type;
 	private boolean isBlob = false;
 	
 	public CqlColumnImpl() {
 	}
 	
 	public CqlColumnImpl(C colName, Row row, int index) {
-		this.columnName = colName;
-		this.row = row;
-		this.index = index;
-
-		Definition colDefinition  = row.getColumnDefinitions().asList().get(index);
-		isBlob = colDefinition.getType() == DataType.blob();
+		this(colName, row, index, row.getColumnDefinitions().getType(index).getName());
 	}
 	
 	public CqlColumnImpl(C colName, Row row, int index, Definition colDefinition) {
+		this(colName, row, index, colDefinition.getType().getName());
+	}
+	
+	/**
+	 * Constructor for columns that share the column types resolved for the schema of the result set
+	 * @param colName
+	 * @param row
+	 * @param index
+	 * @param decoder
+	 */
+	public CqlColumnImpl(C colName, Row row, int index, CqlRowDecoder decoder) {
+		this(colName, row, index, decoder.getType(index));
+	}
+	
+	private CqlColumnImpl(C colName, Row row, int index, DataType.Name type) {
 		
 		this.columnName = colName;
 		this.row = row;
 		this.index = index;
+		this.type = type;
 
-		isBlob = colDefinition.getType() == DataType.blob();
+		isBlob = type == DataType.Name.BLOB;
 	}
 
 	@Override
@@ -79,17 +93,26 @@ public class CqlColumnImpl<C> implements Column<C> {
 
 	@Override
 	public long getTimestamp() {
-		return row.getLong(index+2);
+		return CqlRowDecoder.getLong(row.getBytesUnsafe(index+2));
 	}
 
 	@Override
 	public <V> V getValue(Serializer<V> valSer) {
-		return valSer.fromByteBuffer(row.getBytes(index));
+		return valSer.fromByteBuffer(row.getBytesUnsafe(index));
 	}
 
 	@Override
 	public String getStringValue() {
-		return (isBlob) ? StringSerializer.get().fromByteBuffer(row.getBytes(index)) : row.getString(index);
+		switch (type) {
+		case BLOB:
+			return StringSerializer.get().fromByteBuffer(row.getBytes(index));
+		case TEXT:
+		case VARCHAR:
+		case ASCII:
+			return CqlRowDecoder.getString(row.getBytesUnsafe(index), type);
+		default:
+			return row.getString(index);
+		}
 	}
 
 	@Override
@@ -104,28 +127,47 @@ public class CqlColumnImpl<C> implements Column<C> {
 
 	@Override
 	public short getShortValue() {
-		Integer i = (isBlob) ? ShortSerializer.get().fromByteBuffer(row.getBytes(index)) : row.getInt(index);
-		return i.shortValue();
+		if (isBlob) {
+			return ShortSerializer.get().fromByteBuffer(row.getBytes(index));
+		}
+		return (short) ((type == DataType.Name.INT) ? CqlRowDecoder.getInt(row.getBytesUnsafe(index)) : row.getInt(index));
 	}
 
 	@Override
 	public int getIntegerValue() {
-		return (isBlob) ? IntegerSerializer.get().fromByteBuffer(row.getBytes(index)) : row.getInt(index);
+		if (isBlob) {
+			return IntegerSerializer.get().fromByteBuffer(row.getBytes(index));
+		}
+		return (type == DataType.Name.INT) ? CqlRowDecoder.getInt(row.getBytesUnsafe(index)) : row.getInt(index);
 	}
 
 	@Override
 	public float getFloatValue() {
-		return (isBlob) ? FloatSerializer.get().fromByteBuffer(row.getBytes(index)) : row.getFloat(index);
+		if (isBlob) {
+			return FloatSerializer.get().fromByteBuffer(row.getBytes(index));
+		}
+		return (type == DataType.Name.FLOAT) ? CqlRowDecoder.getFloat(row.getBytesUnsafe(index)) : row.getFloat(index);
 	}
 
 	@Override
 	public double getDoubleValue() {
-		return (isBlob) ? DoubleSerializer.get().fromByteBuffer(row.getBytes(index)) : row.getDouble(index);
+		if (isBlob) {
+			return DoubleSerializer.get().fromByteBuffer(row.getBytes(index));
+		}
+		return (type == DataType.Name.DOUBLE) ? CqlRowDecoder.getDouble(row.getBytesUnsafe(index)) : row.getDouble(index);
 	}
 
 	@Override
 	public long getLongValue() {
-		return (isBlob) ? LongSerializer.get().fromByteBuffer(row.getBytes(index)) : row.getLong(index);
+		switch (type) {
+		case BLOB:
+			return LongSerializer.get().fromByteBuffer(row.getBytes(index));
+		case BIGINT:
+		case COUNTER:
+			return CqlRowDecoder.getLong(row.getBytesUnsafe(index));
+		default:
+			return row.getLong(index);
+		}
 	}
 
 	@Override
@@ -135,7 +177,10 @@ public class CqlColumnImpl<C> implements Column<C> {
 
 	@Override
 	public boolean getBooleanValue() {
-		return (isBlob) ? BooleanSerializer.get().fromByteBuffer(row.getBytes(index)) : row.getBool(index);
+		if (isBlob) {
+			return BooleanSerializer.get().fromByteBuffer(row.getBytes(index));
+		}
+		return (type == DataType.Name.BOOLEAN) ? CqlRowDecoder.getBoolean(row.getBytesUnsafe(index)) : row.getBool(index);
 	}
 
 	@Override
@@ -145,12 +190,23 @@ public class CqlColumnImpl<C> implements Column<C> {
 
 	@Override
 	public Date getDateValue() {
-		return (isBlob) ? DateSerializer.get().fromByteBuffer(row.getBytes(index)) : row.getTimestamp(index);
+		if (isBlob) {
+			return DateSerializer.get().fromByteBuffer(row.getBytes(index));
+		}
+		return (type == DataType.Name.TIMESTAMP) ? CqlRowDecoder.getDate(row.getBytesUnsafe(index)) : row.getTimestamp(index);
 	}
 
 	@Override
 	public UUID getUUIDValue() {
-		return (isBlob) ? UUIDSerializer.get().fromByteBuffer(row.getBytes(index)) : row.getUUID(index);
+		switch (type) {
+		case BLOB:
+			return UUIDSerializer.get().fromByteBuffer(row.getBytes(index));
+		case UUID:
+		case TIMEUUID:
+			return CqlRowDecoder.getUUID(row.getBytesUnsafe(index));
+		default:
+			return row.getUUID(index);
+		}
 	}
 
 	@Override
@@ -167,7 +223,7 @@ public class CqlColumnImpl<C> implements Column<C> {
 
 	@Override
 	public int getTtl() {
-		return row.getInt(index+1);
+		return CqlRowDecoder.getInt(row.getBytesUnsafe(index+1));
 	}
 
 	@Override
@@ -25,6 +25,9 @@ import com.netflix.astyanax.model.ColumnList;
  * In the case of a flat table, each row has a unique set of columns. In the case of a clustering key, each row is a unique column.
  * There are 2 separate constructors to this class in order to handle each of these cases. 
  * 
+ * The index of columns by name is only built when a column is first looked up by name.
+ * See {@link CqlStreamingColumnListImpl} for a column list that decodes columns while paging through the result set.
+ * 
  * @author poberai
  *
  * @param <C>
@@ -33,7 +36,9 @@ import com.netflix.astyanax.model.ColumnList;
 public class CqlColumnListImpl<C> implements ColumnList<C> {
 
 	private List<Column<C>> columnList = new ArrayList<Column<C>>();
-	private LinkedHashMap<C, Column<C>> map = new LinkedHashMap<C, Column<C>>();
+	// Index of the columns by name, built on first use. Volatile so that the index is safely published 
+	// to other threads reading the same column list.
+	private volatile LinkedHashMap<C, Column<C>> map = null;
 	
 	public CqlColumnListImpl() {
 
@@ -46,13 +51,13 @@ public class CqlColumnListImpl<C> implements ColumnList<C> {
 	public CqlColumnListImpl(Row row, ColumnFamily<?,?> cf) {
 		
 		ColumnDefinitions cfDefinitions = row.getColumnDefinitions();
+		CqlRowDecoder decoder = getRowDecoder(row, cf);
 		
 		int index = 1; // skip the key column
 		while (index < cfDefinitions.size()) {
 			String columnName = cfDefinitions.getName(index); 
-			CqlColumnImpl<C> cqlCol = new CqlColumnImpl<C>((C) columnName, row, index);
+			CqlColumnImpl<C> cqlCol = new CqlColumnImpl<C>((C) columnName, row, index, decoder);
 			columnList.add(cqlCol);
-			map.put((C) columnName, cqlCol);
 			index+=3;  // skip past the ttl and the timestamp
 		}
 	}
@@ -67,22 +72,29 @@ public class CqlColumnListImpl<C> implements ColumnList<C> {
 		CqlColumnFamilyDefinitionImpl cfDef = (CqlColumnFamilyDefinitionImpl) cf.getColumnFamilyDefinition();
 		
 		int columnNameIndex = cfDef.getPartitionKeyColumnDefinitionList().size();  
+		int valueIndex = cfDef.getPartitionKeyColumnDefinitionList().size() + cfDef.getClusteringKeyColumnDefinitionList().size();
 		
+		CqlRowDecoder decoder = null;
 		for (Row row : rows) {
 			Object columnName = CqlTypeMapping.getDynamicColumn(row, cf.getColumnSerializer(), columnNameIndex, cf);
-			int valueIndex = cfDef.getPartitionKeyColumnDefinitionList().size() + cfDef.getClusteringKeyColumnDefinitionList().size();
+			decoder = CqlRowDecoder.forRow(row, decoder);
 			
-			CqlColumnImpl<C> cqlCol = new CqlColumnImpl<C>((C) columnName, row, valueIndex);
+			CqlColumnImpl<C> cqlCol = new CqlColumnImpl<C>((C) columnName, row, valueIndex, decoder);
 			columnList.add(cqlCol);
-			map.put((C) columnName, cqlCol);
 		}
 	}
 	
+	private static CqlRowDecoder getRowDecoder(Row row, ColumnFamily<?,?> cf) {
+		if (cf != null && cf.getColumnFamilyDefinition() instanceof CqlColumnFamilyDefinitionImpl) {
+			return ((CqlColumnFamilyDefinitionImpl) cf.getColumnFamilyDefinition()).getRowDecoder(row);
+		}
+		return new CqlRowDecoder(row.getColumnDefinitions());
+	}
+	
 	public CqlColumnListImpl(List<CqlColumnImpl<C>> newColumnList) {
 		this.columnList.clear();
 		for (Column<C> column : newColumnList) {
 			columnList.add(column);
-			map.put(column.getName(), column);
 		}
 	}
 	
@@ -90,8 +102,22 @@ public class CqlColumnListImpl<C> implements ColumnList<C> {
 		if (columnList.size() == 0) {
 			return;
 		}
-		Column<C> firstCol = this.columnList.remove(0);
-		map.remove(firstCol.getName());
+		this.columnList.remove(0);
+		// rebuilt on the next lookup by name
+		map = null;
+	}
+
+	private LinkedHashMap<C, Column<C>> getMap() {
+		LinkedHashMap<C, Column<C>> index = map;
+		if (index == null) {
+			// Only publish the index once it is complete
+			index = new LinkedHashMap<C, Column<C>>(columnList.size() * 2);
+			for (Column<C> column : columnList) {
+				index.put(column.getName(), column);
+			}
+			map = index;
+		}
+		return index;
 	}
 
 	@Override
@@ -101,18 +127,18 @@ public class CqlColumnListImpl<C> implements ColumnList<C> {
 
 	@Override
 	public Collection<C> getColumnNames() {
-		return map.keySet();
+		return getMap().keySet();
 	}
 
 	@Override
 	public Column<C> getColumnByName(C columnName) {
-		return map.get(columnName);
+		return getMap().get(columnName);
 	}
 
 	@Override
 	public String getStringValue(C columnName, String defaultValue) {
 		
-		Column<C> column = map.get(columnName);
+		Column<C> column = getColumnByName(columnName);
 		if (column == null) {
 			return defaultValue;
 		} else {
@@ -122,7 +148,7 @@ public class CqlColumnListImpl<C> implements ColumnList<C> {
 
 	@Override
 	public String getCompressedStringValue(C columnName, String defaultValue) {
-		Column<C> column = map.get(columnName);
+		Column<C> column = getColumnByName(columnName);
 		if (column == null) {
 			return defaultValue;
 		} else {
@@ -132,7 +158,7 @@ public class CqlColumnListImpl<C> implements ColumnList<C> {
 
 	@Override
 	public Integer getIntegerValue(C columnName, Integer defaultValue) {
-		Column<C> column = map.get(columnName);
+		Column<C> column = getColumnByName(columnName);
 		if (column == null) {
 			return defaultValue;
 		} else {
@@ -142,7 +168,7 @@ public class CqlColumnListImpl<C> implements ColumnList<C> {
 
 	@Override
 	public Double getDoubleValue(C columnName, Double defaultValue) {
-		Column<C> column = map.get(columnName);
+		Column<C> column = getColumnByName(columnName);
 		if (column == null) {
 			return defaultValue;
 		} else {
@@ -152,7 +178,7 @@ public class CqlColumnListImpl<C> implements ColumnList<C> {
 
 	@Override
 	public Long getLongValue(C columnName, Long defaultValue) {
-		Column<C> column = map.get(columnName);
+		Column<C> column = getColumnByName(columnName);
 		if (column == null) {
 			return defaultValue;
 		} else {
@@ -162,7 +188,7 @@ public class CqlColumnListImpl<C> implements ColumnList<C> {
 
 	@Override
 	public byte[] getByteArrayValue(C columnName, byte[] defaultValue) {
-		Column<C> column = map.get(columnName);
+		Column<C> column = getColumnByName(columnName);
 		if (column == null) {
 			return defaultValue;
 		} else {
@@ -172,7 +198,7 @@ public class CqlColumnListImpl<C> implements ColumnList<C> {
 
 	@Override
 	public Boolean getBooleanValue(C columnName, Boolean defaultValue) {
-		Column<C> column = map.get(columnName);
+		Column<C> column = getColumnByName(columnName);
 		if (column == null) {
 			return defaultValue;
 		} else {
@@ -182,7 +208,7 @@ public class CqlColumnListImpl<C> implements ColumnList<C> {
 
 	@Override
 	public ByteBuffer getByteBufferValue(C columnName, ByteBuffer defaultValue) {
-		Column<C> column = map.get(columnName);
+		Column<C> column = getColumnByName(columnName);
 		if (column == null) {
 			return defaultValue;
 		} else {
@@ -192,7 +218,7 @@ public class CqlColumnListImpl<C> implements ColumnList<C> {
 
 	@Override
 	public <T> T getValue(C columnName, Serializer<T> serializer, T defaultValue) {
-		Column<C> column = map.get(columnName);
+		Column<C> column = getColumnByName(columnName);
 		if (column == null) {
 			return defaultValue;
 		} else {
@@ -202,7 +228,7 @@ public class CqlColumnListImpl<C> implements ColumnList<C> {
 
 	@Override
 	public Date getDateValue(C columnName, Date defaultValue) {
-		Column<C> column = map.get(columnName);
+		Column<C> column = getColumnByName(columnName);
 		if (column == null) {
 			return defaultValue;
 		} else {
@@ -212,7 +238,7 @@ public class CqlColumnListImpl<C> implements ColumnList<C> {
 
 	@Override
 	public UUID getUUIDValue(C columnName, UUID defaultValue) {
-		Column<C> column = map.get(columnName);
+		Column<C> column = getColumnByName(columnName);
 		if (column == null) {
 			return defaultValue;
 		} else {
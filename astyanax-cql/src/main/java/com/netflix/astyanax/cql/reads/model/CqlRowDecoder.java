@@ -0,0 +1,109 @@
+package com.netflix.astyanax.cql.reads.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Date;
+import java.util.UUID;
+
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.Row;
+import com.google.common.base.Charsets;
+
+/**
+ * Decodes the values of java driver {@link Row}s straight from their serialized bytes.
+ *
+ * The java driver looks up the codec for a column on every call to a getter such as {@link Row#getLong(int)}.
+ * This class resolves the data type of each column once per result set schema, i.e. per {@link ColumnDefinitions},
+ * so that {@link CqlColumnImpl} can decode primitives from {@link Row#getBytesUnsafe(int)} without a codec lookup
+ * or boxing. Since all rows of a result set share their column definitions, a decoder is resolved once and reused
+ * for all rows, see {@link #forRow(Row, CqlRowDecoder)}.
+ *
+ * The ttl and writetime columns that follow each value are only decoded when they are asked for.
+ */
+public class CqlRowDecoder {
+
+	private final ColumnDefinitions columnDefinitions;
+	private final DataType.Name[] types;
+
+	public CqlRowDecoder(ColumnDefinitions columnDefinitions) {
+		this.columnDefinitions = columnDefinitions;
+		this.types = new DataType.Name[columnDefinitions.size()];
+		for (int index = 0; index < types.length; index++) {
+			types[index] = columnDefinitions.getType(index).getName();
+		}
+	}
+
+	/**
+	 * @param row
+	 * @param decoder - previously resolved decoder, may be null
+	 * @return the decoder if it was resolved for the schema of the row, or else a new decoder for the row
+	 */
+	public static CqlRowDecoder forRow(Row row, CqlRowDecoder decoder) {
+		if (decoder != null && decoder.isSchemaOf(row)) {
+			return decoder;
+		}
+		return new CqlRowDecoder(row.getColumnDefinitions());
+	}
+
+	/**
+	 * @param row
+	 * @return true if the decoder was resolved for the column definitions of the row
+	 */
+	public boolean isSchemaOf(Row row) {
+		return row.getColumnDefinitions() == columnDefinitions;
+	}
+
+	public ColumnDefinitions getColumnDefinitions() {
+		return columnDefinitions;
+	}
+
+	public DataType.Name getType(int index) {
+		return types[index];
+	}
+
+	public static boolean isNull(ByteBuffer bytes) {
+		return bytes == null || bytes.remaining() == 0;
+	}
+
+	// The decoders below follow the java driver in returning 0, false or null for a null value
+
+	public static long getLong(ByteBuffer bytes) {
+		return isNull(bytes) ? 0L : bytes.getLong(bytes.position());
+	}
+
+	public static int getInt(ByteBuffer bytes) {
+		return isNull(bytes) ? 0 : bytes.getInt(bytes.position());
+	}
+
+	public static float getFloat(ByteBuffer bytes) {
+		return isNull(bytes) ? 0.0f : bytes.getFloat(bytes.position());
+	}
+
+	public static double getDouble(ByteBuffer bytes) {
+		return isNull(bytes) ? 0.0 : bytes.getDouble(bytes.position());
+	}
+
+	public static boolean getBoolean(ByteBuffer bytes) {
+		return isNull(bytes) ? false : bytes.get(bytes.position()) != 0;
+	}
+
+	public static Date getDate(ByteBuffer bytes) {
+		return isNull(bytes) ? null : new Date(bytes.getLong(bytes.position()));
+	}
+
+	public static UUID getUUID(ByteBuffer bytes) {
+		return isNull(bytes) ? null : new UUID(bytes.getLong(bytes.position()), bytes.getLong(bytes.position() + 8));
+	}
+
+	public static String getString(ByteBuffer bytes, DataType.Name type) {
+		if (bytes == null) {
+			return null;
+		}
+		Charset charset = (type == DataType.Name.ASCII) ? Charsets.US_ASCII : Charsets.UTF_8;
+		if (bytes.hasArray()) {
+			return new String(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining(), charset);
+		}
+		return charset.decode(bytes.duplicate()).toString();
+	}
+}
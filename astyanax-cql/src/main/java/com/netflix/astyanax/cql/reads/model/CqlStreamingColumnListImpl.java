@@ -0,0 +1,228 @@
+package com.netflix.astyanax.cql.reads.model;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.netflix.astyanax.Serializer;
+import com.netflix.astyanax.cql.schema.CqlColumnFamilyDefinitionImpl;
+import com.netflix.astyanax.cql.util.CqlTypeMapping;
+import com.netflix.astyanax.model.Column;
+import com.netflix.astyanax.model.ColumnFamily;
+import com.netflix.astyanax.model.ColumnList;
+
+/**
+ * Class that implements the {@link ColumnList} interface for wide rows of a table with a clustering key, where each
+ * row in the java driver {@link ResultSet} is a unique column.
+ *
+ * Unlike {@link CqlColumnListImpl} the rows are not read up front. Iterating the column list decodes each column as it is
+ * reached while the {@link ResultSet} transparently fetches the next page of rows as per the fetch size of the query. Hence
+ * only one page of rows is held in memory at a time.
+ *
+ * Since the result set can only be read once, the column list can be iterated only once. Methods that need random access,
+ * e.g {@link #getColumnByName(Object)}, {@link #getColumnByIndex(int)} and {@link #size()}, read the remaining rows into a
+ * {@link CqlColumnListImpl} and must hence be called before iterating.
+ *
+ * @param <C>
+ */
+@SuppressWarnings("unchecked")
+public class CqlStreamingColumnListImpl<C> implements ColumnList<C> {
+
+	private final ResultSet resultSet;
+	private final ColumnFamily<?, ?> cf;
+	private final int columnNameIndex;
+	private final int valueIndex;
+	// Resolved from the first row, since all rows of the result set have the same schema
+	private CqlRowDecoder decoder = null;
+
+	// All the columns, only read when random access is needed
+	private CqlColumnListImpl<C> columnList = null;
+	// Indicates that the result set has been consumed by an iterator
+	private boolean streamed = false;
+
+	public CqlStreamingColumnListImpl(ResultSet resultSet, ColumnFamily<?, ?> cf) {
+		this(resultSet, cf, (CqlColumnFamilyDefinitionImpl) cf.getColumnFamilyDefinition());
+	}
+
+	private CqlStreamingColumnListImpl(ResultSet resultSet, ColumnFamily<?, ?> cf, CqlColumnFamilyDefinitionImpl cfDef) {
+		this(resultSet, cf, cfDef.getPartitionKeyColumnDefinitionList().size(), 
+				cfDef.getPartitionKeyColumnDefinitionList().size() + cfDef.getClusteringKeyColumnDefinitionList().size());
+	}
+
+	/**
+	 * @param resultSet
+	 * @param cf
+	 * @param columnNameIndex - index of the column name, i.e. the clustering key, in each row
+	 * @param valueIndex - index of the column value in each row
+	 */
+	CqlStreamingColumnListImpl(ResultSet resultSet, ColumnFamily<?, ?> cf, int columnNameIndex, int valueIndex) {
+		this.resultSet = resultSet;
+		this.cf = cf;
+		this.columnNameIndex = columnNameIndex;
+		this.valueIndex = valueIndex;
+	}
+
+	private CqlColumnImpl<C> decodeColumn(Row row) {
+		Object columnName = CqlTypeMapping.getDynamicColumn(row, cf.getColumnSerializer(), columnNameIndex, cf);
+		decoder = CqlRowDecoder.forRow(row, decoder);
+		return new CqlColumnImpl<C>((C) columnName, row, valueIndex, decoder);
+	}
+
+	private synchronized CqlColumnListImpl<C> getColumnList() {
+		if (columnList == null) {
+			if (streamed) {
+				throw new IllegalStateException("Columns have already been read by an iterator");
+			}
+			List<CqlColumnImpl<C>> columns = new ArrayList<CqlColumnImpl<C>>();
+			for (Row row : resultSet) {
+				columns.add(decodeColumn(row));
+			}
+			columnList = new CqlColumnListImpl<C>(columns);
+		}
+		return columnList;
+	}
+
+	@Override
+	public synchronized Iterator<Column<C>> iterator() {
+
+		if (columnList != null) {
+			return columnList.iterator();
+		}
+		if (streamed) {
+			throw new IllegalStateException("Columns can only be iterated once");
+		}
+		streamed = true;
+
+		final Iterator<Row> rowIter = resultSet.iterator();
+
+		return new Iterator<Column<C>>() {
+
+			@Override
+			public boolean hasNext() {
+				return rowIter.hasNext();
+			}
+
+			@Override
+			public Column<C> next() {
+				if (!rowIter.hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return decodeColumn(rowIter.next());
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	@Override
+	public synchronized boolean isEmpty() {
+		if (columnList != null) {
+			return columnList.isEmpty();
+		}
+		if (streamed) {
+			throw new IllegalStateException("Columns have already been read by an iterator");
+		}
+		// Does not consume any rows
+		return resultSet.isExhausted();
+	}
+
+	@Override
+	public Collection<C> getColumnNames() {
+		return getColumnList().getColumnNames();
+	}
+
+	@Override
+	public Column<C> getColumnByName(C columnName) {
+		return getColumnList().getColumnByName(columnName);
+	}
+
+	@Override
+	public String getStringValue(C columnName, String defaultValue) {
+		return getColumnList().getStringValue(columnName, defaultValue);
+	}
+
+	@Override
+	public String getCompressedStringValue(C columnName, String defaultValue) {
+		return getColumnList().getCompressedStringValue(columnName, defaultValue);
+	}
+
+	@Override
+	public Integer getIntegerValue(C columnName, Integer defaultValue) {
+		return getColumnList().getIntegerValue(columnName, defaultValue);
+	}
+
+	@Override
+	public Double getDoubleValue(C columnName, Double defaultValue) {
+		return getColumnList().getDoubleValue(columnName, defaultValue);
+	}
+
+	@Override
+	public Long getLongValue(C columnName, Long defaultValue) {
+		return getColumnList().getLongValue(columnName, defaultValue);
+	}
+
+	@Override
+	public byte[] getByteArrayValue(C columnName, byte[] defaultValue) {
+		return getColumnList().getByteArrayValue(columnName, defaultValue);
+	}
+
+	@Override
+	public Boolean getBooleanValue(C columnName, Boolean defaultValue) {
+		return getColumnList().getBooleanValue(columnName, defaultValue);
+	}
+
+	@Override
+	public ByteBuffer getByteBufferValue(C columnName, ByteBuffer defaultValue) {
+		return getColumnList().getByteBufferValue(columnName, defaultValue);
+	}
+
+	@Override
+	public <T> T getValue(C columnName, Serializer<T> serializer, T defaultValue) {
+		return getColumnList().getValue(columnName, serializer, defaultValue);
+	}
+
+	@Override
+	public Date getDateValue(C columnName, Date defaultValue) {
+		return getColumnList().getDateValue(columnName, defaultValue);
+	}
+
+	@Override
+	public UUID getUUIDValue(C columnName, UUID defaultValue) {
+		return getColumnList().getUUIDValue(columnName, defaultValue);
+	}
+
+	@Override
+	public Column<C> getColumnByIndex(int idx) {
+		return getColumnList().getColumnByIndex(idx);
+	}
+
+	@Override
+	public <C2> Column<C2> getSuperColumn(C columnName, Serializer<C2> colSer) {
+		throw new UnsupportedOperationException("Operaiton not supported");
+	}
+
+	@Override
+	public <C2> Column<C2> getSuperColumn(int idx, Serializer<C2> colSer) {
+		throw new UnsupportedOperationException("Operaiton not supported");
+	}
+
+	@Override
+	public int size() {
+		return getColumnList().size();
+	}
+
+	@Override
+	public boolean isSuperColumn() {
+		throw new UnsupportedOperationException("Operaiton not supported");
+	}
+}
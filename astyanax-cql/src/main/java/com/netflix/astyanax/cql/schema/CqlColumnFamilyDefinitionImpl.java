@@ -31,6 +31,7 @@ import com.google.common.collect.Maps;
 import com.netflix.astyanax.connectionpool.OperationResult;
 import com.netflix.astyanax.cql.CqlOperationResultImpl;
 import com.netflix.astyanax.cql.reads.CFRowQueryGen;
+import com.netflix.astyanax.cql.reads.model.CqlRowDecoder;
 import com.netflix.astyanax.cql.util.DataTypeMapping;
 import com.netflix.astyanax.cql.writes.CFMutationQueryGen;
 import com.netflix.astyanax.ddl.ColumnDefinition;
@@ -71,6 +72,9 @@ public class CqlColumnFamilyDefinitionImpl implements ColumnFamilyDefinition {
 	private CFMutationQueryGen mutationQueryGen = null;
 	private CFRowQueryGen rowQueryGen = null;
 	
+	// Decoder for the schema of the most recent result set read from this column family
+	private volatile CqlRowDecoder rowDecoder = null;
+	
 	public CqlColumnFamilyDefinitionImpl(Session session) {
 		this.session = session;
 	}
@@ -916,6 +920,21 @@ public class CqlColumnFamilyDefinitionImpl implements ColumnFamilyDefinition {
 		return rowQueryGen;
 	}
 	
+	/**
+	 * Get the decoder for the schema of the row.  The decoder is only resolved again when the schema of the 
+	 * result set changes, e.g for a query that selects different columns. 
+	 * @param row
+	 * @return CqlRowDecoder
+	 */
+	public CqlRowDecoder getRowDecoder(Row row) {
+		CqlRowDecoder decoder = rowDecoder;
+		if (decoder == null || !decoder.isSchemaOf(row)) {
+			decoder = new CqlRowDecoder(row.getColumnDefinitions());
+			rowDecoder = decoder;
+		}
+		return decoder;
+	}
+	
 	public void printOptionsMap() {
 		for (String key : optionsMap.keySet()) {
 			System.out.println(key + " " +  optionsMap.get(key));
@@ -133,7 +133,7 @@ public abstract class AbstractMutationBatchImpl implements MutationBatch {
 		this.timestamp = null; //UNSET_TIMESTAMP;
 		this.mutationMap.clear();
 		this.rowLookup.clear();
-		this.withCaching(false); // TURN Caching off.
+		this.withCaching(true); // Reset caching to the default.
 	}
 
 	@Override
@@ -1,8 +1,10 @@
 package com.netflix.astyanax.cql.writes;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,9 +37,9 @@ public class CFMutationQueryGen {
 	private static final String LAST_BIND_MARKER  = "?";
 	private static final String COMMA  = ",";
 	private static final String USING = " USING ";
-	private static final String TTL = " TTL ";
+	private static final String TTL = " TTL ?";
 	private static final String AND = " AND ";
-	private static final String TIMESTAMP = " TIMESTAMP ";
+	private static final String TIMESTAMP = " TIMESTAMP ?";
 
 	private static final String DELETE_FROM  = "DELETE FROM ";
 	private static final String WHERE  = " WHERE ";
@@ -48,6 +50,7 @@ public class CFMutationQueryGen {
 	private final String keyspace; 
 	private final CqlColumnFamilyDefinitionImpl cfDef;
 	private final Session session;
+	private final StatementCache statementCache = StatementCache.getInstance();
 
 	public CFMutationQueryGen(Session session, String keyspaceName, CqlColumnFamilyDefinitionImpl cfDefinition) {
 
@@ -56,6 +59,11 @@ public class CFMutationQueryGen {
 		this.session = session;
 	}
 
+	/**
+	 * Append bind markers for the TTL and timestamp, if present.  The values are bound with 
+	 * {@link #bindWriteOptions(Object[], int, Integer, Long)} so that the statement can be shared by 
+	 * all mutations with the same shape regardless of the actual TTL and timestamp.
+	 */
 	private static void appendWriteOptions(StringBuilder sb, Integer ttl, Long timestamp) {
 
 		if (ttl != null || timestamp != null) {
@@ -63,23 +71,57 @@ public class CFMutationQueryGen {
 		}
 
 		if (ttl != null) {
-			sb.append(TTL + ttl);
+			sb.append(TTL);
 		}
 
 		if (timestamp != null) {
 			if (ttl != null) {
 				sb.append(AND);
 			}
-			sb.append(TIMESTAMP + timestamp);
+			sb.append(TIMESTAMP);
 		}	
 	}	
+
+	private static int writeOptionCount(Integer ttl, Long timestamp) {
+		return (ttl != null ? 1 : 0) + (timestamp != null ? 1 : 0);
+	}
+
+	/**
+	 * Bind the TTL and timestamp values in the same order as {@link #appendWriteOptions(StringBuilder, Integer, Long)}
+	 * @return the index after the last bound value
+	 */
+	private static int bindWriteOptions(Object[] values, int index, Integer ttl, Long timestamp) {
+		if (ttl != null) {
+			values[index++] = ttl;
+		}
+		if (timestamp != null) {
+			values[index++] = timestamp;
+		}
+		return index;
+	}
 	
-	abstract class MutationQueryCache<M> {
+	/**
+	 * Key for the {@link StatementCache} made up of the query generator for this column family, the operation, the column 
+	 * set signature (if the columns are not fixed by the schema) and which of the TTL and timestamp are present.
+	 */
+	private Object shapeOf(String operation, Object columns, Integer ttl, Long timestamp) {
+		return Arrays.asList(this, operation, columns, ttl != null, timestamp != null);
+	}
 
-		private final AtomicReference<PreparedStatement> cachedStatement = new AtomicReference<PreparedStatement>(null);
+	abstract class MutationQueryCache<M> {
 
 		public abstract Callable<String> getQueryGen(M mutation);
 
+		/**
+		 * Extending classes must implement this with the shape of the query generated for the mutation. Mutations with the 
+		 * same shape must generate the same query, i.e. all values that can vary between them must be in bind markers.
+		 * @param mutation
+		 * @return Object
+		 */
+		public Object getShape(M mutation) {
+			throw new RuntimeException("Not Supported");
+		}
+
 		public void addToBatch(BatchStatement batch, M mutation, boolean useCaching) {
 			batch.add(getBoundStatement(mutation, useCaching));
 		}
@@ -92,31 +134,32 @@ public class CFMutationQueryGen {
 		
 		public abstract BoundStatement bindValues(PreparedStatement pStatement, M mutation);
 		
-		public PreparedStatement getPreparedStatement(M mutation, boolean useCaching) {
-			
-			PreparedStatement pStatement = null;
-			
-			if (useCaching) {
-				pStatement = cachedStatement.get();
-			}
+		public PreparedStatement getPreparedStatement(final M mutation, boolean useCaching) {
 			
-			if (pStatement == null) {
-				try {
+			Callable<PreparedStatement> prepare = new Callable<PreparedStatement>() {
+				@Override
+				public PreparedStatement call() throws Exception {
 					String query = getQueryGen(mutation).call();
-					pStatement = session.prepare(query);
+					PreparedStatement pStatement = session.prepare(query);
 					
 					if (Logger.isDebugEnabled()) {
 						Logger.debug("Query: " + pStatement.getQueryString());
 					}
-				} catch (Exception e) {
-					throw new RuntimeException(e);
+					return pStatement;
 				}
+			};
+			
+			if (useCaching) {
+				return statementCache.getStatement(getShape(mutation), prepare);
 			}
 			
-			if (useCaching && cachedStatement.get() == null) {
-				cachedStatement.set(pStatement);
+			try {
+				return prepare.call();
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new RuntimeException(e);
 			}
-			return pStatement;
 		}
 	}
 
@@ -136,6 +179,11 @@ public class CFMutationQueryGen {
 			return queryGen;
 		}
 
+		@Override
+		public Object getShape(CqlColumnListMutationImpl<?, ?> mutation) {
+			return shapeOf("DeleteRow", null, null, null);
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlColumnListMutationImpl<?, ?> mutation) {
 			return pStatement.bind(mutation.getRowKey());
@@ -146,20 +194,34 @@ public class CFMutationQueryGen {
 
 		public abstract boolean isDeleteQuery();
 
+		@Override
+		public Object getShape(CqlColumnMutationImpl<?, ?> colMutation) {
+			return shapeOf(isDeleteQuery() ? "DeleteColumn" : "InsertColumn", null, colMutation.getTTL(), colMutation.getTimestamp());
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlColumnMutationImpl<?,?> colMutation) {
 
+			Integer ttl = colMutation.getTTL();
+			Long timestamp = colMutation.getTimestamp();
+
 			int size = cfDef.getPartitionKeyColumnDefinitionList().size() + cfDef.getClusteringKeyColumnDefinitionList().size();
 			if (!isDeleteQuery()) {
 				size += cfDef.getRegularColumnDefinitionList().size();  
 			} else {
 				// we don't need to add the value component here. Just the partition key and the clustering key
 			}
+			size += writeOptionCount(ttl, timestamp);
 
 			Object[] arr = new Object[size];
 
 			int index = 0;
 
+			// The write options precede the WHERE clause of a delete but follow the values of an insert
+			if (isDeleteQuery()) {
+				index = bindWriteOptions(arr, index, ttl, timestamp);
+			}
+
 			arr[index++] = colMutation.getRowKey();
 
 			ColumnFamily<?,?> cf = colMutation.cfContext.getColumnFamily();
@@ -180,6 +242,8 @@ public class CFMutationQueryGen {
 
 			if (!isDeleteQuery()) {
 				arr[index++] = colMutation.columnValue;
+				// The insert has a bind marker for every regular column so the write options are the last values
+				bindWriteOptions(arr, size - writeOptionCount(ttl, timestamp), ttl, timestamp);
 			}
 
 			return pStatement.bind(arr);
@@ -360,14 +424,24 @@ public class CFMutationQueryGen {
 			};
 		}
 
+		@Override
+		public Object getShape(CqlColumnMutationImpl<?, ?> mutation) {
+			return shapeOf("CounterColumnUpdate", null, mutation.getTTL(), mutation.getTimestamp());
+		}
+
 		@Override
 		public BoundStatement bindValues(PreparedStatement pStatement, CqlColumnMutationImpl<?, ?> mutation) {
 			
+			Integer ttl = mutation.getTTL();
+			Long timestamp = mutation.getTimestamp();
+
 			int size = 1 + cfDef.getPartitionKeyColumnDefinitionList().size() + cfDef.getClusteringKeyColumnDefinitionList().size();
+			size += writeOptionCount(ttl, timestamp);
 
 			Object[] arr = new Object[size];
 
-			int index = 0;
+			// The write options precede the SET clause
+			int index = bindWriteOptions(arr, 0, ttl, timestamp);
 
 			arr[index++] = mutation.columnValue;
 			arr[index++] = mutation.getRowKey();
@@ -500,121 +574,120 @@ public class CFMutationQueryGen {
 	private MutationQueryCache<CqlColumnListMutationImpl<?,?>> FlatTableInsertQuery = new MutationQueryCache<CqlColumnListMutationImpl<?,?>> () {
 
 		@Override
-		public void addToBatch(BatchStatement batch, CqlColumnListMutationImpl<?, ?> colListMutation, boolean useCaching) {
+		public Callable<String> getQueryGen(final CqlColumnListMutationImpl<?, ?> colListMutation) {
+			return new Callable<String>() {
+				@Override
+				public String call() throws Exception {
+
+					StringBuilder sb = new StringBuilder();
+					sb.append(INSERT_INTO).append(keyspace + "." + cfDef.getName());
+					sb.append(OPEN_PARA);
+
+					// Add in the primary key
+					sb.append(cfDef.getPartitionKeyColumnDefinition().getName());
+					int size = colListMutation.getMutationList().size() + 1;
+
+					for (CqlColumnMutationImpl<?,?> colMutation : colListMutation.getMutationList()) {
+						sb.append(COMMA).append(colMutation.columnName);
+					}
+
+					sb.append(VALUES); 
+
+					for (int i=0; i<size; i++) {
+						if (i < (size-1)) {
+							sb.append(BIND_MARKER);
+						} else {
+							sb.append(LAST_BIND_MARKER);
+						}
+					}
+
+					sb.append(CLOSE_PARA);
+
+					appendWriteOptions(sb, colListMutation.getDefaultTtl(), colListMutation.getTimestamp());
+
+					return sb.toString();
+				}
+			};
+		}
+
+		@Override
+		public Object getShape(CqlColumnListMutationImpl<?, ?> colListMutation) {
+
+			// The column names are part of the query so they make up the column set signature
+			List<Object> columns = new ArrayList<Object>(colListMutation.getMutationList().size());
+			for (CqlColumnMutationImpl<?,?> colMutation : colListMutation.getMutationList()) {
+				columns.add(colMutation.columnName);
+			}
+			return shapeOf("FlatTableInsert", columns, colListMutation.getDefaultTtl(), colListMutation.getTimestamp());
+		}
+
+		@Override
+		public BoundStatement bindValues(PreparedStatement pStatement, CqlColumnListMutationImpl<?, ?> colListMutation) {
 
-			StringBuilder sb = new StringBuilder();
-			sb.append(INSERT_INTO).append(keyspace + "." + cfDef.getName());
-			sb.append(OPEN_PARA);
+			Integer ttl = colListMutation.getDefaultTtl();
+			Long timestamp = colListMutation.getTimestamp();
 
 			// Init the object array for the bind values
-			int size = colListMutation.getMutationList().size() + 1;
+			int size = colListMutation.getMutationList().size() + 1 + writeOptionCount(ttl, timestamp);
 			Object[] values = new Object[size];
 			int index = 0;
-			
-			// Add in the primary key
-			sb.append(cfDef.getPartitionKeyColumnDefinition().getName()).append(COMMA);
+
 			values[index++] = colListMutation.getRowKey();
-			
 			for (CqlColumnMutationImpl<?,?> colMutation : colListMutation.getMutationList()) {
-				sb.append(colMutation.columnName);
 				values[index++] = colMutation.columnValue;
-				if (index < size) {
-					sb.append(COMMA);
-				}
-			}
-			
-			sb.append(VALUES); 
-			
-			for (int i=0; i<size; i++) {
-				if (i < (size-1)) {
-					sb.append(BIND_MARKER);
-				} else {
-					sb.append(LAST_BIND_MARKER);
-				}
-			}
-			
-			sb.append(CLOSE_PARA);
-			
-			appendWriteOptions(sb, colListMutation.getDefaultTtl(), colListMutation.getTimestamp());
-			
-			String query = sb.toString(); 
-			
-			if (Logger.isDebugEnabled()) {
-				Logger.debug("Query: " + query);
-			}
-			
-			try {
-				PreparedStatement pStatement = session.prepare(query);
-				batch.add(pStatement.bind(values));
-			} catch (Exception e) {
-				throw new RuntimeException(e);
 			}
-		}
-
-		@Override
-		public Callable<String> getQueryGen(CqlColumnListMutationImpl<?, ?> mutation) {
-			throw new RuntimeException("Not Supported");
-		}
+			bindWriteOptions(values, index, ttl, timestamp);
 
-		@Override
-		public BoundStatement bindValues(PreparedStatement pStatement, CqlColumnListMutationImpl<?, ?> mutation) {
-			throw new RuntimeException("Not Supported");
+			return pStatement.bind(values);
 		}
 	};
 
 	private MutationQueryCache<CqlColumnMutationImpl<?,?>> FlatTableInsertQueryForColumn = new MutationQueryCache<CqlColumnMutationImpl<?,?>> () {
 
 		@Override
-		public Callable<String> getQueryGen(CqlColumnMutationImpl<?, ?> mutation) {
-			throw new RuntimeException("Not Supported");
-		}
+		public Callable<String> getQueryGen(final CqlColumnMutationImpl<?, ?> mutation) {
+			return new Callable<String>() {
+				@Override
+				public String call() throws Exception {
 
+					StringBuilder sb = new StringBuilder();
+					sb.append(INSERT_INTO).append(keyspace + "." + cfDef.getName());
+					sb.append(OPEN_PARA);
 
-		@Override
-		public BoundStatement bindValues(PreparedStatement pStatement, CqlColumnMutationImpl<?, ?> mutation) {
-			throw new RuntimeException("Not Supported");
+					sb.append(cfDef.getPartitionKeyColumnDefinition().getName());
+					sb.append(COMMA);
+					sb.append(mutation.columnName);
+
+					sb.append(VALUES); 
+					sb.append(BIND_MARKER);
+					sb.append(LAST_BIND_MARKER);
+					sb.append(CLOSE_PARA);
+
+					appendWriteOptions(sb, mutation.getTTL(), mutation.getTimestamp());
+
+					return sb.toString();
+				}
+			};
 		}
-		
+
 		@Override
-		public void addToBatch(BatchStatement batch, CqlColumnMutationImpl<?, ?> mutation, boolean useCaching) {
-			throw new RuntimeException("Not Supported");
+		public Object getShape(CqlColumnMutationImpl<?, ?> mutation) {
+			return shapeOf("FlatTableInsertColumn", mutation.columnName, mutation.getTTL(), mutation.getTimestamp());
 		}
-		
-		@Override
-		public BoundStatement getBoundStatement(CqlColumnMutationImpl<?, ?> mutation, boolean useCaching) {
 
-			StringBuilder sb = new StringBuilder();
-			sb.append(INSERT_INTO).append(keyspace + "." + cfDef.getName());
-			sb.append(OPEN_PARA);
+		@Override
+		public BoundStatement bindValues(PreparedStatement pStatement, CqlColumnMutationImpl<?, ?> mutation) {
 
-			sb.append(cfDef.getPartitionKeyColumnDefinition().getName());
-			sb.append(COMMA);
-			sb.append(mutation.columnName);
-
-			sb.append(VALUES); 
-			sb.append(BIND_MARKER);
-			sb.append(LAST_BIND_MARKER);
-			sb.append(CLOSE_PARA);
-			
-			appendWriteOptions(sb, mutation.getTTL(), mutation.getTimestamp());
-			
-			String query = sb.toString(); 
-			
-			if (Logger.isDebugEnabled()) {
-				Logger.debug("Query: " + query);
-			}
+			Integer ttl = mutation.getTTL();
+			Long timestamp = mutation.getTimestamp();
 
 			// Init the object array for the bind values
-			Object[] values = new Object[2];
+			Object[] values = new Object[2 + writeOptionCount(ttl, timestamp)];
 			values[0] = mutation.getRowKey();
 			values[1] = mutation.columnValue;
-			
-			try {
-				PreparedStatement pStatement = session.prepare(query);
-				return pStatement.bind(values);
-			} catch (Exception e) {
-				throw new RuntimeException(e);
-			}
+			bindWriteOptions(values, 2, ttl, timestamp);
+
+			return pStatement.bind(values);
 		}
 	};
 
@@ -198,7 +198,7 @@ public class CqlColumnMutationImpl<K,C> implements ColumnMutation {
 
 			@Override
 			public Statement getQuery() {
-				BoundStatement bStmt = queryGen.getColumnMutationStatement(thisMutation, false);
+				BoundStatement bStmt = queryGen.getColumnMutationStatement(thisMutation, true);
 				if (thisMutation.getConsistencyLevel() != null) {
 					bStmt.setConsistencyLevel(ConsistencyLevelMapping.getCL(getConsistencyLevel()));
 				}
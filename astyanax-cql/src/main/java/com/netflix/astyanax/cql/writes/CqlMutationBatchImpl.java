@@ -2,15 +2,29 @@ package com.netflix.astyanax.cql.writes;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.BatchStatement.Type;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.Metadata;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Statement;
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import com.netflix.astyanax.CassandraOperationType;
 import com.netflix.astyanax.Clock;
 import com.netflix.astyanax.ColumnListMutation;
@@ -20,6 +34,7 @@ import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
 import com.netflix.astyanax.cql.ConsistencyLevelMapping;
 import com.netflix.astyanax.cql.CqlAbstractExecutionImpl;
 import com.netflix.astyanax.cql.CqlKeyspaceImpl.KeyspaceContext;
+import com.netflix.astyanax.cql.CqlOperationResultImpl;
 import com.netflix.astyanax.cql.writes.CqlColumnListMutationImpl.ColListMutationType;
 import com.netflix.astyanax.model.ColumnFamily;
 import com.netflix.astyanax.model.ConsistencyLevel;
@@ -27,10 +42,34 @@ import com.netflix.astyanax.retry.RetryPolicy;
 
 public class CqlMutationBatchImpl extends AbstractMutationBatchImpl {
 
+	/**
+	 * How the mutation batch is split into smaller batches when it's executed
+	 */
+	public enum BatchSplitType {
+		/**
+		 * One batch with all rows (default)
+		 */
+		NONE,
+		/**
+		 * One unlogged batch per partition key
+		 */
+		PARTITION,
+		/**
+		 * One unlogged batch per set of replicas, i.e. rows that are owned by the same nodes are sent together
+		 */
+		REPLICAS
+	}
+	
+	public static final int DEFAULT_MAX_CONCURRENT_BATCHES = 16;
+
 	private final KeyspaceContext ksContext; 
 	
-	// Control to turn use of prepared statement caching ON/OFF
-	private boolean useCaching = false;
+	// Control to turn use of prepared statement caching ON/OFF. Statements are cached by the shape of the 
+	// mutation (see StatementCache) so caching is safe for mutations with different TTLs, timestamps and columns.
+	private boolean useCaching = true;
+	
+	private BatchSplitType splitType = BatchSplitType.NONE;
+	private int maxConcurrentBatches = DEFAULT_MAX_CONCURRENT_BATCHES;
 	
 	public CqlMutationBatchImpl(KeyspaceContext ksCtx, Clock clock, ConsistencyLevel consistencyLevel, RetryPolicy retry) {
 		super(clock, consistencyLevel, retry);
@@ -51,48 +90,154 @@ public class CqlMutationBatchImpl extends AbstractMutationBatchImpl {
 		toCqlListMutation.mergeColumnListMutation(fromCqlListMutation);
 	}
 
-	@Override
-	public OperationResult<Void> execute() throws ConnectionException {
-		
-		return new CqlAbstractExecutionImpl<Void>(ksContext, getRetryPolicy()) {
+	/**
+	 * Split the batch into one unlogged batch per partition, or per set of replicas. execute() runs the split batches 
+	 * one after another on the calling thread while executeAsync() runs them in parallel. This spreads the load of a batch that spans many partitions across coordinators instead of one coordinator 
+	 * sending all the rows to their replicas.  Note that batches that use an atomic batch are never split. 
+	 * 
+	 * @param type
+	 * @return this
+	 */
+	public CqlMutationBatchImpl withBatchSplitting(BatchSplitType type) {
+		Preconditions.checkNotNull(type);
+		this.splitType = type;
+		return this;
+	}
 
-			@Override
-			public CassandraOperationType getOperationType() {
-				return CassandraOperationType.BATCH_MUTATE;
-			}
+	/**
+	 * Set the max number of split batches that executeAsync() runs at the same time.  Defaults to 16.
+	 * @param maxConcurrentBatches
+	 * @return this
+	 */
+	public CqlMutationBatchImpl withMaxConcurrentBatches(int maxConcurrentBatches) {
+		Preconditions.checkArgument(maxConcurrentBatches > 0, "maxConcurrentBatches must be > 0");
+		this.maxConcurrentBatches = maxConcurrentBatches;
+		return this;
+	}
 
-			@Override
-			public Statement getQuery() {
-				return getCachedPreparedStatement();
-			}
+	private boolean isSplitting() {
+		return splitType != BatchSplitType.NONE && !useAtomicBatch();
+	}
 
-			@Override
-			public Void parseResultSet(ResultSet resultSet) {
-				return null; // do nothing for mutations
-			}
-		}.execute();
+	@Override
+	public OperationResult<Void> execute() throws ConnectionException {
+		
+		if (!isSplitting()) {
+			return new BatchExecutionImpl(null, getRetryPolicy()).execute();
+		}
+		
+		// Run the split batches one after another on the calling thread, stopping at the first failed batch
+		for (BatchStatement batch : getSplitBatches()) {
+			new BatchExecutionImpl(batch, duplicateRetryPolicy()).execute();
+		}
+		return new CqlOperationResultImpl<Void>(null, null);
 	}
 
 	@Override
 	public ListenableFuture<OperationResult<Void>> executeAsync() throws ConnectionException {
 		
-		return new CqlAbstractExecutionImpl<Void>(ksContext, getRetryPolicy()) {
+		if (!isSplitting()) {
+			return new BatchExecutionImpl(null, getRetryPolicy()).executeAsync();
+		}
+		return executeSplitBatches();
+	}
+
+	/**
+	 * Execution of either the whole mutation batch or one of the split batches
+	 */
+	private class BatchExecutionImpl extends CqlAbstractExecutionImpl<Void> {
+		
+		private final BatchStatement batch;
+		
+		private BatchExecutionImpl(BatchStatement batch, RetryPolicy retry) {
+			super(ksContext, retry);
+			this.batch = batch;
+		}
+
+		@Override
+		public CassandraOperationType getOperationType() {
+			return CassandraOperationType.BATCH_MUTATE;
+		}
+
+		@Override
+		public Statement getQuery() {
+			return (batch != null) ? batch : getCachedPreparedStatement();
+		}
+
+		@Override
+		public Void parseResultSet(ResultSet resultSet) {
+			return null; // do nothing for mutations
+		}
+	}
 
+	// Each split batch is retried on its own
+	private RetryPolicy duplicateRetryPolicy() {
+		RetryPolicy retry = getRetryPolicy();
+		return (retry != null) ? retry.duplicate() : null;
+	}
+
+	private ListenableFuture<OperationResult<Void>> executeSplitBatches() {
+		return executeConcurrently(getSplitBatches(), maxConcurrentBatches, new AsyncFunction<BatchStatement, OperationResult<Void>>() {
 			@Override
-			public CassandraOperationType getOperationType() {
-				return CassandraOperationType.BATCH_MUTATE;
+			public ListenableFuture<OperationResult<Void>> apply(BatchStatement batch) throws Exception {
+				return new BatchExecutionImpl(batch, duplicateRetryPolicy()).executeAsync();
 			}
+		});
+	}
+
+	/**
+	 * Execute the batches with at most maxConcurrent at a time. The returned future fails with the 
+	 * first failed batch, after which no more batches are started. 
+	 */
+	static <T> ListenableFuture<OperationResult<Void>> executeConcurrently(Collection<T> batches, int maxConcurrent, AsyncFunction<T, ?> execution) {
+		
+		final SettableFuture<OperationResult<Void>> result = SettableFuture.create();
+		final Queue<T> pending = new ConcurrentLinkedQueue<T>(batches);
+		final AtomicInteger remaining = new AtomicInteger(pending.size());
+		
+		if (pending.isEmpty()) {
+			result.set(new CqlOperationResultImpl<Void>(null, null));
+			return result;
+		}
+		
+		int count = Math.min(maxConcurrent, pending.size());
+		for (int i = 0; i < count; i++) {
+			executeNextBatch(pending, remaining, execution, result);
+		}
+		return result;
+	}
 
+	private static <T> void executeNextBatch(final Queue<T> pending, final AtomicInteger remaining, final AsyncFunction<T, ?> execution, 
+			final SettableFuture<OperationResult<Void>> result) {
+		
+		T batch = pending.poll();
+		if (batch == null || result.isDone()) {
+			return;
+		}
+		
+		ListenableFuture<?> future;
+		try {
+			future = execution.apply(batch);
+		} catch (Exception e) {
+			result.setException(e);
+			return;
+		}
+		
+		Futures.addCallback(future, new FutureCallback<Object>() {
 			@Override
-			public Statement getQuery() {
-				return getCachedPreparedStatement();
+			public void onSuccess(Object batchResult) {
+				if (remaining.decrementAndGet() == 0) {
+					result.set(new CqlOperationResultImpl<Void>(null, null));
+				} else {
+					executeNextBatch(pending, remaining, execution, result);
+				}
 			}
 
 			@Override
-			public Void parseResultSet(ResultSet resultSet) {
-				return null; // do nothing for mutations
+			public void onFailure(Throwable t) {
+				result.setException(t);
 			}
-		}.executeAsync();
+		});
 	}
 
 	private List<CqlColumnListMutationImpl<?, ?>> getColumnMutations() {
@@ -107,10 +252,68 @@ public class CqlMutationBatchImpl extends AbstractMutationBatchImpl {
 		return colListMutation;
 	}
 
-	private BatchStatement getCachedPreparedStatement() {
+	/**
+	 * One unlogged batch per group of row mutations, see {@link #groupRows(Map, Function)}
+	 */
+	private List<BatchStatement> getSplitBatches() {
 		
-		final List<CqlColumnListMutationImpl<?, ?>> colListMutations = getColumnMutations();
+		Function<ByteBuffer, Set<Host>> replicas = null;
+		if (splitType == BatchSplitType.REPLICAS) {
+			final Metadata metadata = ksContext.getSession().getCluster().getMetadata();
+			final String keyspace = ksContext.getKeyspace();
+			replicas = new Function<ByteBuffer, Set<Host>>() {
+				@Override
+				public Set<Host> apply(ByteBuffer key) {
+					return metadata.getReplicas(keyspace, key.duplicate());
+				}
+			};
+		}
+		
+		List<List<ColumnListMutation<?>>> groups = groupRows(super.getMutationMap(), replicas);
+		List<BatchStatement> batches = new ArrayList<BatchStatement>(groups.size());
+		for (List<ColumnListMutation<?>> group : groups) {
+			List<CqlColumnListMutationImpl<?, ?>> colListMutations = new ArrayList<CqlColumnListMutationImpl<?, ?>>(group.size());
+			for (ColumnListMutation<?> colMutation : group) {
+				colListMutations.add((CqlColumnListMutationImpl<?, ?>) colMutation);
+			}
+			batches.add(getBatchStatement(colListMutations));
+		}
+		return batches;
+	}
 
+	/**
+	 * Group the row mutations by partition key or, when replicas is given, by the replicas of the partition key. 
+	 * Partitions whose replicas are not known from the java driver's token metadata get a group of their own. 
+	 */
+	static <T> List<List<T>> groupRows(Map<ByteBuffer, Map<String, T>> mutationMap, Function<ByteBuffer, ? extends Set<?>> replicas) {
+		
+		Map<Object, List<T>> groups = new LinkedHashMap<Object, List<T>>();
+		for (Entry<ByteBuffer, Map<String, T>> entry : mutationMap.entrySet()) {
+			
+			Object groupKey = entry.getKey();
+			if (replicas != null) {
+				Set<?> hosts = replicas.apply(entry.getKey());
+				if (hosts != null && !hosts.isEmpty()) {
+					groupKey = hosts;
+				}
+			}
+			
+			List<T> group = groups.get(groupKey);
+			if (group == null) {
+				group = new ArrayList<T>();
+				groups.put(groupKey, group);
+			}
+			group.addAll(entry.getValue().values());
+		}
+		return new ArrayList<List<T>>(groups.values());
+	}
+
+	private BatchStatement getCachedPreparedStatement() {
+		return getBatchStatement(getColumnMutations());
+	}
+
+	private BatchStatement getBatchStatement(List<CqlColumnListMutationImpl<?, ?>> colListMutations) {
+		
 		if (colListMutations == null || colListMutations.size() == 0) {
 			return new BatchStatement(Type.UNLOGGED);
 		}
@@ -1,38 +1,190 @@
 package com.netflix.astyanax.cql.writes;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.datastax.driver.core.PreparedStatement;
+import com.google.common.base.Preconditions;
 
+/**
+ * Bounded cache of {@link PreparedStatement}s keyed on the shape of a query, e.g. the column family,
+ * the type of operation, the set of columns and whether a TTL or timestamp is present.
+ * All values that vary from call to call must be in bind markers so that queries of the same shape
+ * can share one prepared statement.
+ *
+ * The least recently used statement is evicted once the cache is full, so workloads with many shapes
+ * don't grow the cache without bound.
+ *
+ * Keys must implement equals() and hashCode(), e.g. a List of the shape components.
+ */
 public class StatementCache {
 
-	private final ConcurrentHashMap<Integer, PreparedStatement> statementCache = new ConcurrentHashMap<Integer, PreparedStatement>();
-	
-	private StatementCache() {
-		
+	public static final int DEFAULT_MAX_SIZE = 1000;
+
+	private final Map<Object, PreparedStatement> statementCache = new LinkedHashMap<Object, PreparedStatement>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Object, PreparedStatement> eldest) {
+			if (size() > maxSize) {
+				evictionCount.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+	};
+
+	private volatile int maxSize;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+	private final AtomicLong prepareCount = new AtomicLong();
+	private final AtomicLong prepareTime = new AtomicLong();
+
+	public StatementCache(int maxSize) {
+		Preconditions.checkArgument(maxSize > 0, "maxSize must be > 0");
+		this.maxSize = maxSize;
 	}
-	
-	public PreparedStatement getStatement(Integer id) {
-		return statementCache.get(id);
+
+	public PreparedStatement getStatement(Object key) {
+		PreparedStatement stmt;
+		synchronized (statementCache) {
+			stmt = statementCache.get(key);
+		}
+		if (stmt != null) {
+			hitCount.incrementAndGet();
+		} else {
+			missCount.incrementAndGet();
+		}
+		return stmt;
 	}
-	
-	public PreparedStatement getStatement(Integer id, Callable<PreparedStatement> func) {
-		
-		PreparedStatement stmt = statementCache.get(id);
+
+	/**
+	 * Get the statement for the key, preparing it with the provided function on a miss.  The statement is
+	 * prepared outside of the cache lock, so concurrent misses for the same key may each prepare it.
+	 *
+	 * @param key
+	 * @param func
+	 * @return PreparedStatement
+	 */
+	public PreparedStatement getStatement(Object key, Callable<PreparedStatement> func) {
+
+		PreparedStatement stmt = getStatement(key);
 		if (stmt == null) {
+			long startTime = System.nanoTime();
 			try {
 				stmt = func.call();
-				statementCache.putIfAbsent(id, stmt);
+			} catch (RuntimeException e) {
+				throw e;
 			} catch (Exception e) {
 				throw new RuntimeException(e);
+			} finally {
+				prepareCount.incrementAndGet();
+				prepareTime.addAndGet(System.nanoTime() - startTime);
+			}
+
+			synchronized (statementCache) {
+				PreparedStatement existing = statementCache.get(key);
+				if (existing != null) {
+					return existing;
+				}
+				statementCache.put(key, stmt);
 			}
 		}
 		return stmt;
 	}
-	
-	private static final StatementCache Instance = new StatementCache();
-	
+
+	/**
+	 * Change the max number of statements in the cache.  Least recently used statements are evicted
+	 * if the cache is larger than the new size.
+	 * @param maxSize
+	 */
+	public void setMaxSize(int maxSize) {
+		Preconditions.checkArgument(maxSize > 0, "maxSize must be > 0");
+		synchronized (statementCache) {
+			this.maxSize = maxSize;
+			Iterator<Object> iter = statementCache.keySet().iterator();
+			while (statementCache.size() > maxSize && iter.hasNext()) {
+				iter.next();
+				iter.remove();
+				evictionCount.incrementAndGet();
+			}
+		}
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public int size() {
+		synchronized (statementCache) {
+			return statementCache.size();
+		}
+	}
+
+	public void clear() {
+		synchronized (statementCache) {
+			statementCache.clear();
+		}
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/**
+	 * @return Number of statements prepared by the cache, including failed attempts
+	 */
+	public long getPrepareCount() {
+		return prepareCount.get();
+	}
+
+	/**
+	 * @param units
+	 * @return Total time spent preparing statements
+	 */
+	public long getPrepareTime(TimeUnit units) {
+		return units.convert(prepareTime.get(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @param units
+	 * @return Average time to prepare a statement, or 0 if none were prepared
+	 */
+	public long getAveragePrepareTime(TimeUnit units) {
+		long count = prepareCount.get();
+		return count == 0 ? 0 : units.convert(prepareTime.get() / count, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public String toString() {
+		return new StringBuilder()
+			.append("StatementCache[")
+			.append("size=").append(size())
+			.append(",maxSize=").append(maxSize)
+			.append(",hits=").append(getHitCount())
+			.append(",misses=").append(getMissCount())
+			.append(",evictions=").append(getEvictionCount())
+			.append(",avgPrepareMicros=").append(getAveragePrepareTime(TimeUnit.MICROSECONDS))
+			.append("]")
+			.toString();
+	}
+
+	private static final StatementCache Instance = new StatementCache(DEFAULT_MAX_SIZE);
+
 	public static StatementCache getInstance() {
 		return Instance;
 	}
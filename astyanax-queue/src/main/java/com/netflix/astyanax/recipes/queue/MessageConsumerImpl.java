@@ -10,11 +10,17 @@ import com.netflix.astyanax.model.ColumnList;
 import com.netflix.astyanax.model.Equality;
 import com.netflix.astyanax.model.RangeEndpoint;
 import com.netflix.astyanax.recipes.locks.BusyLockException;
+import com.netflix.astyanax.recipes.queue.shard.ConcurrentShardReaderPolicy;
 import com.netflix.astyanax.recipes.queue.triggers.Trigger;
 import com.netflix.astyanax.util.RangeBuilder;
 import com.netflix.astyanax.util.TimeUUIDUtils;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,12 +28,40 @@ import org.slf4j.LoggerFactory;
 /**
  * Message consumer implementation based on the sharded queue.
  *
+ * A consumer is not thread safe and must only be used by one thread at a time.  Create a
+ * consumer for each thread that reads from the queue.  The only exception is the shard lease,
+ * which is guarded so the queue's lease timer can end a lease that has expired while the
+ * consumer wasn't reading.
+ *
  * @author pbhattacharyya
  */
 class MessageConsumerImpl implements MessageConsumer {
     private static final Logger LOG = LoggerFactory.getLogger(MessageConsumerImpl.class);
 
+    /**
+     * Shard lock held by a consumer across several reads.  The mutations of all reads made
+     * under the lease are written in one batch when the lease ends, together with the lock
+     * release.
+     */
+    private static class ShardLease {
+        final MessageQueueShard shard;
+        final ShardLock         lock;
+        final MutationBatch     mutation;
+        final long              expireTime;
+        MessageQueueEntry       lastEntry;
+        int                     messageCount;
+        ScheduledFuture<?>      expiry;
+
+        ShardLease(MessageQueueShard shard, ShardLock lock, MutationBatch mutation, long expireTime) {
+            this.shard      = shard;
+            this.lock       = lock;
+            this.mutation   = mutation;
+            this.expireTime = expireTime;
+        }
+    }
+
     private final ShardedDistributedMessageQueue queue;
+    private ShardLease lease;
 
     public MessageConsumerImpl(ShardedDistributedMessageQueue q) {
         this.queue = q;
@@ -44,27 +78,261 @@ class MessageConsumerImpl implements MessageConsumer {
         // Loop while trying to get messages.
         // TODO: Make it possible to cancel this loop
         // TODO: Read full itemsToPop instead of just stopping when we get the first successful set
-        List<MessageContext> messages = null;
         while (true) {
-            boolean success = false;
-            MessageQueueShard partition = queue.shardReaderPolicy.nextShard();
-            if (partition != null) {
-                try {
-                    messages = readAndReturnShard(partition, itemsToPop);
-                    success = true;
-                    if (messages != null && !messages.isEmpty()) {
-                        return messages;
-                    }
-                } finally {
-                    // releaseShard needs to know how many messages were proceed OR if there was an error fetching messages (-1)
-                    queue.shardReaderPolicy.releaseShard(partition, success ? (messages == null ? 0 : messages.size()) : -1);
-                }
+            List<MessageContext> messages = (queue.shardLeaseDuration > 0)
+                    ? readMessagesWithLease(itemsToPop, timeoutTime)
+                    : readMessagesFromNextShards(itemsToPop, timeoutTime);
+            if (messages != null && !messages.isEmpty()) {
+                return messages;
             }
             if (timeoutTime != 0 && System.currentTimeMillis() > timeoutTime) {
                 return Lists.newLinkedList();
             }
-            Thread.sleep(queue.shardReaderPolicy.getPollInterval());
+            long pollInterval = queue.shardReaderPolicy.getPollInterval();
+            if (pollInterval > 0) {
+                Thread.sleep(pollInterval);
+            }
+        }
+    }
+
+    /**
+     * Acquire the next shard from the ShardReaderPolicy.  Policies that can poll with a timeout
+     * wait no longer than the deadline of the read, if any.
+     * @param timeoutTime Deadline of the read in milliseconds, or 0 to wait for a shard
+     * @return The shard or null if none was ready before the deadline
+     */
+    private MessageQueueShard nextShard(long timeoutTime) throws InterruptedException {
+        if (timeoutTime != 0 && queue.shardReaderPolicy instanceof ConcurrentShardReaderPolicy) {
+            long remaining = Math.max(0, timeoutTime - System.currentTimeMillis());
+            return ((ConcurrentShardReaderPolicy)queue.shardReaderPolicy).pollShard(remaining, TimeUnit.MILLISECONDS);
+        }
+        return queue.shardReaderPolicy.nextShard();
+    }
+
+    private List<MessageContext> readMessagesFromNextShards(int itemsToPop, long timeoutTime) throws MessageQueueException, BusyLockException, InterruptedException {
+        MessageQueueShard partition = nextShard(timeoutTime);
+        if (partition == null) {
+            return null;
+        }
+        List<MessageQueueShard> partitions = Lists.newArrayList(partition);
+        // Take any other shards that are ready and read them all at once
+        int maxShards = Math.min(queue.shardReadConcurrency, itemsToPop);
+        while (partitions.size() < maxShards) {
+            MessageQueueShard next = ((ConcurrentShardReaderPolicy)queue.shardReaderPolicy).pollShard();
+            if (next == null)
+                break;
+            partitions.add(next);
+        }
+        
+        return (partitions.size() == 1)
+                ? readAndReleaseShard(partition, itemsToPop)
+                : readAndReleaseShards(partitions, itemsToPop);
+    }
+
+    /**
+     * Read the next batch from the leased shard, taking a lease on the next shard from the
+     * ShardReaderPolicy if this consumer doesn't hold one.  The shard stays out of the policy
+     * for as long as the lease is held.  The lease ends once a read returns fewer than
+     * itemsToPop messages, a read fails or the lease duration has passed.  An expired lease
+     * is ended before reading, or by the lease timer if the consumer doesn't read again.
+     */
+    private List<MessageContext> readMessagesWithLease(int itemsToPop, long timeoutTime) throws MessageQueueException, BusyLockException, InterruptedException {
+        synchronized (this) {
+            if (lease != null && System.currentTimeMillis() >= lease.expireTime) {
+                endLease(true);
+            }
+            if (lease != null) {
+                return readLeasedShard(itemsToPop);
+            }
+        }
+
+        // Don't hold the consumer's monitor while waiting for a shard
+        MessageQueueShard partition = nextShard(timeoutTime);
+        if (partition == null) {
+            return null;
+        }
+        synchronized (this) {
+            boolean success = false;
+            try {
+                lease = acquireLease(partition);
+                success = true;
+            } finally {
+                if (!success) {
+                    queue.shardReaderPolicy.releaseShard(partition, -1);
+                }
+            }
+            scheduleLeaseExpiry(lease);
+            return readLeasedShard(itemsToPop);
+        }
+    }
+
+    private void scheduleLeaseExpiry(final ShardLease expiring) {
+        try {
+            expiring.expiry = queue.shardLeaseExecutor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    expireLease(expiring);
+                }
+            }, Math.max(0, expiring.expireTime - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The queue was shut down so the lease ends on the next read, if any
+            LOG.warn("Unable to schedule expiry of lease on shard " + expiring.shard.getName());
+        }
+    }
+
+    /**
+     * End the lease if it's still held.  Called by the lease timer once the lease duration has passed.
+     */
+    private synchronized void expireLease(ShardLease expiring) {
+        if (lease != expiring) {
+            return;
+        }
+        try {
+            endLease(true);
+        } catch (MessageQueueException e) {
+            LOG.error("Error ending expired lease on shard " + expiring.shard.getName(), e);
+        }
+    }
+
+    private List<MessageContext> readLeasedShard(int itemsToPop) throws MessageQueueException, BusyLockException {
+        ShardLease current = lease;
+        String shardName = current.shard.getName();
+        MutationBatch m = queue.keyspace.prepareMutationBatch().setConsistencyLevel(queue.consistencyLevel);
+        List<MessageContext> messages = null;
+        boolean success = false;
+        try {
+            long curTimeMicros = TimeUUIDUtils.getMicrosTimeFromUUID(TimeUUIDUtils.getUniqueTimeUUIDinMicros());
+            messages = readMessagesInternal(shardName, itemsToPop, 0, null, m.withRow(queue.queueColumnFamily, shardName), m, curTimeMicros, current);
+            success = true;
+            return messages;
+        } finally {
+            // Each read uses its own batch so its mutations get a current timestamp
+            current.mutation.mergeShallow(m);
+            int count = (messages == null) ? 0 : messages.size();
+            current.messageCount += count;
+            if (count == 0) {
+                queue.stats.incEmptyPartitionCount();
+            }
+            if (!success || count < itemsToPop || System.currentTimeMillis() >= current.expireTime) {
+                endLease(success);
+            }
+        }
+    }
+
+    private ShardLease acquireLease(MessageQueueShard partition) throws MessageQueueException, BusyLockException {
+        String shardName = partition.getName();
+        long expireTime = System.currentTimeMillis() + queue.shardLeaseDuration;
+        MutationBatch m = queue.keyspace.prepareMutationBatch().setConsistencyLevel(queue.consistencyLevel);
+        if (queue.lockManager != null) {
+            try {
+                return new ShardLease(partition, queue.lockManager.acquireLock(shardName), m, expireTime);
+            } catch (BusyLockException e) {
+                queue.stats.incLockContentionCount();
+                throw e;
+            }
+        }
+        DefaultLock lock = acquireDefaultLock(shardName);
+        // Release the lock column along with the rest of the lease's mutations
+        m.withRow(queue.queueColumnFamily, shardName).deleteColumn(lock.column);
+        return new ShardLease(partition, null, m, expireTime);
+    }
+
+    /**
+     * Write the lease's mutations, release the shard lock and give the shard back to
+     * the ShardReaderPolicy
+     */
+    private void endLease(boolean success) throws MessageQueueException {
+        ShardLease current = lease;
+        lease = null;
+        if (current.expiry != null) {
+            current.expiry.cancel(false);
+        }
+        try {
+            current.mutation.execute();
+        } catch (ConnectionException e) {
+            // Don't hide the error that ended the lease
+            if (success) {
+                success = false;
+                throw new MessageQueueException("Error processing queue shard : " + current.shard.getName(), e);
+            }
+            LOG.error("Error processing queue shard : " + current.shard.getName(), e);
+        } finally {
+            if (current.lock != null) {
+                queue.lockManager.releaseLock(current.lock);
+            }
+            queue.shardReaderPolicy.releaseShard(current.shard, success ? current.messageCount : -1);
+        }
+    }
+
+    private List<MessageContext> readAndReleaseShard(MessageQueueShard partition, int itemsToPop) throws MessageQueueException, BusyLockException, InterruptedException {
+        List<MessageContext> messages = null;
+        boolean success = false;
+        try {
+            messages = readAndReturnShard(partition, itemsToPop);
+            success = true;
+            return messages;
+        } finally {
+            // releaseShard needs to know how many messages were proceed OR if there was an error fetching messages (-1)
+            queue.shardReaderPolicy.releaseShard(partition, success ? (messages == null ? 0 : messages.size()) : -1);
+        }
+    }
+
+    /**
+     * Read several shards in parallel, splitting itemsToPop between them.  The calling
+     * thread reads the first shard itself.  Messages popped from any shard are returned
+     * even if reading another shard failed, since they have already been removed from
+     * the queue.  An error is only thrown when no messages were read at all.
+     */
+    private List<MessageContext> readAndReleaseShards(List<MessageQueueShard> partitions, final int itemsToPop) throws MessageQueueException, BusyLockException, InterruptedException {
+        int count = partitions.size();
+        List<Future<List<MessageContext>>> futures = Lists.newArrayListWithCapacity(count - 1);
+        for (int i = 1; i < count; i++) {
+            final MessageQueueShard partition = partitions.get(i);
+            final int itemsFromShard = itemsToPop / count + (i < itemsToPop % count ? 1 : 0);
+            try {
+                futures.add(queue.shardReadExecutor.submit(new Callable<List<MessageContext>>() {
+                    @Override
+                    public List<MessageContext> call() throws Exception {
+                        return readAndReleaseShard(partition, itemsFromShard);
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                queue.shardReaderPolicy.releaseShard(partition, -1);
+            }
+        }
+
+        List<MessageContext> messages = Lists.newArrayList();
+        Exception error = null;
+        try {
+            messages.addAll(readAndReleaseShard(partitions.get(0), itemsToPop / count + (itemsToPop % count > 0 ? 1 : 0)));
+        } catch (MessageQueueException e) {
+            error = e;
+        } catch (BusyLockException e) {
+            error = e;
+        }
+
+        for (Future<List<MessageContext>> future : futures) {
+            try {
+                List<MessageContext> result = future.get();
+                if (result != null)
+                    messages.addAll(result);
+            } catch (ExecutionException e) {
+                if (error == null && e.getCause() instanceof Exception)
+                    error = (Exception)e.getCause();
+            }
         }
+
+        if (messages.isEmpty() && error != null) {
+            if (error instanceof BusyLockException)
+                throw (BusyLockException)error;
+            if (error instanceof MessageQueueException)
+                throw (MessageQueueException)error;
+            throw new MessageQueueException("Error reading shards", error);
+        }
+        if (error != null) {
+            LOG.warn("Error reading shard", error);
+        }
+        return messages;
     }
 
     @Override
@@ -99,7 +367,7 @@ class MessageConsumerImpl implements MessageConsumer {
             MutationBatch m = queue.keyspace.prepareMutationBatch().setConsistencyLevel(queue.consistencyLevel);
             ColumnListMutation<MessageQueueEntry> rowMutation = m.withRow(queue.queueColumnFamily, shardName);
             long curTimeMicros = TimeUUIDUtils.getMicrosTimeFromUUID(TimeUUIDUtils.getUniqueTimeUUIDinMicros());
-            return readMessagesInternal(shardName, itemToPop, 0, null, rowMutation, m, curTimeMicros);
+            return readMessagesInternal(shardName, itemToPop, 0, null, rowMutation, m, curTimeMicros, null);
         } catch (BusyLockException e) {
             queue.stats.incLockContentionCount();
             throw e;
@@ -112,6 +380,30 @@ class MessageConsumerImpl implements MessageConsumer {
     }
 
     List<MessageContext> readMessagesFromShardUsingDefaultLock(String shardName, int itemsToPop) throws MessageQueueException, BusyLockException {
+        DefaultLock lock = acquireDefaultLock(shardName);
+        long curTimeMicros = TimeUUIDUtils.getMicrosTimeFromUUID(lock.column.getTimestamp());
+        MutationBatch m = queue.keyspace.prepareMutationBatch().setConsistencyLevel(queue.consistencyLevel);
+        // First, release the lock column
+        ColumnListMutation<MessageQueueEntry> rowMutation = m.withRow(queue.queueColumnFamily, shardName);
+        rowMutation.deleteColumn(lock.column);
+        return readMessagesInternal(shardName, itemsToPop, lock.columnCount, lock.column, rowMutation, m, curTimeMicros, null);
+    }
+
+    /**
+     * Lock column acquired on a shard along with the number of lock columns seen
+     * while acquiring it
+     */
+    private static class DefaultLock {
+        final MessageQueueEntry column;
+        final int               columnCount;
+
+        DefaultLock(MessageQueueEntry column, int columnCount) {
+            this.column      = column;
+            this.columnCount = columnCount;
+        }
+    }
+
+    private DefaultLock acquireDefaultLock(String shardName) throws MessageQueueException, BusyLockException {
         MutationBatch m = null;
         MessageQueueEntry lockColumn = null;
         ColumnListMutation<MessageQueueEntry> rowMutation = null;
@@ -177,12 +469,7 @@ class MessageConsumerImpl implements MessageConsumer {
                 throw new MessageQueueException("Error committing lock", e);
             }
         }
-        long curTimeMicros = TimeUUIDUtils.getMicrosTimeFromUUID(lockColumn.getTimestamp());
-        m = queue.keyspace.prepareMutationBatch().setConsistencyLevel(queue.consistencyLevel);
-        // First, release the lock column
-        rowMutation = m.withRow(queue.queueColumnFamily, shardName);
-        rowMutation.deleteColumn(lockColumn);
-        return readMessagesInternal(shardName, itemsToPop, lockColumnCount, lockColumn, rowMutation, m, curTimeMicros);
+        return new DefaultLock(lockColumn, lockColumnCount);
     }
 
     @Override
@@ -269,7 +556,8 @@ class MessageConsumerImpl implements MessageConsumer {
                                                       MessageQueueEntry lockColumn,
                                                       ColumnListMutation<MessageQueueEntry> rowMutation,
                                                       MutationBatch m,
-                                                      long curTimeMicros) throws BusyLockException, MessageQueueException {
+                                                      long curTimeMicros,
+                                                      ShardLease lease) throws BusyLockException, MessageQueueException {
 
         try {
             List<MessageContext> entries = Lists.newArrayList();
@@ -282,17 +570,36 @@ class MessageConsumerImpl implements MessageConsumer {
                 re.append(TimeUUIDUtils.getMicrosTimeUUID(curTimeMicros), Equality.LESS_THAN_EQUALS);
             }
 
+            RangeBuilder range = new RangeBuilder()
+                                        .setLimit(itemsToPop + (lockColumn == null? 0:(lockColumnCount + 1)))
+                                        .setEnd(re.toBytes());
+            // Under a lease the mutations from previous reads haven't been written yet so
+            // continue after the last message read instead of from the head of the shard
+            if (lease != null) {
+                if (lease.lastEntry != null) {
+                    range.setStart(ShardedDistributedMessageQueue.entrySerializer.toByteBuffer(lease.lastEntry))
+                         .setLimit(itemsToPop + 1);
+                } else {
+                    range.setStart(ShardedDistributedMessageQueue.entrySerializer
+                                        .makeEndpoint((byte) MessageQueueEntryType.Message.ordinal(), Equality.GREATER_THAN_EQUALS)
+                                        .toBytes());
+                }
+            }
+
             ColumnList<MessageQueueEntry> result = queue.keyspace.prepareQuery(queue.queueColumnFamily)
                     .setConsistencyLevel(queue.consistencyLevel).getKey(shardName).
-                    withColumnRange(new RangeBuilder()
-                                        .setLimit(itemsToPop + (lockColumn == null? 0:(lockColumnCount + 1)))
-                                        .setEnd(re.toBytes())
-                                        .build()).execute().getResult();
+                    withColumnRange(range.build()).execute().getResult();
             for (Column<MessageQueueEntry> column : result) {
                 if (itemsToPop == 0) {
                     break;
                 }
                 MessageQueueEntry entry = column.getName();
+                if (lease != null) {
+                    if (lease.lastEntry != null && entry.getMessageId().equals(lease.lastEntry.getMessageId())) {
+                        continue;
+                    }
+                    lease.lastEntry = entry;
+                }
                 switch (entry.getType()) {
                     case Lock:
                         // TODO: Track number of locks read and make sure we don't exceed itemsToPop
@@ -450,10 +757,13 @@ class MessageConsumerImpl implements MessageConsumer {
         } catch (Exception e) {
             throw new MessageQueueException("Error processing queue shard : " + shardName, e);
         } finally {
-            try {
-                m.execute();
-            } catch (Exception e) {
-                throw new MessageQueueException("Error processing queue shard : " + shardName, e);
+            // The lease writes its mutation batch once, when it ends
+            if (lease == null) {
+                try {
+                    m.execute();
+                } catch (Exception e) {
+                    throw new MessageQueueException("Error processing queue shard : " + shardName, e);
+                }
             }
         }
     }
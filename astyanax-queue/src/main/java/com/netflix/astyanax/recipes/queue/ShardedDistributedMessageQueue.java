@@ -10,6 +10,9 @@ import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -30,6 +33,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.astyanax.Keyspace;
 import com.netflix.astyanax.MutationBatch;
 import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
@@ -41,6 +45,7 @@ import com.netflix.astyanax.model.ConsistencyLevel;
 import com.netflix.astyanax.model.Equality;
 import com.netflix.astyanax.model.Row;
 import com.netflix.astyanax.model.Rows;
+import com.netflix.astyanax.recipes.queue.shard.ConcurrentShardReaderPolicy;
 import com.netflix.astyanax.recipes.queue.shard.ModShardPolicy;
 import com.netflix.astyanax.recipes.queue.shard.ShardReaderPolicy;
 import com.netflix.astyanax.recipes.queue.shard.TimeModShardPolicy;
@@ -132,6 +137,7 @@ public class ShardedDistributedMessageQueue implements MessageQueue {
     public static final long             DEFAULT_LOCK_TIMEOUT            = TimeUnit.MICROSECONDS.convert(30,  TimeUnit.SECONDS);
     public static final Integer          DEFAULT_LOCK_TTL                = (int)TimeUnit.SECONDS.convert(2,   TimeUnit.MINUTES);
     public static final Integer          DEFAULT_METADATA_DELETE_TTL     = (int)TimeUnit.SECONDS.convert(2,  TimeUnit.SECONDS);
+    public static final int              DEFAULT_SHARD_READ_CONCURRENCY  = 1;
     public static final Boolean          DEFAULT_POISON_QUEUE_ENABLED    = false;
     public static final String           DEFAULT_QUEUE_SUFFIX            = "_queue";
     public static final String           DEFAULT_METADATA_SUFFIX         = "_metadata";
@@ -176,6 +182,9 @@ public class ShardedDistributedMessageQueue implements MessageQueue {
         private Map<String, Object>             columnFamilySettings = DEFAULT_COLUMN_FAMILY_SETTINGS;
         private ShardReaderPolicy.Factory       shardReaderPolicyFactory;
         private ModShardPolicy                  modShardPolicy;
+        private int                             shardReadConcurrency = DEFAULT_SHARD_READ_CONCURRENCY;
+        private ExecutorService                 shardReadExecutor;
+        private long                            shardLeaseDuration  = 0;
                                                
         public Builder() {
             metadata.setQueueName(queueName);
@@ -296,6 +305,47 @@ public class ShardedDistributedMessageQueue implements MessageQueue {
             return this;
         }
 
+        /**
+         * Maximum number of shards a consumer reads concurrently in one call to readMessages.
+         * When greater than 1 the consumer takes every shard that is ready, up to this
+         * number, and reads them in parallel instead of one at a time.  Only applies to a 
+         * {@link ConcurrentShardReaderPolicy}.
+         * @param concurrency
+         * @return
+         */
+        public Builder withShardReadConcurrency(int concurrency) {
+            this.shardReadConcurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * Executor on which the extra shards of a concurrent read are read.  By default the queue
+         * creates a cached thread pool, which is shut down by {@link ShardedDistributedMessageQueue#shutdown()}.
+         * An executor set here is not shut down by the queue.
+         * @param executor
+         * @return
+         */
+        public Builder withShardReadExecutor(ExecutorService executor) {
+            this.shardReadExecutor = executor;
+            return this;
+        }
+
+        /**
+         * Hold the shard lock for up to this long and keep reading batches from the same
+         * shard while it has messages, instead of locking the shard for every batch.  Mutations
+         * from all batches read under the lease are written in a single mutation batch when
+         * the lease ends.  A lease that is still held when its duration has passed, e.g. because
+         * the consumer stopped reading, is ended by a timer.  Must be less than the lock timeout.
+         * 0 (the default) disables leases.
+         * @param duration
+         * @param units
+         * @return
+         */
+        public Builder withShardLeaseDuration(long duration, TimeUnit units) {
+            this.shardLeaseDuration = TimeUnit.MILLISECONDS.convert(duration, units);
+            return this;
+        }
+
         public Builder withShardLockManager(ShardLockManager mgr) {
             this.lockManager = mgr;
             return this;
@@ -306,6 +356,10 @@ public class ShardedDistributedMessageQueue implements MessageQueue {
                     TimeUnit.SECONDS.convert(lockTimeout, TimeUnit.MICROSECONDS) < lockTtl,
                     "Timeout " + lockTtl + " seconds must be less than TTL " + TimeUnit.SECONDS.convert(lockTtl, TimeUnit.MICROSECONDS) + " seconds");
             Preconditions.checkNotNull(keyspace, "Must specify keyspace");
+            Preconditions.checkArgument(shardReadConcurrency >= 1, "shardReadConcurrency must be >= 1");
+            Preconditions.checkArgument(
+                    TimeUnit.MICROSECONDS.convert(shardLeaseDuration, TimeUnit.MILLISECONDS) < lockTimeout,
+                    "Shard lease duration must be less than the lock timeout");
             
             if (shardReaderPolicyFactory == null)
                 shardReaderPolicyFactory = TimePartitionedShardReaderPolicy.Factory.builder().build();
@@ -337,6 +391,11 @@ public class ShardedDistributedMessageQueue implements MessageQueue {
     final Map<String, Object>             columnFamilySettings;
     final ShardReaderPolicy               shardReaderPolicy;
     final ModShardPolicy                  modShardPolicy;
+    final int                             shardReadConcurrency;
+    final ExecutorService                 shardReadExecutor;
+    final boolean                         ownsShardReadExecutor;
+    final long                            shardLeaseDuration;
+    final ScheduledExecutorService        shardLeaseExecutor;
     final Function<String, Message>       invalidMessageHandler  = new Function<String, Message>() {
                                                                 @Override
                                                                 public Message apply(String input) {
@@ -368,6 +427,27 @@ public class ShardedDistributedMessageQueue implements MessageQueue {
 
         this.shardReaderPolicy    = builder.shardReaderPolicyFactory.create(metadata);
 
+        this.shardLeaseDuration   = builder.shardLeaseDuration;
+        this.shardLeaseExecutor   = (shardLeaseDuration > 0)
+                ? Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true)
+                        .setNameFormat(getName() + "-ShardLease-%d").build())
+                : null;
+
+        // The consumer thread reads one of the shards itself
+        if (builder.shardReadConcurrency > 1 && shardReaderPolicy instanceof ConcurrentShardReaderPolicy) {
+            this.shardReadConcurrency  = builder.shardReadConcurrency;
+            this.ownsShardReadExecutor = builder.shardReadExecutor == null;
+            this.shardReadExecutor     = ownsShardReadExecutor 
+                    ? Executors.newCachedThreadPool(new ThreadFactoryBuilder().setDaemon(true)
+                            .setNameFormat(getName() + "-ShardReader-%d").build())
+                    : builder.shardReadExecutor;
+        }
+        else {
+            this.shardReadConcurrency  = 1;
+            this.ownsShardReadExecutor = false;
+            this.shardReadExecutor     = null;
+        }
+
 //        try {
 //            Column<MessageQueueEntry> column = keyspace.prepareQuery(queueColumnFamily)
 //                    .setConsistencyLevel(consistencyLevel)
@@ -461,6 +541,20 @@ public class ShardedDistributedMessageQueue implements MessageQueue {
         return metadata.getQueueName();
     }
 
+    /**
+     * Stop the threads used to read shards concurrently, if the queue created them, and the 
+     * timer that ends expired shard leases.  Consumers must not read from the queue after it's 
+     * shut down.
+     */
+    public void shutdown() {
+        if (ownsShardReadExecutor) {
+            shardReadExecutor.shutdown();
+        }
+        if (shardLeaseExecutor != null) {
+            shardLeaseExecutor.shutdown();
+        }
+    }
+
     @Override
     public long getMessageCount() throws MessageQueueException {
         Map<String, Integer> counts = getShardCounts();
@@ -892,12 +986,16 @@ public class ShardedDistributedMessageQueue implements MessageQueue {
 
                 // Commit the messages
                 Map<String, Message> success = Maps.newLinkedHashMap();
+                Set<String>          readyShards = Sets.newHashSet();
+                long                 now = System.currentTimeMillis();
                 for (Message message : messages) {
                     if (message.hasKey() && notUniqueKeys.contains(message.getKey()))
                         continue;
 
                     String messageId = fillMessageMutation(mb, message);
                     success.put(messageId, message);
+                    if (!message.hasTrigger() || message.getTrigger().getTriggerTime() <= now)
+                        readyShards.add(getShardKey(message));
                 }
 
                 try {
@@ -906,6 +1004,13 @@ public class ShardedDistributedMessageQueue implements MessageQueue {
                     throw new MessageQueueException("Failed to insert messages into queue.", e);
                 }
 
+                // Let local consumers know there is something to read now
+                if (shardReaderPolicy instanceof ConcurrentShardReaderPolicy) {
+                    for (String shardName : readyShards) {
+                        ((ConcurrentShardReaderPolicy)shardReaderPolicy).onMessageSent(shardName);
+                    }
+                }
+
                 return new SendMessageResponse(success, notUniqueMessages);
             }
         };
@@ -0,0 +1,245 @@
+package com.netflix.astyanax.recipes.queue.shard;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.netflix.astyanax.recipes.queue.MessageQueueMetadata;
+import com.netflix.astyanax.recipes.queue.MessageQueueShard;
+import com.netflix.astyanax.recipes.queue.MessageQueueShardStats;
+
+/**
+ * Shard reader policy that backs off each shard independently based on how many
+ * times in a row it was read empty.  A shard that returned messages is ready to be
+ * read again immediately while an idle shard waits twice as long after each empty
+ * read, up to the max backoff.  Shards written to by a producer in this process are
+ * woken up immediately.
+ *
+ * nextShard() blocks until a shard is due so consumers don't need to sleep between
+ * reads and {@link #getPollInterval()} is always 0.
+ */
+public class AdaptiveShardReaderPolicy implements ConcurrentShardReaderPolicy {
+    public static final long DEFAULT_MIN_BACKOFF = 10;
+    public static final long DEFAULT_MAX_BACKOFF = 1000;
+
+    public static class Factory implements ShardReaderPolicy.Factory {
+        public static class Builder {
+            private long minBackoff = DEFAULT_MIN_BACKOFF;
+            private long maxBackoff = DEFAULT_MAX_BACKOFF;
+
+            /**
+             * Delay after the first empty read of a shard
+             */
+            public Builder withMinBackoff(long minBackoff, TimeUnit units) {
+                this.minBackoff = TimeUnit.MILLISECONDS.convert(minBackoff, units);
+                return this;
+            }
+
+            /**
+             * Longest delay between reads of an idle shard
+             */
+            public Builder withMaxBackoff(long maxBackoff, TimeUnit units) {
+                this.maxBackoff = TimeUnit.MILLISECONDS.convert(maxBackoff, units);
+                return this;
+            }
+
+            public Factory build() {
+                Preconditions.checkArgument(minBackoff > 0 && minBackoff <= maxBackoff, "Expecting 0 < minBackoff <= maxBackoff");
+                return new Factory(this);
+            }
+        }
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        public Factory(Builder builder) {
+            this.builder = builder;
+        }
+
+        private final Builder builder;
+
+        @Override
+        public ShardReaderPolicy create(MessageQueueMetadata metadata) {
+            return new AdaptiveShardReaderPolicy(builder, metadata);
+        }
+    }
+
+    /**
+     * Scheduling state of a shard.  Only modified while the entry is out of the
+     * delay queue, since changing the ready time of a queued entry would break
+     * the queue's ordering.
+     */
+    private static class ShardEntry implements Delayed {
+        private final MessageQueueShard shard;
+        private int     emptyCount    = 0;
+        private long    readyTime     = System.nanoTime();
+        private boolean wakeRequested = false;
+
+        ShardEntry(MessageQueueShard shard) {
+            this.shard = shard;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(readyTime - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            long diff = readyTime - ((ShardEntry)o).readyTime;
+            return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+        }
+    }
+
+    private static final String SEPARATOR = ":";
+
+    private final MessageQueueMetadata                settings;
+    private final List<MessageQueueShard>             shards;
+    private final Map<String, MessageQueueShardStats> shardStats;
+    private final Map<String, ShardEntry>             entries;
+    private final DelayQueue<ShardEntry>              queue = new DelayQueue<ShardEntry>();
+    private final long minBackoff;
+    private final long maxBackoff;
+
+    private AdaptiveShardReaderPolicy(Factory.Builder builder, MessageQueueMetadata metadata) {
+        this.settings   = metadata;
+        this.minBackoff = builder.minBackoff;
+        this.maxBackoff = builder.maxBackoff;
+
+        shards = Lists.newArrayListWithCapacity(metadata.getPartitionCount() * metadata.getShardCount());
+        for (int i = 0; i < metadata.getPartitionCount(); i++) {
+            for (int j = 0; j < metadata.getShardCount(); j++) {
+                shards.add(new MessageQueueShard(metadata.getQueueName() + SEPARATOR + i + SEPARATOR + j, i, j));
+            }
+        }
+
+        List<MessageQueueShard> shuffled = Lists.newArrayList(shards);
+        Collections.shuffle(shuffled);
+
+        shardStats = Maps.newHashMapWithExpectedSize(shards.size());
+        entries    = Maps.newHashMapWithExpectedSize(shards.size());
+        for (MessageQueueShard shard : shuffled) {
+            ShardEntry entry = new ShardEntry(shard);
+            shardStats.put(shard.getName(), shard);
+            entries.put(shard.getName(), entry);
+            queue.add(entry);
+        }
+    }
+
+    @Override
+    public MessageQueueShard nextShard() throws InterruptedException {
+        return queue.take().shard;
+    }
+
+    @Override
+    public MessageQueueShard pollShard() {
+        ShardEntry entry = queue.poll();
+        return entry == null ? null : entry.shard;
+    }
+
+    @Override
+    public MessageQueueShard pollShard(long timeout, TimeUnit units) throws InterruptedException {
+        ShardEntry entry = queue.poll(timeout, units);
+        return entry == null ? null : entry.shard;
+    }
+
+    @Override
+    public void releaseShard(MessageQueueShard shard, int messagesRead) {
+        ShardEntry entry = entries.get(shard.getName());
+        synchronized (this) {
+            long delay;
+            if (entry.wakeRequested) {
+                entry.wakeRequested = false;
+                entry.emptyCount = 0;
+                delay = 0;
+            }
+            else if (messagesRead > 0) {
+                // There may be more messages so read the shard again right away
+                entry.emptyCount = 0;
+                delay = 0;
+            }
+            else {
+                // A value of -1 in messagesRead means that the consumer had trouble reading messages
+                // from the shard.  Back off as for an empty read but don't count it as one.
+                if (messagesRead == 0 || entry.emptyCount == 0)
+                    entry.emptyCount++;
+                delay = getBackoff(entry.emptyCount);
+            }
+            entry.readyTime = System.nanoTime() + TimeUnit.NANOSECONDS.convert(delay, TimeUnit.MILLISECONDS);
+            queue.add(entry);
+        }
+    }
+
+    @Override
+    public void onMessageSent(String shardName) {
+        ShardEntry entry = entries.get(shardName);
+        if (entry == null)
+            return;
+
+        synchronized (this) {
+            // The shard is waiting out its backoff so move it to the front of the queue
+            if (queue.remove(entry)) {
+                entry.emptyCount = 0;
+                entry.readyTime  = System.nanoTime();
+                queue.add(entry);
+            }
+            // The shard is being read so make it ready again as soon as it's released
+            else {
+                entry.wakeRequested = true;
+            }
+        }
+    }
+
+    private long getBackoff(int emptyCount) {
+        return Math.min(maxBackoff, minBackoff << Math.min(emptyCount - 1, 30));
+    }
+
+    @Override
+    public Collection<MessageQueueShard> listShards() {
+        return Collections.unmodifiableList(shards);
+    }
+
+    @Override
+    public Map<String, MessageQueueShardStats> getShardStats() {
+        return shardStats;
+    }
+
+    /**
+     * @return number of shards that are due to be read
+     */
+    @Override
+    public int getWorkQueueDepth() {
+        int count = 0;
+        for (ShardEntry entry : queue) {
+            if (entry.getDelay(TimeUnit.NANOSECONDS) <= 0)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return number of shards waiting out their backoff
+     */
+    @Override
+    public int getIdleQueueDepth() {
+        return queue.size() - getWorkQueueDepth();
+    }
+
+    @Override
+    public boolean isCatchingUp() {
+        return getWorkQueueDepth() > (settings.getShardCount() * 2);
+    }
+
+    @Override
+    public long getPollInterval() {
+        return 0;
+    }
+}
@@ -0,0 +1,38 @@
+package com.netflix.astyanax.recipes.queue.shard;
+
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.astyanax.recipes.queue.MessageQueueShard;
+
+/**
+ * Shard reader policy that lets a consumer read several ready shards at once and
+ * that may be told about messages written by this process.  Consumers of a policy
+ * that only implements {@link ShardReaderPolicy} read one shard at a time.
+ *
+ * @see com.netflix.astyanax.recipes.queue.ShardedDistributedMessageQueue.Builder#withShardReadConcurrency(int)
+ */
+public interface ConcurrentShardReaderPolicy extends ShardReaderPolicy {
+    /**
+     * Acquire the next shard to be processed without blocking.  Must call releaseShard
+     * when done reading from the shard
+     * @return A reference to the acquired shard or null if no shard is ready to be read
+     */
+    public MessageQueueShard pollShard();
+
+    /**
+     * Acquire the next shard to be processed, waiting no longer than the timeout for
+     * one to be ready.  Must call releaseShard when done reading from the shard
+     * @param timeout
+     * @param units
+     * @return A reference to the acquired shard or null if no shard was ready in time
+     * @throws InterruptedException
+     */
+    public MessageQueueShard pollShard(long timeout, TimeUnit units) throws InterruptedException;
+
+    /**
+     * Notify the policy that this process wrote a message that is ready to be consumed
+     * so that the shard may be read without waiting for the poll interval
+     * @param shardName
+     */
+    public void onMessageSent(String shardName);
+}
@@ -14,7 +14,7 @@ import com.netflix.astyanax.recipes.queue.MessageQueueMetadata;
 import com.netflix.astyanax.recipes.queue.MessageQueueShard;
 import com.netflix.astyanax.recipes.queue.MessageQueueShardStats;
 
-public class TimePartitionedShardReaderPolicy implements ShardReaderPolicy {
+public class TimePartitionedShardReaderPolicy implements ConcurrentShardReaderPolicy {
     public static final long DEFAULT_POLLING_INTERVAL  = 1000;
     public static final long NO_CATCHUP_POLLING_INTERVAL = 0;
     
@@ -59,6 +59,7 @@ public class TimePartitionedShardReaderPolicy implements ShardReaderPolicy {
     private final MessageQueueMetadata                   settings;
     private final List<MessageQueueShard>                shards;
     private final Map<String, MessageQueueShardStats>    shardStats;
+    private final Map<String, MessageQueueShard>         shardsByName;
     private final LinkedBlockingQueue<MessageQueueShard> workQueue = Queues.newLinkedBlockingQueue();
     private final LinkedBlockingQueue<MessageQueueShard> idleQueue = Queues.newLinkedBlockingQueue();
     private final long pollingInterval;
@@ -80,9 +81,11 @@ public class TimePartitionedShardReaderPolicy implements ShardReaderPolicy {
         
         List<MessageQueueShard> queues = Lists.newArrayList();
         shardStats = Maps.newHashMapWithExpectedSize(shards.size());
+        shardsByName = Maps.newHashMapWithExpectedSize(shards.size());
         for (MessageQueueShard shard : shards) {
             queues.add(shard);
             shardStats.put(shard.getName(),  shard);
+            shardsByName.put(shard.getName(), shard);
         }
         
         Collections.shuffle(queues);
@@ -98,6 +101,26 @@ public class TimePartitionedShardReaderPolicy implements ShardReaderPolicy {
     
     @Override
     public MessageQueueShard nextShard() throws InterruptedException {
+        checkTimePartition();
+        
+        // This should only block if we have more client threads than mod shards in the queue,
+        // which we would expect to be the case
+        return workQueue.take();
+    }
+
+    @Override
+    public MessageQueueShard pollShard() {
+        checkTimePartition();
+        return workQueue.poll();
+    }
+
+    @Override
+    public MessageQueueShard pollShard(long timeout, TimeUnit units) throws InterruptedException {
+        checkTimePartition();
+        return workQueue.poll(timeout, units);
+    }
+
+    private void checkTimePartition() {
         // We transitioned to a new time partition
         int timePartition = getCurrentPartitionIndex();
         if (timePartition != currentTimePartition) {
@@ -121,10 +144,6 @@ public class TimePartitionedShardReaderPolicy implements ShardReaderPolicy {
                 }
             }
         }
-        
-        // This should only block if we have more client threads than mod shards in the queue,
-        // which we would expect to be the case
-        return workQueue.take();
     }
 
     @Override
@@ -141,6 +160,17 @@ public class TimePartitionedShardReaderPolicy implements ShardReaderPolicy {
         }
     }
 
+    @Override
+    public void onMessageSent(String shardName) {
+        // Move the shard out of the idle queue so it's read on the next pass instead of
+        // waiting for its time partition to come around.  Shards in the work queue or
+        // currently being read need no help.
+        MessageQueueShard shard = shardsByName.get(shardName);
+        if (shard != null && idleQueue.remove(shard)) {
+            workQueue.add(shard);
+        }
+    }
+
     @Override
     public Collection<MessageQueueShard> listShards() {
         return Collections.unmodifiableList(shards);
@@ -19,12 +19,16 @@ import java.io.Flushable;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
@@ -64,6 +68,8 @@ public class AllRowsReader<K, C> implements Callable<Boolean> {
     
     private static final Partitioner DEFAULT_PARTITIONER = BigInteger127Partitioner.get();
     private final static int DEFAULT_PAGE_SIZE = 100;
+    private final static long STEAL_POLL_INTERVAL = 100;
+    private final static int MAX_CHECKPOINT_CHAIN = 1000;
     
     private final Keyspace      keyspace;
     private final ColumnFamily<K, C> columnFamily;
@@ -415,118 +421,260 @@ public class AllRowsReader<K, C> implements Callable<Boolean> {
     	return query;
     }
 
-    private Callable<Boolean> makeTokenRangeTask(final String startToken, final String endToken) {
-        return new Callable<Boolean>() {
-            @Override
-            public Boolean call() {
+    /**
+     * Sub range of the token ring (startToken, endToken] processed by a single worker at a time.
+     * While a range is being processed an idle worker may ask for the unprocessed part of the
+     * range to be split, in which case the worker processing the range gives up the second half
+     * at its next page boundary.  Progress is tracked in the CheckpointManager under the
+     * range's start token.
+     */
+    private class RangeTask {
+        private final String     startToken;
+        private volatile String  endToken;
+        private final AtomicBoolean splitRequested = new AtomicBoolean(false);
+        private final RangeScheduler scheduler;
+        private final boolean    resumable;
+
+        RangeTask(RangeScheduler scheduler, String startToken, String endToken, boolean resumable) {
+            this.scheduler  = scheduler;
+            this.startToken = startToken;
+            this.endToken   = endToken;
+            this.resumable  = resumable;
+        }
+
+        /**
+         * @return Token from which to resume reading or null if the range has already been read
+         */
+        private String getResumeToken() throws Exception {
+            String currentToken = checkpointManager.getCheckpoint(startToken);
+            if (currentToken == null) {
+                return startToken;
+            }
+
+            // A range that was split on a previous run is complete up to the split point, at which
+            // the checkpoint of the range that was split off starts.
+            for (int i = 0; resumable && i < MAX_CHECKPOINT_CHAIN && !currentToken.equals(endToken); i++) {
+                String next = checkpointManager.getCheckpoint(currentToken);
+                if (next == null || next.equals(currentToken))
+                    break;
+                currentToken = next;
+            }
+            return currentToken.equals(endToken) ? null : currentToken;
+        }
+
+        /**
+         * Split the unprocessed part of the range, (currentToken, endToken], in half and
+         * hand the second half to the scheduler
+         */
+        private void split(String currentToken) {
+            String end = endToken;
+            String mid;
+            try {
+                List<TokenRange> halves = partitioner.splitTokenRange(currentToken, end, 2);
+                if (halves.size() != 2)
+                    return;
+                mid = halves.get(0).getEndToken();
+                // Only split ranges that don't wrap around the ring
+                BigInteger first = new BigInteger(currentToken);
+                BigInteger middle = new BigInteger(mid);
+                if (first.compareTo(middle) >= 0 || middle.compareTo(new BigInteger(end)) >= 0)
+                    return;
+            }
+            catch (Exception e) {
+                // Partitioner doesn't support splitting this range
+                return;
+            }
+
+            endToken = mid;
+            scheduler.add(new RangeTask(scheduler, mid, end, false));
+        }
+
+        Boolean call() {
+            try {
+                String currentToken;
                 try {
-                    String currentToken;
-                    try {
-                        currentToken = checkpointManager.getCheckpoint(startToken);
-                        if (currentToken == null) {
-                            currentToken = startToken;
-                        }
-                        else if (currentToken.equals(endToken)) {
-                            return true;
-                        }
-                    } catch (Exception e) {
-                        error.compareAndSet(null, e);
-                        LOG.error("Failed to get checkpoint for startToken " + startToken, e);
-                        cancel();
-                        throw new RuntimeException("Failed to get checkpoint for startToken " + startToken, e);
+                    currentToken = getResumeToken();
+                    if (currentToken == null) {
+                        return true;
                     }
+                } catch (Exception e) {
+                    error.compareAndSet(null, e);
+                    LOG.error("Failed to get checkpoint for startToken " + startToken, e);
+                    cancel();
+                    throw new RuntimeException("Failed to get checkpoint for startToken " + startToken, e);
+                }
+                
+                int localPageSize = pageSize;
+                int rowsToSkip = 0;
+                while (!cancelling.get()) {
+                    RowSliceQuery<K, C> query = prepareQuery().getKeyRange(null, null, currentToken, endToken, localPageSize);
+                    
+                    if (columnSlice != null)
+                        query.withColumnSlice(columnSlice);
                     
-                    int localPageSize = pageSize;
-                    int rowsToSkip = 0;
-                    while (!cancelling.get()) {
-                        RowSliceQuery<K, C> query = prepareQuery().getKeyRange(null, null, currentToken, endToken, localPageSize);
-                        
-                        if (columnSlice != null)
-                            query.withColumnSlice(columnSlice);
-                        
-                        Rows<K, C> rows = query.execute().getResult();
-                        if (!rows.isEmpty()) {
-                            try {
-                                if (rowsFunction != null) {
-                                    if (!rowsFunction.apply(rows)) {
+                    Rows<K, C> rows = query.execute().getResult();
+                    if (!rows.isEmpty()) {
+                        try {
+                            if (rowsFunction != null) {
+                                if (!rowsFunction.apply(rows)) {
+                                    cancel();
+                                    return false;
+                                }
+                            }
+                            else {
+                                // Iterate through all the rows and notify the callback function
+                                for (Row<K,C> row : rows) {
+                                    if (cancelling.get())
+                                        break;
+                                    // When repeating the last row, rows to skip will be > 0 
+                                    // We skip the rows that were repeated from the previous query
+                                    if (rowsToSkip > 0) {
+                                        rowsToSkip--;
+                                        continue;
+                                    }
+                                    if (!includeEmptyRows && (row.getColumns() == null || row.getColumns().isEmpty()))
+                                        continue;
+                                    if (!rowFunction.apply(row)) {
                                         cancel();
                                         return false;
                                     }
                                 }
-                                else {
-                                    // Iterate through all the rows and notify the callback function
-                                    for (Row<K,C> row : rows) {
-                                        if (cancelling.get())
-                                            break;
-                                        // When repeating the last row, rows to skip will be > 0 
-                                        // We skip the rows that were repeated from the previous query
-                                        if (rowsToSkip > 0) {
-                                            rowsToSkip--;
-                                            continue;
-                                        }
-                                        if (!includeEmptyRows && (row.getColumns() == null || row.getColumns().isEmpty()))
-                                            continue;
-                                        if (!rowFunction.apply(row)) {
-                                            cancel();
-                                            return false;
-                                        }
-                                    }
-                                }
-                            }
-                            catch (Exception e) {
-                                error.compareAndSet(null, e);
-                                LOG.warn(e.getMessage(), e);
-                                cancel();
-                                throw new RuntimeException("Error processing row", e);
                             }
+                        }
+                        catch (Exception e) {
+                            error.compareAndSet(null, e);
+                            LOG.warn(e.getMessage(), e);
+                            cancel();
+                            throw new RuntimeException("Error processing row", e);
+                        }
+                            
+                        // Get the next block
+                        if (rows.size() == localPageSize) {
+                            Row<K, C> lastRow = rows.getRowByIndex(rows.size() - 1);
+                            String lastToken = partitioner.getTokenForKey(lastRow.getRawKey());
+                            checkpointManager.trackCheckpoint(startToken, currentToken);
+                            if (repeatLastToken) {
+                                // Start token is non-inclusive
+                                currentToken = partitioner.getTokenMinusOne(lastToken);
                                 
-                            // Get the next block
-                            if (rows.size() == localPageSize) {
-                                Row<K, C> lastRow = rows.getRowByIndex(rows.size() - 1);
-                                String lastToken = partitioner.getTokenForKey(lastRow.getRawKey());
-                                checkpointManager.trackCheckpoint(startToken, currentToken);
-                                if (repeatLastToken) {
-                                    // Start token is non-inclusive
-                                    currentToken = partitioner.getTokenMinusOne(lastToken);
-                                    
-                                    // Determine the number of rows to skip in the response.  Since we are repeating the
-                                    // last token it's possible (although unlikely) that there is more than one key mapping to the
-                                    // token.  We therefore count backwards the number of keys that have the same token and skip 
-                                    // that number in the next iteration of the loop.  If, for example, 3 keys matched but only 2 were
-                                    // returned in this iteration then the first 2 keys will be skipped from the next response.
-                                    rowsToSkip = 1;
-                                    for (int i = rows.size() - 2; i >= 0; i--, rowsToSkip++) {
-                                        if (!lastToken.equals(partitioner.getTokenForKey(rows.getRowByIndex(i).getRawKey()))) {
-                                            break;
-                                        }
-                                    }
-
-                                    if (rowsToSkip == localPageSize) {
-                                        localPageSize++;
+                                // Determine the number of rows to skip in the response.  Since we are repeating the
+                                // last token it's possible (although unlikely) that there is more than one key mapping to the
+                                // token.  We therefore count backwards the number of keys that have the same token and skip 
+                                // that number in the next iteration of the loop.  If, for example, 3 keys matched but only 2 were
+                                // returned in this iteration then the first 2 keys will be skipped from the next response.
+                                rowsToSkip = 1;
+                                for (int i = rows.size() - 2; i >= 0; i--, rowsToSkip++) {
+                                    if (!lastToken.equals(partitioner.getTokenForKey(rows.getRowByIndex(i).getRawKey()))) {
+                                        break;
                                     }
                                 }
-                                else {
-                                    currentToken = lastToken;
+
+                                if (rowsToSkip == localPageSize) {
+                                    localPageSize++;
                                 }
-                                
-                                continue;
                             }
+                            else {
+                                currentToken = lastToken;
+                            }
+                            
+                            if (splitRequested.compareAndSet(true, false)) {
+                                split(currentToken);
+                            }
+                            continue;
                         }
-                        
-                        // We're done!
-                        checkpointManager.trackCheckpoint(startToken, endToken);
-                        return true;
                     }
-                    cancel();
-                    return false;
-                } catch (Exception e) {
-                    error.compareAndSet(null, e);
-                    LOG.error("Error process token/key range", e);
-                    cancel();
-                    throw new RuntimeException("Error process token/key range", e);
+                    
+                    // We're done!
+                    checkpointManager.trackCheckpoint(startToken, endToken);
+                    return true;
+                }
+                cancel();
+                return false;
+            } catch (Exception e) {
+                error.compareAndSet(null, e);
+                LOG.error("Error process token/key range", e);
+                cancel();
+                throw new RuntimeException("Error process token/key range", e);
+            }
+        }
+    }
+
+    /**
+     * Hands out token ranges to the workers of a single call().  A worker that finds no
+     * range left to process asks the longest running range to split and waits for work
+     * until all ranges have been processed.
+     */
+    private class RangeScheduler {
+        private final LinkedBlockingQueue<RangeTask> pending = new LinkedBlockingQueue<RangeTask>();
+        private final LinkedList<RangeTask> running = Lists.newLinkedList();
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        void add(RangeTask task) {
+            outstanding.incrementAndGet();
+            pending.add(task);
+        }
+
+        /**
+         * @return Next range to process or null once all ranges are done or the reader was cancelled
+         */
+        RangeTask take() throws InterruptedException {
+            while (!cancelling.get() && outstanding.get() > 0) {
+                RangeTask task = pending.poll();
+                if (task == null) {
+                    requestSplit();
+                    task = pending.poll(STEAL_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                }
+                if (task != null) {
+                    synchronized (running) {
+                        running.add(task);
+                    }
+                    return task;
                 }
             }
-        };
+            return null;
+        }
+
+        void done(RangeTask task) {
+            synchronized (running) {
+                running.remove(task);
+            }
+            outstanding.decrementAndGet();
+        }
+
+        private void requestSplit() {
+            synchronized (running) {
+                for (RangeTask task : running) {
+                    if (task.splitRequested.compareAndSet(false, true))
+                        return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Processes ranges from the scheduler until none are left
+     */
+    private class Worker implements Callable<Boolean> {
+        private final RangeScheduler scheduler;
+
+        Worker(RangeScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public Boolean call() throws Exception {
+            RangeTask task;
+            while (null != (task = scheduler.take())) {
+                try {
+                    if (!task.call())
+                        return false;
+                }
+                finally {
+                    scheduler.done(task);
+                }
+            }
+            return !cancelling.get();
+        }
     }
     
     /**
@@ -536,7 +684,7 @@ public class AllRowsReader<K, C> implements Callable<Boolean> {
     public Boolean call() throws Exception {
         error.set(null);
         
-        List<Callable<Boolean>> subtasks = Lists.newArrayList();
+        RangeScheduler scheduler = new RangeScheduler();
         
         // We are iterating the entire ring using an arbitrary number of threads
         if (this.concurrencyLevel != null || startToken != null|| endToken != null) {
@@ -546,7 +694,7 @@ public class AllRowsReader<K, C> implements Callable<Boolean> {
                     this.concurrencyLevel == null ? 1 : this.concurrencyLevel);
             
             for (TokenRange range : tokens) {
-                subtasks.add(makeTokenRangeTask(range.getStartToken(), range.getEndToken()));
+                scheduler.add(new RangeTask(scheduler, range.getStartToken(), range.getEndToken(), true));
             }
         }
         // We are iterating through each token range
@@ -554,23 +702,28 @@ public class AllRowsReader<K, C> implements Callable<Boolean> {
             List<TokenRange> ranges = keyspace.describeRing(dc, rack);
             for (TokenRange range : ranges) {
                 if (range.getStartToken().equals(range.getEndToken())) 
-                    subtasks.add(makeTokenRangeTask(range.getStartToken(), range.getEndToken()));
+                    scheduler.add(new RangeTask(scheduler, range.getStartToken(), range.getEndToken(), true));
                 else
-                    subtasks.add(makeTokenRangeTask(partitioner.getTokenMinusOne(range.getStartToken()), range.getEndToken()));
+                    scheduler.add(new RangeTask(scheduler, partitioner.getTokenMinusOne(range.getStartToken()), range.getEndToken(), true));
             }
         }
         
+        List<Callable<Boolean>> workers = Lists.newArrayList();
+        for (int i = 0; i < scheduler.outstanding.get(); i++) {
+            workers.add(new Worker(scheduler));
+        }
+        
         try {
             // Use a local executor
             if (executor == null) {
                 ExecutorService localExecutor = Executors
-                        .newFixedThreadPool(subtasks.size(),
+                        .newFixedThreadPool(workers.size(),
                             new ThreadFactoryBuilder().setDaemon(true)
                                 .setNameFormat("AstyanaxAllRowsReader-%d")
                                 .build());
                 
                 try {
-                    futures.addAll(startTasks(localExecutor, subtasks));
+                    futures.addAll(startTasks(localExecutor, workers));
                     return waitForTasksToFinish();
                 }
                 finally {
@@ -579,7 +732,7 @@ public class AllRowsReader<K, C> implements Callable<Boolean> {
             }
             // Use an externally provided executor
             else {
-                futures.addAll(startTasks(executor, subtasks));
+                futures.addAll(startTasks(executor, workers));
                 return waitForTasksToFinish();
             }
         }
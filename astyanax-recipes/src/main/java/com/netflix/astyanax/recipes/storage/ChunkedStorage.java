@@ -27,6 +27,14 @@ public class ChunkedStorage {
         return new ObjectReader(provider, objectName, os);
     }
 
+    /**
+     * Reader for an object that will be consumed through {@link ObjectReader#asInputStream()}
+     * or {@link ObjectReader#asChannel()}
+     */
+    public static ObjectReader newReader(ChunkedStorageProvider provider, String objectName) {
+        return new ObjectReader(provider, objectName, null);
+    }
+
     public static ObjectDeleter newDeleter(ChunkedStorageProvider provider, String objectName) {
         return new ObjectDeleter(provider, objectName);
     }
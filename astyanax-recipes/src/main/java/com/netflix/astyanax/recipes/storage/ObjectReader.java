@@ -15,28 +15,41 @@
  ******************************************************************************/
 package com.netflix.astyanax.recipes.storage;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.util.Collections;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.TimeoutException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.astyanax.connectionpool.exceptions.NotFoundException;
 import com.netflix.astyanax.retry.RetryPolicy;
 import com.netflix.astyanax.retry.RunOnce;
 
+/**
+ * Reads an object stored by {@link ObjectWriter}.  Chunks are fetched in parallel up to
+ * a window of batchSize chunks ahead of the chunk currently being written out, and are
+ * written in order as soon as they arrive, so memory use is bounded by the window
+ * rather than the object size.
+ * 
+ * The object can either be copied to the OutputStream given to the constructor by calling
+ * {@link #call()} or be read through {@link #asInputStream()} or {@link #asChannel()}.
+ */
 public class ObjectReader implements Callable<ObjectMetadata> {
     private static final Logger LOG = LoggerFactory.getLogger(ObjectReader.class);
 
@@ -53,6 +66,7 @@ public class ObjectReader implements Callable<ObjectMetadata> {
     private int batchSize = DEFAULT_BATCH_SIZE;
     private RetryPolicy retryPolicy;
     private ObjectReadCallback callback = new NoOpObjectReadCallback();
+    private ExecutorService executor;
 
     public ObjectReader(ChunkedStorageProvider provider, String objectName, OutputStream os) {
         this.provider = provider;
@@ -61,11 +75,19 @@ public class ObjectReader implements Callable<ObjectMetadata> {
         this.retryPolicy = new RunOnce();
     }
 
+    /**
+     * Maximum number of chunks fetched ahead of the chunk being written out
+     * @param size
+     */
     public ObjectReader withBatchSize(int size) {
         this.batchSize = size;
         return this;
     }
 
+    /**
+     * Maximum number of chunks fetched at the same time
+     * @param level
+     */
     public ObjectReader withConcurrencyLevel(int level) {
         this.concurrencyLevel = level;
         return this;
@@ -76,6 +98,10 @@ public class ObjectReader implements Callable<ObjectMetadata> {
         return this;
     }
 
+    /**
+     * Maximum time to wait for the next chunk
+     * @param maxWaitTimeInSeconds
+     */
     public ObjectReader withMaxWaitTime(int maxWaitTimeInSeconds) {
         this.maxWaitTimeInSeconds = maxWaitTimeInSeconds;
         return this;
@@ -86,6 +112,16 @@ public class ObjectReader implements Callable<ObjectMetadata> {
         return this;
     }
 
+    /**
+     * Fetch chunks using this executor instead of creating a thread pool for each read.
+     * The executor is not shut down by the reader.
+     * @param executor
+     */
+    public ObjectReader withExecutor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
     @Override
     public ObjectMetadata call() throws Exception {
         LOG.info("Reading: " + objectName);
@@ -94,110 +130,347 @@ public class ObjectReader implements Callable<ObjectMetadata> {
         Preconditions.checkNotNull(os);
 
         try {
-            // Try to get the file metadata first. The entire file must be
-            // available before it can be downloaded.
-            // If not available then we back off and retry using the provided
-            // retry policy.
-            ObjectMetadata attributes;
-            RetryPolicy retry = retryPolicy.duplicate();
-            do {
-                try {
-                    attributes = provider.readMetadata(objectName);
-                    if (attributes.isValidForRead())
-                        break;
-                    if (!retry.allowRetry())
-                        throw new NotFoundException("File doesn't exists or isn't ready to be read: " + objectName);
+            ChunkPrefetcher chunks = new ChunkPrefetcher(readMetadata());
+            try {
+                ByteBuffer bb;
+                while (null != (bb = chunks.next())) {
+                    if (bb.hasArray()) {
+                        os.write(bb.array(), bb.arrayOffset() + bb.position(), bb.remaining());
+                    }
+                    else {
+                        byte[] bytes = new byte[bb.remaining()];
+                        bb.duplicate().get(bytes, 0, bytes.length);
+                        os.write(bytes);
+                    }
+                    os.flush();
                 }
-                catch (Exception e) {
-                    LOG.warn(e.getMessage());
-                    if (!retry.allowRetry())
-                        throw e;
+            }
+            finally {
+                chunks.close();
+            }
+            callback.onSuccess();
+            return chunks.attributes;
+        }
+        catch (Exception e) {
+            callback.onFailure(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Open the object for reading as a stream.  The object's metadata is read before returning
+     * and chunks are prefetched as the stream is consumed.  The stream must be closed to stop
+     * prefetching if it is not read to the end.
+     * 
+     * @throws Exception if the object doesn't exist or isn't ready to be read
+     */
+    public InputStream asInputStream() throws Exception {
+        final ChunkPrefetcher chunks = open();
+        return new InputStream() {
+            private ByteBuffer current;
+
+            @Override
+            public int read() throws IOException {
+                if (!nextChunk())
+                    return -1;
+                return current.get() & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0)
+                    return 0;
+                if (!nextChunk())
+                    return -1;
+                int count = Math.min(len, current.remaining());
+                current.get(b, off, count);
+                return count;
+            }
+
+            @Override
+            public int available() {
+                return current == null ? 0 : current.remaining();
+            }
+
+            @Override
+            public void close() {
+                chunks.close();
+            }
+
+            private boolean nextChunk() throws IOException {
+                while (current == null || !current.hasRemaining()) {
+                    current = chunks.nextForStream();
+                    if (current == null)
+                        return false;
+                    current = current.duplicate();
                 }
-            } while (true);
-
-            final AtomicReference<Exception> exception = new AtomicReference<Exception>();
-            final AtomicLong totalBytesRead = new AtomicLong();
-            final AtomicLong totalBytesRead2 = new AtomicLong();
-
-            // Iterate sequentially building up the batches. Once a complete
-            // batch of ids is ready
-            // randomize fetching the chunks and then download them in parallel
-            List<Integer> idsToRead = Lists.newArrayList();
-            for (int block = 0; block < attributes.getChunkCount(); block++) {
-                idsToRead.add(block);
-
-                // Got a batch, or reached the end
-                if (idsToRead.size() == batchSize || block == attributes.getChunkCount() - 1) {
-
-                    // Read blocks in random order
-                    final int firstBlockId = idsToRead.get(0);
-                    Collections.shuffle(idsToRead);
-                    final AtomicReferenceArray<ByteBuffer> chunks = new AtomicReferenceArray<ByteBuffer>(
-                            idsToRead.size());
-                    ExecutorService executor = Executors.newFixedThreadPool(
-                            concurrencyLevel,
-                            new ThreadFactoryBuilder().setDaemon(true)
-                                    .setNameFormat("ChunkReader-" + objectName + "-%d").build());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Open the object for reading as a channel.  Same as {@link #asInputStream()} but copies
+     * chunk data directly into the caller's buffers.
+     * 
+     * @throws Exception if the object doesn't exist or isn't ready to be read
+     */
+    public ReadableByteChannel asChannel() throws Exception {
+        final ChunkPrefetcher chunks = open();
+        return new ReadableByteChannel() {
+            private ByteBuffer current;
+            private boolean open = true;
+
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                if (!open)
+                    throw new ClosedChannelException();
+                while (current == null || !current.hasRemaining()) {
+                    current = chunks.nextForStream();
+                    if (current == null)
+                        return -1;
+                    current = current.duplicate();
+                }
+                int count = Math.min(dst.remaining(), current.remaining());
+                ByteBuffer src = current.duplicate();
+                src.limit(src.position() + count);
+                dst.put(src);
+                current.position(current.position() + count);
+                return count;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return open;
+            }
+
+            @Override
+            public void close() {
+                open = false;
+                chunks.close();
+            }
+        };
+    }
+
+    private ChunkPrefetcher open() throws Exception {
+        LOG.info("Reading: " + objectName);
+
+        Preconditions.checkNotNull(objectName);
+        try {
+            return new ChunkPrefetcher(readMetadata());
+        }
+        catch (Exception e) {
+            callback.onFailure(e);
+            throw e;
+        }
+    }
+
+    private ObjectMetadata readMetadata() throws Exception {
+        // Try to get the file metadata first. The entire file must be
+        // available before it can be downloaded.
+        // If not available then we back off and retry using the provided
+        // retry policy.
+        ObjectMetadata attributes;
+        RetryPolicy retry = retryPolicy.duplicate();
+        do {
+            try {
+                attributes = provider.readMetadata(objectName);
+                if (attributes.isValidForRead())
+                    break;
+                if (!retry.allowRetry())
+                    throw new NotFoundException("File doesn't exists or isn't ready to be read: " + objectName);
+            }
+            catch (Exception e) {
+                LOG.warn(e.getMessage());
+                if (!retry.allowRetry())
+                    throw e;
+            }
+        } while (true);
+        return attributes;
+    }
+
+    /**
+     * Fetches the chunks of an object in the background, keeping at most batchSize chunks
+     * fetched or in flight ahead of the consumer and at most concurrencyLevel fetches in
+     * flight.  Chunks are handed to the consumer in order.
+     */
+    private class ChunkPrefetcher {
+        private final ObjectMetadata attributes;
+        private final int chunkCount;
+        private final int windowSize;
+        private final int maxInFlight;
+        private final ExecutorService executor;
+        private final boolean ownsExecutor;
+        private final List<SettableFuture<ByteBuffer>> window;
+
+        // Guarded by this
+        private int nextToFetch = 0;
+        private int nextToRead = 0;
+        private int inFlight = 0;
+
+        private volatile boolean closed = false;
+        private long totalBytesRead = 0;
+        private boolean finished = false;
+        private IOException failure;
+
+        ChunkPrefetcher(ObjectMetadata attributes) {
+            this.attributes = attributes;
+            this.chunkCount = attributes.getChunkCount();
+            this.windowSize = Math.max(1, batchSize);
+            this.maxInFlight = Math.max(1, concurrencyLevel);
+            if (ObjectReader.this.executor != null) {
+                this.executor     = ObjectReader.this.executor;
+                this.ownsExecutor = false;
+            }
+            else {
+                this.executor     = Executors.newFixedThreadPool(
+                        concurrencyLevel,
+                        new ThreadFactoryBuilder().setDaemon(true)
+                                .setNameFormat("ChunkReader-" + objectName + "-%d").build());
+                this.ownsExecutor = true;
+            }
+
+            this.window = Lists.newArrayListWithCapacity(windowSize);
+            for (int i = 0; i < windowSize; i++)
+                window.add(null);
+
+            fill();
+        }
+
+        private void fill() {
+            synchronized (this) {
+                while (!closed && nextToFetch < chunkCount && nextToFetch - nextToRead < windowSize
+                        && inFlight < maxInFlight) {
+                    final int chunkId = nextToFetch++;
+                    final SettableFuture<ByteBuffer> future = SettableFuture.create();
+                    window.set(chunkId % windowSize, future);
+                    inFlight++;
                     try {
-                        for (final int chunkId : idsToRead) {
-                            executor.submit(new Runnable() {
-                                @Override
-                                public void run() {
-                                    // Do the fetch
-                                    RetryPolicy retry = retryPolicy.duplicate();
-                                    while (exception.get() == null) {
-                                        try {
-                                            ByteBuffer chunk = provider.readChunk(objectName, chunkId);
-                                            totalBytesRead.addAndGet(chunk.remaining());
-                                            chunks.set(chunkId - firstBlockId, chunk);
-                                            callback.onChunk(chunkId, chunk);
-                                            break;
-                                        }
-                                        catch (Exception e) {
-                                            callback.onChunkException(chunkId, e);
-                                            if (retry.allowRetry())
-                                                continue;
-                                            exception.compareAndSet(null, e);
-                                        }
+                        executor.submit(new Runnable() {
+                            @Override
+                            public void run() {
+                                ByteBuffer chunk = null;
+                                Exception error = null;
+                                try {
+                                    chunk = fetch(chunkId);
+                                }
+                                catch (Exception e) {
+                                    error = e;
+                                }
+                                finally {
+                                    // Release the slot before completing the future so that the
+                                    // reader's call to fill() sees it
+                                    synchronized (ChunkPrefetcher.this) {
+                                        inFlight--;
                                     }
                                 }
-                            });
-                        }
+                                if (error != null)
+                                    future.setException(error);
+                                else if (chunk != null)
+                                    future.set(chunk);
+                                else
+                                    future.cancel(false);
+                                fill();
+                            }
+                        });
                     }
-                    finally {
-                        executor.shutdown();
-                        if (!executor.awaitTermination(maxWaitTimeInSeconds, TimeUnit.SECONDS)) {
-                            throw new Exception("Took too long to fetch object: " + objectName);
-                        }
+                    catch (RejectedExecutionException e) {
+                        inFlight--;
+                        future.setException(e);
                     }
+                }
+            }
+        }
 
-                    if (exception.get() != null)
-                        throw exception.get();
+        /**
+         * @return The chunk or null if the reader was closed before it could be read
+         */
+        private ByteBuffer fetch(int chunkId) throws Exception {
+            RetryPolicy retry = retryPolicy.duplicate();
+            while (!closed) {
+                try {
+                    ByteBuffer chunk = provider.readChunk(objectName, chunkId);
+                    callback.onChunk(chunkId, chunk);
+                    return chunk;
+                }
+                catch (Exception e) {
+                    callback.onChunkException(chunkId, e);
+                    if (!retry.allowRetry())
+                        throw e;
+                }
+            }
+            return null;
+        }
 
-                    for (int i = 0; i < chunks.length(); i++) {
-                    	
-                        ByteBuffer bb = chunks.get(i);
-                        byte[] bytes = new byte[bb.remaining()];
-                        bb.get(bytes, 0, bytes.length);
-                        os.write(bytes);
-                        
-                        //os.write(chunks.get(i).array());
-                        os.flush();
-                    }
-                    idsToRead.clear();
+        /**
+         * @return The next chunk in order or null once all chunks have been read
+         */
+        ByteBuffer next() throws Exception {
+            if (nextToRead == chunkCount) {
+                if (totalBytesRead != attributes.getObjectSize()) {
+                    throw new Exception("Bytes read (" + totalBytesRead + ") does not match object size ("
+                            + attributes.getObjectSize() + ") for object " + objectName);
                 }
+                return null;
             }
-            
-            if (totalBytesRead.get() != attributes.getObjectSize()) {
-                throw new Exception("Bytes read (" + totalBytesRead.get() + ") does not match object size ("
-                        + attributes.getObjectSize() + ") for object " + objectName);
+
+            SettableFuture<ByteBuffer> future;
+            synchronized (this) {
+                future = window.get(nextToRead % windowSize);
             }
-            callback.onSuccess();
-            return attributes;
+
+            ByteBuffer chunk;
+            try {
+                chunk = future.get(maxWaitTimeInSeconds, TimeUnit.SECONDS);
+            }
+            catch (TimeoutException e) {
+                throw new Exception("Took too long to fetch chunk " + nextToRead + " of object: " + objectName);
+            }
+            catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception)
+                    throw (Exception)e.getCause();
+                throw e;
+            }
+
+            synchronized (this) {
+                window.set(nextToRead % windowSize, null);
+                nextToRead++;
+            }
+            totalBytesRead += chunk.remaining();
+            fill();
+            return chunk;
         }
-        catch (Exception e) {
-            callback.onFailure(e);
-            throw e;
+
+        /**
+         * Same as next() but reports the outcome to the callback, for the stream and channel views
+         */
+        ByteBuffer nextForStream() throws IOException {
+            if (failure != null)
+                throw failure;
+            if (finished)
+                return null;
+            try {
+                ByteBuffer chunk = next();
+                if (chunk == null) {
+                    finished = true;
+                    close();
+                    callback.onSuccess();
+                }
+                return chunk;
+            }
+            catch (Exception e) {
+                finished = true;
+                close();
+                callback.onFailure(e);
+                failure = (e instanceof IOException) ? (IOException)e : new IOException(e);
+                throw failure;
+            }
+        }
+
+        void close() {
+            closed = true;
+            if (ownsExecutor)
+                executor.shutdownNow();
         }
     }
 }
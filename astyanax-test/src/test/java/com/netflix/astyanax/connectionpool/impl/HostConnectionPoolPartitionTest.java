@@ -1,10 +1,14 @@
 package com.netflix.astyanax.connectionpool.impl;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
 
 import junit.framework.Assert;
 
@@ -12,12 +16,19 @@ import org.junit.Test;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.netflix.astyanax.connectionpool.Host;
 import com.netflix.astyanax.connectionpool.HostConnectionPool;
 import com.netflix.astyanax.connectionpool.LatencyScoreStrategy;
+import com.netflix.astyanax.connectionpool.TokenRange;
+import com.netflix.astyanax.partitioner.BigInteger127Partitioner;
 import com.netflix.astyanax.partitioner.LongBOPPartitioner;
+import com.netflix.astyanax.partitioner.Murmur3Partitioner;
+import com.netflix.astyanax.partitioner.Partitioner;
 import com.netflix.astyanax.test.TestClient;
 import com.netflix.astyanax.test.TestHostConnectionPool;
+import com.netflix.astyanax.test.TestTokenRange;
+import com.netflix.astyanax.util.TokenGenerator;
 
 public class HostConnectionPoolPartitionTest {
 
@@ -130,6 +141,222 @@ public class HostConnectionPoolPartitionTest {
 //        Assert.assertEquals(0, topology.getAllPools().getPools().size());
     }
 
+    @Test
+    public void testPercentileLatencyScore() {
+        PercentileLatencyScoreStrategyImpl strategy = new PercentileLatencyScoreStrategyImpl(10000, 0, 100, 0.99);
+        Assert.assertEquals(128, strategy.getWindowSize());
+
+        // Mean of 29.8 hides the outliers, p99 doesn't
+        LatencyScoreStrategy.Instance outliers = strategy.createInstance();
+        LatencyScoreStrategy.Instance steady = strategy.createInstance();
+        for (int i = 0; i < 100; i++) {
+            outliers.addSample(i < 98 ? 10 : 1000);
+            steady.addSample(20);
+        }
+        Assert.assertEquals(0.0, outliers.getScore());
+        strategy.update();
+        Assert.assertEquals(1000.0, outliers.getScore());
+        Assert.assertEquals(10.0, outliers.getPercentile(0.5));
+        Assert.assertEquals(20.0, steady.getScore());
+
+        // Only the most recent window of samples counts
+        for (int i = 0; i < 200; i++) {
+            outliers.addSample(5);
+        }
+        strategy.update();
+        Assert.assertEquals(5.0, outliers.getScore());
+
+        strategy.reset();
+        strategy.update();
+        Assert.assertEquals(0.0, outliers.getScore());
+        Assert.assertEquals(0.0, steady.getPercentile(0.99));
+        strategy.shutdown();
+    }
+
+    @Test
+    public void testPrimitiveTokenRing() {
+        assertTokenRing(Murmur3Partitioner.get(), Murmur3Partitioner.MINIMUM, Murmur3Partitioner.MAXIMUM);
+        assertTokenRing(BigInteger127Partitioner.get(), BigInteger127Partitioner.MINIMUM, BigInteger127Partitioner.MAXIMUM);
+    }
+
+    private void assertTokenRing(Partitioner partitioner, BigInteger minToken, BigInteger maxToken) {
+        LatencyScoreStrategy strategy = new SmaLatencyScoreStrategyImpl(10000,60000, 100, 4.0);
+        TokenPartitionedTopology<TestClient> topology = new TokenPartitionedTopology<TestClient>(partitioner, strategy);
+
+        List<HostConnectionPool<TestClient>> pools = Lists.newArrayList();
+        for (Host host : TestTokenRange.makeRing(16, 3, 1, minToken, maxToken)) {
+            pools.add(new TestHostConnectionPool(host));
+        }
+        topology.setPools(pools);
+
+        TreeSet<BigInteger> tokens = new TreeSet<BigInteger>();
+        for (String token : topology.getPartitionNames()) {
+            tokens.add(new BigInteger(token));
+        }
+
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            byte[] bytes = new byte[16];
+            random.nextBytes(bytes);
+            ByteBuffer key = ByteBuffer.wrap(bytes);
+
+            BigInteger expected = tokens.ceiling(new BigInteger(partitioner.getTokenForKey(key)));
+            if (expected == null)
+                expected = tokens.first();
+            Assert.assertEquals(expected, topology.getPartition(key).id());
+        }
+    }
+
+    @Test
+    public void testIncrementalTopologyUpdate() {
+        LatencyScoreStrategy strategy = new SmaLatencyScoreStrategyImpl(10000,60000, 100, 4.0);
+        TokenPartitionedTopology<TestClient> topology = new TokenPartitionedTopology<TestClient>(Murmur3Partitioner.get(), strategy);
+
+        final Set<Host> down = Sets.newHashSet();
+        List<HostConnectionPool<TestClient>> pools = Lists.newArrayList();
+        for (Host host : TestTokenRange.makeRing(8, 3, 1, Murmur3Partitioner.MINIMUM, Murmur3Partitioner.MAXIMUM)) {
+            pools.add(new TestHostConnectionPool(host) {
+                @Override
+                public boolean isReconnecting() {
+                    return down.contains(getHost());
+                }
+            });
+        }
+        topology.setPools(pools);
+        Assert.assertEquals(8, topology.getPartitionCount());
+
+        Map<String, List<HostConnectionPool<TestClient>>> before = Maps.newHashMap();
+        for (Map.Entry<String, TokenHostConnectionPoolPartition<TestClient>> entry : topology.getPartitions().entrySet()) {
+            before.put(entry.getKey(), entry.getValue().getPools());
+        }
+
+        // Only the partitions containing the host are rebuilt
+        HostConnectionPool<TestClient> pool = pools.get(0);
+        down.add(pool.getHost());
+        topology.suspendPool(pool);
+        int touched = 0;
+        for (Map.Entry<String, TokenHostConnectionPoolPartition<TestClient>> entry : topology.getPartitions().entrySet()) {
+            TokenHostConnectionPoolPartition<TestClient> partition = entry.getValue();
+            Assert.assertFalse(partition.getPools().contains(pool));
+            if (partition.hasPool(pool)) {
+                touched++;
+                Assert.assertEquals(2, partition.getPools().size());
+            }
+            else {
+                Assert.assertSame(before.get(entry.getKey()), partition.getPools());
+            }
+        }
+        Assert.assertEquals(3, touched);
+        Assert.assertFalse(topology.getAllPools().getPools().contains(pool));
+
+        down.clear();
+        topology.resumePool(pool);
+        for (TokenHostConnectionPoolPartition<TestClient> partition : topology.getPartitions().values()) {
+            Assert.assertEquals(partition.hasPool(pool), partition.getPools().contains(pool));
+        }
+
+        topology.removePool(pool);
+        for (TokenHostConnectionPoolPartition<TestClient> partition : topology.getPartitions().values()) {
+            Assert.assertFalse(partition.hasPool(pool));
+        }
+
+        // Tokens no longer owned by any host are dropped
+        topology.setPools(Lists.<HostConnectionPool<TestClient>>newArrayList());
+        Assert.assertEquals(0, topology.getPartitionCount());
+    }
+
+    @Test
+    public void testGroupByPartition() {
+        Partitioner partitioner = Murmur3Partitioner.get();
+        LatencyScoreStrategy strategy = new SmaLatencyScoreStrategyImpl(10000,60000, 100, 4.0);
+        TokenPartitionedTopology<TestClient> topology = new TokenPartitionedTopology<TestClient>(partitioner, strategy);
+
+        List<HostConnectionPool<TestClient>> pools = Lists.newArrayList();
+        for (Host host : TestTokenRange.makeRing(8, 3, 1, Murmur3Partitioner.MINIMUM, Murmur3Partitioner.MAXIMUM)) {
+            pools.add(new TestHostConnectionPool(host));
+        }
+        topology.setPools(pools);
+
+        List<ByteBuffer> keys = Lists.newArrayList();
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            byte[] bytes = new byte[16];
+            random.nextBytes(bytes);
+            keys.add(ByteBuffer.wrap(bytes));
+        }
+
+        Map<TokenHostConnectionPoolPartition<TestClient>, List<ByteBuffer>> groups = topology.groupByPartition(keys);
+        Assert.assertEquals(8, groups.size());
+        int count = 0;
+        for (Map.Entry<TokenHostConnectionPoolPartition<TestClient>, List<ByteBuffer>> group : groups.entrySet()) {
+            int last = -1;
+            for (ByteBuffer key : group.getValue()) {
+                Assert.assertEquals(Sets.newHashSet(group.getKey().getPools()), Sets.newHashSet(topology.getPartition(key).getPools()));
+                // Keys keep their original order within a group
+                int index = keys.indexOf(key);
+                Assert.assertTrue(index > last);
+                last = index;
+                count++;
+            }
+        }
+        Assert.assertEquals(keys.size(), count);
+    }
+
+    @Test
+    public void testGroupByPartitionWithVnodes() {
+        Partitioner partitioner = Murmur3Partitioner.get();
+        LatencyScoreStrategy strategy = new SmaLatencyScoreStrategyImpl(10000,60000, 100, 4.0);
+        TokenPartitionedTopology<TestClient> topology = new TokenPartitionedTopology<TestClient>(partitioner, strategy);
+
+        // 4 hosts with 8 token ranges each and a replication factor of 2, so that the 32 ranges
+        // are owned by only 4 distinct sets of replicas
+        int nHosts = 4;
+        int nRanges = 32;
+        List<Host> hosts = Lists.newArrayList();
+        for (int i = 0; i < nHosts; i++) {
+            hosts.add(new Host("127.0.2." + i, 9160));
+        }
+        for (int i = 0; i < nRanges; i++) {
+            String startToken = TokenGenerator.initialToken(nRanges, i,   Murmur3Partitioner.MINIMUM, Murmur3Partitioner.MAXIMUM);
+            String endToken   = TokenGenerator.initialToken(nRanges, i+1, Murmur3Partitioner.MINIMUM, Murmur3Partitioner.MAXIMUM);
+            if (endToken.equals(Murmur3Partitioner.MAXIMUM.toString()))
+                endToken = Murmur3Partitioner.MINIMUM.toString();
+            TokenRange range = new TokenRangeImpl(startToken, endToken, null);
+            hosts.get(i % nHosts).getTokenRanges().add(range);
+            hosts.get((i + 1) % nHosts).getTokenRanges().add(range);
+        }
+
+        List<HostConnectionPool<TestClient>> pools = Lists.newArrayList();
+        for (Host host : hosts) {
+            pools.add(new TestHostConnectionPool(host));
+        }
+        topology.setPools(pools);
+        Assert.assertEquals(nRanges, topology.getPartitionCount());
+
+        List<ByteBuffer> keys = Lists.newArrayList();
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            byte[] bytes = new byte[16];
+            random.nextBytes(bytes);
+            keys.add(ByteBuffer.wrap(bytes));
+        }
+
+        Map<TokenHostConnectionPoolPartition<TestClient>, List<ByteBuffer>> groups = topology.groupByPartition(keys);
+        Assert.assertEquals(nHosts, groups.size());
+        Set<Set<HostConnectionPool<TestClient>>> replicaSets = Sets.newHashSet();
+        int count = 0;
+        for (Map.Entry<TokenHostConnectionPoolPartition<TestClient>, List<ByteBuffer>> group : groups.entrySet()) {
+            Set<HostConnectionPool<TestClient>> groupPools = Sets.newHashSet(group.getKey().getPools());
+            Assert.assertEquals(2, groupPools.size());
+            Assert.assertTrue(replicaSets.add(groupPools));
+            for (ByteBuffer key : group.getValue()) {
+                Assert.assertEquals(groupPools, Sets.newHashSet(topology.getPartition(key).getPools()));
+                count++;
+            }
+        }
+        Assert.assertEquals(keys.size(), count);
+    }
+
     public TestHostConnectionPool makePool(int index) {
         return new TestHostConnectionPool(new Host("127.0.0." + index, 0));
     }
@@ -15,15 +15,26 @@
  ******************************************************************************/
 package com.netflix.astyanax.connectionpool.impl;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.netflix.astyanax.connectionpool.ConnectionPool;
 import com.netflix.astyanax.connectionpool.ConnectionPoolConfiguration;
 import com.netflix.astyanax.connectionpool.Host;
 import com.netflix.astyanax.connectionpool.HostConnectionPool;
 import com.netflix.astyanax.connectionpool.Operation;
 import com.netflix.astyanax.connectionpool.OperationResult;
+import com.netflix.astyanax.connectionpool.StatelessOperation;
 import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
 import com.netflix.astyanax.connectionpool.exceptions.NoAvailableHostsException;
 import com.netflix.astyanax.connectionpool.exceptions.OperationException;
+import com.netflix.astyanax.connectionpool.exceptions.TransportException;
+import com.netflix.astyanax.retry.ConstantBackoff;
 import com.netflix.astyanax.retry.RunOnce;
 import com.netflix.astyanax.test.TestClient;
 import com.netflix.astyanax.test.TestConnectionFactory;
@@ -89,6 +100,177 @@ public class RoundRobinConnectionPoolImplTest extends BaseConnectionPoolTest {
         Assert.assertEquals(monitor.getConnectionClosedCount(), 1);
     }
 
+    @Test
+    public void testSpeculativeExecution() throws ConnectionException {
+        final List<Host> successHosts = Collections.synchronizedList(new ArrayList<Host>());
+        CountingConnectionPoolMonitor monitor = new CountingConnectionPoolMonitor() {
+            @Override
+            public void incOperationSuccess(Host host, long latency) {
+                super.incOperationSuccess(host, latency);
+                successHosts.add(host);
+            }
+        };
+
+        ConnectionPoolConfigurationImpl config = new ConnectionPoolConfigurationImpl(
+                TestConstants.CLUSTER_NAME + "_" + TestConstants.KEYSPACE_NAME);
+        config.setSpeculativeExecutionPolicy(new PercentileSpeculativeExecutionPolicy(0.99, 10, 50) {
+            @Override
+            public boolean isSpeculative(Operation<?, ?> operation) {
+                return true;
+            }
+        });
+        config.initialize();
+
+        ConnectionPool<TestClient> pool = new RoundRobinConnectionPoolImpl<TestClient>(
+                config, new TestConnectionFactory(config, monitor), monitor);
+
+        pool.addHost(new Host("127.0.0.1", TestHostType.GOOD_SLOW.ordinal()), true);
+        pool.addHost(new Host("127.0.0.2", TestHostType.GOOD_IMMEDIATE.ordinal()), true);
+
+        // Operations that don't declare themselves stateless are never hedged
+        for (int i = 0; i < 2; i++) {
+            Assert.assertEquals("RESULT", pool.executeWithFailover(dummyOperation, RunOnce.get()).getResult());
+        }
+        Assert.assertEquals(0, monitor.getHedgeSentCount());
+        successHosts.clear();
+
+        // Operations sent to the slow host first are answered by the hedge, which is
+        // credited with the success
+        for (int i = 0; i < 4; i++) {
+            OperationResult<String> result = pool.executeWithFailover(new StatelessTestOperation(), RunOnce.get());
+            Assert.assertEquals("RESULT", result.getResult());
+            Assert.assertEquals(TestHostType.GOOD_IMMEDIATE.ordinal(), result.getHost().getPort());
+        }
+        Assert.assertTrue(monitor.getHedgeSentCount() > 0);
+        Assert.assertEquals(monitor.getHedgeSentCount(), monitor.getHedgeWonCount());
+        Assert.assertEquals(4, successHosts.size());
+        for (Host host : successHosts) {
+            Assert.assertEquals(TestHostType.GOOD_IMMEDIATE.ordinal(), host.getPort());
+        }
+
+        pool.shutdown();
+        config.shutdown();
+    }
+
+    @Test
+    public void testSpeculativeExecutionFailover() throws ConnectionException {
+        final List<Host> failoverHosts = Collections.synchronizedList(new ArrayList<Host>());
+        CountingConnectionPoolMonitor monitor = new CountingConnectionPoolMonitor() {
+            @Override
+            public void incFailover(Host host, Exception reason) {
+                super.incFailover(host, reason);
+                failoverHosts.add(host);
+            }
+        };
+
+        ConnectionPoolConfigurationImpl config = new ConnectionPoolConfigurationImpl(
+                TestConstants.CLUSTER_NAME + "_" + TestConstants.KEYSPACE_NAME);
+        config.setSpeculativeExecutionPolicy(new PercentileSpeculativeExecutionPolicy(0.99, 10, 50) {
+            @Override
+            public boolean isSpeculative(Operation<?, ?> operation) {
+                return true;
+            }
+        });
+        config.initialize();
+
+        ConnectionPool<TestClient> pool = new RoundRobinConnectionPoolImpl<TestClient>(
+                config, new TestConnectionFactory(config, monitor), monitor);
+
+        pool.addHost(new Host("127.0.0.1", TestHostType.GOOD_IMMEDIATE.ordinal()), true);
+        pool.addHost(new Host("127.0.0.2", TestHostType.GOOD_IMMEDIATE.ordinal()), true);
+
+        // The first attempt fails slowly, its hedge fails right away and the failover succeeds
+        final AtomicInteger calls = new AtomicInteger();
+        OperationResult<String> result = pool.executeWithFailover(new StatelessTestOperation() {
+            @Override
+            public String execute(TestClient client, ConnectionContext state) throws ConnectionException {
+                switch (calls.incrementAndGet()) {
+                case 1:
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new TransportException("Primary failed");
+                case 2:
+                    throw new TransportException("Hedge failed");
+                default:
+                    return super.execute(client, state);
+                }
+            }
+        }, RunOnce.get());
+
+        Assert.assertEquals("RESULT", result.getResult());
+        Assert.assertEquals(1, monitor.getHedgeSentCount());
+
+        // Each failure is recorded against the host it happened on, the hedge's first
+        Assert.assertEquals(2, failoverHosts.size());
+        Assert.assertFalse(failoverHosts.get(0).equals(failoverHosts.get(1)));
+
+        // Borrowing for the hedge didn't move the failover past the host the hedge went to
+        Assert.assertEquals(failoverHosts.get(0), result.getHost());
+
+        pool.shutdown();
+        config.shutdown();
+    }
+
+    private static class StatelessTestOperation extends TestOperation implements StatelessOperation {
+        @Override
+        public boolean isStateless() {
+            return true;
+        }
+    }
+
+    @Test
+    public void testAsyncRetry() throws Exception {
+        CountingConnectionPoolMonitor monitor = new CountingConnectionPoolMonitor();
+
+        ConnectionPoolConfigurationImpl config = new ConnectionPoolConfigurationImpl(
+                TestConstants.CLUSTER_NAME + "_" + TestConstants.KEYSPACE_NAME);
+        config.initialize();
+
+        ConnectionPool<TestClient> pool = new RoundRobinConnectionPoolImpl<TestClient>(
+                config, new TestConnectionFactory(config, monitor), monitor);
+
+        pool.addHost(new Host("127.0.0.1", TestHostType.GOOD_IMMEDIATE.ordinal()), true);
+
+        final AtomicInteger attempts = new AtomicInteger();
+        Operation<TestClient, String> failTwice = new TestOperation() {
+            @Override
+            public String execute(TestClient client, ConnectionContext context)
+                    throws ConnectionException, OperationException {
+                if (attempts.incrementAndGet() <= 2)
+                    throw new TransportException("Failed attempt " + attempts.get());
+                return super.execute(client, context);
+            }
+        };
+
+        // The first attempt runs on the calling thread but the backoff must not
+        ConstantBackoff retry = new ConstantBackoff(200, 5);
+        long start = System.currentTimeMillis();
+        ListenableFuture<OperationResult<String>> future = pool.executeWithFailoverAsync(
+                failTwice, retry, MoreExecutors.sameThreadExecutor());
+        Assert.assertTrue(System.currentTimeMillis() - start < 200);
+        Assert.assertFalse(future.isDone());
+
+        Assert.assertEquals("RESULT", future.get().getResult());
+        Assert.assertEquals(3, attempts.get());
+        Assert.assertEquals(2, retry.getAttemptCount());
+
+        // Retries are exhausted
+        attempts.set(-10);
+        future = pool.executeWithFailoverAsync(failTwice, new ConstantBackoff(10, 1), MoreExecutors.sameThreadExecutor());
+        try {
+            future.get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof TransportException);
+        }
+
+        pool.shutdown();
+        config.shutdown();
+    }
+
     @Test
     public void testUncheckedExceptionInOpen() {
         CountingConnectionPoolMonitor monitor = new CountingConnectionPoolMonitor();
@@ -1,5 +1,7 @@
 package com.netflix.astyanax.connectionpool.impl;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 import junit.framework.Assert;
 
 import org.junit.Ignore;
@@ -14,6 +16,7 @@ import com.netflix.astyanax.connectionpool.HostConnectionPool;
 import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
 import com.netflix.astyanax.connectionpool.exceptions.HostDownException;
 import com.netflix.astyanax.connectionpool.exceptions.PoolTimeoutException;
+import com.netflix.astyanax.connectionpool.exceptions.ThrottledException;
 import com.netflix.astyanax.connectionpool.exceptions.TimeoutException;
 import com.netflix.astyanax.shallows.EmptyPartitioner;
 import com.netflix.astyanax.test.TestClient;
@@ -525,6 +528,140 @@ public class SimpleHostConnectionPoolTest {
         }
     }
 
+    @Test
+    public void testThreadAffinityBorrow() throws Exception {
+        Host host = new Host("127.0.0.1", TestHostType.GOOD_IMMEDIATE.ordinal());
+
+        ConnectionPoolConfigurationImpl config = createConfig();
+        config.setConnectionBorrowStrategy(ConnectionBorrowStrategy.THREAD_AFFINITY);
+        CountingConnectionPoolMonitor monitor = new CountingConnectionPoolMonitor();
+        final SimpleHostConnectionPool<TestClient> pool = new SimpleHostConnectionPool<TestClient>(
+                host, new TestConnectionFactory(config, monitor), monitor,
+                config, new NoOpListener());
+
+        pool.primeConnections(2);
+        Assert.assertEquals(2, pool.getIdleConnectionCount());
+
+        // A thread gets back the connection it last returned
+        Connection<TestClient> connection = pool.borrowConnection(WAIT_TIMEOUT);
+        pool.returnConnection(connection);
+        Assert.assertSame(connection, pool.borrowConnection(WAIT_TIMEOUT));
+        Assert.assertEquals(1, pool.getIdleConnectionCount());
+        pool.returnConnection(connection);
+        Assert.assertEquals(2, pool.getIdleConnectionCount());
+
+        // Connections parked in a slot must still be reachable from other threads
+        final Connection<TestClient> c1 = pool.borrowConnection(WAIT_TIMEOUT);
+        final Connection<TestClient> c2 = pool.borrowConnection(WAIT_TIMEOUT);
+        Assert.assertEquals(0, pool.getIdleConnectionCount());
+        Assert.assertNotSame(c1, c2);
+
+        final AtomicReference<Connection<TestClient>> borrowed = new AtomicReference<Connection<TestClient>>();
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    borrowed.set(pool.borrowConnection(1000));
+                } catch (ConnectionException e) {
+                    LOG.error(e.getMessage());
+                }
+            }
+        };
+        thread.start();
+        Thread.sleep(WAIT_TIMEOUT);
+        pool.returnConnection(c1);
+        thread.join();
+        Assert.assertSame(c1, borrowed.get());
+
+        pool.returnConnection(c1);
+        pool.returnConnection(c2);
+        Assert.assertEquals(2, pool.getIdleConnectionCount());
+
+        pool.shutdown();
+        Assert.assertEquals(0, pool.getIdleConnectionCount());
+        Assert.assertEquals(0, pool.getActiveConnectionCount());
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        Host host = new Host("127.0.0.1", TestHostType.GOOD_FAST.ordinal());
+
+        ConnectionPoolConfigurationImpl config = createConfig();
+        config.setMaxConnsPerHost(10);
+        config.setConcurrencyLimitStrategy(new GradientConcurrencyLimitStrategyImpl(2, 10));
+
+        CountingConnectionPoolMonitor monitor = new CountingConnectionPoolMonitor();
+        SimpleHostConnectionPool<TestClient> pool = new SimpleHostConnectionPool<TestClient>(
+                host, new TestConnectionFactory(config, monitor), monitor,
+                config, new NoOpListener());
+        pool.primeConnections(1);
+
+        // Operations over the limit are rejected without waiting for a connection
+        Connection<TestClient> c1 = pool.borrowConnection(WAIT_TIMEOUT);
+        Connection<TestClient> c2 = pool.borrowConnection(WAIT_TIMEOUT);
+        try {
+            pool.borrowConnection(WAIT_TIMEOUT);
+            Assert.fail();
+        } catch (ThrottledException e) {
+            Assert.assertEquals(host, e.getHost());
+        }
+        Assert.assertEquals(1, monitor.getConcurrencyLimitReachedCount());
+
+        // Limit grows while latency is flat and the limit is in use
+        for (int i = 0; i < 20; i++) {
+            pool.addLatencySample(1000000, System.nanoTime());
+        }
+        int grown = monitor.getConcurrencyLimits().get(host);
+        Assert.assertTrue(grown > 2);
+        Connection<TestClient> c3 = pool.borrowConnection(WAIT_TIMEOUT);
+
+        // and shrinks once requests queue up on the host
+        for (int i = 0; i < 20; i++) {
+            pool.addLatencySample(10000000, System.nanoTime());
+        }
+        Assert.assertTrue(monitor.getConcurrencyLimits().get(host) < grown);
+
+        pool.returnConnection(c1);
+        pool.returnConnection(c2);
+        pool.returnConnection(c3);
+        pool.shutdown();
+    }
+
+    @Test
+    public void testConcurrencyLimitReleasedOnClose() throws Exception {
+        Host host = new Host("127.0.0.1", TestHostType.GOOD_FAST.ordinal());
+
+        ConnectionPoolConfigurationImpl config = createConfig();
+        config.setMaxConnsPerHost(10);
+        config.setConcurrencyLimitStrategy(new GradientConcurrencyLimitStrategyImpl(2, 10));
+
+        CountingConnectionPoolMonitor monitor = new CountingConnectionPoolMonitor();
+        SimpleHostConnectionPool<TestClient> pool = new SimpleHostConnectionPool<TestClient>(
+                host, new TestConnectionFactory(config, monitor), monitor,
+                config, new NoOpListener());
+        pool.primeConnections(1);
+
+        // Closing instead of returning connections must free their permits
+        for (int i = 0; i < 5; i++) {
+            Connection<TestClient> c1 = pool.borrowConnection(WAIT_TIMEOUT);
+            Connection<TestClient> c2 = pool.borrowConnection(WAIT_TIMEOUT);
+            pool.closeConnection(c1);
+            pool.closeConnection(c2);
+        }
+        Assert.assertEquals(0, monitor.getConcurrencyLimitReachedCount());
+
+        Connection<TestClient> c1 = pool.borrowConnection(WAIT_TIMEOUT);
+        Connection<TestClient> c2 = pool.borrowConnection(WAIT_TIMEOUT);
+        try {
+            pool.borrowConnection(WAIT_TIMEOUT);
+            Assert.fail();
+        } catch (ThrottledException e) {
+        }
+        pool.returnConnection(c1);
+        pool.closeConnection(c2);
+        pool.shutdown();
+    }
+
     public ConnectionPoolConfigurationImpl createConfig() {
         ConnectionPoolConfigurationImpl config = new ConnectionPoolConfigurationImpl("cluster_keyspace");
         
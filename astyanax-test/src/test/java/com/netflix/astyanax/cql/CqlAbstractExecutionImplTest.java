@@ -0,0 +1,221 @@
+package com.netflix.astyanax.cql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.NoHostAvailableException;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.netflix.astyanax.CassandraOperationTracer;
+import com.netflix.astyanax.CassandraOperationType;
+import com.netflix.astyanax.KeyspaceTracerFactory;
+import com.netflix.astyanax.connectionpool.OperationResult;
+import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
+import com.netflix.astyanax.connectionpool.exceptions.NotFoundException;
+import com.netflix.astyanax.connectionpool.exceptions.OperationException;
+import com.netflix.astyanax.cql.CqlKeyspaceImpl.KeyspaceContext;
+import com.netflix.astyanax.impl.AstyanaxConfigurationImpl;
+import com.netflix.astyanax.model.ColumnFamily;
+import com.netflix.astyanax.retry.ConstantBackoff;
+import com.netflix.astyanax.retry.RetryNTimes;
+import com.netflix.astyanax.retry.RetryPolicy;
+
+public class CqlAbstractExecutionImplTest {
+
+    private final ExecutorService asyncExecutor = Executors.newFixedThreadPool(2);
+    private final AtomicInteger tracerFailures = new AtomicInteger();
+    private final AtomicInteger tracerSuccesses = new AtomicInteger();
+
+    @After
+    public void shutdown() {
+        asyncExecutor.shutdownNow();
+    }
+
+    /**
+     * Session whose async executions complete with the given outcomes in order, where null is a success
+     */
+    private static Session session(final Queue<Throwable> outcomes, final List<Long> attemptTimes) {
+        return (Session) Proxy.newProxyInstance(CqlAbstractExecutionImplTest.class.getClassLoader(), new Class[] { Session.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("executeAsync")) {
+                    attemptTimes.add(System.nanoTime());
+                    SettableFuture<ResultSet> future = SettableFuture.create();
+                    Throwable outcome = outcomes.poll();
+                    if (outcome == null)
+                        future.set(null);
+                    else
+                        future.setException(outcome);
+                    return resultSetFuture(future);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static ResultSetFuture resultSetFuture(final SettableFuture<ResultSet> future) {
+        return (ResultSetFuture) Proxy.newProxyInstance(CqlAbstractExecutionImplTest.class.getClassLoader(), new Class[] { ResultSetFuture.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("getUninterruptibly"))
+                    return Uninterruptibles.getUninterruptibly(future);
+                try {
+                    return method.invoke(future, args);
+                }
+                catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        });
+    }
+
+    private KeyspaceTracerFactory tracerFactory() {
+        return new KeyspaceTracerFactory() {
+            @Override
+            public CassandraOperationTracer newTracer(CassandraOperationType type) {
+                return new CassandraOperationTracer() {
+                    @Override
+                    public CassandraOperationTracer start() {
+                        return this;
+                    }
+
+                    @Override
+                    public void success() {
+                        tracerSuccesses.incrementAndGet();
+                    }
+
+                    @Override
+                    public void failure(ConnectionException e) {
+                        tracerFailures.incrementAndGet();
+                    }
+                };
+            }
+
+            @Override
+            public CassandraOperationTracer newTracer(CassandraOperationType type, ColumnFamily<?, ?> columnFamily) {
+                return newTracer(type);
+            }
+        };
+    }
+
+    private CqlAbstractExecutionImpl<String> execution(Session session, RetryPolicy retry, final boolean notFound) {
+        AstyanaxConfigurationImpl config = new AstyanaxConfigurationImpl().setAsyncExecutor(asyncExecutor);
+        CqlKeyspaceImpl keyspace = new CqlKeyspaceImpl(session, "ks", config, tracerFactory(), new JavaDriverConnectionPoolMonitorImpl());
+        KeyspaceContext ksContext = keyspace.new KeyspaceContext(keyspace);
+
+        return new CqlAbstractExecutionImpl<String>(ksContext, retry) {
+            @Override
+            public CassandraOperationType getOperationType() {
+                return CassandraOperationType.GET_ROW;
+            }
+
+            @Override
+            public Statement getQuery() {
+                return new SimpleStatement("SELECT * FROM ks.cf");
+            }
+
+            @Override
+            public String parseResultSet(ResultSet resultSet) throws NotFoundException {
+                if (notFound)
+                    throw new NotFoundException("Not found");
+                return "RESULT";
+            }
+        };
+    }
+
+    private static Throwable driverFailure() {
+        return new NoHostAvailableException(new HashMap<InetSocketAddress, Throwable>());
+    }
+
+    @Test
+    public void testRetryThenSucceed() throws Exception {
+        List<Long> attemptTimes = Collections.synchronizedList(new ArrayList<Long>());
+        Queue<Throwable> outcomes = new LinkedList<Throwable>(Arrays.asList(driverFailure(), driverFailure(), null));
+        RetryNTimes retry = new RetryNTimes(3);
+
+        OperationResult<String> result = execution(session(outcomes, attemptTimes), retry, false).executeAsync().get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals("RESULT", result.getResult());
+        Assert.assertEquals(3, attemptTimes.size());
+        Assert.assertEquals(2, result.getAttemptsCount());
+        // Each attempt is traced
+        Assert.assertEquals(2, tracerFailures.get());
+        Assert.assertEquals(1, tracerSuccesses.get());
+    }
+
+    @Test
+    public void testNonRetryableFailsFast() throws Exception {
+        List<Long> attemptTimes = Collections.synchronizedList(new ArrayList<Long>());
+        Queue<Throwable> outcomes = new LinkedList<Throwable>();
+        RetryNTimes retry = new RetryNTimes(3);
+
+        try {
+            execution(session(outcomes, attemptTimes), retry, true).executeAsync().get(5, TimeUnit.SECONDS);
+            Assert.fail("Expecting the parse failure");
+        }
+        catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof NotFoundException);
+        }
+        Assert.assertEquals(1, attemptTimes.size());
+        Assert.assertEquals(0, retry.getAttemptCount());
+        Assert.assertEquals(1, tracerFailures.get());
+        Assert.assertEquals(0, tracerSuccesses.get());
+    }
+
+    @Test
+    public void testRetriesExhausted() throws Exception {
+        List<Long> attemptTimes = Collections.synchronizedList(new ArrayList<Long>());
+        Queue<Throwable> outcomes = new LinkedList<Throwable>(Arrays.asList(driverFailure(), driverFailure(), driverFailure()));
+
+        try {
+            execution(session(outcomes, attemptTimes), new RetryNTimes(1), false).executeAsync().get(5, TimeUnit.SECONDS);
+            Assert.fail("Expecting the driver failure");
+        }
+        catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof OperationException);
+            Assert.assertTrue(e.getCause().getCause() instanceof NoHostAvailableException);
+        }
+        Assert.assertEquals(2, attemptTimes.size());
+        Assert.assertEquals(2, tracerFailures.get());
+    }
+
+    @Test
+    public void testBackoffDelaysNextAttempt() throws Exception {
+        List<Long> attemptTimes = Collections.synchronizedList(new ArrayList<Long>());
+        Queue<Throwable> outcomes = new LinkedList<Throwable>(Arrays.asList(driverFailure(), null));
+        int sleepTimeMs = 200;
+
+        OperationResult<String> result = execution(session(outcomes, attemptTimes), new ConstantBackoff(sleepTimeMs, 2), false)
+                .executeAsync().get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals("RESULT", result.getResult());
+        Assert.assertEquals(2, attemptTimes.size());
+        long delay = TimeUnit.MILLISECONDS.convert(attemptTimes.get(1) - attemptTimes.get(0), TimeUnit.NANOSECONDS);
+        Assert.assertTrue("Retried after " + delay + "ms", delay >= sleepTimeMs - 5);
+    }
+}
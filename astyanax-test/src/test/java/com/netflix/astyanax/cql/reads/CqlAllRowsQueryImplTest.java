@@ -0,0 +1,110 @@
+package com.netflix.astyanax.cql.reads;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.datastax.driver.core.Row;
+import com.google.common.collect.Lists;
+import com.netflix.astyanax.connectionpool.TokenRange;
+import com.netflix.astyanax.connectionpool.impl.TokenRangeImpl;
+import com.netflix.astyanax.partitioner.Murmur3Partitioner;
+import com.netflix.astyanax.partitioner.Partitioner;
+import com.netflix.astyanax.serializers.StringSerializer;
+
+public class CqlAllRowsQueryImplTest {
+    private static final long MIN_TOKEN = Long.MIN_VALUE;
+    private static final long MAX_TOKEN = Long.MAX_VALUE;
+    private static final List<String> ENDPOINTS = Lists.newArrayList("127.0.0.1");
+
+    private static TokenRange range(long start, long end) {
+        return new TokenRangeImpl(Long.toString(start), Long.toString(end), ENDPOINTS);
+    }
+
+    private static void assertRange(long start, long end, TokenRange range) {
+        Assert.assertEquals(Long.toString(start), range.getStartToken());
+        Assert.assertEquals(Long.toString(end), range.getEndToken());
+        Assert.assertEquals(ENDPOINTS, range.getEndpoints());
+    }
+
+    /**
+     * Row of a range query whose first column is the given key
+     */
+    private static Row row(final String key) {
+        return (Row) Proxy.newProxyInstance(CqlAllRowsQueryImplTest.class.getClassLoader(), new Class[] { Row.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("getBytesUnsafe") && args[0].equals(0))
+                    return StringSerializer.get().toByteBuffer(key);
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static List<Row> page(String... keys) {
+        List<Row> page = Lists.newArrayList();
+        for (String key : keys) {
+            page.add(row(key));
+        }
+        return page;
+    }
+
+    @Test
+    public void testSplitWrappingRanges() {
+        List<TokenRange> ranges = CqlAllRowsQueryImpl.splitWrappingRanges(Lists.newArrayList(
+                range(-100, 100),
+                range(100, -100),
+                range(200, MIN_TOKEN)), MIN_TOKEN, MAX_TOKEN);
+
+        Assert.assertEquals(4, ranges.size());
+        assertRange(-100, 100, ranges.get(0));
+        // The vnode that wraps around the ring is read as two ranges
+        assertRange(100, MAX_TOKEN, ranges.get(1));
+        assertRange(MIN_TOKEN, -100, ranges.get(2));
+        // A range that ends at the min token ends at the end of the ring
+        assertRange(200, MAX_TOKEN, ranges.get(3));
+    }
+
+    @Test
+    public void testSplitWholeRing() {
+        // A single node owns a range from its token to itself
+        List<TokenRange> ranges = CqlAllRowsQueryImpl.splitWrappingRanges(Lists.newArrayList(range(42, 42)), MIN_TOKEN, MAX_TOKEN);
+
+        Assert.assertEquals(1, ranges.size());
+        assertRange(MIN_TOKEN, MAX_TOKEN, ranges.get(0));
+    }
+
+    @Test
+    public void testLastPartitionHeldBack() {
+        // The rows of the last partition are held back since it may continue in the next page
+        Assert.assertEquals(3, CqlAllRowsQueryImpl.lastPartitionStart(page("a", "a", "b", "c", "c")));
+        Assert.assertEquals(2, CqlAllRowsQueryImpl.lastPartitionStart(page("a", "b", "c")));
+
+        // A page of a single partition is held back entirely and prepended to the next page
+        List<Row> partialRows = page("d", "d");
+        Assert.assertEquals(0, CqlAllRowsQueryImpl.lastPartitionStart(partialRows));
+        List<Row> next = Lists.newArrayList(partialRows);
+        next.addAll(page("d", "e"));
+        Assert.assertEquals(3, CqlAllRowsQueryImpl.lastPartitionStart(next));
+
+        Assert.assertEquals(0, CqlAllRowsQueryImpl.lastPartitionStart(page()));
+    }
+
+    @Test
+    public void testCheckpointToken() {
+        Partitioner partitioner = Murmur3Partitioner.get();
+        ByteBuffer key = StringSerializer.get().toByteBuffer("a");
+        long token = Long.parseLong(partitioner.getTokenForKey(key));
+
+        // Reading resumes after the token of the last partition
+        Assert.assertEquals(Long.toString(token), CqlAllRowsQueryImpl.checkpointToken(partitioner, key, false));
+        // or at it, to read the last partition again
+        Assert.assertEquals(Long.toString(token - 1), CqlAllRowsQueryImpl.checkpointToken(partitioner, key, true));
+    }
+}
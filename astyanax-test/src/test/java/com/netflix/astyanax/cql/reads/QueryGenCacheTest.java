@@ -0,0 +1,114 @@
+package com.netflix.astyanax.cql.reads;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.google.common.collect.Lists;
+import com.netflix.astyanax.cql.reads.model.CqlColumnSlice;
+import com.netflix.astyanax.cql.reads.model.CqlRangeImpl;
+
+public class QueryGenCacheTest {
+
+    /**
+     * Session that counts the statements it prepares
+     */
+    private static Session session(final AtomicInteger prepareCount) {
+        return (Session) Proxy.newProxyInstance(QueryGenCacheTest.class.getClassLoader(), new Class[] { Session.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("prepare")) {
+                    prepareCount.incrementAndGet();
+                    return Proxy.newProxyInstance(QueryGenCacheTest.class.getClassLoader(), new Class[] { PreparedStatement.class }, new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    /**
+     * Query generator for queries on a list of keys, whose shape is the number of keys
+     */
+    private static QueryGenCache<List<String>> queryGen(AtomicInteger prepareCount, final AtomicInteger queryGenCount) {
+        return new QueryGenCache<List<String>>(new AtomicReference<Session>(session(prepareCount))) {
+            @Override
+            public Callable<RegularStatement> getQueryGen(final List<String> keys) {
+                queryGenCount.incrementAndGet();
+                return new Callable<RegularStatement>() {
+                    @Override
+                    public RegularStatement call() throws Exception {
+                        return QueryBuilder.select().from("ks", "cf").where(QueryBuilder.in("key", keys.toArray()));
+                    }
+                };
+            }
+
+            @Override
+            public Object getShape(List<String> keys) {
+                return keys.size();
+            }
+
+            @Override
+            public BoundStatement bindValues(PreparedStatement pStatement, List<String> keys) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Test
+    public void testQueryGeneratedOnlyOnMiss() throws Exception {
+        AtomicInteger prepareCount = new AtomicInteger();
+        AtomicInteger queryGenCount = new AtomicInteger();
+        QueryGenCache<List<String>> queryGen = queryGen(prepareCount, queryGenCount);
+
+        PreparedStatement stmt = queryGen.getPreparedStatement(Lists.newArrayList("a", "b"), true);
+        Assert.assertSame(stmt, queryGen.getPreparedStatement(Lists.newArrayList("c", "d"), true));
+        Assert.assertEquals(1, queryGenCount.get());
+        Assert.assertEquals(1, prepareCount.get());
+
+        // A query of another shape gets its own statement
+        Assert.assertNotSame(stmt, queryGen.getPreparedStatement(Lists.newArrayList("a"), true));
+        Assert.assertEquals(2, queryGenCount.get());
+        Assert.assertEquals(2, prepareCount.get());
+
+        // Without caching the query is generated and prepared every time
+        queryGen.getPreparedStatement(Lists.newArrayList("a", "b"), false);
+        Assert.assertEquals(3, queryGenCount.get());
+        Assert.assertEquals(3, prepareCount.get());
+    }
+
+    private static CqlColumnSlice<String> columnRange(String start, String end, int limit, boolean reversed) {
+        return new CqlColumnSlice<String>(new CqlRangeImpl<String>("column1", start, end, limit, reversed, -1));
+    }
+
+    @Test
+    public void testColumnRangeShape() {
+        // Bounds and limit are bind markers, so pages of a column range share a statement
+        Assert.assertEquals(CFRowSliceQueryGen.columnRangeShape(columnRange("a", "m", 10, false)), 
+                CFRowSliceQueryGen.columnRangeShape(columnRange("n", "z", 20, false)));
+
+        // Which of them are bound and the order are part of the statement
+        Object shape = CFRowSliceQueryGen.columnRangeShape(columnRange("a", "m", 10, false));
+        Assert.assertFalse(shape.equals(CFRowSliceQueryGen.columnRangeShape(columnRange("a", null, 10, false))));
+        Assert.assertFalse(shape.equals(CFRowSliceQueryGen.columnRangeShape(columnRange(null, "m", 10, false))));
+        Assert.assertFalse(shape.equals(CFRowSliceQueryGen.columnRangeShape(columnRange("a", "m", -1, false))));
+        Assert.assertFalse(shape.equals(CFRowSliceQueryGen.columnRangeShape(columnRange("a", "m", 10, true))));
+    }
+}
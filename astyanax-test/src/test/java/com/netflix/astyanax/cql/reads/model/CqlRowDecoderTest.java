@@ -0,0 +1,67 @@
+package com.netflix.astyanax.cql.reads.model;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.UUID;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.datastax.driver.core.DataType;
+import com.netflix.astyanax.serializers.BooleanSerializer;
+import com.netflix.astyanax.serializers.DateSerializer;
+import com.netflix.astyanax.serializers.DoubleSerializer;
+import com.netflix.astyanax.serializers.FloatSerializer;
+import com.netflix.astyanax.serializers.IntegerSerializer;
+import com.netflix.astyanax.serializers.LongSerializer;
+import com.netflix.astyanax.serializers.StringSerializer;
+import com.netflix.astyanax.serializers.UUIDSerializer;
+import com.netflix.astyanax.util.TimeUUIDUtils;
+
+public class CqlRowDecoderTest {
+
+    /**
+     * Value at an offset within a larger buffer, the way the java driver hands out values of a row
+     */
+    private static ByteBuffer slice(ByteBuffer value) {
+        ByteBuffer frame = ByteBuffer.allocate(value.remaining() + 6);
+        frame.position(3);
+        frame.put(value.duplicate());
+        frame.position(3);
+        frame.limit(3 + value.remaining());
+        return frame;
+    }
+
+    @Test
+    public void testDecodeValues() {
+        Assert.assertEquals(Long.MIN_VALUE + 7, CqlRowDecoder.getLong(slice(LongSerializer.get().toByteBuffer(Long.MIN_VALUE + 7))));
+        Assert.assertEquals(-42, CqlRowDecoder.getInt(slice(IntegerSerializer.get().toByteBuffer(-42))));
+        Assert.assertEquals(1.5f, CqlRowDecoder.getFloat(slice(FloatSerializer.get().toByteBuffer(1.5f))), 0f);
+        Assert.assertEquals(-2.25, CqlRowDecoder.getDouble(slice(DoubleSerializer.get().toByteBuffer(-2.25))), 0.0);
+        Assert.assertTrue(CqlRowDecoder.getBoolean(slice(BooleanSerializer.get().toByteBuffer(true))));
+
+        Date date = new Date(1234567890123L);
+        Assert.assertEquals(date, CqlRowDecoder.getDate(slice(DateSerializer.get().toByteBuffer(date))));
+
+        UUID uuid = TimeUUIDUtils.getUniqueTimeUUIDinMicros();
+        ByteBuffer uuidBytes = slice(UUIDSerializer.get().toByteBuffer(uuid));
+        Assert.assertEquals(uuid, CqlRowDecoder.getUUID(uuidBytes));
+        Assert.assertEquals(3, uuidBytes.position());
+
+        String value = "caf\u00e9";
+        Assert.assertEquals(value, CqlRowDecoder.getString(slice(StringSerializer.get().toByteBuffer(value)), DataType.Name.TEXT));
+        Assert.assertEquals(value, CqlRowDecoder.getString(StringSerializer.get().toByteBuffer(value).asReadOnlyBuffer(), DataType.Name.VARCHAR));
+        Assert.assertEquals("", CqlRowDecoder.getString(ByteBuffer.allocate(0), DataType.Name.TEXT));
+    }
+
+    @Test
+    public void testDecodeNulls() {
+        Assert.assertEquals(0L, CqlRowDecoder.getLong(null));
+        Assert.assertEquals(0, CqlRowDecoder.getInt(ByteBuffer.allocate(0)));
+        Assert.assertFalse(CqlRowDecoder.getBoolean(null));
+        Assert.assertNull(CqlRowDecoder.getDate(null));
+        Assert.assertNull(CqlRowDecoder.getUUID(null));
+        Assert.assertNull(CqlRowDecoder.getString(null, DataType.Name.TEXT));
+    }
+}
@@ -0,0 +1,175 @@
+package com.netflix.astyanax.cql.reads.model;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.google.common.collect.Lists;
+import com.netflix.astyanax.model.Column;
+import com.netflix.astyanax.model.ColumnFamily;
+import com.netflix.astyanax.serializers.StringSerializer;
+
+public class CqlStreamingColumnListImplTest {
+    private static final ColumnFamily<String, String> CF = ColumnFamily.newColumnFamily("Standard1", StringSerializer.get(), StringSerializer.get());
+
+    /**
+     * Schema of a table with a clustering key: key, column1, value.  The java driver doesn't
+     * expose a way to create column definitions, hence the reflection.
+     */
+    private static ColumnDefinitions columnDefinitions() throws Exception {
+        Class<?> definitionClass = Class.forName("com.datastax.driver.core.ColumnDefinitions$Definition");
+        Constructor<?> definitionCtor = definitionClass.getDeclaredConstructor(String.class, String.class, String.class, DataType.class);
+        definitionCtor.setAccessible(true);
+        Object definitions = Array.newInstance(definitionClass, 3);
+        String[] names = { "key", "column1", "value" };
+        for (int i = 0; i < names.length; i++) {
+            Array.set(definitions, i, definitionCtor.newInstance("ks", "Standard1", names[i], DataType.text()));
+        }
+        Constructor<ColumnDefinitions> ctor = ColumnDefinitions.class.getDeclaredConstructor(definitions.getClass(), CodecRegistry.class);
+        ctor.setAccessible(true);
+        return ctor.newInstance(definitions, CodecRegistry.DEFAULT_INSTANCE);
+    }
+
+    private static Row row(final ColumnDefinitions columnDefinitions, final String... values) {
+        return (Row) Proxy.newProxyInstance(CqlStreamingColumnListImplTest.class.getClassLoader(), new Class[] { Row.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("getColumnDefinitions"))
+                    return columnDefinitions;
+                if (method.getName().equals("getString"))
+                    return values[(Integer) args[0]];
+                if (method.getName().equals("getBytesUnsafe"))
+                    return StringSerializer.get().toByteBuffer(values[(Integer) args[0]]);
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    /**
+     * Result set over the given rows that, like the java driver's, can only be read once
+     */
+    private static ResultSet resultSet(List<Row> rows, final List<Row> consumed) {
+        final Iterator<Row> rowIter = rows.iterator();
+        final Iterator<Row> iter = new Iterator<Row>() {
+            @Override
+            public boolean hasNext() {
+                return rowIter.hasNext();
+            }
+
+            @Override
+            public Row next() {
+                Row row = rowIter.next();
+                consumed.add(row);
+                return row;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+        return (ResultSet) Proxy.newProxyInstance(CqlStreamingColumnListImplTest.class.getClassLoader(), new Class[] { ResultSet.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("iterator"))
+                    return iter;
+                if (method.getName().equals("isExhausted"))
+                    return !iter.hasNext();
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static List<Row> rows(int count) throws Exception {
+        ColumnDefinitions columnDefinitions = columnDefinitions();
+        List<Row> rows = Lists.newArrayList();
+        for (int i = 0; i < count; i++) {
+            rows.add(row(columnDefinitions, "key", "column" + i, "value" + i));
+        }
+        return rows;
+    }
+
+    @Test
+    public void testIterateOnce() throws Exception {
+        List<Row> consumed = Lists.newArrayList();
+        CqlStreamingColumnListImpl<String> columns = new CqlStreamingColumnListImpl<String>(resultSet(rows(3), consumed), CF, 1, 2);
+
+        Iterator<Column<String>> iter = columns.iterator();
+        Assert.assertTrue(iter.hasNext());
+        Assert.assertTrue(consumed.isEmpty());
+
+        // Each column is read from the result set as it is reached
+        Column<String> column = iter.next();
+        Assert.assertEquals("column0", column.getName());
+        Assert.assertEquals("value0", column.getStringValue());
+        Assert.assertEquals(1, consumed.size());
+
+        Assert.assertEquals("column1", iter.next().getName());
+        Assert.assertEquals("column2", iter.next().getName());
+        Assert.assertFalse(iter.hasNext());
+
+        try {
+            columns.iterator();
+            Assert.fail("Columns can only be iterated once");
+        }
+        catch (IllegalStateException e) {
+        }
+        try {
+            columns.getColumnByName("column0");
+            Assert.fail("Columns have already been read by the iterator");
+        }
+        catch (IllegalStateException e) {
+        }
+    }
+
+    @Test
+    public void testRandomAccess() throws Exception {
+        List<Row> consumed = Lists.newArrayList();
+        CqlStreamingColumnListImpl<String> columns = new CqlStreamingColumnListImpl<String>(resultSet(rows(3), consumed), CF, 1, 2);
+
+        // Random access reads all the columns, which may then be iterated any number of times
+        Assert.assertEquals("value1", columns.getStringValue("column1", null));
+        Assert.assertEquals(3, consumed.size());
+        Assert.assertEquals(3, columns.size());
+        Assert.assertEquals("column2", columns.getColumnByIndex(2).getName());
+        Assert.assertNull(columns.getColumnByName("column3"));
+        Assert.assertEquals(Lists.newArrayList("column0", "column1", "column2"), Lists.newArrayList(columns.getColumnNames()));
+
+        for (int i = 0; i < 2; i++) {
+            int count = 0;
+            for (Column<String> column : columns) {
+                Assert.assertEquals("column" + count++, column.getName());
+            }
+            Assert.assertEquals(3, count);
+        }
+        Assert.assertFalse(columns.isEmpty());
+    }
+
+    @Test
+    public void testIsEmpty() throws Exception {
+        List<Row> consumed = Lists.newArrayList();
+        CqlStreamingColumnListImpl<String> columns = new CqlStreamingColumnListImpl<String>(resultSet(rows(2), consumed), CF, 1, 2);
+
+        // Checking for columns does not consume any
+        Assert.assertFalse(columns.isEmpty());
+        Assert.assertTrue(consumed.isEmpty());
+        Assert.assertEquals(2, Lists.newArrayList(columns).size());
+
+        CqlStreamingColumnListImpl<String> empty = new CqlStreamingColumnListImpl<String>(resultSet(rows(0), consumed), CF, 1, 2);
+        Assert.assertTrue(empty.isEmpty());
+        Assert.assertFalse(empty.iterator().hasNext());
+    }
+}
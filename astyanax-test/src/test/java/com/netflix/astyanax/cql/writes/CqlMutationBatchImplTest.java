@@ -0,0 +1,151 @@
+package com.netflix.astyanax.cql.writes;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.netflix.astyanax.connectionpool.OperationResult;
+import com.netflix.astyanax.serializers.StringSerializer;
+
+public class CqlMutationBatchImplTest {
+
+    private static ByteBuffer key(String key) {
+        return StringSerializer.get().toByteBuffer(key);
+    }
+
+    /**
+     * Mutation map of rows a, b and c, each with a mutation to two column families
+     */
+    private static Map<ByteBuffer, Map<String, String>> mutationMap() {
+        Map<ByteBuffer, Map<String, String>> mutationMap = new LinkedHashMap<ByteBuffer, Map<String, String>>();
+        for (String key : Arrays.asList("a", "b", "c")) {
+            Map<String, String> mutations = new LinkedHashMap<String, String>();
+            mutations.put("cf1", key + "1");
+            mutations.put("cf2", key + "2");
+            mutationMap.put(key(key), mutations);
+        }
+        return mutationMap;
+    }
+
+    @Test
+    public void testGroupByPartition() {
+        List<List<String>> groups = CqlMutationBatchImpl.groupRows(mutationMap(), null);
+
+        Assert.assertEquals(3, groups.size());
+        Assert.assertEquals(Arrays.asList("a1", "a2"), groups.get(0));
+        Assert.assertEquals(Arrays.asList("b1", "b2"), groups.get(1));
+        Assert.assertEquals(Arrays.asList("c1", "c2"), groups.get(2));
+    }
+
+    @Test
+    public void testGroupByReplicas() {
+        // a and c are owned by the same replicas, the replicas of b aren't known
+        final Map<ByteBuffer, Set<String>> replicas = ImmutableMap.<ByteBuffer, Set<String>>of(
+                key("a"), ImmutableSet.of("host1", "host2"),
+                key("b"), Collections.<String>emptySet(),
+                key("c"), ImmutableSet.of("host2", "host1"));
+
+        List<List<String>> groups = CqlMutationBatchImpl.groupRows(mutationMap(), new Function<ByteBuffer, Set<String>>() {
+            @Override
+            public Set<String> apply(ByteBuffer key) {
+                return replicas.get(key);
+            }
+        });
+
+        Assert.assertEquals(2, groups.size());
+        Assert.assertEquals(Arrays.asList("a1", "a2", "c1", "c2"), groups.get(0));
+        // A partition with unknown replicas is a group of its own
+        Assert.assertEquals(Arrays.asList("b1", "b2"), groups.get(1));
+    }
+
+    @Test
+    public void testConcurrencyBound() throws Exception {
+        final Map<Integer, SettableFuture<Void>> started = Maps.newConcurrentMap();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+
+        ListenableFuture<OperationResult<Void>> result = CqlMutationBatchImpl.executeConcurrently(Arrays.asList(0, 1, 2, 3, 4), 2,
+                new AsyncFunction<Integer, Void>() {
+                    @Override
+                    public ListenableFuture<Void> apply(Integer batch) {
+                        int count = inFlight.incrementAndGet();
+                        if (count > maxInFlight.get())
+                            maxInFlight.set(count);
+                        SettableFuture<Void> future = SettableFuture.create();
+                        started.put(batch, future);
+                        return future;
+                    }
+                });
+
+        Assert.assertEquals(2, started.size());
+        for (int i = 0; i < 5; i++) {
+            Assert.assertFalse(result.isDone());
+            inFlight.decrementAndGet();
+            started.get(i).set(null);
+        }
+
+        Assert.assertNotNull(result.get(1, TimeUnit.SECONDS));
+        Assert.assertEquals(5, started.size());
+        Assert.assertEquals(2, maxInFlight.get());
+    }
+
+    @Test
+    public void testFailFast() throws Exception {
+        final List<Integer> started = Collections.synchronizedList(new ArrayList<Integer>());
+        final RuntimeException failure = new RuntimeException("batch failed");
+
+        ListenableFuture<OperationResult<Void>> result = CqlMutationBatchImpl.executeConcurrently(Arrays.asList(0, 1, 2, 3), 1,
+                new AsyncFunction<Integer, Void>() {
+                    @Override
+                    public ListenableFuture<Void> apply(Integer batch) {
+                        started.add(batch);
+                        if (batch == 1)
+                            return Futures.immediateFailedFuture(failure);
+                        return Futures.immediateFuture(null);
+                    }
+                });
+
+        try {
+            result.get(1, TimeUnit.SECONDS);
+            Assert.fail("Expecting the failure of the second batch");
+        }
+        catch (ExecutionException e) {
+            Assert.assertSame(failure, e.getCause());
+        }
+        // No batches are started after the failure
+        Assert.assertEquals(Arrays.asList(0, 1), started);
+    }
+
+    @Test
+    public void testNoBatches() throws Exception {
+        ListenableFuture<OperationResult<Void>> result = CqlMutationBatchImpl.executeConcurrently(Collections.<Integer>emptyList(), 2,
+                new AsyncFunction<Integer, Void>() {
+                    @Override
+                    public ListenableFuture<Void> apply(Integer batch) {
+                        throw new AssertionError("No batch to execute");
+                    }
+                });
+        Assert.assertTrue(result.isDone());
+        Assert.assertNotNull(result.get());
+    }
+}
@@ -0,0 +1,63 @@
+package com.netflix.astyanax.cql.writes;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.datastax.driver.core.PreparedStatement;
+
+public class StatementCacheTest {
+
+    private static Callable<PreparedStatement> prepare(final String query, final AtomicInteger prepareCount) {
+        return new Callable<PreparedStatement>() {
+            @Override
+            public PreparedStatement call() throws Exception {
+                prepareCount.incrementAndGet();
+                return (PreparedStatement) Proxy.newProxyInstance(StatementCacheTest.class.getClassLoader(), new Class[] { PreparedStatement.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (method.getName().equals("getQueryString"))
+                            return query;
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+            }
+        };
+    }
+
+    @Test
+    public void testShapeKeysAndEviction() throws Exception {
+        StatementCache cache = new StatementCache(2);
+        AtomicInteger prepareCount = new AtomicInteger();
+
+        Object insert      = Arrays.asList("cf", "InsertColumn", null, false, false);
+        Object insertTtl   = Arrays.asList("cf", "InsertColumn", null, true, false);
+        Object deleteShape = Arrays.asList("cf", "DeleteColumn", null, false, false);
+
+        PreparedStatement stmt = cache.getStatement(insert, prepare("insert", prepareCount));
+        Assert.assertSame(stmt, cache.getStatement(Arrays.asList("cf", "InsertColumn", null, false, false), prepare("insert", prepareCount)));
+        Assert.assertEquals("insert ttl", cache.getStatement(insertTtl, prepare("insert ttl", prepareCount)).getQueryString());
+        Assert.assertEquals(2, prepareCount.get());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+
+        // Touch the first shape so the TTL shape is the least recently used one
+        cache.getStatement(insert, prepare("insert", prepareCount));
+        cache.getStatement(deleteShape, prepare("delete", prepareCount));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertNotNull(cache.getStatement(insert));
+        Assert.assertNull(cache.getStatement(insertTtl));
+
+        cache.setMaxSize(1);
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(3, cache.getPrepareCount());
+    }
+}
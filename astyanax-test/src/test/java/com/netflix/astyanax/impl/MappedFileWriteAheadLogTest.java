@@ -0,0 +1,142 @@
+package com.netflix.astyanax.impl;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.netflix.astyanax.MutationBatch;
+import com.netflix.astyanax.WriteAheadEntry;
+import com.netflix.astyanax.clock.MicrosecondsClock;
+import com.netflix.astyanax.connectionpool.OperationResult;
+import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
+import com.netflix.astyanax.model.ColumnFamily;
+import com.netflix.astyanax.model.ConsistencyLevel;
+import com.netflix.astyanax.retry.RunOnce;
+import com.netflix.astyanax.serializers.StringSerializer;
+import com.netflix.astyanax.thrift.AbstractThriftMutationBatchImpl;
+
+public class MappedFileWriteAheadLogTest {
+    private static final ColumnFamily<String, String> CF = ColumnFamily.newColumnFamily("Standard1", StringSerializer.get(), StringSerializer.get());
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = File.createTempFile("wal", "");
+        directory.delete();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private static MutationBatch newMutation() {
+        return new AbstractThriftMutationBatchImpl(new MicrosecondsClock(), ConsistencyLevel.CL_ONE, RunOnce.get()) {
+            @Override
+            public OperationResult<Void> execute() throws ConnectionException {
+                return null;
+            }
+
+            @Override
+            public ListenableFuture<OperationResult<Void>> executeAsync() throws ConnectionException {
+                return null;
+            }
+
+            @Override
+            public MutationBatch withCaching(boolean condition) {
+                return this;
+            }
+        };
+    }
+
+    private static MutationBatch newMutation(String key) {
+        MutationBatch m = newMutation();
+        m.withRow(CF, key).putColumn("column", "value of " + key);
+        return m;
+    }
+
+    @Test
+    public void testReplayAfterRestart() throws Exception {
+        MappedFileWriteAheadLog wal = MappedFileWriteAheadLog.builder()
+                .withDirectory(directory)
+                .build();
+
+        List<WriteAheadEntry> entries = Lists.newArrayList();
+        List<ByteBuffer> expected = Lists.newArrayList();
+        for (int i = 0; i < 3; i++) {
+            MutationBatch m = newMutation("key" + i);
+            WriteAheadEntry entry = wal.createEntry();
+            entry.writeMutation(m);
+            entries.add(entry);
+            expected.add(m.serialize());
+        }
+        wal.removeEntry(entries.get(1));
+        Assert.assertNull(wal.readNextEntry());
+
+        // Simulate a crash by opening the directory again without closing
+        MappedFileWriteAheadLog recovered = MappedFileWriteAheadLog.builder()
+                .withDirectory(directory)
+                .build();
+
+        for (int i : new int[] {0, 2}) {
+            WriteAheadEntry entry = recovered.readNextEntry();
+            Assert.assertNotNull(entry);
+            MutationBatch m = newMutation();
+            entry.readMutation(m);
+            Assert.assertEquals(expected.get(i), m.serialize());
+            recovered.removeEntry(entry);
+        }
+        Assert.assertNull(recovered.readNextEntry());
+        recovered.close();
+
+        // Nothing is left to replay after all entries were removed
+        MappedFileWriteAheadLog empty = MappedFileWriteAheadLog.builder()
+                .withDirectory(directory)
+                .build();
+        Assert.assertNull(empty.readNextEntry());
+        empty.close();
+    }
+
+    @Test
+    public void testSegmentRecycling() throws Exception {
+        MappedFileWriteAheadLog wal = MappedFileWriteAheadLog.builder()
+                .withDirectory(directory)
+                .withSegmentSize(1024)
+                .withMaxFreeSegments(1)
+                .build();
+
+        for (int i = 0; i < 200; i++) {
+            WriteAheadEntry entry = wal.createEntry();
+            entry.writeMutation(newMutation("key" + i));
+            wal.removeEntry(entry);
+        }
+
+        // Fully removed segments are reused or deleted instead of accumulating
+        Assert.assertTrue(wal.getSegmentCount() <= 2);
+        Assert.assertEquals(1, wal.getFreeSegmentCount());
+        Assert.assertTrue(directory.listFiles().length <= 3);
+        wal.close();
+
+        MappedFileWriteAheadLog recovered = MappedFileWriteAheadLog.builder()
+                .withDirectory(directory)
+                .withSegmentSize(1024)
+                .build();
+        Assert.assertNull(recovered.readNextEntry());
+        recovered.close();
+    }
+}
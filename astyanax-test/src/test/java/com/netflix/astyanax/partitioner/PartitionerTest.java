@@ -1,6 +1,11 @@
 package com.netflix.astyanax.partitioner;
 
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.Random;
+
+import junit.framework.Assert;
 
 import org.junit.Test;
 
@@ -36,4 +41,28 @@ public class PartitionerTest {
             System.out.println(range);
         }
     }
-}   
+    
+    @Test
+    public void testPrimitiveTokenForKey() {
+        assertPrimitiveTokens(BigInteger127Partitioner.get());
+        assertPrimitiveTokens(Murmur3Partitioner.get());
+        assertPrimitiveTokens(LongBOPPartitioner.get());
+    }
+    
+    private void assertPrimitiveTokens(Partitioner partitioner) {
+        Random random = new Random(1);
+        long[] token = new long[2];
+        for (int i = 0; i < 1000; i++) {
+            byte[] bytes = new byte[8 + random.nextInt(32)];
+            random.nextBytes(bytes);
+            ByteBuffer key = ByteBuffer.wrap(bytes);
+            
+            Assert.assertTrue(partitioner.getTokenForKey(key, token));
+            BigInteger expected = new BigInteger(partitioner.getTokenForKey(key));
+            BigInteger actual = BigInteger.valueOf(token[0]).shiftLeft(64)
+                    .add(BigInteger.valueOf(token[1]).and(BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE)));
+            Assert.assertEquals(expected, actual);
+            Assert.assertEquals(0, key.position());
+        }
+    }
+}
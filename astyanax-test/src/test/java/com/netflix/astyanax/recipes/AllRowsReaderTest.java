@@ -0,0 +1,226 @@
+package com.netflix.astyanax.recipes;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.netflix.astyanax.Keyspace;
+import com.netflix.astyanax.connectionpool.OperationResult;
+import com.netflix.astyanax.connectionpool.TokenRange;
+import com.netflix.astyanax.model.ColumnFamily;
+import com.netflix.astyanax.model.ColumnList;
+import com.netflix.astyanax.model.Row;
+import com.netflix.astyanax.model.Rows;
+import com.netflix.astyanax.partitioner.Murmur3Partitioner;
+import com.netflix.astyanax.partitioner.Partitioner;
+import com.netflix.astyanax.query.ColumnFamilyQuery;
+import com.netflix.astyanax.query.RowSliceQuery;
+import com.netflix.astyanax.recipes.reader.AllRowsReader;
+import com.netflix.astyanax.serializers.LongSerializer;
+import com.netflix.astyanax.serializers.StringSerializer;
+import com.netflix.astyanax.shallows.EmptyCheckpointManager;
+
+public class AllRowsReaderTest {
+    private static final ColumnFamily<Long, String> CF = new ColumnFamily<Long, String>(
+            "AllRows", LongSerializer.get(), StringSerializer.get());
+
+    private static final Partitioner PARTITIONER = Murmur3Partitioner.get();
+
+    /**
+     * Serves token range queries from an in memory ring sorted by token
+     */
+    private static class InMemoryRing implements InvocationHandler {
+        private final TreeMap<BigInteger, Long> ring = new TreeMap<BigInteger, Long>();
+        private final Set<String> rangeStarts = Sets.newConcurrentHashSet();
+
+        InMemoryRing(int rowCount) {
+            for (long key = 0; key < rowCount; key++) {
+                ring.put(new BigInteger(PARTITIONER.getTokenForKey(LongSerializer.get().toByteBuffer(key))), key);
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("prepareQuery"))
+                return proxy(ColumnFamilyQuery.class, this);
+            if (method.getName().equals("getKeyRange"))
+                return query((String)args[2], (String)args[3], (Integer)args[4]);
+            if (method.getReturnType().isInstance(proxy))
+                return proxy;
+            throw new UnsupportedOperationException(method.getName());
+        }
+
+        private Object query(String startToken, String endToken, int count) {
+            BigInteger start = new BigInteger(startToken);
+            BigInteger end   = new BigInteger(endToken);
+            rangeStarts.add(startToken);
+
+            final List<Long> keys = Lists.newArrayList();
+            Map<BigInteger, Long> range = start.compareTo(end) < 0
+                    ? ring.subMap(start, false, end, true)
+                    : ring.tailMap(start, false);
+            for (Long key : range.values()) {
+                if (keys.size() == count)
+                    break;
+                keys.add(key);
+            }
+
+            final Rows<Long, String> rows = rows(keys);
+            return proxy(RowSliceQuery.class, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    if (method.getName().equals("execute")) {
+                        return proxy(OperationResult.class, new InvocationHandler() {
+                            @Override
+                            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                                return rows;
+                            }
+                        });
+                    }
+                    return proxy;
+                }
+            });
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(AllRowsReaderTest.class.getClassLoader(), new Class[] { type }, handler);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Rows<Long, String> rows(final List<Long> keys) {
+        final List<Row<Long, String>> rows = Lists.newArrayList();
+        for (final Long key : keys) {
+            rows.add(proxy(Row.class, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    if (method.getName().equals("getKey"))
+                        return key;
+                    if (method.getName().equals("getRawKey"))
+                        return LongSerializer.get().toByteBuffer(key);
+                    if (method.getName().equals("getColumns")) {
+                        return proxy(ColumnList.class, new InvocationHandler() {
+                            @Override
+                            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                                return false;
+                            }
+                        });
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            }));
+        }
+        return proxy(Rows.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("iterator"))
+                    return rows.iterator();
+                if (method.getName().equals("isEmpty"))
+                    return rows.isEmpty();
+                if (method.getName().equals("size"))
+                    return rows.size();
+                if (method.getName().equals("getRowByIndex"))
+                    return rows.get((Integer)args[0]);
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    @Test
+    public void testSkewedRangesAreSplit() throws Exception {
+        final int rowCount = 5000;
+        final InMemoryRing ring = new InMemoryRing(rowCount);
+        final ConcurrentMap<Long, AtomicInteger> seen = Maps.newConcurrentMap();
+        final BigInteger slowUpTo = new BigInteger(PARTITIONER.splitTokenRange(4).get(0).getEndToken());
+
+        boolean result = new AllRowsReader.Builder<Long, String>(proxy(Keyspace.class, ring), CF)
+                .withPartitioner(PARTITIONER)
+                .withConcurrencyLevel(4)
+                .withPageSize(20)
+                .forEachRow(new Function<Row<Long, String>, Boolean>() {
+                    @Override
+                    public Boolean apply(Row<Long, String> row) {
+                        AtomicInteger count = seen.putIfAbsent(row.getKey(), new AtomicInteger(1));
+                        if (count != null)
+                            count.incrementAndGet();
+                        // Make the first range much slower than the others
+                        BigInteger token = new BigInteger(PARTITIONER.getTokenForKey(row.getRawKey()));
+                        if (token.compareTo(slowUpTo) <= 0) {
+                            try {
+                                Thread.sleep(1);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                        return true;
+                    }
+                })
+                .build()
+                .call();
+
+        Assert.assertTrue(result);
+        Assert.assertEquals(rowCount, seen.size());
+        for (Map.Entry<Long, AtomicInteger> entry : seen.entrySet()) {
+            Assert.assertEquals("Row " + entry.getKey(), 1, entry.getValue().get());
+        }
+        // Idle workers must have split the slow range
+        Set<String> initialStarts = Sets.newHashSet();
+        for (TokenRange range : PARTITIONER.splitTokenRange(4)) {
+            initialStarts.add(range.getStartToken());
+        }
+        int splits = 0;
+        for (String start : ring.rangeStarts) {
+            if (!initialStarts.contains(start))
+                splits++;
+        }
+        Assert.assertTrue("No ranges were split", splits > 0);
+    }
+
+    @Test
+    public void testResumeSkipsCompletedSplitRanges() throws Exception {
+        InMemoryRing ring = new InMemoryRing(1000);
+        final List<TokenRange> ranges = PARTITIONER.splitTokenRange(1);
+        String start = ranges.get(0).getStartToken();
+        String end   = ranges.get(0).getEndToken();
+        String mid   = PARTITIONER.splitTokenRange(start, end, 2).get(0).getEndToken();
+
+        // Previous run finished (start, mid] and the range (mid, end] split off from it
+        EmptyCheckpointManager checkpoints = new EmptyCheckpointManager();
+        checkpoints.trackCheckpoint(start, mid);
+        checkpoints.trackCheckpoint(mid, end);
+
+        final AtomicInteger count = new AtomicInteger();
+        new AllRowsReader.Builder<Long, String>(proxy(Keyspace.class, ring), CF)
+                .withPartitioner(PARTITIONER)
+                .withConcurrencyLevel(1)
+                .withCheckpointManager(checkpoints)
+                .forEachRow(new Function<Row<Long, String>, Boolean>() {
+                    @Override
+                    public Boolean apply(Row<Long, String> row) {
+                        count.incrementAndGet();
+                        return true;
+                    }
+                })
+                .build()
+                .call();
+
+        Assert.assertEquals(0, count.get());
+        Assert.assertTrue(ring.rangeStarts.isEmpty());
+    }
+}
@@ -0,0 +1,171 @@
+package com.netflix.astyanax.recipes;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+import com.netflix.astyanax.connectionpool.exceptions.NotFoundException;
+import com.netflix.astyanax.recipes.storage.ChunkedStorage;
+import com.netflix.astyanax.recipes.storage.ChunkedStorageProvider;
+import com.netflix.astyanax.recipes.storage.ObjectMetadata;
+
+public class ObjectReaderTest {
+    private static final String OBJECT_NAME = "object";
+
+    /**
+     * Keeps chunks in memory and tracks how many chunks were read ahead of the consumer
+     */
+    private static class InMemoryProvider implements ChunkedStorageProvider {
+        private final Map<Integer, ByteBuffer> chunks = Maps.newConcurrentMap();
+        private ObjectMetadata metadata;
+        private final AtomicInteger fetched = new AtomicInteger();
+        private volatile int failChunk = -1;
+
+        @Override
+        public int writeChunk(String objectName, int chunkId, ByteBuffer data, Integer ttl) throws Exception {
+            ByteBuffer copy = ByteBuffer.allocate(data.remaining());
+            copy.put(data.duplicate()).flip();
+            chunks.put(chunkId, copy);
+            return copy.remaining();
+        }
+
+        @Override
+        public ByteBuffer readChunk(String objectName, int chunkId) throws Exception, NotFoundException {
+            if (chunkId == failChunk)
+                throw new NotFoundException("Chunk " + chunkId);
+            fetched.incrementAndGet();
+            return chunks.get(chunkId).duplicate();
+        }
+
+        @Override
+        public void deleteObject(String objectName, Integer chunkCount) throws Exception {
+        }
+
+        @Override
+        public void writeMetadata(String objectName, ObjectMetadata attr) throws Exception {
+            this.metadata = attr;
+        }
+
+        @Override
+        public ObjectMetadata readMetadata(String objectName) throws Exception, NotFoundException {
+            if (metadata == null)
+                throw new NotFoundException(objectName);
+            return metadata;
+        }
+
+        @Override
+        public int getDefaultChunkSize() {
+            return 100;
+        }
+    }
+
+    private static byte[] data(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    @Test
+    public void testReadToOutputStream() throws Exception {
+        InMemoryProvider provider = new InMemoryProvider();
+        byte[] data = data(10050);
+        ChunkedStorage.newWriter(provider, OBJECT_NAME, new ByteArrayInputStream(data)).withChunkSize(100).call();
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            ObjectMetadata meta = ChunkedStorage.newReader(provider, OBJECT_NAME, os)
+                .withExecutor(executor)
+                .withBatchSize(5)
+                .withConcurrencyLevel(3)
+                .call();
+            Assert.assertEquals(101, (int)meta.getChunkCount());
+            Assert.assertTrue(java.util.Arrays.equals(data, os.toByteArray()));
+            Assert.assertFalse(executor.isShutdown());
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testPrefetchWindow() throws Exception {
+        InMemoryProvider provider = new InMemoryProvider();
+        byte[] data = data(2000);
+        ChunkedStorage.newWriter(provider, OBJECT_NAME, new ByteArrayInputStream(data)).withChunkSize(100).call();
+
+        InputStream is = ChunkedStorage.newReader(provider, OBJECT_NAME).withBatchSize(4).withConcurrencyLevel(2).asInputStream();
+        byte[] buffer = new byte[100];
+        Assert.assertEquals(100, is.read(buffer));
+        Thread.sleep(200);
+        // The chunk being consumed plus a window of 4 ahead of it
+        Assert.assertTrue(provider.fetched.get() <= 5);
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        os.write(buffer);
+        int count;
+        while ((count = is.read(buffer)) != -1)
+            os.write(buffer, 0, count);
+        is.close();
+        Assert.assertTrue(java.util.Arrays.equals(data, os.toByteArray()));
+    }
+
+    @Test
+    public void testReadAsChannel() throws Exception {
+        InMemoryProvider provider = new InMemoryProvider();
+        byte[] data = data(1234);
+        ChunkedStorage.newWriter(provider, OBJECT_NAME, new ByteArrayInputStream(data)).withChunkSize(100).call();
+
+        ReadableByteChannel channel = ChunkedStorage.newReader(provider, OBJECT_NAME).asChannel();
+        ByteBuffer result = ByteBuffer.allocate(data.length);
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            result.put(buffer);
+            buffer.clear();
+        }
+        channel.close();
+        Assert.assertTrue(java.util.Arrays.equals(data, result.array()));
+    }
+
+    @Test
+    public void testChunkFailure() throws Exception {
+        InMemoryProvider provider = new InMemoryProvider();
+        ChunkedStorage.newWriter(provider, OBJECT_NAME, new ByteArrayInputStream(data(1000))).withChunkSize(100).call();
+        provider.failChunk = 7;
+
+        InputStream is = ChunkedStorage.newReader(provider, OBJECT_NAME).asInputStream();
+        byte[] buffer = new byte[100];
+        try {
+            while (is.read(buffer) != -1) {
+            }
+            Assert.fail();
+        }
+        catch (IOException e) {
+            Assert.assertTrue(e.getCause() instanceof NotFoundException);
+        }
+        finally {
+            is.close();
+        }
+
+        try {
+            ChunkedStorage.newReader(provider, OBJECT_NAME, new ByteArrayOutputStream()).call();
+            Assert.fail();
+        }
+        catch (NotFoundException e) {
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.netflix.astyanax.recipes.queue.shard;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+import com.netflix.astyanax.recipes.queue.MessageQueueMetadata;
+import com.netflix.astyanax.recipes.queue.MessageQueueShard;
+
+public class AdaptiveShardReaderPolicyTest {
+    private static final long MIN_BACKOFF = 50;
+    private static final long MAX_BACKOFF = 200;
+
+    private ConcurrentShardReaderPolicy createPolicy(int shardCount) {
+        MessageQueueMetadata metadata = new MessageQueueMetadata();
+        metadata.setQueueName("TestQueue");
+        metadata.setPartitionCount(1);
+        metadata.setShardCount(shardCount);
+        return (ConcurrentShardReaderPolicy) AdaptiveShardReaderPolicy.Factory.builder()
+                .withMinBackoff(MIN_BACKOFF, TimeUnit.MILLISECONDS)
+                .withMaxBackoff(MAX_BACKOFF, TimeUnit.MILLISECONDS)
+                .build()
+                .create(metadata);
+    }
+
+    @Test
+    public void testAllShardsReadyInitially() throws Exception {
+        ConcurrentShardReaderPolicy policy = createPolicy(4);
+        Assert.assertEquals(0, policy.getPollInterval());
+        Assert.assertEquals(4, policy.getWorkQueueDepth());
+        Assert.assertEquals(0, policy.getIdleQueueDepth());
+
+        Set<String> names = Sets.newHashSet();
+        for (int i = 0; i < 4; i++) {
+            MessageQueueShard shard = policy.pollShard();
+            Assert.assertNotNull(shard);
+            Assert.assertTrue(names.add(shard.getName()));
+        }
+        // Acquired shards are not handed out again until released
+        Assert.assertNull(policy.pollShard());
+    }
+
+    @Test
+    public void testBackoffOnEmptyReads() throws Exception {
+        ConcurrentShardReaderPolicy policy = createPolicy(1);
+
+        // A shard that returned messages is ready again right away
+        MessageQueueShard shard = policy.nextShard();
+        policy.releaseShard(shard, 10);
+        Assert.assertSame(shard, policy.pollShard());
+
+        // An empty read delays the shard by the min backoff
+        policy.releaseShard(shard, 0);
+        Assert.assertNull(policy.pollShard());
+        Assert.assertEquals(1, policy.getIdleQueueDepth());
+        long start = System.nanoTime();
+        Assert.assertSame(shard, policy.nextShard());
+        long firstDelay = TimeUnit.MILLISECONDS.convert(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        Assert.assertTrue(firstDelay >= MIN_BACKOFF - 5);
+
+        // and the delay doubles after each empty read in a row
+        policy.releaseShard(shard, 0);
+        start = System.nanoTime();
+        Assert.assertSame(shard, policy.nextShard());
+        long secondDelay = TimeUnit.MILLISECONDS.convert(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        Assert.assertTrue(secondDelay >= 2 * MIN_BACKOFF - 5);
+
+        // An error backs off without growing the delay
+        policy.releaseShard(shard, -1);
+        Assert.assertNull(policy.pollShard());
+    }
+
+    @Test
+    public void testPollShardTimeout() throws Exception {
+        ConcurrentShardReaderPolicy policy = createPolicy(1);
+
+        MessageQueueShard shard = policy.pollShard(0, TimeUnit.MILLISECONDS);
+        Assert.assertNotNull(shard);
+
+        // A shard backing off past the timeout isn't returned
+        policy.releaseShard(shard, 0);
+        policy.releaseShard(policy.nextShard(), 0);
+        long start = System.nanoTime();
+        Assert.assertNull(policy.pollShard(MIN_BACKOFF / 2, TimeUnit.MILLISECONDS));
+        long waited = TimeUnit.MILLISECONDS.convert(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        Assert.assertTrue(waited < 2 * MIN_BACKOFF);
+
+        // but is once it's due within the timeout
+        Assert.assertSame(shard, policy.pollShard(MAX_BACKOFF, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testMessageSentWakesShard() throws Exception {
+        ConcurrentShardReaderPolicy policy = createPolicy(1);
+
+        // A shard waiting out its backoff is ready as soon as a message is sent to it
+        MessageQueueShard shard = policy.nextShard();
+        policy.releaseShard(shard, 0);
+        Assert.assertNull(policy.pollShard());
+        policy.onMessageSent(shard.getName());
+        Assert.assertSame(shard, policy.pollShard());
+
+        // A shard being read when a message is sent is ready again when released, even after an empty read
+        policy.onMessageSent(shard.getName());
+        policy.releaseShard(shard, 0);
+        Assert.assertSame(shard, policy.pollShard());
+
+        // Unknown shards are ignored
+        policy.onMessageSent("NotAShard");
+    }
+}
@@ -1,11 +1,17 @@
 package com.netflix.astyanax.serializers;
 
 import com.google.common.base.Strings;
+import com.netflix.astyanax.Serializer;
 import com.netflix.astyanax.annotations.Component;
+
+import junit.framework.Assert;
+
 import org.junit.Test;
 
 import java.nio.ByteBuffer;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 /**
  * Created with IntelliJ IDEA.
@@ -41,6 +47,79 @@ public class AnnotatedCompositeSerializerTest {
         ByteBuffer byteBuffer = serializer.toByteBuffer(foo);
     }
     
+    @Test
+    public void testMatchesComponentSerializers() throws Exception {
+        AnnotatedCompositeSerializer<AllTypes> serializer = new AnnotatedCompositeSerializer<AllTypes>(AllTypes.class);
+
+        AllTypes value = new AllTypes();
+        value.string      = "caf\u00e9 \u20ac \ud83d\ude00 \ud800 end";
+        value.longPart    = -1234567890123L;
+        value.longObject  = 42L;
+        value.intPart     = -7;
+        value.intObject   = null;
+        value.shortPart   = 12345;
+        value.boolPart    = true;
+        value.doublePart  = 3.25;
+        value.uuid        = UUID.randomUUID();
+        value.bytes       = new byte[] { 1, 2, 3 };
+        value.date        = new Date(1234567890L);
+        value.floatPart   = 1.5f;
+
+        // Expected encoding built one component at a time with each component's serializer
+        ByteBufferOutputStream expected = new ByteBufferOutputStream();
+        List<AnnotatedCompositeSerializer.ComponentSerializer<?>> components = serializer.getComponents();
+        for (AnnotatedCompositeSerializer.ComponentSerializer<?> component : components) {
+            @SuppressWarnings("unchecked")
+            Serializer<Object> s = (Serializer<Object>) component.getSerializer();
+            ByteBuffer cb = s.toByteBuffer(component.getFieldValueDirectly(value));
+            if (cb == null) 
+                cb = ByteBuffer.allocate(0);
+            expected.writeShort((short) cb.remaining());
+            expected.write(cb.slice());
+            expected.write((byte) 0);
+        }
+
+        ByteBuffer actual = serializer.toByteBuffer(value);
+        Assert.assertEquals(expected.getByteBuffer(), actual);
+        Assert.assertEquals(actual.remaining(), actual.capacity());
+
+        // Decode from a buffer that doesn't start at the beginning of its backing array
+        ByteBuffer padded = ByteBuffer.allocate(actual.remaining() + 5);
+        padded.position(5);
+        padded.put(actual.duplicate());
+        padded.position(5);
+        AllTypes decoded = serializer.fromByteBuffer(padded.slice());
+        Assert.assertEquals(5, padded.position());
+        Assert.assertEquals(new String(value.string.getBytes("UTF-8"), "UTF-8"), decoded.string);
+        Assert.assertEquals(value.longPart, decoded.longPart);
+        Assert.assertEquals(value.longObject, decoded.longObject);
+        Assert.assertEquals(value.intPart, decoded.intPart);
+        Assert.assertNull(decoded.intObject);
+        Assert.assertEquals(value.shortPart, decoded.shortPart);
+        Assert.assertEquals(value.boolPart, decoded.boolPart);
+        Assert.assertEquals(value.doublePart, decoded.doublePart);
+        Assert.assertEquals(value.uuid, decoded.uuid);
+        Assert.assertEquals(3, decoded.bytes.length);
+        Assert.assertEquals(3, decoded.bytes[2]);
+        Assert.assertEquals(value.date, decoded.date);
+        Assert.assertEquals(value.floatPart, decoded.floatPart);
+    }
+
+    public static class AllTypes {
+        @Component(ordinal = 0)  private String  string;
+        @Component(ordinal = 1)  private long    longPart;
+        @Component(ordinal = 2)  private Long    longObject;
+        @Component(ordinal = 3)  private int     intPart;
+        @Component(ordinal = 4)  private Integer intObject;
+        @Component(ordinal = 5)  private short   shortPart;
+        @Component(ordinal = 6)  private boolean boolPart;
+        @Component(ordinal = 7)  private double  doublePart;
+        @Component(ordinal = 8)  private UUID    uuid;
+        @Component(ordinal = 9)  private byte[]  bytes;
+        @Component(ordinal = 10) private Date    date;
+        @Component(ordinal = 11) private Float   floatPart;
+    }
+
     public static class Foo2 {
         @Component(ordinal = 0)
         private Date updateTimestamp;
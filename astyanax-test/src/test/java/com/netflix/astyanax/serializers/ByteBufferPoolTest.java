@@ -0,0 +1,79 @@
+package com.netflix.astyanax.serializers;
+
+import java.nio.ByteBuffer;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.google.common.base.Strings;
+
+public class ByteBufferPoolTest {
+    @Test
+    public void testSizeClasses() {
+        ByteBufferPool pool = new ByteBufferPool(64, 1024, 2, false);
+
+        ByteBuffer small = pool.acquire(10);
+        Assert.assertEquals(64, small.capacity());
+        ByteBuffer medium = pool.acquire(65);
+        Assert.assertEquals(128, medium.capacity());
+        ByteBuffer large = pool.acquire(2000);
+        Assert.assertEquals(2000, large.capacity());
+        Assert.assertEquals(3, pool.getMissCount());
+
+        small.put((byte) 1);
+        pool.release(small);
+        pool.release(medium);
+        pool.release(large);
+        pool.release(ByteBuffer.allocate(100));
+        pool.release(ByteBuffer.allocateDirect(64));
+        Assert.assertEquals(2, pool.getReleaseCount());
+        Assert.assertEquals(3, pool.getDiscardCount());
+
+        ByteBuffer reused = pool.acquire(64);
+        Assert.assertSame(small, reused);
+        Assert.assertEquals(0, reused.position());
+        Assert.assertEquals(64, reused.limit());
+        Assert.assertEquals(1, pool.getHitCount());
+
+        // Size class holds at most 2 free buffers
+        pool.release(pool.acquire(64));
+        pool.release(ByteBuffer.allocate(64));
+        pool.release(ByteBuffer.allocate(64));
+        Assert.assertEquals(4, pool.getDiscardCount());
+    }
+
+    @Test
+    public void testDirect() {
+        ByteBufferPool pool = new ByteBufferPool(64, 1024, 2, true);
+        ByteBuffer buffer = pool.acquire(100);
+        Assert.assertTrue(buffer.isDirect());
+        pool.release(buffer);
+        Assert.assertSame(buffer, pool.acquire(128));
+    }
+
+    @Test
+    public void testPooledOutputStream() {
+        ByteBufferPool pool = new ByteBufferPool(64, 8192, 8, false);
+        byte[] data = Strings.repeat("0123456789", 1000).getBytes();
+
+        for (int i = 0; i < 3; i++) {
+            ByteBufferOutputStream out = new ByteBufferOutputStream(pool);
+            out.writeInt(42);
+            out.write(data, 0, data.length);
+            out.write(ByteBuffer.wrap(data));
+            ByteBuffer result = out.getByteBuffer();
+
+            ByteBufferOutputStream plain = new ByteBufferOutputStream();
+            plain.writeInt(42);
+            plain.write(data, 0, data.length);
+            plain.write(ByteBuffer.wrap(data));
+            Assert.assertEquals(plain.getByteBuffer(), result);
+            Assert.assertFalse(result.isDirect());
+        }
+
+        // Buffers allocated by the first stream were reused by the others and all were returned
+        Assert.assertTrue(pool.getHitCount() > 0);
+        Assert.assertEquals(pool.getHitCount() + pool.getMissCount(), pool.getReleaseCount() + pool.getDiscardCount());
+    }
+}
@@ -3,6 +3,7 @@ package com.netflix.astyanax.thrift;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -24,6 +25,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.netflix.astyanax.AstyanaxContext;
 import com.netflix.astyanax.Keyspace;
 import com.netflix.astyanax.connectionpool.NodeDiscoveryType;
@@ -46,6 +48,7 @@ import com.netflix.astyanax.recipes.queue.SendMessageResponse;
 import com.netflix.astyanax.recipes.queue.ShardLock;
 import com.netflix.astyanax.recipes.queue.ShardLockManager;
 import com.netflix.astyanax.recipes.queue.ShardedDistributedMessageQueue;
+import com.netflix.astyanax.recipes.queue.shard.AdaptiveShardReaderPolicy;
 import com.netflix.astyanax.recipes.queue.triggers.RepeatingTrigger;
 import com.netflix.astyanax.recipes.queue.triggers.RunOnceTrigger;
 import com.netflix.astyanax.util.SingletonEmbeddedCassandra;
@@ -299,6 +302,138 @@ public class QueueTest {
         }
     }
 
+    @Test
+    public void testShardLease() throws Exception {
+        final CountingQueueStats stats = new CountingQueueStats();
+
+        final ShardedDistributedMessageQueue scheduler = new ShardedDistributedMessageQueue.Builder()
+                .withColumnFamily(SCHEDULER_NAME_CF_NAME)
+                .withQueueName("TestShardLease" + qNameSfx)
+                .withKeyspace(keyspace)
+                .withConsistencyLevel(CONSISTENCY_LEVEL)
+                .withStats(stats)
+                .withShardCount(1)
+                .withShardReaderPolicy(AdaptiveShardReaderPolicy.Factory.builder().build())
+                .withShardLeaseDuration(5L, TimeUnit.SECONDS)
+                .withShardLockManager(slm)
+                .build();
+
+        scheduler.createQueue();
+        scheduler.clearMessages();
+
+        MessageProducer producer = scheduler.createProducer();
+        MessageConsumer consumer = scheduler.createConsumer();
+
+        for (int i = 0; i < 5; i++) {
+            producer.sendMessage(new Message());
+        }
+
+        // The first two reads are made under one lease and the short third read ends it
+        List<MessageContext> messages = Lists.newArrayList();
+        for (int i = 0; i < 3; i++) {
+            messages.addAll(consumer.readMessages(2, 1, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(5, messages.size());
+        Assert.assertEquals(5, stats.getProcessCount());
+
+        consumer.ackMessages(messages);
+        Assert.assertEquals(0, scheduler.getMessageCount());
+    }
+
+    @Test
+    public void testShardLeaseExpiry() throws Exception {
+        final CountingQueueStats stats = new CountingQueueStats();
+
+        final ShardedDistributedMessageQueue scheduler = new ShardedDistributedMessageQueue.Builder()
+                .withColumnFamily(SCHEDULER_NAME_CF_NAME)
+                .withQueueName("TestShardLeaseExpiry" + qNameSfx)
+                .withKeyspace(keyspace)
+                .withConsistencyLevel(CONSISTENCY_LEVEL)
+                .withStats(stats)
+                .withShardCount(1)
+                .withShardReaderPolicy(AdaptiveShardReaderPolicy.Factory.builder().build())
+                .withShardLeaseDuration(1L, TimeUnit.SECONDS)
+                .withShardLockManager(slm)
+                .build();
+
+        scheduler.createQueue();
+        scheduler.clearMessages();
+
+        MessageProducer producer = scheduler.createProducer();
+        for (int i = 0; i < 6; i++) {
+            producer.sendMessage(new Message().setTimeout(0));
+        }
+
+        // A full read keeps the lease.  Once the consumer goes idle the timer ends the lease,
+        // writing its deletes and handing the shard to other consumers.
+        MessageConsumer idleConsumer = scheduler.createConsumer();
+        List<MessageContext> messages = Lists.newArrayList(idleConsumer.readMessages(2, 1, TimeUnit.SECONDS));
+        Assert.assertEquals(2, messages.size());
+        Thread.sleep(2000);
+        Assert.assertEquals(4, scheduler.getMessageCount());
+
+        // An expired lease is never read under again, the next read takes a new lease
+        MessageConsumer consumer = scheduler.createConsumer();
+        messages.addAll(consumer.readMessages(2, 1, TimeUnit.SECONDS));
+        Thread.sleep(1500);
+        messages.addAll(consumer.readMessages(2, 1, TimeUnit.SECONDS));
+        Assert.assertEquals(2, scheduler.getMessageCount());
+
+        // The short read ends the last lease
+        for (int i = 0; i < 3 && messages.size() < 6; i++) {
+            messages.addAll(consumer.readMessages(4, 1, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(6, messages.size());
+
+        consumer.ackMessages(messages);
+        Assert.assertEquals(0, scheduler.getMessageCount());
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testParallelShardReads() throws Exception {
+        final CountingQueueStats stats = new CountingQueueStats();
+
+        final ShardedDistributedMessageQueue scheduler = new ShardedDistributedMessageQueue.Builder()
+                .withColumnFamily(SCHEDULER_NAME_CF_NAME)
+                .withQueueName("TestParallelShardReads" + qNameSfx)
+                .withKeyspace(keyspace)
+                .withConsistencyLevel(CONSISTENCY_LEVEL)
+                .withStats(stats)
+                .withShardCount(4)
+                .withShardReaderPolicy(AdaptiveShardReaderPolicy.Factory.builder().build())
+                .withShardReadConcurrency(4)
+                .withShardLockManager(slm)
+                .build();
+
+        scheduler.createQueue();
+        scheduler.clearMessages();
+
+        MessageProducer producer = scheduler.createProducer();
+        MessageConsumer consumer = scheduler.createConsumer();
+
+        Set<String> sent = Sets.newHashSet();
+        for (int i = 0; i < 20; i++) {
+            sent.add("ParallelKey" + i);
+            producer.sendMessage(new Message().setKey("ParallelKey" + i));
+        }
+
+        // Every message is read exactly once even though the shards are read concurrently
+        Set<String> read = Sets.newHashSet();
+        List<MessageContext> messages = Lists.newArrayList();
+        for (int i = 0; i < 20 && read.size() < sent.size(); i++) {
+            for (MessageContext context : consumer.readMessages(8, 1, TimeUnit.SECONDS)) {
+                Assert.assertTrue(read.add(context.getMessage().getKey()));
+                messages.add(context);
+            }
+        }
+        Assert.assertEquals(sent, read);
+
+        consumer.ackMessages(messages);
+        Assert.assertEquals(0, scheduler.getMessageCount());
+        scheduler.shutdown();
+    }
+
     @Test
     public void testQueue() throws Exception {
         final CountingQueueStats stats = new CountingQueueStats();
@@ -0,0 +1,97 @@
+package com.netflix.astyanax.thrift.model;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.apache.cassandra.thrift.ColumnOrSuperColumn;
+import org.apache.cassandra.thrift.KeySlice;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.netflix.astyanax.model.Column;
+import com.netflix.astyanax.model.ColumnList;
+import com.netflix.astyanax.model.Row;
+import com.netflix.astyanax.model.Rows;
+import com.netflix.astyanax.serializers.LongSerializer;
+import com.netflix.astyanax.serializers.StringSerializer;
+
+public class ThriftColumnListImplTest {
+    private static List<ColumnOrSuperColumn> columns(String... names) {
+        List<ColumnOrSuperColumn> columns = Lists.newArrayList();
+        for (String name : names) {
+            columns.add(new ColumnOrSuperColumn().setColumn(new org.apache.cassandra.thrift.Column()
+                .setName(StringSerializer.get().toByteBuffer(name))
+                .setValue(StringSerializer.get().toByteBuffer("value-" + name))
+                .setTimestamp(1)));
+        }
+        return columns;
+    }
+
+    @Test
+    public void testLookupInSortedAndUnsortedLists() {
+        for (boolean flyweight : new boolean[]{false, true}) {
+            for (String[] names : new String[][] {
+                    {"a", "b", "c", "d", "e"},      // slice
+                    {"e", "d", "c", "b", "a"},      // reversed slice
+                    {"c", "a", "e", "b", "d"}}) {   // cql select order
+                ColumnList<String> list = new ThriftColumnOrSuperColumnListImpl<String>(columns(names), StringSerializer.get(), flyweight);
+                for (String name : names) {
+                    Assert.assertEquals("value-" + name, list.getColumnByName(name).getStringValue());
+                    Assert.assertEquals(name, list.getColumnByName(name).getName());
+                }
+                Assert.assertNull(list.getColumnByName("0"));
+                Assert.assertNull(list.getColumnByName("f"));
+                Assert.assertNull(list.getColumnByName("bb"));
+                Assert.assertEquals("value-" + names[2], list.getStringValue(names[2], null));
+            }
+        }
+    }
+
+    @Test
+    public void testFlyweightIteration() {
+        ColumnList<String> list = new ThriftColumnOrSuperColumnListImpl<String>(columns("a", "b", "c"), StringSerializer.get(), true);
+        List<String> names = Lists.newArrayList();
+        Column<String> first = null;
+        for (Column<String> column : list) {
+            if (first == null)
+                first = column;
+            Assert.assertSame(first, column);
+            names.add(column.getName());
+            Assert.assertEquals("value-" + column.getName(), column.getStringValue());
+        }
+        Assert.assertEquals(Lists.newArrayList("a", "b", "c"), names);
+        Assert.assertEquals("b", list.getColumnByIndex(1).getName());
+    }
+
+    @Test
+    public void testFlyweightRows() {
+        Map<ByteBuffer, List<ColumnOrSuperColumn>> map = Maps.newLinkedHashMap();
+        List<KeySlice> slices = Lists.newArrayList();
+        for (long key = 0; key < 3; key++) {
+            List<ColumnOrSuperColumn> columns = columns("a" + key, "b" + key);
+            map.put(LongSerializer.get().toByteBuffer(key), columns);
+            slices.add(new KeySlice(LongSerializer.get().toByteBuffer(key), columns));
+        }
+
+        List<Rows<Long, String>> all = Lists.newArrayList();
+        all.add(new ThriftRowsListImpl<Long, String>(map, LongSerializer.get(), StringSerializer.get(), true));
+        all.add(new ThriftRowsSliceImpl<Long, String>(slices, LongSerializer.get(), StringSerializer.get(), true));
+        for (Rows<Long, String> rows : all) {
+            Assert.assertEquals(3, rows.size());
+            long expected = 0;
+            for (Row<Long, String> row : rows) {
+                Assert.assertEquals(expected, (long)row.getKey());
+                Assert.assertEquals("value-b" + expected, row.getColumns().getStringValue("b" + expected, null));
+                expected++;
+            }
+            Assert.assertEquals(3, expected);
+            Assert.assertEquals("value-a1", rows.getRow(1L).getColumns().getColumnByIndex(0).getStringValue());
+            Assert.assertNull(rows.getRow(5L));
+            Assert.assertEquals(Lists.newArrayList(0L, 1L, 2L), Lists.newArrayList(rows.getKeys()));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.netflix.astyanax.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.netflix.astyanax.Keyspace;
+import com.netflix.astyanax.MutationBatch;
+import com.netflix.astyanax.clock.MicrosecondsClock;
+import com.netflix.astyanax.connectionpool.ConnectionPool;
+import com.netflix.astyanax.connectionpool.Host;
+import com.netflix.astyanax.connectionpool.HostConnectionPool;
+import com.netflix.astyanax.connectionpool.OperationResult;
+import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
+import com.netflix.astyanax.connectionpool.impl.SmaLatencyScoreStrategyImpl;
+import com.netflix.astyanax.connectionpool.impl.TokenPartitionedTopology;
+import com.netflix.astyanax.connectionpool.impl.TokenRangeImpl;
+import com.netflix.astyanax.connectionpool.impl.Topology;
+import com.netflix.astyanax.model.ColumnFamily;
+import com.netflix.astyanax.model.ConsistencyLevel;
+import com.netflix.astyanax.partitioner.Murmur3Partitioner;
+import com.netflix.astyanax.retry.RunOnce;
+import com.netflix.astyanax.serializers.StringSerializer;
+import com.netflix.astyanax.test.TestClient;
+import com.netflix.astyanax.test.TestHostConnectionPool;
+import com.netflix.astyanax.thrift.AbstractThriftMutationBatchImpl;
+
+public class CoalescingMutationBatchExecutorTest {
+    private static final ColumnFamily<String, String> CF = ColumnFamily.newColumnFamily("Standard1", StringSerializer.get(), StringSerializer.get());
+
+    /**
+     * Keyspace whose mutation batches record their row count instead of executing
+     */
+    private static Keyspace keyspace(final List<Integer> executed) {
+        return keyspace(executed, null);
+    }
+
+    /**
+     * Keyspace whose connection pool has the given topology
+     */
+    private static Keyspace keyspace(final List<Integer> executed, final Topology<TestClient> topology) {
+        final ConnectionPool<?> pool = (ConnectionPool<?>) Proxy.newProxyInstance(CoalescingMutationBatchExecutorTest.class.getClassLoader(), new Class[] { ConnectionPool.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("getTopology"))
+                    return topology;
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        return (Keyspace) Proxy.newProxyInstance(CoalescingMutationBatchExecutorTest.class.getClassLoader(), new Class[] { Keyspace.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("prepareMutationBatch"))
+                    return newMutation(executed);
+                if (method.getName().equals("getConnectionPool"))
+                    return topology == null ? null : pool;
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static MutationBatch newMutation(final List<Integer> executed) {
+        return new AbstractThriftMutationBatchImpl(new MicrosecondsClock(), ConsistencyLevel.CL_ONE, RunOnce.get()) {
+            @Override
+            public OperationResult<Void> execute() throws ConnectionException {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public ListenableFuture<OperationResult<Void>> executeAsync() throws ConnectionException {
+                executed.add(getRowCount());
+                return Futures.immediateFuture(null);
+            }
+
+            @Override
+            public MutationBatch withCaching(boolean condition) {
+                return this;
+            }
+        };
+    }
+
+    @Test
+    public void testCoalesce() throws Exception {
+        List<Integer> executed = new CopyOnWriteArrayList<Integer>();
+        Keyspace keyspace = keyspace(executed);
+        CoalescingMutationBatchExecutor executor = new CoalescingMutationBatchExecutor(keyspace)
+            .withMaxBatchSize(4)
+            .withMaxDelay(50, TimeUnit.MILLISECONDS);
+
+        List<ListenableFuture<OperationResult<Void>>> futures = Lists.newArrayList();
+        for (int i = 0; i < 10; i++) {
+            MutationBatch m = newMutation(executed);
+            m.withRow(CF, "key" + i).putColumn("column", "value");
+            futures.add(executor.execute(m));
+        }
+
+        // Two full batches go out right away and the remaining two rows after the delay
+        for (ListenableFuture<OperationResult<Void>> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        Assert.assertEquals(Lists.newArrayList(4, 4, 2), Lists.newArrayList(executed));
+        Assert.assertEquals(3, executor.getBatchCount());
+        Assert.assertEquals(10, executor.getSuccessCount());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testGroupByReplicas() throws Exception {
+        // Two hosts that each own half of the ring
+        TokenPartitionedTopology<TestClient> topology = new TokenPartitionedTopology<TestClient>(Murmur3Partitioner.get(), 
+                new SmaLatencyScoreStrategyImpl(10000, 60000, 100, 4.0));
+        String minToken = Murmur3Partitioner.MINIMUM.toString();
+        String midToken = TokenGenerator.initialToken(2, 1, Murmur3Partitioner.MINIMUM, Murmur3Partitioner.MAXIMUM);
+        Host host1 = new Host("127.0.3.1", 9160);
+        Host host2 = new Host("127.0.3.2", 9160);
+        host1.getTokenRanges().add(new TokenRangeImpl(minToken, midToken, null));
+        host2.getTokenRanges().add(new TokenRangeImpl(midToken, minToken, null));
+        List<HostConnectionPool<TestClient>> pools = Lists.newArrayList();
+        pools.add(new TestHostConnectionPool(host1));
+        pools.add(new TestHostConnectionPool(host2));
+        topology.setPools(pools);
+
+        List<Integer> executed = new CopyOnWriteArrayList<Integer>();
+        CoalescingMutationBatchExecutor executor = new CoalescingMutationBatchExecutor(keyspace(executed, topology))
+            .withMaxBatchSize(100)
+            .withMaxDelay(50, TimeUnit.MILLISECONDS);
+
+        Map<HostConnectionPool<TestClient>, Integer> rowsPerHost = Maps.newHashMap();
+        List<ListenableFuture<OperationResult<Void>>> futures = Lists.newArrayList();
+        String[] firstKeyOfHost = new String[2];
+        for (int i = 0; i < 20; i++) {
+            String key = "key" + i;
+            HostConnectionPool<TestClient> pool = topology.getPartition(StringSerializer.get().toByteBuffer(key)).getPools().get(0);
+            Integer count = rowsPerHost.get(pool);
+            rowsPerHost.put(pool, count == null ? 1 : count + 1);
+            firstKeyOfHost[pools.indexOf(pool)] = key;
+
+            MutationBatch m = newMutation(executed);
+            m.withRow(CF, key).putColumn("column", "value");
+            futures.add(executor.execute(m));
+        }
+        Assert.assertEquals(2, rowsPerHost.size());
+
+        // A batch with rows of both hosts is not merged with the batches of either host
+        MutationBatch m = newMutation(executed);
+        m.withRow(CF, firstKeyOfHost[0]).putColumn("other", "value");
+        m.withRow(CF, firstKeyOfHost[1]).putColumn("other", "value");
+        futures.add(executor.execute(m));
+
+        for (ListenableFuture<OperationResult<Void>> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        List<Integer> expected = Lists.newArrayList(rowsPerHost.get(pools.get(0)), rowsPerHost.get(pools.get(1)), 2);
+        List<Integer> actual = Lists.newArrayList(executed);
+        Collections.sort(expected);
+        Collections.sort(actual);
+        Assert.assertEquals(expected, actual);
+        executor.shutdown();
+    }
+}
@@ -18,7 +18,10 @@ package com.netflix.astyanax.thrift;
 import java.nio.ByteBuffer;
 
 import com.netflix.astyanax.CassandraOperationTracer;
+import com.netflix.astyanax.CassandraOperationType;
+import com.netflix.astyanax.KeyspaceTracerFactory;
 import com.netflix.astyanax.connectionpool.Host;
+import com.netflix.astyanax.model.ColumnFamily;
 
 public abstract class AbstractKeyspaceOperationImpl<R> extends AbstractOperationImpl<R> {
     private String keyspaceName;
@@ -33,6 +36,12 @@ public abstract class AbstractKeyspaceOperationImpl<R> extends AbstractOperation
         this.keyspaceName = keyspaceName;
     }
 
+    public AbstractKeyspaceOperationImpl(KeyspaceTracerFactory tracerFactory, CassandraOperationType type,
+            ColumnFamily<?, ?> columnFamily, Host pinnedHost, String keyspaceName) {
+        super(tracerFactory, type, columnFamily, pinnedHost);
+        this.keyspaceName = keyspaceName;
+    }
+
     @Override
     public String getKeyspace() {
         return this.keyspaceName;
@@ -19,24 +19,51 @@ import java.nio.ByteBuffer;
 
 import org.apache.cassandra.thrift.Cassandra;
 
+import com.netflix.astyanax.CassandraOperation;
 import com.netflix.astyanax.CassandraOperationTracer;
+import com.netflix.astyanax.CassandraOperationType;
+import com.netflix.astyanax.KeyspaceTracerFactory;
 import com.netflix.astyanax.connectionpool.ConnectionContext;
 import com.netflix.astyanax.connectionpool.Host;
 import com.netflix.astyanax.connectionpool.Operation;
+import com.netflix.astyanax.connectionpool.StatelessOperation;
 import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
+import com.netflix.astyanax.model.ColumnFamily;
 
-public abstract class AbstractOperationImpl<R> implements Operation<Cassandra.Client, R> {
+/**
+ * Base class for thrift operations.  
+ * 
+ * Operations created with a {@link KeyspaceTracerFactory} start a new tracer for each execution and 
+ * are {@link StatelessOperation stateless} unless a subclass keeps state between executions, in which 
+ * case it must override {@link #isStateless()}.  Operations created with a tracer share that tracer 
+ * between executions and are never stateless.
+ */
+public abstract class AbstractOperationImpl<R> implements Operation<Cassandra.Client, R>, CassandraOperation, StatelessOperation {
     private final CassandraOperationTracer tracer;
+    private final KeyspaceTracerFactory tracerFactory;
+    private final CassandraOperationType operationType;
+    private final ColumnFamily<?, ?> columnFamily;
     private Host pinnedHost;
 
     public AbstractOperationImpl(CassandraOperationTracer tracer, Host host) {
         this.tracer = tracer;
+        this.tracerFactory = null;
+        this.operationType = null;
+        this.columnFamily = null;
         this.pinnedHost = host;
     }
 
     public AbstractOperationImpl(CassandraOperationTracer tracer) {
-        this.tracer = tracer;
-        this.pinnedHost = null;
+        this(tracer, null);
+    }
+
+    public AbstractOperationImpl(KeyspaceTracerFactory tracerFactory, CassandraOperationType type, 
+            ColumnFamily<?, ?> columnFamily, Host host) {
+        this.tracer = null;
+        this.tracerFactory = tracerFactory;
+        this.operationType = type;
+        this.columnFamily = columnFamily;
+        this.pinnedHost = host;
     }
 
     public void setPinnedHost(Host host) {
@@ -55,6 +82,9 @@ public abstract class AbstractOperationImpl<R> implements Operation<Cassandra.Cl
 
     @Override
     public R execute(Cassandra.Client client, ConnectionContext state) throws ConnectionException {
+        CassandraOperationTracer tracer = (tracerFactory != null) 
+                ? tracerFactory.newTracer(operationType, columnFamily) 
+                : this.tracer;
         try {
             tracer.start();
             R result = internalExecute(client, state);
@@ -73,5 +103,15 @@ public abstract class AbstractOperationImpl<R> implements Operation<Cassandra.Cl
         return pinnedHost;
     }
 
+    @Override
+    public CassandraOperationType getOperationType() {
+        return operationType;
+    }
+
+    @Override
+    public boolean isStateless() {
+        return tracerFactory != null;
+    }
+
     protected abstract R internalExecute(Cassandra.Client client, ConnectionContext state) throws Exception;
 }
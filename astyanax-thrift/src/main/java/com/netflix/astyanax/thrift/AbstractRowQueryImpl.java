@@ -88,6 +88,12 @@ public abstract class AbstractRowQueryImpl<K, C> implements RowQuery<K, C> {
         return this;
     }
 
+    @Override
+    public RowQuery<K, C> withFetchSize(int fetchSize) {
+        // This is a no-op when using Thrift, the entire row is read
+        return this;
+    }
+
     @Override
     public RowQuery<K, C> withColumnRange(ByteBufferRange range) {
         predicate.setSlice_range(new SliceRange().setStart(range.getStart()).setFinish(range.getEnd())
@@ -42,6 +42,7 @@ import com.netflix.astyanax.model.ColumnFamily;
 import com.netflix.astyanax.model.ConsistencyLevel;
 import com.netflix.astyanax.retry.RetryPolicy;
 import com.netflix.astyanax.serializers.ByteBufferOutputStream;
+import com.netflix.astyanax.serializers.ByteBufferPool;
 
 /**
  * Basic implementation of a mutation batch using the thrift data structures.
@@ -224,7 +225,7 @@ public abstract class AbstractThriftMutationBatchImpl implements MutationBatch {
             throw new Exception("Mutation is empty");
         }
 
-        ByteBufferOutputStream out       = new ByteBufferOutputStream();
+        ByteBufferOutputStream out       = new ByteBufferOutputStream(ByteBufferPool.getDefault());
         TIOStreamTransport     transport = new TIOStreamTransport(out);
         batch_mutate_args      args      = new batch_mutate_args();
         args.setMutation_map(mutationMap);
@@ -72,7 +72,7 @@ public class ThriftAllRowsQueryImpl<K, C> implements AllRowsQuery<K, C> {
             try {
                 return keyspace.connectionPool.executeWithFailover(
                         new AbstractKeyspaceOperationImpl<List<org.apache.cassandra.thrift.KeySlice>>(
-                                keyspace.tracerFactory.newTracer(CassandraOperationType.GET_ROWS_RANGE, columnFamily),
+                                keyspace.tracerFactory, CassandraOperationType.GET_ROWS_RANGE, columnFamily,
                                 query.pinnedHost, keyspace.getKeyspaceName()) {
                             @Override
                             public List<org.apache.cassandra.thrift.KeySlice> internalExecute(Client client, ConnectionContext context)
@@ -202,9 +202,8 @@ public class ThriftAllRowsQueryImpl<K, C> implements AllRowsQuery<K, C> {
                     try {
                         // Get the next block
                         List<KeySlice> ks = keyspace.connectionPool.executeWithFailover(
-                                new AbstractKeyspaceOperationImpl<List<KeySlice>>(keyspace.tracerFactory
-                                        .newTracer(CassandraOperationType.GET_ROWS_RANGE,
-                                                columnFamily), query.pinnedHost, keyspace
+                                new AbstractKeyspaceOperationImpl<List<KeySlice>>(keyspace.tracerFactory,
+                                        CassandraOperationType.GET_ROWS_RANGE, columnFamily, query.pinnedHost, keyspace
                                         .getKeyspaceName()) {
                                     @Override
                                     public List<KeySlice> internalExecute(Client client, ConnectionContext context)
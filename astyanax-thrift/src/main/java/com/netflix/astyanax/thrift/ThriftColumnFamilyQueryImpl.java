@@ -32,12 +32,17 @@ import org.apache.cassandra.thrift.ColumnParent;
 import org.apache.cassandra.thrift.CounterSuperColumn;
 import org.apache.cassandra.thrift.KeyRange;
 import org.apache.cassandra.thrift.Mutation;
+import org.apache.cassandra.thrift.SlicePredicate;
 import org.apache.cassandra.thrift.SuperColumn;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
@@ -49,6 +54,8 @@ import com.netflix.astyanax.connectionpool.ConnectionPool;
 import com.netflix.astyanax.connectionpool.Host;
 import com.netflix.astyanax.connectionpool.OperationResult;
 import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
+import com.netflix.astyanax.connectionpool.impl.OperationResultImpl;
+import com.netflix.astyanax.connectionpool.impl.Topology;
 import com.netflix.astyanax.model.Column;
 import com.netflix.astyanax.model.ColumnFamily;
 import com.netflix.astyanax.model.ColumnList;
@@ -98,6 +105,8 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
     final ListeningExecutorService         executor;
     Host                                   pinnedHost;
     RetryPolicy                            retry;
+    boolean                                flyweight;
+    int                                    maxKeysPerQuery;
 
     public ThriftColumnFamilyQueryImpl(ExecutorService executor, KeyspaceTracerFactory tracerFactory,
             ThriftKeyspaceImpl keyspace, ConnectionPool<Cassandra.Client> cp, ColumnFamily<K, C> columnFamily,
@@ -123,7 +132,7 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
                     @Override
                     public OperationResult<Column<C>> execute() throws ConnectionException {
                         return connectionPool.executeWithFailover(new AbstractKeyspaceOperationImpl<Column<C>>(
-                                tracerFactory.newTracer(CassandraOperationType.GET_COLUMN, columnFamily), pinnedHost,
+                                tracerFactory, CassandraOperationType.GET_COLUMN, columnFamily, pinnedHost,
                                 keyspace.getKeyspaceName()) {
                             @Override
                             public Column<C> internalExecute(Client client, ConnectionContext context) throws Exception {
@@ -183,76 +192,90 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
 
             @Override
             public OperationResult<ColumnList<C>> execute() throws ConnectionException {
-                return connectionPool.executeWithFailover(
-                        new AbstractKeyspaceOperationImpl<ColumnList<C>>(tracerFactory.newTracer(
-                                CassandraOperationType.GET_ROW, columnFamily), pinnedHost, keyspace.getKeyspaceName()) {
+                return connectionPool.executeWithFailover(newGetRowOperation(), retry);
+            }
 
-                            @Override
-                            public ColumnList<C> execute(Client client, ConnectionContext context) throws ConnectionException {
-                                if (isPaginating && paginateNoMore) {
-                                    return new EmptyColumnList<C>();
-                                }
+            @Override
+            public ListenableFuture<OperationResult<ColumnList<C>>> executeAsync() throws ConnectionException {
+                return connectionPool.executeWithFailoverAsync(newGetRowOperation(), retry, executor);
+            }
 
-                                return super.execute(client, context);
-                            }
+            private AbstractKeyspaceOperationImpl<ColumnList<C>> newGetRowOperation() {
+                return new AbstractKeyspaceOperationImpl<ColumnList<C>>(tracerFactory,
+                        CassandraOperationType.GET_ROW, columnFamily, pinnedHost, keyspace.getKeyspaceName()) {
 
-                            @Override
-                            public ColumnList<C> internalExecute(Client client, ConnectionContext context) throws Exception {
-                                List<ColumnOrSuperColumn> columnList = client.get_slice(columnFamily.getKeySerializer()
-                                        .toByteBuffer(rowKey), new ColumnParent().setColumn_family(columnFamily
-                                        .getName()), predicate, ThriftConverter
-                                        .ToThriftConsistencyLevel(consistencyLevel));
+                    @Override
+                    public ColumnList<C> execute(Client client, ConnectionContext context) throws ConnectionException {
+                        if (isPaginating && paginateNoMore) {
+                            return new EmptyColumnList<C>();
+                        }
 
-                                // Special handling for pagination
-                                if (isPaginating && predicate.isSetSlice_range()) {
-                                    // Did we reach the end of the query.
-                                    if (columnList.size() != predicate.getSlice_range().getCount()) {
-                                        paginateNoMore = true;
-                                    }
+                        return super.execute(client, context);
+                    }
 
-                                    // If this is the first page then adjust the
-                                    // count so we fetch one extra column
-                                    // that will later be dropped
-                                    if (firstPage) {
-                                        firstPage = false;
-                                        if (predicate.getSlice_range().getCount() != Integer.MAX_VALUE)
-                                            predicate.getSlice_range().setCount(predicate.getSlice_range().getCount() + 1);
-                                    }
-                                    else {
-                                        if (!columnList.isEmpty())
-                                            columnList.remove(0);
-                                    }
+                    // Pagination moves the predicate to the next page on every execution
+                    @Override
+                    public boolean isStateless() {
+                        return !isPaginating && super.isStateless();
+                    }
 
-                                    // Set the start column for the next page to
-                                    // the last column of this page.
-                                    // We will discard this column later.
-                                    if (!columnList.isEmpty()) {
-                                        ColumnOrSuperColumn last = Iterables.getLast(columnList);
-                                        if (last.isSetColumn()) {
-                                            predicate.getSlice_range().setStart(last.getColumn().getName());
-                                        } else if (last.isSetCounter_column()) {
-                                            predicate.getSlice_range().setStart(last.getCounter_column().getName());
-                                        } else if (last.isSetSuper_column()) {
-                                            // TODO: Super columns
-                                            // should be deprecated
-                                            predicate.getSlice_range().setStart(last.getSuper_column().getName());
-                                        } else if (last.isSetCounter_super_column()) {
-                                            // TODO: Super columns
-                                            // should be deprecated
-                                            predicate.getSlice_range().setStart(last.getCounter_super_column().getName());
-                                        }
-                                    }
-                                }
-                                ColumnList<C> result = new ThriftColumnOrSuperColumnListImpl<C>(columnList,
-                                        columnFamily.getColumnSerializer());
-                                return result;
+                    @Override
+                    public ColumnList<C> internalExecute(Client client, ConnectionContext context) throws Exception {
+                        List<ColumnOrSuperColumn> columnList = client.get_slice(columnFamily.getKeySerializer()
+                                .toByteBuffer(rowKey), new ColumnParent().setColumn_family(columnFamily
+                                .getName()), predicate, ThriftConverter
+                                .ToThriftConsistencyLevel(consistencyLevel));
+
+                        // Special handling for pagination
+                        if (isPaginating && predicate.isSetSlice_range()) {
+                            // Did we reach the end of the query.
+                            if (columnList.size() != predicate.getSlice_range().getCount()) {
+                                paginateNoMore = true;
                             }
 
-                            @Override
-                            public ByteBuffer getRowKey() {
-                                return columnFamily.getKeySerializer().toByteBuffer(rowKey);
+                            // If this is the first page then adjust the
+                            // count so we fetch one extra column
+                            // that will later be dropped
+                            if (firstPage) {
+                                firstPage = false;
+                                if (predicate.getSlice_range().getCount() != Integer.MAX_VALUE)
+                                    predicate.getSlice_range().setCount(predicate.getSlice_range().getCount() + 1);
                             }
-                        }, retry);
+                            else {
+                                if (!columnList.isEmpty())
+                                    columnList.remove(0);
+                            }
+
+                            // Set the start column for the next page to
+                            // the last column of this page.
+                            // We will discard this column later.
+                            if (!columnList.isEmpty()) {
+                                ColumnOrSuperColumn last = Iterables.getLast(columnList);
+                                if (last.isSetColumn()) {
+                                    predicate.getSlice_range().setStart(last.getColumn().getName());
+                                } else if (last.isSetCounter_column()) {
+                                    predicate.getSlice_range().setStart(last.getCounter_column().getName());
+                                } else if (last.isSetSuper_column()) {
+                                    // TODO: Super columns
+                                    // should be deprecated
+                                    predicate.getSlice_range().setStart(last.getSuper_column().getName());
+                                } else if (last.isSetCounter_super_column()) {
+                                    // TODO: Super columns
+                                    // should be deprecated
+                                    predicate.getSlice_range().setStart(last.getCounter_super_column().getName());
+                                }
+                            }
+                        }
+                        ColumnList<C> result = new ThriftColumnOrSuperColumnListImpl<C>(columnList,
+                                columnFamily.getColumnSerializer(), flyweight);
+                        return result;
+                    }
+
+                    @Override
+                    public ByteBuffer getRowKey() {
+                        return columnFamily.getKeySerializer().toByteBuffer(rowKey);
+                    }
+                };
             }
 
             @Override
@@ -261,7 +284,7 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
                     @Override
                     public OperationResult<Integer> execute() throws ConnectionException {
                         return connectionPool.executeWithFailover(new AbstractKeyspaceOperationImpl<Integer>(
-                                tracerFactory.newTracer(CassandraOperationType.GET_COLUMN_COUNT, columnFamily),
+                                tracerFactory, CassandraOperationType.GET_COLUMN_COUNT, columnFamily,
                                 pinnedHost, keyspace.getKeyspaceName()) {
                             @Override
                             public Integer internalExecute(Client client, ConnectionContext context) throws Exception {
@@ -289,16 +312,6 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
                 };
             }
 
-            @Override
-            public ListenableFuture<OperationResult<ColumnList<C>>> executeAsync() throws ConnectionException {
-                return executor.submit(new Callable<OperationResult<ColumnList<C>>>() {
-                    @Override
-                    public OperationResult<ColumnList<C>> call() throws Exception {
-                        return execute();
-                    }
-                });
-            }
-
             @Override
             public RowCopier<K, C> copyTo(final ColumnFamily<K, C> otherColumnFamily, final K otherRowKey) {
                 return new RowCopier<K, C>() {
@@ -395,8 +408,8 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
             @Override
             public OperationResult<Rows<K, C>> execute() throws ConnectionException {
                 return connectionPool.executeWithFailover(
-                        new AbstractKeyspaceOperationImpl<Rows<K, C>>(tracerFactory.newTracer(
-                                CassandraOperationType.GET_ROWS_RANGE, columnFamily), pinnedHost, keyspace
+                        new AbstractKeyspaceOperationImpl<Rows<K, C>>(tracerFactory,
+                                CassandraOperationType.GET_ROWS_RANGE, columnFamily, pinnedHost, keyspace
                                 .getKeyspaceName()) {
                             @Override
                             public Rows<K, C> internalExecute(Client client, ConnectionContext context) throws Exception {
@@ -419,7 +432,7 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
                                 }
                                 else {
                                     return new ThriftRowsSliceImpl<K, C>(keySlices, columnFamily.getKeySerializer(),
-                                            columnFamily.getColumnSerializer());
+                                            columnFamily.getColumnSerializer(), flyweight);
                                 }
                             }
 
@@ -454,9 +467,12 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
         return new AbstractRowSliceQueryImpl<K, C>(columnFamily.getColumnSerializer()) {
             @Override
             public OperationResult<Rows<K, C>> execute() throws ConnectionException {
+                if (maxKeysPerQuery > 0) 
+                    return executeTokenAwareKeySlice(columnFamily.getKeySerializer().toBytesList(keys), predicate);
+                
                 return connectionPool.executeWithFailover(
-                        new AbstractKeyspaceOperationImpl<Rows<K, C>>(tracerFactory.newTracer(
-                                CassandraOperationType.GET_ROWS_SLICE, columnFamily), pinnedHost, keyspace
+                        new AbstractKeyspaceOperationImpl<Rows<K, C>>(tracerFactory,
+                                CassandraOperationType.GET_ROWS_SLICE, columnFamily, pinnedHost, keyspace
                                 .getKeyspaceName()) {
                             @Override
                             public Rows<K, C> internalExecute(Client client, ConnectionContext context) throws Exception {
@@ -469,7 +485,7 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
                                 }
                                 else {
                                     return new ThriftRowsListImpl<K, C>(cfmap, columnFamily.getKeySerializer(),
-                                            columnFamily.getColumnSerializer());
+                                            columnFamily.getColumnSerializer(), flyweight);
                                 }
                             }
                         }, retry);
@@ -477,6 +493,9 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
 
             @Override
             public ListenableFuture<OperationResult<Rows<K, C>>> executeAsync() throws ConnectionException {
+                if (maxKeysPerQuery > 0) 
+                    return executeTokenAwareKeySliceAsync(columnFamily.getKeySerializer().toBytesList(keys), predicate);
+                
                 return executor.submit(new Callable<OperationResult<Rows<K, C>>>() {
                     @Override
                     public OperationResult<Rows<K, C>> call() throws Exception {
@@ -491,8 +510,8 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
                     @Override
                     public OperationResult<Map<K, Integer>> execute() throws ConnectionException {
                         return connectionPool.executeWithFailover(
-                                new AbstractKeyspaceOperationImpl<Map<K, Integer>>(tracerFactory.newTracer(
-                                        CassandraOperationType.GET_ROWS_SLICE, columnFamily), pinnedHost, keyspace
+                                new AbstractKeyspaceOperationImpl<Map<K, Integer>>(tracerFactory,
+                                        CassandraOperationType.GET_ROWS_SLICE, columnFamily, pinnedHost, keyspace
                                         .getKeyspaceName()) {
                                     @Override
                                     public Map<K, Integer> internalExecute(Client client, ConnectionContext context) throws Exception {
@@ -535,9 +554,12 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
         return new AbstractRowSliceQueryImpl<K, C>(columnFamily.getColumnSerializer()) {
             @Override
             public OperationResult<Rows<K, C>> execute() throws ConnectionException {
+                if (maxKeysPerQuery > 0) 
+                    return executeTokenAwareKeySlice(columnFamily.getKeySerializer().toBytesList(keys), predicate);
+                
                 return connectionPool.executeWithFailover(
-                        new AbstractKeyspaceOperationImpl<Rows<K, C>>(tracerFactory.newTracer(
-                                CassandraOperationType.GET_ROWS_SLICE, columnFamily), pinnedHost, keyspace
+                        new AbstractKeyspaceOperationImpl<Rows<K, C>>(tracerFactory,
+                                CassandraOperationType.GET_ROWS_SLICE, columnFamily, pinnedHost, keyspace
                                 .getKeyspaceName()) {
                             @Override
                             public Rows<K, C> internalExecute(Client client, ConnectionContext context) throws Exception {
@@ -550,7 +572,7 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
                                 }
                                 else {
                                     return new ThriftRowsListImpl<K, C>(cfmap, columnFamily.getKeySerializer(),
-                                            columnFamily.getColumnSerializer());
+                                            columnFamily.getColumnSerializer(), flyweight);
                                 }
                             }
 
@@ -565,6 +587,9 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
 
             @Override
             public ListenableFuture<OperationResult<Rows<K, C>>> executeAsync() throws ConnectionException {
+                if (maxKeysPerQuery > 0) 
+                    return executeTokenAwareKeySliceAsync(columnFamily.getKeySerializer().toBytesList(keys), predicate);
+                
                 return executor.submit(new Callable<OperationResult<Rows<K, C>>>() {
                     @Override
                     public OperationResult<Rows<K, C>> call() throws Exception {
@@ -579,8 +604,8 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
                     @Override
                     public OperationResult<Map<K, Integer>> execute() throws ConnectionException {
                         return connectionPool.executeWithFailover(
-                                new AbstractKeyspaceOperationImpl<Map<K, Integer>>(tracerFactory.newTracer(
-                                        CassandraOperationType.GET_ROWS_SLICE, columnFamily), pinnedHost, keyspace
+                                new AbstractKeyspaceOperationImpl<Map<K, Integer>>(tracerFactory,
+                                        CassandraOperationType.GET_ROWS_SLICE, columnFamily, pinnedHost, keyspace
                                         .getKeyspaceName()) {
                                     @Override
                                     public Map<K, Integer> internalExecute(Client client, ConnectionContext context) throws Exception {
@@ -619,6 +644,98 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
         };
     }
 
+    /**
+     * Execute a key slice as one multiget per group of keys owned by the same replicas.  The groups
+     * run one after the other on the calling thread, which may itself be a thread of the query executor.
+     */
+    private OperationResult<Rows<K, C>> executeTokenAwareKeySlice(List<ByteBuffer> keys, SlicePredicate predicate) 
+            throws ConnectionException {
+        List<OperationResult<Map<ByteBuffer, List<ColumnOrSuperColumn>>>> results = Lists.newArrayList();
+        for (List<ByteBuffer> group : groupKeys(keys)) {
+            results.add(connectionPool.executeWithFailover(newMultigetSliceOperation(group, predicate), retry.duplicate()));
+        }
+        return mergeKeySlices(results);
+    }
+    
+    /**
+     * Execute a key slice as one multiget per group of keys owned by the same replicas without blocking
+     * a thread of the query executor.  The groups run concurrently and the first failure fails the query.
+     */
+    private ListenableFuture<OperationResult<Rows<K, C>>> executeTokenAwareKeySliceAsync(List<ByteBuffer> keys, 
+            SlicePredicate predicate) {
+        List<ListenableFuture<OperationResult<Map<ByteBuffer, List<ColumnOrSuperColumn>>>>> futures = Lists.newArrayList();
+        for (List<ByteBuffer> group : groupKeys(keys)) {
+            futures.add(connectionPool.executeWithFailoverAsync(newMultigetSliceOperation(group, predicate), retry.duplicate(), executor));
+        }
+        return Futures.transform(Futures.allAsList(futures), 
+                new Function<List<OperationResult<Map<ByteBuffer, List<ColumnOrSuperColumn>>>>, OperationResult<Rows<K, C>>>() {
+                    @Override
+                    public OperationResult<Rows<K, C>> apply(List<OperationResult<Map<ByteBuffer, List<ColumnOrSuperColumn>>>> results) {
+                        return mergeKeySlices(results);
+                    }
+                });
+    }
+    
+    /**
+     * @return the keys grouped by the replicas that own them, with no more than maxKeysPerQuery keys per group
+     */
+    private List<List<ByteBuffer>> groupKeys(List<ByteBuffer> keys) {
+        List<List<ByteBuffer>> groups = Lists.newArrayList();
+        Topology<Cassandra.Client> topology = connectionPool.getTopology();
+        if (topology == null) {
+            groups.addAll(Lists.partition(keys, maxKeysPerQuery));
+        }
+        else {
+            for (List<ByteBuffer> group : topology.groupByPartition(keys).values()) {
+                groups.addAll(Lists.partition(group, maxKeysPerQuery));
+            }
+        }
+        return groups;
+    }
+    
+    private OperationResult<Rows<K, C>> mergeKeySlices(List<OperationResult<Map<ByteBuffer, List<ColumnOrSuperColumn>>>> results) {
+        if (results.isEmpty()) {
+            return new OperationResultImpl<Rows<K, C>>(pinnedHost, new EmptyRowsImpl<K, C>(), 0);
+        }
+        
+        Map<ByteBuffer, List<ColumnOrSuperColumn>> cfmap = Maps.newLinkedHashMap();
+        long latency = 0;
+        int attempts = 0;
+        for (OperationResult<Map<ByteBuffer, List<ColumnOrSuperColumn>>> result : results) {
+            if (result.getResult() != null)
+                cfmap.putAll(result.getResult());
+            latency = Math.max(latency, result.getLatency());
+            attempts += result.getAttemptsCount();
+        }
+        
+        OperationResultImpl<Rows<K, C>> result = new OperationResultImpl<Rows<K, C>>(results.get(0).getHost(), 
+                cfmap.isEmpty() 
+                    ? new EmptyRowsImpl<K, C>() 
+                    : new ThriftRowsListImpl<K, C>(cfmap, columnFamily.getKeySerializer(), columnFamily.getColumnSerializer(), flyweight), 
+                latency);
+        result.setAttemptsCount(attempts);
+        return result;
+    }
+    
+    private AbstractKeyspaceOperationImpl<Map<ByteBuffer, List<ColumnOrSuperColumn>>> newMultigetSliceOperation(
+            final List<ByteBuffer> keys, final SlicePredicate predicate) {
+        return new AbstractKeyspaceOperationImpl<Map<ByteBuffer, List<ColumnOrSuperColumn>>>(tracerFactory,
+                CassandraOperationType.GET_ROWS_SLICE, columnFamily, pinnedHost, keyspace
+                .getKeyspaceName()) {
+            @Override
+            public Map<ByteBuffer, List<ColumnOrSuperColumn>> internalExecute(Client client, ConnectionContext context) throws Exception {
+                return client.multiget_slice(keys, new ColumnParent().setColumn_family(columnFamily.getName()), 
+                        predicate, ThriftConverter.ToThriftConsistencyLevel(consistencyLevel));
+            }
+
+            @Override
+            public ByteBuffer getRowKey() {
+                // All keys in the group are owned by the same replicas
+                return keys.get(0);
+            }
+        };
+    }
+
     @Override
     public ColumnFamilyQuery<K, C> setConsistencyLevel(ConsistencyLevel consistencyLevel) {
         this.consistencyLevel = consistencyLevel;
@@ -631,8 +748,8 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
             @Override
             public OperationResult<Rows<K, C>> execute() throws ConnectionException {
                 return connectionPool.executeWithFailover(
-                        new AbstractKeyspaceOperationImpl<Rows<K, C>>(tracerFactory.newTracer(
-                                CassandraOperationType.GET_ROWS_BY_INDEX, columnFamily), pinnedHost, keyspace
+                        new AbstractKeyspaceOperationImpl<Rows<K, C>>(tracerFactory,
+                                CassandraOperationType.GET_ROWS_BY_INDEX, columnFamily, pinnedHost, keyspace
                                 .getKeyspaceName()) {
                             @Override
                             public Rows<K, C> execute(Client client, ConnectionContext context) throws ConnectionException {
@@ -643,6 +760,11 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
                                 return super.execute(client, context);
                             }
 
+                            @Override
+                            public boolean isStateless() {
+                                return !isPaginating && super.isStateless();
+                            }
+
                             @Override
                             public Rows<K, C> internalExecute(Client client, ConnectionContext context) throws Exception {
                                 List<org.apache.cassandra.thrift.KeySlice> cfmap;
@@ -673,7 +795,7 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
                                         }
                                     }
                                     return new ThriftRowsSliceImpl<K, C>(cfmap, columnFamily.getKeySerializer(),
-                                            columnFamily.getColumnSerializer());
+                                            columnFamily.getColumnSerializer(), flyweight);
                                 }
                             }
                         }, retry);
@@ -713,6 +835,19 @@ public class ThriftColumnFamilyQueryImpl<K, C> implements ColumnFamilyQuery<K, C
         return this;
     }
 
+    @Override
+    public ColumnFamilyQuery<K, C> withFlyweightResults() {
+        this.flyweight = true;
+        return this;
+    }
+
+    @Override
+    public ColumnFamilyQuery<K, C> withTokenAwareKeySlice(int maxKeysPerQuery) {
+        Preconditions.checkArgument(maxKeysPerQuery > 0, "maxKeysPerQuery must be > 0");
+        this.maxKeysPerQuery = maxKeysPerQuery;
+        return this;
+    }
+
     @Override
     public RowQuery<K, C> getRow(K rowKey) {
         return getKey(rowKey);
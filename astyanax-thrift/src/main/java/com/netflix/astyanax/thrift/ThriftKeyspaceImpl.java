@@ -16,6 +16,7 @@
 package com.netflix.astyanax.thrift;
 
 import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -36,6 +37,8 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
@@ -63,6 +66,7 @@ import com.netflix.astyanax.connectionpool.exceptions.OperationException;
 import com.netflix.astyanax.connectionpool.exceptions.SchemaDisagreementException;
 import com.netflix.astyanax.connectionpool.impl.OperationResultImpl;
 import com.netflix.astyanax.connectionpool.impl.TokenRangeImpl;
+import com.netflix.astyanax.connectionpool.impl.Topology;
 import com.netflix.astyanax.cql.CqlStatement;
 import com.netflix.astyanax.ddl.ColumnFamilyDefinition;
 import com.netflix.astyanax.ddl.KeyspaceDefinition;
@@ -134,34 +138,7 @@ public final class ThriftKeyspaceImpl implements Keyspace {
                     walEntry.writeMutation(this);
                 }
                 try {
-                    OperationResult<Void> result = executeOperation(
-                            new AbstractKeyspaceOperationImpl<Void>(
-                                    tracerFactory.newTracer(useAtomicBatch() ? CassandraOperationType.ATOMIC_BATCH_MUTATE : CassandraOperationType.BATCH_MUTATE), 
-                                                            getPinnedHost(),
-                                                            getKeyspaceName()) {
-                                @Override
-                                public Void internalExecute(Client client, ConnectionContext context) throws Exception {
-                                    // Mutation can be atomic or non-atomic. 
-                                    // see http://www.datastax.com/dev/blog/atomic-batches-in-cassandra-1-2 for details on atomic batches
-                                    if (useAtomicBatch()) {
-                                        client.atomic_batch_mutate(getMutationMap(),
-                                                ThriftConverter.ToThriftConsistencyLevel(getConsistencyLevel()));
-                                    } else {
-                                        client.batch_mutate(getMutationMap(),
-                                                ThriftConverter.ToThriftConsistencyLevel(getConsistencyLevel()));
-                                    }
-                                    discardMutations();
-                                    return null;
-                                }
-
-                                @Override
-                                public ByteBuffer getRowKey() {
-                                    if (getMutationMap().size() == 1)
-                                        return getMutationMap().keySet().iterator().next();
-                                    else
-                                        return null;
-                                }
-                            }, getRetryPolicy());
+                    OperationResult<Void> result = executeOperation(newBatchMutateOperation(), getRetryPolicy());
 
                     if (walEntry != null) {
                         wal.removeEntry(walEntry);
@@ -178,12 +155,77 @@ public final class ThriftKeyspaceImpl implements Keyspace {
 
             @Override
             public ListenableFuture<OperationResult<Void>> executeAsync() throws ConnectionException {
-                return executor.submit(new Callable<OperationResult<Void>>() {
+                final WriteAheadLog wal = getWriteAheadLog();
+                final WriteAheadEntry walEntry;
+                if (wal != null) {
+                    walEntry = wal.createEntry();
+                    walEntry.writeMutation(this);
+                }
+                else {
+                    walEntry = null;
+                }
+
+                ListenableFuture<OperationResult<Void>> future = connectionPool.executeWithFailoverAsync(
+                        newBatchMutateOperation(), getRetryPolicy(), executor);
+                if (walEntry != null) {
+                    Futures.addCallback(future, new FutureCallback<OperationResult<Void>>() {
+                        @Override
+                        public void onSuccess(OperationResult<Void> result) {
+                            wal.removeEntry(walEntry);
+                        }
+
+                        @Override
+                        public void onFailure(Throwable t) {
+                        }
+                    });
+                }
+                return future;
+            }
+
+            /**
+             * A batch of several rows can still be routed by a token aware pool when all
+             * of its rows are owned by the same hosts, e.g. a coalesced batch
+             * 
+             * @return The first of the keys if all keys have the same replicas, or else null
+             */
+            private ByteBuffer getSharedReplicaKey(Collection<ByteBuffer> keys) {
+                if (keys.isEmpty())
+                    return null;
+                Topology<Cassandra.Client> topology = connectionPool.getTopology();
+                if (topology == null || topology.groupByPartition(keys).size() != 1)
+                    return null;
+                return keys.iterator().next();
+            }
+
+            private AbstractKeyspaceOperationImpl<Void> newBatchMutateOperation() {
+                return new AbstractKeyspaceOperationImpl<Void>(
+                        tracerFactory.newTracer(useAtomicBatch() ? CassandraOperationType.ATOMIC_BATCH_MUTATE : CassandraOperationType.BATCH_MUTATE), 
+                                                getPinnedHost(),
+                                                getKeyspaceName()) {
                     @Override
-                    public OperationResult<Void> call() throws Exception {
-                        return execute();
+                    public Void internalExecute(Client client, ConnectionContext context) throws Exception {
+                        // Mutation can be atomic or non-atomic. 
+                        // see http://www.datastax.com/dev/blog/atomic-batches-in-cassandra-1-2 for details on atomic batches
+                        if (useAtomicBatch()) {
+                            client.atomic_batch_mutate(getMutationMap(),
+                                    ThriftConverter.ToThriftConsistencyLevel(getConsistencyLevel()));
+                        } else {
+                            client.batch_mutate(getMutationMap(),
+                                    ThriftConverter.ToThriftConsistencyLevel(getConsistencyLevel()));
+                        }
+                        discardMutations();
+                        return null;
+                    }
+
+                    @Override
+                    public ByteBuffer getRowKey() {
+                        Map<ByteBuffer, ?> mutationMap = getMutationMap();
+                        if (mutationMap.size() == 1)
+                            return mutationMap.keySet().iterator().next();
+                        else
+                            return getSharedReplicaKey(mutationMap.keySet());
                     }
-                });
+                };
             }
 
 			@Override
@@ -15,6 +15,7 @@
  ******************************************************************************/
 package com.netflix.astyanax.thrift.model;
 
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.HashMap;
@@ -29,6 +30,11 @@ import com.netflix.astyanax.model.Column;
 /**
  * Wrapper for a simple list of columns where each column has a scalar value.
  * 
+ * In flyweight mode a single column instance is reused by each iterator, and another
+ * by getColumnByIndex and getColumnByName, so that scanning a wide row does not 
+ * allocate a column object per column.  A column returned in this mode is only valid 
+ * until the next call to the same iterator or lookup.
+ * 
  * @author elandau
  * 
  * @param <C>
@@ -37,22 +43,33 @@ public class ThriftColumnListImpl<C> extends AbstractColumnList<C> {
     private final List<org.apache.cassandra.thrift.Column> columns;
     private HashMap<C, org.apache.cassandra.thrift.Column> lookup;
     private final Serializer<C> colSer;
+    private final boolean flyweight;
+    private ThriftColumnNameIndex index;
+    private ThriftFlyweightColumnImpl<C> cursor;
 
     public ThriftColumnListImpl(List<org.apache.cassandra.thrift.Column> columns, Serializer<C> colSer) {
+        this(columns, colSer, false);
+    }
+
+    public ThriftColumnListImpl(List<org.apache.cassandra.thrift.Column> columns, Serializer<C> colSer, boolean flyweight) {
         Preconditions.checkArgument(columns != null, "Columns must not be null");
         Preconditions.checkArgument(colSer != null, "Serializer must not be null");
 
         this.colSer = colSer;
         this.columns = columns;
+        this.flyweight = flyweight;
     }
 
     @Override
     public Iterator<Column<C>> iterator() {
         class IteratorImpl implements Iterator<Column<C>> {
             Iterator<org.apache.cassandra.thrift.Column> base;
+            ThriftFlyweightColumnImpl<C> current;
 
             public IteratorImpl(Iterator<org.apache.cassandra.thrift.Column> base) {
                 this.base = base;
+                if (flyweight)
+                    this.current = new ThriftFlyweightColumnImpl<C>(colSer);
             }
 
             @Override
@@ -63,6 +80,8 @@ public class ThriftColumnListImpl<C> extends AbstractColumnList<C> {
             @Override
             public Column<C> next() {
                 org.apache.cassandra.thrift.Column c = base.next();
+                if (current != null)
+                    return current.setColumn(c, null);
                 return new ThriftColumnImpl<C>(colSer.fromBytes(c.getName()), c);
             }
 
@@ -76,14 +95,40 @@ public class ThriftColumnListImpl<C> extends AbstractColumnList<C> {
 
     @Override
     public Column<C> getColumnByName(C columnName) {
-        constructColumnMap();
-        org.apache.cassandra.thrift.Column c = lookup.get(columnName);
+        org.apache.cassandra.thrift.Column c;
+        if (lookup == null && columnName != null && isSearchable()) {
+            int idx = index.indexOf(colSer.toByteBuffer(columnName));
+            c = idx < 0 ? null : columns.get(idx);
+        }
+        else {
+            constructColumnMap();
+            c = lookup.get(columnName);
+        }
         if (c == null) {
             return null;
         }
-        return new ThriftColumnImpl<C>(colSer.fromBytes(c.getName()), c);
+        return wrap(c, columnName);
     }
     
+    private boolean isSearchable() {
+        if (index == null) {
+            if (!ThriftColumnNameIndex.isSupported(colSer))
+                return false;
+            index = new ThriftColumnNameIndex() {
+                @Override
+                protected int size() {
+                    return columns.size();
+                }
+
+                @Override
+                protected ByteBuffer getRawName(int idx) {
+                    return columns.get(idx).name;
+                }
+            };
+        }
+        return index.isSorted();
+    }
+
     private void constructColumnMap() {
         if (lookup == null) {
             lookup = Maps.newHashMap();;
@@ -93,10 +138,18 @@ public class ThriftColumnListImpl<C> extends AbstractColumnList<C> {
         }
     }
 
+    private Column<C> wrap(org.apache.cassandra.thrift.Column c, C name) {
+        if (flyweight) {
+            if (cursor == null)
+                cursor = new ThriftFlyweightColumnImpl<C>(colSer);
+            return cursor.setColumn(c, name);
+        }
+        return new ThriftColumnImpl<C>(name != null ? name : colSer.fromBytes(c.getName()), c);
+    }
+
     @Override
     public Column<C> getColumnByIndex(int idx) {
-        org.apache.cassandra.thrift.Column c = columns.get(idx);
-        return new ThriftColumnImpl<C>(colSer.fromBytes(c.getName()), c);
+        return wrap(columns.get(idx), null);
     }
 
     public C getNameByIndex(int idx) {
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.thrift.model;
+
+import java.nio.ByteBuffer;
+
+import com.netflix.astyanax.Serializer;
+import com.netflix.astyanax.serializers.AsciiSerializer;
+import com.netflix.astyanax.serializers.ByteBufferSerializer;
+import com.netflix.astyanax.serializers.BytesArraySerializer;
+import com.netflix.astyanax.serializers.IntegerSerializer;
+import com.netflix.astyanax.serializers.LongSerializer;
+import com.netflix.astyanax.serializers.StringSerializer;
+import com.netflix.astyanax.serializers.TimeUUIDSerializer;
+import com.netflix.astyanax.serializers.UUIDSerializer;
+
+/**
+ * Binary search over the raw names of a column slice.  Cassandra returns the columns of a slice
+ * sorted by the comparator, which for most simple types is also the unsigned byte order of the
+ * serialized names.  The order is verified once, without decoding any names, and lookups fall
+ * back to a map of decoded names when the list turns out not to be sorted by its raw bytes.
+ * 
+ * Only used for serializers where two equal names always have the same serialized form.
+ */
+abstract class ThriftColumnNameIndex {
+    private static final int UNKNOWN    = 0;
+    private static final int ASCENDING  = 1;
+    private static final int DESCENDING = -1;
+    private static final int UNSORTED   = 2;
+
+    private int order = UNKNOWN;
+
+    /**
+     * @return True if names serialized by this serializer can be searched by their raw bytes
+     */
+    static boolean isSupported(Serializer<?> ser) {
+        Class<?> type = ser.getClass();
+        return type == StringSerializer.class
+            || type == AsciiSerializer.class
+            || type == ByteBufferSerializer.class
+            || type == BytesArraySerializer.class
+            || type == LongSerializer.class
+            || type == IntegerSerializer.class
+            || type == UUIDSerializer.class
+            || type == TimeUUIDSerializer.class;
+    }
+
+    protected abstract int size();
+
+    /**
+     * @return Raw name of the column at idx.  Must not be modified.
+     */
+    protected abstract ByteBuffer getRawName(int idx);
+
+    /**
+     * @return True if the raw names are strictly ascending or strictly descending
+     */
+    boolean isSorted() {
+        if (order == UNKNOWN) {
+            order = computeOrder();
+        }
+        return order != UNSORTED;
+    }
+
+    /**
+     * @return Index of the column with this raw name or -1 if not found.  Only valid if isSorted()
+     */
+    int indexOf(ByteBuffer name) {
+        int low  = 0;
+        int high = size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareUnsigned(getRawName(mid), name) * order;
+            if (cmp < 0)
+                low = mid + 1;
+            else if (cmp > 0)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    private int computeOrder() {
+        int size = size();
+        if (size < 2)
+            return ASCENDING;
+
+        int direction = Integer.signum(compareUnsigned(getRawName(1), getRawName(0)));
+        if (direction == 0)
+            return UNSORTED;
+        for (int i = 2; i < size; i++) {
+            if (Integer.signum(compareUnsigned(getRawName(i), getRawName(i - 1))) != direction)
+                return UNSORTED;
+        }
+        return direction > 0 ? ASCENDING : DESCENDING;
+    }
+
+    static int compareUnsigned(ByteBuffer o1, ByteBuffer o2) {
+        int p1 = o1.position();
+        int p2 = o2.position();
+        int length = Math.min(o1.remaining(), o2.remaining());
+        for (int i = 0; i < length; i++) {
+            int a = o1.get(p1 + i) & 0xFF;
+            int b = o2.get(p2 + i) & 0xFF;
+            if (a != b)
+                return a - b;
+        }
+        return o1.remaining() - o2.remaining();
+    }
+}
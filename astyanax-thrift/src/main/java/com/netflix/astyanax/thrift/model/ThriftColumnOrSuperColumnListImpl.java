@@ -15,6 +15,7 @@
  ******************************************************************************/
 package com.netflix.astyanax.thrift.model;
 
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -35,30 +36,57 @@ import com.netflix.astyanax.model.Column;
  * List of columns that can be either a list of super columns or standard
  * columns.
  * 
+ * In flyweight mode standard and counter columns are returned through a single reused
+ * column instance per iterator, and another shared by getColumnByIndex and getColumnByName.
+ * A column returned in this mode is only valid until the next call to the same iterator 
+ * or lookup.
+ * 
  * @author elandau
  * 
  * @param <C>
  */
 public class ThriftColumnOrSuperColumnListImpl<C> extends AbstractColumnList<C> {
-    private final List<ColumnOrSuperColumn> columns;
+    private List<ColumnOrSuperColumn> columns;
     private Map<C, ColumnOrSuperColumn> lookup;
     private final Serializer<C> colSer;
+    private final boolean flyweight;
+    private ThriftColumnNameIndex index;
+    private ThriftFlyweightColumnImpl<C> cursor;
 
     public ThriftColumnOrSuperColumnListImpl(List<ColumnOrSuperColumn> columns, Serializer<C> colSer) {
+        this(columns, colSer, false);
+    }
+
+    public ThriftColumnOrSuperColumnListImpl(List<ColumnOrSuperColumn> columns, Serializer<C> colSer, boolean flyweight) {
         Preconditions.checkArgument(columns != null, "Columns must not be null");
         Preconditions.checkArgument(colSer != null, "Serializer must not be null");
 
         this.columns = columns;
         this.colSer = colSer;
+        this.flyweight = flyweight;
+    }
+
+    /**
+     * Point this list at the columns of another row.  Used by flyweight rows.
+     * @param columns
+     */
+    void reset(List<ColumnOrSuperColumn> columns) {
+        Preconditions.checkArgument(columns != null, "Columns must not be null");
+        this.columns = columns;
+        this.lookup = null;
+        this.index = null;
     }
 
     @Override
     public Iterator<Column<C>> iterator() {
         class IteratorImpl implements Iterator<Column<C>> {
             Iterator<ColumnOrSuperColumn> base;
+            ThriftFlyweightColumnImpl<C> current;
 
             public IteratorImpl(Iterator<ColumnOrSuperColumn> base) {
                 this.base = base;
+                if (flyweight)
+                    this.current = new ThriftFlyweightColumnImpl<C>(colSer);
             }
 
             @Override
@@ -75,6 +103,8 @@ public class ThriftColumnOrSuperColumnListImpl<C> extends AbstractColumnList<C>
                 }
                 else if (column.isSetCounter_column()) {
                     CounterColumn cc = column.getCounter_column();
+                    if (current != null)
+                        return current.setCounterColumn(cc, null);
                     return new ThriftCounterColumnImpl<C>(colSer.fromBytes(cc.getName()), cc);
                 }
                 else if (column.isSetCounter_super_column()) {
@@ -83,6 +113,8 @@ public class ThriftColumnOrSuperColumnListImpl<C> extends AbstractColumnList<C>
                 }
                 else if (column.isSetColumn()) {
                     org.apache.cassandra.thrift.Column c = column.getColumn();
+                    if (current != null)
+                        return current.setColumn(c, null);
                     return new ThriftColumnImpl<C>(colSer.fromBytes(c.getName()), c);
                 }
                 else {
@@ -105,9 +137,13 @@ public class ThriftColumnOrSuperColumnListImpl<C> extends AbstractColumnList<C>
             return null;
         }
         else if (column.isSetColumn()) {
+            if (flyweight)
+                return getCursor().setColumn(column.getColumn(), columnName);
             return new ThriftColumnImpl<C>(columnName, column.getColumn());
         }
         else if (column.isSetCounter_column()) {
+            if (flyweight)
+                return getCursor().setCounterColumn(column.getCounter_column(), columnName);
             return new ThriftCounterColumnImpl<C>(columnName, column.getCounter_column());
         }
         throw new UnsupportedOperationException("SuperColumn " + columnName + " has no value");
@@ -121,9 +157,13 @@ public class ThriftColumnOrSuperColumnListImpl<C> extends AbstractColumnList<C>
             return null;
         }
         else if (column.isSetColumn()) {
+            if (flyweight)
+                return getCursor().setColumn(column.getColumn(), null);
             return new ThriftColumnImpl<C>(this.colSer.fromBytes(column.getColumn().getName()), column.getColumn());
         }
         else if (column.isSetCounter_column()) {
+            if (flyweight)
+                return getCursor().setCounterColumn(column.getCounter_column(), null);
             return new ThriftCounterColumnImpl<C>(this.colSer.fromBytes(column.getCounter_column().getName()),
                     column.getCounter_column());
         }
@@ -185,10 +225,55 @@ public class ThriftColumnOrSuperColumnListImpl<C> extends AbstractColumnList<C>
         return sosc.isSetSuper_column() || sosc.isSetCounter_super_column();
     }
 
+    private ThriftFlyweightColumnImpl<C> getCursor() {
+        if (cursor == null)
+            cursor = new ThriftFlyweightColumnImpl<C>(colSer);
+        return cursor;
+    }
+
     private ColumnOrSuperColumn getColumn(C columnName) {
+        if (lookup == null && columnName != null && isSearchable()) {
+            int idx = index.indexOf(colSer.toByteBuffer(columnName));
+            return idx < 0 ? null : columns.get(idx);
+        }
         constructMap();
         return lookup.get(columnName);
     }
+
+    private boolean isSearchable() {
+        if (index == null) {
+            if (!ThriftColumnNameIndex.isSupported(colSer))
+                return false;
+            index = new ThriftColumnNameIndex() {
+                @Override
+                protected int size() {
+                    return columns.size();
+                }
+
+                @Override
+                protected ByteBuffer getRawName(int idx) {
+                    return getRawColumnName(columns.get(idx));
+                }
+            };
+        }
+        return index.isSorted();
+    }
+
+    private static ByteBuffer getRawColumnName(ColumnOrSuperColumn column) {
+        if (column.isSetColumn()) {
+            return column.getColumn().name;
+        }
+        else if (column.isSetCounter_column()) {
+            return column.getCounter_column().name;
+        }
+        else if (column.isSetSuper_column()) {
+            return column.getSuper_column().name;
+        }
+        else if (column.isSetCounter_super_column()) {
+            return column.getCounter_super_column().name;
+        }
+        throw new UnsupportedOperationException("Unknown column type");
+    }
     
     private void constructMap() {
         if (lookup == null) {
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.thrift.model;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.UUID;
+
+import org.apache.cassandra.thrift.CounterColumn;
+
+import com.netflix.astyanax.Serializer;
+import com.netflix.astyanax.model.Column;
+import com.netflix.astyanax.model.ColumnList;
+import com.netflix.astyanax.serializers.BooleanSerializer;
+import com.netflix.astyanax.serializers.ByteBufferSerializer;
+import com.netflix.astyanax.serializers.ByteSerializer;
+import com.netflix.astyanax.serializers.BytesArraySerializer;
+import com.netflix.astyanax.serializers.DateSerializer;
+import com.netflix.astyanax.serializers.DoubleSerializer;
+import com.netflix.astyanax.serializers.FloatSerializer;
+import com.netflix.astyanax.serializers.IntegerSerializer;
+import com.netflix.astyanax.serializers.LongSerializer;
+import com.netflix.astyanax.serializers.ShortSerializer;
+import com.netflix.astyanax.serializers.StringSerializer;
+import com.netflix.astyanax.serializers.UUIDSerializer;
+
+/**
+ * Mutable column that is pointed at a different thrift column each time a flyweight column
+ * list moves its cursor.  The name is only decoded when asked for.
+ * 
+ * Instances must not be kept past the next call to the iterator or lookup that returned them.
+ * 
+ * @param <C>
+ */
+public class ThriftFlyweightColumnImpl<C> implements Column<C> {
+    private final Serializer<C> colSer;
+    private org.apache.cassandra.thrift.Column column;
+    private CounterColumn counterColumn;
+    private C name;
+
+    public ThriftFlyweightColumnImpl(Serializer<C> colSer) {
+        this.colSer = colSer;
+    }
+
+    ThriftFlyweightColumnImpl<C> setColumn(org.apache.cassandra.thrift.Column column, C name) {
+        this.column = column;
+        this.counterColumn = null;
+        this.name = name;
+        return this;
+    }
+
+    ThriftFlyweightColumnImpl<C> setCounterColumn(CounterColumn counterColumn, C name) {
+        this.column = null;
+        this.counterColumn = counterColumn;
+        this.name = name;
+        return this;
+    }
+
+    @Override
+    public C getName() {
+        if (name == null) {
+            name = colSer.fromBytes(column != null ? column.getName() : counterColumn.getName());
+        }
+        return name;
+    }
+
+    @Override
+    public ByteBuffer getRawName() {
+        return ByteBuffer.wrap(column != null ? column.getName() : counterColumn.getName());
+    }
+
+    @Override
+    public long getTimestamp() {
+        if (column == null)
+            throw new UnsupportedOperationException("CounterColumn \'" + getName() + "\' has no timestamp");
+        return column.getTimestamp();
+    }
+
+    @Override
+    public <V> V getValue(Serializer<V> valSer) {
+        if (column == null)
+            throw new UnsupportedOperationException("CounterColumn \'" + getName()
+                    + "\' has no generic value. Call getLongValue().");
+        return valSer.fromBytes(column.getValue());
+    }
+
+    @Override
+    public String getStringValue() {
+        return getValue(StringSerializer.get());
+    }
+
+    @Override
+    public String getCompressedStringValue() {
+        throw new UnsupportedOperationException("getCompressedString not yet implemented");
+    }
+
+    @Override
+    public byte getByteValue() {
+        return getValue(ByteSerializer.get());
+    }
+
+    @Override
+    public short getShortValue() {
+        return getValue(ShortSerializer.get());
+    }
+
+    @Override
+    public int getIntegerValue() {
+        return getValue(IntegerSerializer.get());
+    }
+
+    @Override
+    public float getFloatValue() {
+        return getValue(FloatSerializer.get());
+    }
+
+    @Override
+    public double getDoubleValue() {
+        return getValue(DoubleSerializer.get());
+    }
+
+    @Override
+    public long getLongValue() {
+        if (column == null)
+            return counterColumn.getValue();
+        return getValue(LongSerializer.get());
+    }
+
+    @Override
+    public byte[] getByteArrayValue() {
+        return getValue(BytesArraySerializer.get());
+    }
+
+    @Override
+    public boolean getBooleanValue() {
+        return getValue(BooleanSerializer.get());
+    }
+
+    @Override
+    public ByteBuffer getByteBufferValue() {
+        return getValue(ByteBufferSerializer.get());
+    }
+
+    @Override
+    public Date getDateValue() {
+        return getValue(DateSerializer.get());
+    }
+
+    @Override
+    public UUID getUUIDValue() {
+        return getValue(UUIDSerializer.get());
+    }
+
+    @Override
+    public <C2> ColumnList<C2> getSubColumns(Serializer<C2> ser) {
+        throw new UnsupportedOperationException("SimpleColumn \'" + getName() + "\' has no children");
+    }
+
+    @Override
+    public boolean isParentColumn() {
+        return false;
+    }
+
+    @Override
+    public int getTtl() {
+        if (column == null)
+            return 0;
+        return column.isSetTtl() ? column.getTtl() : 0;
+    }
+
+    @Override
+    public boolean hasValue() {
+        if (column == null)
+            return true;
+        return column.value != null && column.value.remaining() != 0;
+    }
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright 2011 Netflix
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.netflix.astyanax.thrift.model;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.apache.cassandra.thrift.ColumnOrSuperColumn;
+
+import com.netflix.astyanax.Serializer;
+import com.netflix.astyanax.model.ColumnList;
+import com.netflix.astyanax.model.Row;
+
+/**
+ * Mutable row that is pointed at a different row of a thrift response each time a flyweight
+ * rows list moves its cursor.  The key is only decoded when asked for and the column list,
+ * itself in flyweight mode, is reused from row to row.
+ * 
+ * Instances must not be kept past the next call to the iterator or lookup that returned them.
+ * 
+ * @param <K>
+ * @param <C>
+ */
+public class ThriftFlyweightRowImpl<K, C> implements Row<K, C> {
+    private final Serializer<K> keySer;
+    private final Serializer<C> colSer;
+    private ThriftColumnOrSuperColumnListImpl<C> columns;
+    private ByteBuffer rawKey;
+    private K key;
+
+    public ThriftFlyweightRowImpl(Serializer<K> keySer, Serializer<C> colSer) {
+        this.keySer = keySer;
+        this.colSer = colSer;
+    }
+
+    ThriftFlyweightRowImpl<K, C> set(K key, ByteBuffer rawKey, List<ColumnOrSuperColumn> columns) {
+        this.key    = key;
+        this.rawKey = rawKey;
+        if (this.columns == null)
+            this.columns = new ThriftColumnOrSuperColumnListImpl<C>(columns, colSer, true);
+        else
+            this.columns.reset(columns);
+        return this;
+    }
+
+    @Override
+    public K getKey() {
+        if (key == null) {
+            key = keySer.fromByteBuffer(rawKey.duplicate());
+        }
+        return key;
+    }
+
+    @Override
+    public ColumnList<C> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public ByteBuffer getRawKey() {
+        return rawKey;
+    }
+}
@@ -16,6 +16,7 @@
 package com.netflix.astyanax.thrift.model;
 
 import java.nio.ByteBuffer;
+import java.util.AbstractList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -30,11 +31,39 @@ import com.netflix.astyanax.Serializer;
 import com.netflix.astyanax.model.Row;
 import com.netflix.astyanax.model.Rows;
 
+/**
+ * Wrapper for a multiget response.
+ * 
+ * In flyweight mode rows are not materialized.  Each iterator reuses a single row instance,
+ * and another is shared by getRow and getRowByIndex.  A row returned in this mode, and its
+ * columns, are only valid until the next call to the same iterator or lookup.
+ * 
+ * @param <K>
+ * @param <C>
+ */
 public class ThriftRowsListImpl<K, C> implements Rows<K, C> {
     private List<Row<K, C>>   rows;
     private Map<K, Row<K, C>> lookup;
 
+    private Map<ByteBuffer, List<ColumnOrSuperColumn>>         rawRows;
+    private List<Entry<ByteBuffer, List<ColumnOrSuperColumn>>> entries;
+    private Serializer<K>                                      keySer;
+    private Serializer<C>                                      colSer;
+    private ThriftFlyweightRowImpl<K, C>                       cursor;
+
     public ThriftRowsListImpl(Map<ByteBuffer, List<ColumnOrSuperColumn>> rows, Serializer<K> keySer, Serializer<C> colSer) {
+        this(rows, keySer, colSer, false);
+    }
+
+    public ThriftRowsListImpl(Map<ByteBuffer, List<ColumnOrSuperColumn>> rows, Serializer<K> keySer, Serializer<C> colSer, boolean flyweight) {
+        if (flyweight) {
+            this.rawRows = rows;
+            this.entries = Lists.newArrayList(rows.entrySet());
+            this.keySer  = keySer;
+            this.colSer  = colSer;
+            return;
+        }
+
         this.rows   = Lists.newArrayListWithCapacity(rows.size());
         this.lookup = Maps.newLinkedHashMap();
         
@@ -51,32 +80,83 @@ public class ThriftRowsListImpl<K, C> implements Rows<K, C> {
 
     @Override
     public Iterator<Row<K, C>> iterator() {
-        return rows.iterator();
+        if (rows != null)
+            return rows.iterator();
+
+        return new Iterator<Row<K, C>>() {
+            private final Iterator<Entry<ByteBuffer, List<ColumnOrSuperColumn>>> base = entries.iterator();
+            private final ThriftFlyweightRowImpl<K, C> current = new ThriftFlyweightRowImpl<K, C>(keySer, colSer);
+
+            @Override
+            public boolean hasNext() {
+                return base.hasNext();
+            }
+
+            @Override
+            public Row<K, C> next() {
+                Entry<ByteBuffer, List<ColumnOrSuperColumn>> entry = base.next();
+                return current.set(null, entry.getKey(), entry.getValue());
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Iterator is immutable");
+            }
+        };
     }
 
     @Override
     public Row<K, C> getRow(K key) {
-        return lookup.get(key);
+        if (lookup != null)
+            return lookup.get(key);
+
+        ByteBuffer rawKey = keySer.toByteBuffer(key);
+        List<ColumnOrSuperColumn> columns = rawRows.get(rawKey);
+        if (columns == null)
+            return null;
+        return getCursor().set(key, rawKey, columns);
     }
 
     @Override
     public int size() {
-        return rows.size();
+        return rows != null ? rows.size() : entries.size();
     }
 
     @Override
     public boolean isEmpty() {
-        return rows.isEmpty();
+        return size() == 0;
     }
 
     @Override
     public Row<K, C> getRowByIndex(int i) {
-        return rows.get(i);
+        if (rows != null)
+            return rows.get(i);
+
+        Entry<ByteBuffer, List<ColumnOrSuperColumn>> entry = entries.get(i);
+        return getCursor().set(null, entry.getKey(), entry.getValue());
     }
 
     @Override
     public Collection<K> getKeys() {
-        return lookup.keySet();
+        if (lookup != null)
+            return lookup.keySet();
+
+        return new AbstractList<K>() {
+            @Override
+            public K get(int index) {
+                return keySer.fromByteBuffer(entries.get(index).getKey().duplicate());
+            }
+
+            @Override
+            public int size() {
+                return entries.size();
+            }
+        };
     }
 
+    private ThriftFlyweightRowImpl<K, C> getCursor() {
+        if (cursor == null)
+            cursor = new ThriftFlyweightRowImpl<K, C>(keySer, colSer);
+        return cursor;
+    }
 }
@@ -16,6 +16,7 @@
 package com.netflix.astyanax.thrift.model;
 
 import java.nio.ByteBuffer;
+import java.util.AbstractList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -35,6 +36,10 @@ import com.netflix.astyanax.model.Rows;
  * 
  * Will lazily create a lookup by key
  * 
+ * In flyweight mode rows are not materialized.  Each iterator reuses a single row instance,
+ * and another is shared by getRow and getRowByIndex.  A row returned in this mode, and its
+ * columns, are only valid until the next call to the same iterator or lookup.
+ * 
  * @author elandau
  *
  * @param <K>
@@ -45,7 +50,24 @@ public class ThriftRowsSliceImpl<K, C> implements Rows<K, C> {
     private List<Row<K,C>>   rows;
     private Map<K, Row<K,C>> lookup;
 
+    private List<KeySlice>               slices;
+    private Map<ByteBuffer, KeySlice>    rawLookup;
+    private Serializer<K>                keySer;
+    private Serializer<C>                colSer;
+    private ThriftFlyweightRowImpl<K, C> cursor;
+
     public ThriftRowsSliceImpl(List<KeySlice> rows, Serializer<K> keySer, Serializer<C> colSer) {
+        this(rows, keySer, colSer, false);
+    }
+
+    public ThriftRowsSliceImpl(List<KeySlice> rows, Serializer<K> keySer, Serializer<C> colSer, boolean flyweight) {
+        if (flyweight) {
+            this.slices = rows;
+            this.keySer = keySer;
+            this.colSer = colSer;
+            return;
+        }
+
         this.rows   = Lists.newArrayListWithCapacity(rows.size());
         
         for (KeySlice row : rows) {
@@ -59,32 +81,86 @@ public class ThriftRowsSliceImpl<K, C> implements Rows<K, C> {
 
     @Override
     public Iterator<Row<K, C>> iterator() {
-        return rows.iterator();
+        if (rows != null)
+            return rows.iterator();
+
+        return new Iterator<Row<K, C>>() {
+            private final Iterator<KeySlice> base = slices.iterator();
+            private final ThriftFlyweightRowImpl<K, C> current = new ThriftFlyweightRowImpl<K, C>(keySer, colSer);
+
+            @Override
+            public boolean hasNext() {
+                return base.hasNext();
+            }
+
+            @Override
+            public Row<K, C> next() {
+                KeySlice slice = base.next();
+                return current.set(null, slice.key, slice.getColumns());
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Iterator is immutable");
+            }
+        };
     }
 
     @Override
     public Row<K, C> getRow(K key) {
+        if (rows == null) {
+            if (rawLookup == null) {
+                rawLookup = Maps.newHashMapWithExpectedSize(slices.size());
+                for (KeySlice slice : slices) {
+                    rawLookup.put(slice.key, slice);
+                }
+            }
+            ByteBuffer rawKey = keySer.toByteBuffer(key);
+            KeySlice slice = rawLookup.get(rawKey);
+            if (slice == null)
+                return null;
+            return getCursor().set(key, slice.key, slice.getColumns());
+        }
+
         lazyBuildLookup();
         return lookup.get(key);
     }
 
     @Override
     public int size() {
-        return rows.size();
+        return rows != null ? rows.size() : slices.size();
     }
 
     @Override
     public boolean isEmpty() {
-        return rows.isEmpty();
+        return size() == 0;
     }
 
     @Override
     public Row<K, C> getRowByIndex(int index) {
-        return rows.get(index);
+        if (rows != null)
+            return rows.get(index);
+
+        KeySlice slice = slices.get(index);
+        return getCursor().set(null, slice.key, slice.getColumns());
     }
 
     @Override
     public Collection<K> getKeys() {
+        if (rows == null) {
+            return new AbstractList<K>() {
+                @Override
+                public K get(int index) {
+                    return keySer.fromByteBuffer(slices.get(index).key.duplicate());
+                }
+
+                @Override
+                public int size() {
+                    return slices.size();
+                }
+            };
+        }
+
         return Lists.transform(rows, new Function<Row<K,C>, K>() {
             @Override
             public K apply(Row<K, C> row) {
@@ -93,6 +169,12 @@ public class ThriftRowsSliceImpl<K, C> implements Rows<K, C> {
         });
     }
     
+    private ThriftFlyweightRowImpl<K, C> getCursor() {
+        if (cursor == null)
+            cursor = new ThriftFlyweightRowImpl<K, C>(keySer, colSer);
+        return cursor;
+    }
+
     private void lazyBuildLookup() {
         if (lookup == null) {
             this.lookup = Maps.newHashMap();